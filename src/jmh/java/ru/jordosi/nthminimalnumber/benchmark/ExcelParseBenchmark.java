@@ -0,0 +1,135 @@
+package ru.jordosi.nthminimalnumber.benchmark;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.select.DistinctBitmap;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing throughput of {@link ExcelService} on generated workbooks.
+ * <p>
+ * A sheet holds at most 1 048 576 rows, so larger workbooks are split into sheets of
+ * {@value #ROWS_PER_SHEET} rows that are all read with one {@link ColumnSelection}.
+ * Workbooks are generated once per size into {@code java.io.tmpdir/nth-min-jmh} (or
+ * {@code -Djmh.workbooks=...}) and reused by later runs. The service has no column cache,
+ * so every invocation parses the file.
+ * </p>
+ * <p>
+ * {@link #parseDom()} is the baseline: the former reader, which loads the whole workbook into
+ * an {@link XSSFWorkbook} and boxes every value. It needs several times the heap of the
+ * streaming reader and may run out of memory on the largest sizes.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExcelParseBenchmark {
+    static final int ROWS_PER_SHEET = 1_000_000;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    int rows;
+
+    private final ExcelService excelService = new ExcelService();
+    private String path;
+    private ColumnSelection selection;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path directory = Path.of(System.getProperty("jmh.workbooks",
+                Path.of(System.getProperty("java.io.tmpdir"), "nth-min-jmh").toString()));
+        Path file = directory.resolve("rows-" + rows + ".xlsx");
+        int sheets = (rows + ROWS_PER_SHEET - 1) / ROWS_PER_SHEET;
+        if (!Files.exists(file)) {
+            Files.createDirectories(directory);
+            createWorkbook(file, rows, sheets);
+        }
+        path = file.toString();
+        selection = ColumnSelection.of(sheetNames(sheets), List.of("A"));
+    }
+
+    @Benchmark
+    public int[] parse() throws IOException {
+        return excelService.findIntNumbersFromExcel(path, selection);
+    }
+
+    @Benchmark
+    public DistinctBitmap parseDistinct() throws IOException {
+        return excelService.findDistinctNumbersFromExcel(path, selection);
+    }
+
+    @Benchmark
+    public Integer[] parseDom() throws IOException {
+        List<Integer> numbers = new ArrayList<>();
+        try (FileInputStream fis = new FileInputStream(path);
+             Workbook workbook = new XSSFWorkbook(fis)) {
+            for (String name : sheetNames(workbook.getNumberOfSheets())) {
+                for (Row row : workbook.getSheet(name)) {
+                    Cell cell = row.getCell(0);
+                    if (cell != null && cell.getCellType() == CellType.NUMERIC) {
+                        numbers.add((int) cell.getNumericCellValue());
+                    }
+                }
+            }
+        }
+        return numbers.toArray(new Integer[0]);
+    }
+
+    private static List<String> sheetNames(int sheets) {
+        List<String> names = new ArrayList<>(sheets);
+        for (int i = 1; i <= sheets; i++) {
+            names.add("Data" + i);
+        }
+        return names;
+    }
+
+    private static void createWorkbook(Path file, int rows, int sheets) throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+        Random random = new Random(42);
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000)) {
+            int remaining = rows;
+            for (String name : sheetNames(sheets)) {
+                Sheet sheet = workbook.createSheet(name);
+                int sheetRows = Math.min(remaining, ROWS_PER_SHEET);
+                for (int i = 0; i < sheetRows; i++) {
+                    sheet.createRow(i).createCell(0).setCellValue(random.nextInt());
+                }
+                remaining -= sheetRows;
+            }
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                workbook.write(out);
+            }
+            workbook.dispose();
+        }
+        Files.move(partial, file);
+    }
+}
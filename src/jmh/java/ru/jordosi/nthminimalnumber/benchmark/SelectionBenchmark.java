@@ -0,0 +1,99 @@
+package ru.jordosi.nthminimalnumber.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.jordosi.nthminimalnumber.service.QuickSelectService;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selection of the median with {@link QuickSelectService} for every sequential strategy
+ * on several input shapes.
+ * <p>
+ * Each invocation restores the input from a pristine copy before selecting, so the copy
+ * is part of the measured time for every strategy alike. {@code lomuto} is left out of the
+ * default matrix: it is quadratic on sorted and adversarial input and would dominate the run;
+ * add it with {@code -p strategy=lomuto}. {@code adversarial} is Musser's median-of-3 killer
+ * sequence.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SelectionBenchmark {
+
+    @Param({"adaptive", "intro", "three-way", "radix"})
+    String strategy;
+
+    @Param({"random", "sorted", "reverse", "fewDistinct", "adversarial"})
+    String shape;
+
+    @Param({"100000", "10000000"})
+    int size;
+
+    private QuickSelectService quickSelectService;
+    private int[] source;
+    private int[] work;
+
+    @Setup
+    public void setUp() {
+        quickSelectService = new QuickSelectService(strategy, 0, 0);
+        source = generate(shape, size);
+        work = new int[size];
+    }
+
+    @Benchmark
+    public int selectMedian() {
+        System.arraycopy(source, 0, work, 0, size);
+        return quickSelectService.quickSelect(work, 0, size - 1, size / 2);
+    }
+
+    static int[] generate(String shape, int size) {
+        if (shape.equals("adversarial")) {
+            return medianOfThreeKiller(size);
+        }
+        Random random = new Random(7);
+        int[] data = new int[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = switch (shape) {
+                case "sorted" -> i;
+                case "reverse" -> size - i;
+                case "fewDistinct" -> random.nextInt(8);
+                default -> random.nextInt();
+            };
+        }
+        return data;
+    }
+
+    /**
+     * Musser's sequence that drives median-of-3 partitioning into its quadratic case.
+     */
+    private static int[] medianOfThreeKiller(int size) {
+        int[] data = new int[size];
+        int half = size / 2;
+        for (int i = 1; i <= half; i++) {
+            if (i % 2 == 1) {
+                data[i - 1] = i;
+                data[i] = half + i;
+            }
+            data[half + i - 1] = 2 * i;
+        }
+        if (size % 2 == 1) {
+            data[size - 1] = size;
+        }
+        return data;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.jordosi.nthminimalnumber.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.jordosi.nthminimalnumber.service.cache.ColumnCache;
+
+@RestController
+@Tag(name="Cache Controller", description = "Statistics and maintenance of the parsed column cache")
+public class CacheController {
+    private final ColumnCache columnCache;
+
+    public CacheController(ColumnCache columnCache) {
+        this.columnCache = columnCache;
+    }
+
+    @GetMapping("/cache/stats")
+    @Operation(summary="Get cache statistics", description="Returns entry count, used and maximum bytes, " +
+            "hit, miss and eviction counters of the parsed column cache")
+    public ResponseEntity<ColumnCache.Stats> getStats() {
+        return ResponseEntity.ok(columnCache.stats());
+    }
+
+    @DeleteMapping("/cache")
+    @Operation(summary="Clear cache", description="Drops every cached column")
+    public ResponseEntity<Void> clear() {
+        columnCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.jordosi.nthminimalnumber.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import ru.jordosi.nthminimalnumber.dto.FindNumberRequest;
+import ru.jordosi.nthminimalnumber.service.job.JobPhase;
+import ru.jordosi.nthminimalnumber.service.job.JobResult;
+import ru.jordosi.nthminimalnumber.service.job.JobService;
+import ru.jordosi.nthminimalnumber.service.job.JobStatus;
+
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@Tag(name="Job Controller", description = "Asynchronous N-th minimal number search for very large XLSX files")
+public class JobController {
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @PostMapping("/jobs/find-nth-min")
+    @Operation(summary="Submit N-th minimal number search", description="Accepts a path to the local XLSX file " +
+            "and N number, queues the search and returns the job status with its id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job queued"),
+            @ApiResponse(responseCode = "400", description = "Wrong request parameters"),
+            @ApiResponse(responseCode = "503", description = "Job queue is full")
+    })
+    public ResponseEntity<?> submit(@RequestBody FindNumberRequest request) {
+        try {
+            JobStatus status = jobService.submit(request.getPath(), request.getN() == null ? 0 : request.getN());
+            return ResponseEntity.accepted().location(URI.create("/jobs/" + status.id())).body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Argument recognition error: " + e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    @Operation(summary="Get job status", description="Returns phase, parsed rows, declared rows and ETA of the parse")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job found"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired job")
+    })
+    public ResponseEntity<?> status(@PathVariable String id) {
+        JobStatus status = jobService.status(id);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/jobs/{id}/result")
+    @Operation(summary="Get job result", description="Returns N-th minimal number and stats (N, total amount " +
+            "of numbers) of a finished job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job finished successfully"),
+            @ApiResponse(responseCode = "400", description = "Job failed, e.g. the file does not contain proper data"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired job"),
+            @ApiResponse(responseCode = "409", description = "Job is still running or was cancelled")
+    })
+    public ResponseEntity<?> result(@PathVariable String id) {
+        JobStatus status = jobService.status(id);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        JobResult result = jobService.result(id);
+        if (result != null) {
+            return ResponseEntity.ok(result);
+        }
+        if (status.phase() == JobPhase.FAILED) {
+            return ResponseEntity.badRequest().body("Job failed: " + status.error());
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(status.phase() == JobPhase.CANCELLED
+                ? "Job was cancelled"
+                : "Job is not finished yet");
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    @Operation(summary="Cancel job", description="Stops a queued or running job; the parse stops at its next progress check")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Cancellation requested"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired job")
+    })
+    public ResponseEntity<?> cancel(@PathVariable String id) {
+        JobStatus status = jobService.cancel(id);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.accepted().body(status);
+    }
+}
@@ -4,36 +4,104 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.jordosi.nthminimalnumber.dto.FindNumberInFilesRequest;
 import ru.jordosi.nthminimalnumber.dto.FindNumberRequest;
+import ru.jordosi.nthminimalnumber.dto.FindNumbersBatchRequest;
+import ru.jordosi.nthminimalnumber.dto.FindRankRangeRequest;
+import ru.jordosi.nthminimalnumber.dto.FindRankRequest;
 import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.ExternalSelectService;
 import ru.jordosi.nthminimalnumber.service.QuickSelectService;
+import ru.jordosi.nthminimalnumber.service.WorkbookSetService;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionRejectedException;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionService;
+import ru.jordosi.nthminimalnumber.service.cache.CachedColumn;
+import ru.jordosi.nthminimalnumber.service.cache.QuantileSketchService;
+import ru.jordosi.nthminimalnumber.service.cache.SidecarIndex;
+import ru.jordosi.nthminimalnumber.service.cache.SidecarIndexService;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics.Phase;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnType;
+import ru.jordosi.nthminimalnumber.service.reader.TypedColumn;
+import ru.jordosi.nthminimalnumber.service.select.DistinctBitmap;
+import ru.jordosi.nthminimalnumber.service.select.HeapNthSelector;
+import ru.jordosi.nthminimalnumber.service.select.KllSketch;
+import ru.jordosi.nthminimalnumber.service.upload.UploadService;
+import ru.jordosi.nthminimalnumber.service.upload.UploadTooLargeException;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @Tag(name="N-th Minimal Number Controller", description = "API for searching Nth minimal number in XLSX files")
 public class NthMinimalNumberController {
+    private static final String NTH_MIN = "find-nth-min";
+    private static final String UNIQUE = "find-nth-min/unique";
+    private static final String BATCH = "find-nth-min/batch";
+    private static final String FILES = "find-nth-min/files";
+    private static final String UPLOAD = "find-nth-min/upload";
+    private static final String RANK = "find-nth-min/rank";
+    private static final String RANGE = "find-nth-min/range";
+
     private final ExcelService excelService;
     private final QuickSelectService quickSelectService;
+    private final SidecarIndexService sidecarIndexService;
+    private final WorkbookSetService workbookSetService;
+    private final AdmissionService admissionService;
+    private final UploadService uploadService;
+    private final QuantileSketchService quantileSketchService;
+    private final ExternalSelectService externalSelectService;
+    private final NthMinMetrics metrics;
+    private final int maxHeapSize;
+    private final int maxRangeSize;
 
-    public NthMinimalNumberController(ExcelService excelService, QuickSelectService quickSelectService) {
+    public NthMinimalNumberController(ExcelService excelService, QuickSelectService quickSelectService,
+                                      SidecarIndexService sidecarIndexService, WorkbookSetService workbookSetService,
+                                      AdmissionService admissionService, UploadService uploadService,
+                                      QuantileSketchService quantileSketchService,
+                                      ExternalSelectService externalSelectService, NthMinMetrics metrics,
+                                      @Value("${nth-min.streaming.max-heap-size:4096}") int maxHeapSize,
+                                      @Value("${nth-min.rank.max-range-size:100000}") int maxRangeSize) {
         this.excelService = excelService;
         this.quickSelectService = quickSelectService;
+        this.sidecarIndexService = sidecarIndexService;
+        this.workbookSetService = workbookSetService;
+        this.admissionService = admissionService;
+        this.uploadService = uploadService;
+        this.quantileSketchService = quantileSketchService;
+        this.externalSelectService = externalSelectService;
+        this.metrics = metrics;
+        this.maxHeapSize = maxHeapSize;
+        this.maxRangeSize = maxRangeSize;
     }
 
     @GetMapping("/find-nth-min")
     @Operation(summary="Find N-th minimal number", description="Accepts a path to the local XLSX file" +
-            "and N number, returns N-th minimal number and stats (N, total amount of numbers)")
+            "and N number, returns N-th minimal number and stats (N, total amount of numbers). With approximate=true " +
+            "the value is estimated from a persisted quantile sketch and the rank error bound is returned as well")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful search"),
             @ApiResponse(responseCode = "400", description = "Wrong request parameters or file does not contain proper data"),
-            @ApiResponse(responseCode = "500", description = "Internal server error")
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Memory budget for parsing is exhausted, retry after the given delay")
     })
     public ResponseEntity<?> getNthMinimalNumber(@RequestBody FindNumberRequest request) {
         try {
@@ -41,24 +109,109 @@ public class NthMinimalNumberController {
                 return ResponseEntity.badRequest().body("N must be greater than or equal to 1");
             }
 
-            Integer[] numbers = excelService.findNumbersFromExcel(request.getPath());
+            // Sidecar indexes and heap mode cover the plain first column; other selections are combined in memory
+            ColumnSelection selection = ColumnSelection.of(request.getSheets(), request.getColumns());
+            ColumnType requestedType = ColumnType.of(request.getType());
+            if (Boolean.TRUE.equals(request.getApproximate())) {
+                if (!selection.isFirstColumn()) {
+                    return ResponseEntity.badRequest().body("Approximate search reads the first column of the first sheet only");
+                }
+                if (requestedType != null && requestedType != ColumnType.INT) {
+                    return ResponseEntity.badRequest().body("Approximate search reads int columns only");
+                }
+                long bytesRead = bytesRead(List.of(Path.of(request.getPath())));
+                KllSketch sketch = quantileSketchService.sketch(Path.of(request.getPath()));
+                return approximateResponse(NTH_MIN, bytesRead, sketch, request.getN(), Map.of());
+            }
 
-            if (request.getN() > numbers.length) {
-                return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+            // Columns holding decimals or values beyond the int range are read and selected as longs or doubles;
+            // they are cached like int columns, but have no sidecar index, heap mode or out-of-core selection
+            ColumnType type = requestedType != null ? requestedType : columnType(request.getPath(), selection);
+            if (type == ColumnType.LONG || type == ColumnType.DOUBLE) {
+                boolean read = !excelService.isCached(request.getPath(), selection, requestedType);
+                TypedColumn column = admissionService.parse(request.getPath(), selection, requestedType,
+                        () -> excelService.findTypedNumbersFromExcel(request.getPath(), selection, requestedType));
+                return typedResponse(request.getPath(), read, request.getN(), column);
             }
+            if (!selection.isFirstColumn()) {
+                boolean read = !excelService.isCached(request.getPath(), selection);
+                int[] numbers = admissionService.parse(request.getPath(), selection,
+                        () -> excelService.findIntNumbersFromExcel(request.getPath(), selection));
 
-            Integer result = quickSelectService.findNthMinimalNumber(numbers, request.getN());
-            Map<String, Object> response = new HashMap<>();
-            response.put("n", request.getN());
-            response.put("result", result);
-            response.put("totalNumbers", numbers.length);
+                if (request.getN() > numbers.length) {
+                    return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+                }
+                int result = metrics.timer(Phase.SELECT)
+                        .record(() -> quickSelectService.findNthMinimalNumber(numbers, request.getN()));
+                metrics.recordRequest(NTH_MIN, request.getPath(), read, numbers.length);
+                return ResponseEntity.ok(buildResponse(request.getN(), result, numbers.length));
+            }
 
-            return ResponseEntity.ok(response);
+            SidecarIndex index = sidecarIndexService.find(request.getPath());
+            if (index != null) {
+                if (request.getN() > index.count()) {
+                    return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+                }
+                int result = metrics.timer(Phase.SELECT).record(() -> index.nthMinimal(request.getN()));
+                metrics.recordRequest(NTH_MIN, request.getPath(), false, index.count());
+                return ResponseEntity.ok(buildResponse(request.getN(), result, index.count()));
+            }
+
+            // Columns too large for the cache are selected while parsing when N is near either end;
+            // no sidecar is built for them, as that would hold and sort the whole column
+            boolean read = !excelService.isCached(request.getPath());
+            if (read) {
+                int rowCountHint = excelService.getRowCountHint(request.getPath());
+                if (!excelService.fitsCache(rowCountHint)
+                        && HeapNthSelector.isPreferred(request.getN(), rowCountHint, maxHeapSize)) {
+                    HeapNthSelector selector = new HeapNthSelector(request.getN(), rowCountHint);
+                    int total = excelService.streamNumbersFromExcel(request.getPath(), selector);
+
+                    if (request.getN() > total) {
+                        return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+                    }
+                    if (selector.hasResult()) {
+                        metrics.recordRequest(NTH_MIN, request.getPath(), true, total);
+                        return ResponseEntity.ok(buildResponse(request.getN(), selector.result(), total));
+                    }
+                }
+
+                // Columns whose in-memory parse would exceed the heap budget are spilled to disk instead;
+                // the spill buffers and the loaded bucket are still taken from the admission budget
+                if (externalSelectService.isPreferred(
+                        admissionService.estimateBytes(request.getPath(), ColumnSelection.FIRST_COLUMN))) {
+                    ExternalSelectService.Result result = admissionService.reserve(externalSelectService.heapBudget(),
+                            () -> externalSelectService.findNthMinimalNumber(request.getPath(), request.getN()));
+                    metrics.recordRequest(NTH_MIN, request.getPath(), true, result.totalNumbers());
+                    return ResponseEntity.ok(buildResponse(request.getN(), result.value(), result.totalNumbers()));
+                }
+            }
+
+            // The column stays readable off-heap until this request is done with it, even if the cache drops it
+            try (CachedColumn column = admissionService.parse(request.getPath(),
+                    () -> excelService.acquireColumn(request.getPath()))) {
+                if (request.getN() > column.length()) {
+                    return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+                }
+
+                int result = metrics.timer(Phase.SELECT)
+                        .record(() -> quickSelectService.findNthMinimalNumber(column, request.getN()));
+                scheduleIndex(request.getPath());
+                metrics.recordRequest(NTH_MIN, request.getPath(), read, column.length());
+
+                return ResponseEntity.ok(buildResponse(request.getN(), result, column.length()));
+            }
+        } catch (AdmissionRejectedException e) {
+            metrics.recordError(NTH_MIN, e);
+            return serviceUnavailable(e);
         } catch (IOException e) {
+            metrics.recordError(NTH_MIN, e);
             return ResponseEntity.badRequest().body("Input error: " + e.getMessage());
         } catch (IllegalArgumentException e) {
+            metrics.recordError(NTH_MIN, e);
             return ResponseEntity.badRequest().body("Argument recognition error: " + e.getMessage());
         } catch (Exception e){
+            metrics.recordError(NTH_MIN, e);
             return ResponseEntity.internalServerError().body("Unexpected error: " + e.getMessage());
         }
     }
@@ -69,7 +222,8 @@ public class NthMinimalNumberController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful search"),
             @ApiResponse(responseCode = "400", description = "Wrong request parameters or file does not contain proper data"),
-            @ApiResponse(responseCode = "500", description = "Internal server error")
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Memory budget for parsing is exhausted, retry after the given delay")
     })
     public ResponseEntity<?> getMinimalUniqueNumbers(@RequestBody FindNumberRequest request) {
         try {
@@ -77,25 +231,444 @@ public class NthMinimalNumberController {
                 return ResponseEntity.badRequest().body("N must be greater than or equal to 1");
             }
 
-            Integer[] numbers = excelService.findUniqueNumbersFromExcel(request.getPath());
+            if (Boolean.TRUE.equals(request.getApproximate())) {
+                return ResponseEntity.badRequest().body("Approximate search is not supported for unique numbers");
+            }
+            ColumnSelection selection = ColumnSelection.of(request.getSheets(), request.getColumns());
+            ColumnType requestedType = ColumnType.of(request.getType());
+            ColumnType type = requestedType != null ? requestedType : columnType(request.getPath(), selection);
+            if (type != ColumnType.INT) {
+                return ResponseEntity.badRequest().body("Unique search reads int columns only");
+            }
+
+            if (!selection.isFirstColumn()) {
+                boolean read = !excelService.isCached(request.getPath(), selection);
+                DistinctBitmap distinct = admissionService.parse(request.getPath(), selection,
+                        () -> excelService.findDistinctNumbersFromExcel(request.getPath(), selection));
+
+                if (request.getN() > distinct.cardinality()) {
+                    return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+                }
+                int result = metrics.timer(Phase.SELECT).record(() -> distinct.select(request.getN() - 1));
+                metrics.recordRequest(UNIQUE, request.getPath(), read, distinct.cardinality());
+                return ResponseEntity.ok(buildResponse(request.getN(), result, distinct.cardinality()));
+            }
+
+            SidecarIndex index = sidecarIndexService.find(request.getPath());
+            if (index != null) {
+                if (request.getN() > index.distinctCount()) {
+                    return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+                }
+                int result = metrics.timer(Phase.SELECT).record(() -> index.nthMinimalUnique(request.getN()));
+                metrics.recordRequest(UNIQUE, request.getPath(), false, index.distinctCount());
+                return ResponseEntity.ok(buildResponse(request.getN(), result, index.distinctCount()));
+            }
+
+            boolean read = !excelService.isCached(request.getPath());
+            DistinctBitmap distinct = admissionService.parse(request.getPath(),
+                    () -> excelService.findDistinctNumbersFromExcel(request.getPath()));
+
+            if (request.getN() > distinct.cardinality()) {
+                return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+            }
+
+            int result = metrics.timer(Phase.SELECT).record(() -> distinct.select(request.getN() - 1));
+            scheduleIndex(request.getPath());
+            metrics.recordRequest(UNIQUE, request.getPath(), read, distinct.cardinality());
+
+            return ResponseEntity.ok(buildResponse(request.getN(), result, distinct.cardinality()));
+        } catch (AdmissionRejectedException e) {
+            metrics.recordError(UNIQUE, e);
+            return serviceUnavailable(e);
+        } catch (IOException e) {
+            metrics.recordError(UNIQUE, e);
+            return ResponseEntity.badRequest().body("Input error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            metrics.recordError(UNIQUE, e);
+            return ResponseEntity.badRequest().body("Argument recognition error: " + e.getMessage());
+        } catch (Exception e){
+            metrics.recordError(UNIQUE, e);
+            return ResponseEntity.internalServerError().body("Unexpected error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/find-nth-min/batch")
+    @Operation(summary="Find several N-th minimal numbers", description="Accepts a path to the local XLSX file " +
+            "and a list of N numbers and/or percentiles, parses the file once and returns every requested value")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful search"),
+            @ApiResponse(responseCode = "400", description = "Wrong request parameters or file does not contain proper data"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Memory budget for parsing is exhausted, retry after the given delay")
+    })
+    public ResponseEntity<?> getNthMinimalNumbers(@RequestBody FindNumbersBatchRequest request) {
+        try {
+            List<Integer> ns = request.getN() == null ? List.of() : request.getN();
+            List<Double> percentiles = request.getPercentiles() == null ? List.of() : request.getPercentiles();
+            if (ns.isEmpty() && percentiles.isEmpty()) {
+                return ResponseEntity.badRequest().body("At least one N or percentile must be specified");
+            }
+            if (ns.stream().anyMatch(n -> n == null || n < 1)) {
+                return ResponseEntity.badRequest().body("N must be greater than or equal to 1");
+            }
+            if (columnType(request.getPath(), ColumnSelection.FIRST_COLUMN) != ColumnType.INT) {
+                return ResponseEntity.badRequest().body("Batch search reads int columns only");
+            }
+
+            SidecarIndex index = sidecarIndexService.find(request.getPath());
+            boolean read = index == null && !excelService.isCached(request.getPath());
+            int[] numbers = index == null
+                    ? admissionService.parse(request.getPath(), () -> excelService.findIntNumbersFromExcel(request.getPath()))
+                    : null;
+            int total = index == null ? numbers.length : index.count();
 
-            if (request.getN() > numbers.length) {
+            int[] ranks = new int[ns.size() + percentiles.size()];
+            for (int i = 0; i < ns.size(); i++) {
+                ranks[i] = ns.get(i);
+            }
+            for (int i = 0; i < percentiles.size(); i++) {
+                ranks[ns.size() + i] = QuickSelectService.percentileRank(percentiles.get(i), total);
+            }
+            if (Arrays.stream(ranks).anyMatch(rank -> rank > total)) {
                 return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
             }
 
-            Integer result = quickSelectService.findNthMinimalUniqueNumber(numbers, request.getN());
+            int[] values;
+            if (index != null) {
+                values = metrics.timer(Phase.SELECT).record(() -> Arrays.stream(ranks).map(index::nthMinimal).toArray());
+            } else {
+                values = metrics.timer(Phase.SELECT).record(() -> quickSelectService.findNthMinimalNumbers(numbers, ranks));
+                scheduleIndex(request.getPath());
+            }
+            metrics.recordRequest(BATCH, request.getPath(), read, total);
+
+            List<Map<String, Object>> results = new ArrayList<>(ranks.length);
+            for (int i = 0; i < ranks.length; i++) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                if (i >= ns.size()) {
+                    result.put("percentile", percentiles.get(i - ns.size()));
+                }
+                result.put("n", ranks[i]);
+                result.put("result", values[i]);
+                results.add(result);
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", results);
+            response.put("totalNumbers", total);
+
+            return ResponseEntity.ok(response);
+        } catch (AdmissionRejectedException e) {
+            metrics.recordError(BATCH, e);
+            return serviceUnavailable(e);
+        } catch (IOException e) {
+            metrics.recordError(BATCH, e);
+            return ResponseEntity.badRequest().body("Input error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            metrics.recordError(BATCH, e);
+            return ResponseEntity.badRequest().body("Argument recognition error: " + e.getMessage());
+        } catch (Exception e){
+            metrics.recordError(BATCH, e);
+            return ResponseEntity.internalServerError().body("Unexpected error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/find-nth-min/files")
+    @Operation(summary="Find N-th minimal number over several files", description="Accepts a local directory, " +
+            "a glob selecting XLSX files in it and N number, returns N-th minimal number over all selected files " +
+            "and stats (N, total amount of numbers, amount of files). With approximate=true the per-file quantile " +
+            "sketches are merged and the rank error bound is returned as well")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful search"),
+            @ApiResponse(responseCode = "400", description = "Wrong request parameters or files do not contain proper data"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getNthMinimalNumberInFiles(@RequestBody FindNumberInFilesRequest request) {
+        try {
+            if (request.getN() < 1) {
+                return ResponseEntity.badRequest().body("N must be greater than or equal to 1");
+            }
+
+            List<Path> workbooks = workbookSetService.findWorkbooks(request.getDirectory(), request.getPattern());
+            if (Boolean.TRUE.equals(request.getApproximate())) {
+                long bytesRead = bytesRead(workbooks);
+                KllSketch sketch = quantileSketchService.sketch(workbooks);
+                return approximateResponse(FILES, bytesRead, sketch, request.getN(), Map.of("files", workbooks.size()));
+            }
+
+            WorkbookSetService.Result result = workbookSetService.findNthMinimalNumber(workbooks, request.getN());
+            metrics.recordRequest(FILES, workbooks.stream().mapToLong(NthMinMetrics::sizeOf).sum(), result.totalNumbers());
+
             Map<String, Object> response = new HashMap<>();
             response.put("n", request.getN());
-            response.put("result", result);
-            response.put("totalNumbers", numbers.length);
+            response.put("result", result.value());
+            response.put("totalNumbers", result.totalNumbers());
+            response.put("files", result.files());
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            metrics.recordError(FILES, e);
+            return ResponseEntity.badRequest().body("Input error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            metrics.recordError(FILES, e);
+            return ResponseEntity.badRequest().body("Argument recognition error: " + e.getMessage());
+        } catch (Exception e){
+            metrics.recordError(FILES, e);
+            return ResponseEntity.internalServerError().body("Unexpected error: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/find-nth-min/rank")
+    @Operation(summary="Find the rank of a value", description="Accepts a path to the local file and a value X, " +
+            "returns the 1-based rank of X (if it occurs), the amount of numbers below and equal to X and the total " +
+            "amount of numbers. Answered from the sorted sidecar index, which is built on the first query")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful search"),
+            @ApiResponse(responseCode = "400", description = "Wrong request parameters or file does not contain proper data"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Memory budget for parsing is exhausted, retry after the given delay")
+    })
+    public ResponseEntity<?> getRank(@RequestBody FindRankRequest request) {
+        try {
+            if (request.getValue() == null) {
+                return ResponseEntity.badRequest().body("Value must be specified");
+            }
+            if (columnType(request.getPath(), ColumnSelection.FIRST_COLUMN) != ColumnType.INT) {
+                return ResponseEntity.badRequest().body("Rank queries read int columns only");
+            }
+
+            boolean read = isUnindexed(request.getPath());
+            SidecarIndex index = orderStatistics(request.getPath());
+            int value = request.getValue();
+            int[] counts = metrics.timer(Phase.SELECT)
+                    .record(() -> new int[]{index.countBelow(value), index.countAtMost(value)});
+            metrics.recordRequest(RANK, request.getPath(), read, index.count());
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("value", value);
+            if (counts[1] > counts[0]) {
+                response.put("rank", counts[0] + 1);
+            }
+            response.put("countBelow", counts[0]);
+            response.put("countEqual", counts[1] - counts[0]);
+            response.put("totalNumbers", index.count());
+            return ResponseEntity.ok(response);
+        } catch (AdmissionRejectedException e) {
+            metrics.recordError(RANK, e);
+            return serviceUnavailable(e);
+        } catch (IOException e) {
+            metrics.recordError(RANK, e);
+            return ResponseEntity.badRequest().body("Input error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            metrics.recordError(RANK, e);
+            return ResponseEntity.badRequest().body("Argument recognition error: " + e.getMessage());
+        } catch (Exception e){
+            metrics.recordError(RANK, e);
+            return ResponseEntity.internalServerError().body("Unexpected error: " + e.getMessage());
+        }
+    }
 
+    @GetMapping("/find-nth-min/range")
+    @Operation(summary="Find the numbers between two ranks", description="Accepts a path to the local file and " +
+            "two 1-based ranks, returns the numbers of every rank between them (inclusive) in ascending order and " +
+            "the total amount of numbers. Answered from the sorted sidecar index, which is built on the first query")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful search"),
+            @ApiResponse(responseCode = "400", description = "Wrong request parameters or file does not contain proper data"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Memory budget for parsing is exhausted, retry after the given delay")
+    })
+    public ResponseEntity<?> getRankRange(@RequestBody FindRankRangeRequest request) {
+        try {
+            if (request.getFrom() == null || request.getTo() == null) {
+                return ResponseEntity.badRequest().body("Both ranks must be specified");
+            }
+            int from = request.getFrom();
+            int to = request.getTo();
+            if (from < 1 || to < from) {
+                return ResponseEntity.badRequest().body("Ranks must satisfy 1 <= from <= to");
+            }
+            if ((long) to - from + 1 > maxRangeSize) {
+                return ResponseEntity.badRequest().body("Range must contain at most " + maxRangeSize + " numbers");
+            }
+            if (columnType(request.getPath(), ColumnSelection.FIRST_COLUMN) != ColumnType.INT) {
+                return ResponseEntity.badRequest().body("Rank queries read int columns only");
+            }
+
+            boolean read = isUnindexed(request.getPath());
+            SidecarIndex index = orderStatistics(request.getPath());
+            if (to > index.count()) {
+                return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+            }
+            int[] values = metrics.timer(Phase.SELECT).record(() -> index.range(from, to));
+            metrics.recordRequest(RANGE, request.getPath(), read, index.count());
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("from", from);
+            response.put("to", to);
+            response.put("values", values);
+            response.put("totalNumbers", index.count());
             return ResponseEntity.ok(response);
+        } catch (AdmissionRejectedException e) {
+            metrics.recordError(RANGE, e);
+            return serviceUnavailable(e);
         } catch (IOException e) {
+            metrics.recordError(RANGE, e);
             return ResponseEntity.badRequest().body("Input error: " + e.getMessage());
         } catch (IllegalArgumentException e) {
+            metrics.recordError(RANGE, e);
             return ResponseEntity.badRequest().body("Argument recognition error: " + e.getMessage());
         } catch (Exception e){
+            metrics.recordError(RANGE, e);
             return ResponseEntity.internalServerError().body("Unexpected error: " + e.getMessage());
         }
     }
+
+    @PostMapping(value = "/find-nth-min/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary="Find N-th minimal number in an uploaded file", description="Accepts a multipart/form-data " +
+            "request with an XLSX, CSV, TSV or raw int32 file part and N as a query parameter; the file is parsed " +
+            "while it is received and never stored. Returns N-th minimal number of the first column and stats " +
+            "(N, total amount of numbers)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful search"),
+            @ApiResponse(responseCode = "400", description = "Wrong request parameters or file does not contain proper data"),
+            @ApiResponse(responseCode = "413", description = "Upload or one of its workbook entries exceeds the configured size limit"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Memory budget for parsing is exhausted, retry after the given delay")
+    })
+    public ResponseEntity<?> getNthMinimalNumberInUpload(@RequestParam("n") int n, HttpServletRequest request) {
+        try {
+            if (n < 1) {
+                return ResponseEntity.badRequest().body("N must be greater than or equal to 1");
+            }
+
+            int[] numbers = uploadService.readNumbers(request);
+
+            if (n > numbers.length) {
+                return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+            }
+            int result = metrics.timer(Phase.SELECT).record(() -> quickSelectService.findNthMinimalNumber(numbers, n));
+            metrics.recordRequest(UPLOAD, Math.max(0, request.getContentLengthLong()), numbers.length);
+
+            return ResponseEntity.ok(buildResponse(n, result, numbers.length));
+        } catch (AdmissionRejectedException e) {
+            metrics.recordError(UPLOAD, e);
+            return serviceUnavailable(e);
+        } catch (UploadTooLargeException e) {
+            metrics.recordError(UPLOAD, e);
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Input error: " + e.getMessage());
+        } catch (IOException e) {
+            metrics.recordError(UPLOAD, e);
+            return ResponseEntity.badRequest().body("Input error: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            metrics.recordError(UPLOAD, e);
+            return ResponseEntity.badRequest().body("Argument recognition error: " + e.getMessage());
+        } catch (Exception e){
+            metrics.recordError(UPLOAD, e);
+            return ResponseEntity.internalServerError().body("Unexpected error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Index of the first column of a file, parsed through admission control and sorted once
+     * if the file has no sidecar yet.
+     */
+    private SidecarIndex orderStatistics(String path) throws IOException {
+        return sidecarIndexService.findOrBuild(path,
+                () -> admissionService.parse(path, () -> excelService.acquireColumn(path)));
+    }
+
+    /**
+     * Type of the selected values. Sidecar indexes are only built for int columns, so a first
+     * column that has one is not sampled again, e.g. after a restart.
+     */
+    private ColumnType columnType(String path, ColumnSelection selection) throws IOException {
+        if (selection.isFirstColumn() && sidecarIndexService.find(path) != null) {
+            return ColumnType.INT;
+        }
+        return excelService.inferType(path, selection);
+    }
+
+    /**
+     * Schedules the sidecar index of a file whose first column holds ints. A column read as ints
+     * on request but holding decimals or longs gets none, as later requests would take the
+     * index for an int column and answer with the truncated values.
+     */
+    private void scheduleIndex(String path) throws IOException {
+        if (excelService.inferType(path, ColumnSelection.FIRST_COLUMN) == ColumnType.INT) {
+            sidecarIndexService.scheduleBuild(path);
+        }
+    }
+
+    /**
+     * Tells whether {@link #orderStatistics(String)} will read the file: it has neither an
+     * index nor a cached column.
+     */
+    private boolean isUnindexed(String path) throws IOException {
+        return sidecarIndexService.find(path) == null && !excelService.isCached(path);
+    }
+
+    /**
+     * Total size of the files whose sketches are not built yet, so answering reads them.
+     */
+    private long bytesRead(List<Path> files) {
+        return files.stream()
+                .filter(file -> !quantileSketchService.isSketched(file))
+                .mapToLong(NthMinMetrics::sizeOf)
+                .sum();
+    }
+
+    private ResponseEntity<?> serviceUnavailable(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    /**
+     * Answers from a sketch: the estimated value with the bound of its rank error, both in
+     * number of values and relative to the total.
+     */
+    private ResponseEntity<?> approximateResponse(String endpoint, long bytes, KllSketch sketch, int n,
+                                                  Map<String, Object> extra) throws IOException {
+        if (sketch.count() == 0) {
+            throw new IOException("No numeric data found in the first column of the Excel file");
+        }
+        if (n > sketch.count()) {
+            return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+        }
+        int result = metrics.timer(Phase.SELECT).record(() -> sketch.nthMinimal(n));
+        metrics.recordRequest(endpoint, bytes, sketch.count());
+
+        Map<String, Object> response = new HashMap<>(extra);
+        response.put("n", n);
+        response.put("result", result);
+        response.put("totalNumbers", sketch.count());
+        response.put("approximate", true);
+        response.put("rankError", sketch.rankError());
+        response.put("normalizedRankError", sketch.normalizedRankError());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Selects from a long or double column; the response names the type of the result.
+     */
+    private ResponseEntity<?> typedResponse(String path, boolean read, int n, TypedColumn column) {
+        if (n > column.length()) {
+            return ResponseEntity.badRequest().body("N must be less than or equal to numbers amount");
+        }
+        Number result = metrics.timer(Phase.SELECT).record(() -> column.type() == ColumnType.LONG
+                ? (Number) quickSelectService.findNthMinimalNumber(column.longs(), n)
+                : (Number) quickSelectService.findNthMinimalNumber(column.doubles(), n));
+        metrics.recordRequest(NTH_MIN, path, read, column.length());
+
+        Map<String, Object> response = buildResponse(n, result, column.length());
+        response.put("type", column.type().tag());
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> buildResponse(int n, Number result, long totalNumbers) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("n", n);
+        response.put("result", result);
+        response.put("totalNumbers", totalNumbers);
+        return response;
+    }
 }
@@ -0,0 +1,68 @@
+package ru.jordosi.nthminimalnumber.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/** Request body for a set of files
+ * <p>
+ * Contains a local directory, a glob selecting the .xlsx files in it and value N
+ * representing the position of the minimum number to find over all selected files.
+ * </p>
+ *
+ */
+@Schema(description = "Request for N-th minimal number search over several files")
+public class FindNumberInFilesRequest {
+    /**
+     * Absolute path to the directory containing the Excel files
+     */
+    @Schema(description = "Absolute path to the directory", example = "C:/data/daily", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String directory;
+    /**
+     * Glob matched against file paths relative to the directory
+     * <p>Example: "2024-*.xlsx" selects the 2024 partitions, "**.xlsx" includes subdirectories
+     * </p>
+     */
+    @Schema(description = "Glob relative to the directory, *.xlsx if omitted", example = "2024-*.xlsx")
+    private String pattern;
+    /**
+     * The position of the minimum number to find (1-based index)
+     */
+    @Schema(description = "Order number of minimal number (1 - less)", example = "5", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer n;
+    /**
+     * Answer from a quantile sketch within a stated rank error instead of the exact value
+     */
+    @Schema(description = "Estimate the value from a persisted quantile sketch; the response then carries the rank error bound", example = "false")
+    private Boolean approximate;
+
+    public FindNumberInFilesRequest() {}
+    public FindNumberInFilesRequest(String directory, String pattern, Integer n) {
+        this.directory = directory;
+        this.pattern = pattern;
+        this.n = n;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+    public String getPattern() {
+        return pattern;
+    }
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+    public Integer getN() {
+        return n;
+    }
+    public void setN(Integer n) {
+        this.n = n;
+    }
+    public Boolean getApproximate() {
+        return approximate;
+    }
+    public void setApproximate(Boolean approximate) {
+        this.approximate = approximate;
+    }
+}
@@ -2,6 +2,8 @@ package ru.jordosi.nthminimalnumber.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.util.List;
+
 /** Request body
  * <p>
  * Contains path to the local .xlsx file and value N representing
@@ -14,7 +16,7 @@ public class FindNumberRequest {
     /**
      * Absolute path to the Excel file containing numbers in a single column
      */
-    @Schema(description = "Absolute path to the .xlsx file", example = "C:/data/numbers.xlsx", requiredMode = Schema.RequiredMode.REQUIRED)
+    @Schema(description = "Absolute path to the .xlsx, .csv, .tsv or raw little-endian .i32 file", example = "C:/data/numbers.xlsx", requiredMode = Schema.RequiredMode.REQUIRED)
     private String path;
     /**
      * The position of the minimum number to find (1-based index)
@@ -23,12 +25,38 @@ public class FindNumberRequest {
      */
     @Schema(description = "Order number of minimal number (1 - less)", example = "5", requiredMode = Schema.RequiredMode.REQUIRED)
     private Integer n;
+    /**
+     * Names of the sheets to read; the first sheet if omitted
+     */
+    @Schema(description = "Sheets to read, first sheet if omitted", example = "[\"January\", \"February\"]")
+    private List<String> sheets;
+    /**
+     * Letters of the columns to read; column A if omitted
+     */
+    @Schema(description = "Columns to read, column A if omitted", example = "[\"A\", \"C\"]")
+    private List<String> columns;
+    /**
+     * Answer from a quantile sketch within a stated rank error instead of the exact value
+     */
+    @Schema(description = "Estimate the value from a persisted quantile sketch; the response then carries the rank error bound", example = "false")
+    private Boolean approximate;
+    /**
+     * Type the column is read as; inferred from its first values if omitted
+     */
+    @Schema(description = "Column type: int (decimals truncated), long, double, or auto to infer it from the first values (default)", example = "double")
+    private String type;
 
     public FindNumberRequest() {}
     public FindNumberRequest(String path, Integer n) {
         this.path = path;
         this.n = n;
     }
+    public FindNumberRequest(String path, Integer n, List<String> sheets, List<String> columns) {
+        this.path = path;
+        this.n = n;
+        this.sheets = sheets;
+        this.columns = columns;
+    }
 
     public String getPath() {
         return path;
@@ -42,4 +70,28 @@ public class FindNumberRequest {
     public void setN(Integer n) {
         this.n = n;
     }
+    public List<String> getSheets() {
+        return sheets;
+    }
+    public void setSheets(List<String> sheets) {
+        this.sheets = sheets;
+    }
+    public List<String> getColumns() {
+        return columns;
+    }
+    public void setColumns(List<String> columns) {
+        this.columns = columns;
+    }
+    public Boolean getApproximate() {
+        return approximate;
+    }
+    public void setApproximate(Boolean approximate) {
+        this.approximate = approximate;
+    }
+    public String getType() {
+        return type;
+    }
+    public void setType(String type) {
+        this.type = type;
+    }
 }
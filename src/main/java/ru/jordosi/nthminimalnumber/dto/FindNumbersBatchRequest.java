@@ -0,0 +1,59 @@
+package ru.jordosi.nthminimalnumber.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/** Batch request body
+ * <p>
+ * Contains path to the local .xlsx file and several positions to find at once, given
+ * either as 1-based ranks or as percentiles of the column.
+ * </p>
+ *
+ */
+@Schema(description = "Request for several N-th minimal numbers of one file")
+public class FindNumbersBatchRequest {
+    /**
+     * Absolute path to the Excel file containing numbers in a single column
+     */
+    @Schema(description = "Absolute path to the .xlsx, .csv, .tsv or raw little-endian .i32 file", example = "C:/data/numbers.xlsx", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String path;
+    /**
+     * Positions of the minimum numbers to find (1-based indexes)
+     */
+    @Schema(description = "Order numbers of minimal numbers (1 - less)", example = "[1, 5, 10]")
+    private List<Integer> n;
+    /**
+     * Percentiles to find, resolved to ranks with the nearest-rank method
+     * <p>Example: 50 returns the median, 100 returns the maximum
+     * </p>
+     */
+    @Schema(description = "Percentiles in range (0, 100]", example = "[10, 50, 90]")
+    private List<Double> percentiles;
+
+    public FindNumbersBatchRequest() {}
+    public FindNumbersBatchRequest(String path, List<Integer> n, List<Double> percentiles) {
+        this.path = path;
+        this.n = n;
+        this.percentiles = percentiles;
+    }
+
+    public String getPath() {
+        return path;
+    }
+    public void setPath(String path) {
+        this.path = path;
+    }
+    public List<Integer> getN() {
+        return n;
+    }
+    public void setN(List<Integer> n) {
+        this.n = n;
+    }
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+}
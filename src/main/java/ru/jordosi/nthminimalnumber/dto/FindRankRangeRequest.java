@@ -0,0 +1,55 @@
+package ru.jordosi.nthminimalnumber.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/** Rank range request body
+ * <p>
+ * Contains path to the local file and two 1-based ranks; the values of every rank between
+ * them (both included) are returned in ascending order.
+ * </p>
+ *
+ */
+@Schema(description = "Request for the values between two ranks")
+public class FindRankRangeRequest {
+    /**
+     * Absolute path to the file containing numbers in a single column
+     */
+    @Schema(description = "Absolute path to the .xlsx, .csv, .tsv or raw little-endian .i32 file", example = "C:/data/numbers.xlsx", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String path;
+    /**
+     * Rank of the first value to return (1-based, inclusive)
+     */
+    @Schema(description = "Rank of the first value (1 - less)", example = "10", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer from;
+    /**
+     * Rank of the last value to return (1-based, inclusive)
+     */
+    @Schema(description = "Rank of the last value, inclusive", example = "20", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer to;
+
+    public FindRankRangeRequest() {}
+    public FindRankRangeRequest(String path, Integer from, Integer to) {
+        this.path = path;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getPath() {
+        return path;
+    }
+    public void setPath(String path) {
+        this.path = path;
+    }
+    public Integer getFrom() {
+        return from;
+    }
+    public void setFrom(Integer from) {
+        this.from = from;
+    }
+    public Integer getTo() {
+        return to;
+    }
+    public void setTo(Integer to) {
+        this.to = to;
+    }
+}
@@ -0,0 +1,43 @@
+package ru.jordosi.nthminimalnumber.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/** Rank request body
+ * <p>
+ * Contains path to the local file and a value X whose rank in the first column to find,
+ * together with how many values are below and equal to it.
+ * </p>
+ *
+ */
+@Schema(description = "Request for the rank of a value")
+public class FindRankRequest {
+    /**
+     * Absolute path to the file containing numbers in a single column
+     */
+    @Schema(description = "Absolute path to the .xlsx, .csv, .tsv or raw little-endian .i32 file", example = "C:/data/numbers.xlsx", requiredMode = Schema.RequiredMode.REQUIRED)
+    private String path;
+    /**
+     * Value to rank; it does not have to occur in the column
+     */
+    @Schema(description = "Value to rank", example = "42", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Integer value;
+
+    public FindRankRequest() {}
+    public FindRankRequest(String path, Integer value) {
+        this.path = path;
+        this.value = value;
+    }
+
+    public String getPath() {
+        return path;
+    }
+    public void setPath(String path) {
+        this.path = path;
+    }
+    public Integer getValue() {
+        return value;
+    }
+    public void setValue(Integer value) {
+        this.value = value;
+    }
+}
@@ -1,101 +1,630 @@
 package ru.jordosi.nthminimalnumber.service;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.jordosi.nthminimalnumber.service.cache.CachedColumn;
+import ru.jordosi.nthminimalnumber.service.cache.ColumnCache;
+import ru.jordosi.nthminimalnumber.service.cache.ColumnKey;
+import ru.jordosi.nthminimalnumber.service.cache.FileFingerprint;
+import ru.jordosi.nthminimalnumber.service.cache.OffHeapIntColumn;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics.Phase;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnReader;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnType;
+import ru.jordosi.nthminimalnumber.service.reader.InputFormat;
+import ru.jordosi.nthminimalnumber.service.reader.IntArrayBuffer;
+import ru.jordosi.nthminimalnumber.service.reader.ParseProgress;
+import ru.jordosi.nthminimalnumber.service.reader.TypedColumn;
+import ru.jordosi.nthminimalnumber.service.reader.TypedColumnBuffer;
+import ru.jordosi.nthminimalnumber.service.reader.XlsxColumnReader;
+import ru.jordosi.nthminimalnumber.service.select.DistinctBitmap;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.*;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntConsumer;
 
 
 /**
- * Service for reading integer data from Excel files.
+ * Service for reading integer data from workbooks, delimited text and raw int32 files.
  * <p>
- * Expects Excel files with a single column containing integer values in the first sheet.
+ * Expects a single column of integer values, by default the first column of the first sheet.
  * Empty cells and non-numeric values are automatically skipped during processing.
  * </p>
+ * <p>
+ * CSV, TSV and raw little-endian int32 files are read the same way; the format is picked by
+ * {@link InputFormat#detect(Path)} and the file is decoded by {@link ColumnReader}. Methods
+ * named after Excel accept a file of any of these formats.
+ * </p>
+ * <p>
+ * Columns expected to take at least {@code nth-min.column.off-heap-min-bytes} are parsed
+ * straight into an {@link OffHeapIntColumn}, so large cached columns cost the garbage collector
+ * nothing and are freed as soon as the cache and the last request reading them let go.
+ * </p>
+ * <p>
+ * Columns read as ints truncate decimals and clamp large values. {@link #inferType} tells from
+ * the first values of a file whether that loses anything, and
+ * {@link #findTypedNumbersFromExcel} reads a column as longs or doubles instead.
+ * </p>
  * @see ru.jordosi.nthminimalnumber.controller.NthMinimalNumberController
  */
 @Service
 public class ExcelService {
     /**
-     * Reads integer values from the first column of the first sheet in an Excel file.
+     * Number of values {@link #inferType} looks at.
+     */
+    static final int TYPE_SAMPLE_SIZE = 4096;
+    private static final int MAX_INFERRED_TYPES = 1024;
+    /**
+     * How often a caller waiting for another caller's parse checks its own cancellation.
+     */
+    private static final long JOIN_POLL_MILLIS = 50;
+
+    private final ColumnCache columnCache;
+    private final NthMinMetrics metrics;
+    private final long offHeapMinBytes;
+    private final Map<ColumnKey, CompletableFuture<CachedColumn>> parsing = new ConcurrentHashMap<>();
+    private final Map<ColumnKey, ColumnType> inferredTypes = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ColumnKey, ColumnType> eldest) {
+                    return size() > MAX_INFERRED_TYPES;
+                }
+            });
+
+    /**
+     * Creates a service without caching.
+     */
+    public ExcelService() {
+        this(new ColumnCache(0));
+    }
+
+    public ExcelService(ColumnCache columnCache) {
+        this(columnCache, NthMinMetrics.noop());
+    }
+
+    public ExcelService(ColumnCache columnCache, NthMinMetrics metrics) {
+        this(columnCache, metrics, 0);
+    }
+
+    /**
+     * @param metrics receives the open, parse and dedupe phase timings
+     * @param offHeapMinBytes smallest column, in bytes of values, stored off-heap; 0 keeps
+     * every column on the heap
+     */
+    @Autowired
+    public ExcelService(ColumnCache columnCache, NthMinMetrics metrics,
+                        @Value("${nth-min.column.off-heap-min-bytes:16777216}") long offHeapMinBytes) {
+        this.columnCache = columnCache;
+        this.metrics = metrics;
+        this.offHeapMinBytes = offHeapMinBytes;
+    }
+
+    /**
+     * Reads integer values from the first column: of the first sheet of a workbook, the first
+     * field of each CSV or TSV line, or every value of a raw int32 file.
      * <p>
      * The method processes only numeric cells in the first column, skipping any empty cells
      * or cells with non-numeric values. Decimal values are truncated to integers.
      * </p>
      *
-     * @param path absolute path to the .xlsx file to read
-     * @return array of integers found in the first column of the Excel file
-     * @throws IOException if any I/O error occurs during file reading
-     * @throws IllegalStateException if the file is empty or contains no numeric data
+     * @param path absolute path to the file to read
+     * @return array of integers found in the first column of the file
+     * @throws IOException if any I/O error occurs or the column contains no numeric data
      *
-     * @apiNote Supported Excel format: .xlsx (Excel 2007 and later)
-     * @implNote Uses streaming approach for memory-efficient processing of large files
+     * @apiNote Supported formats: .xlsx (Excel 2007 and later), .csv, .tsv and little-endian
+     * int32, see {@link InputFormat}
+     * @implNote Parses the sheet XML with SAX via {@link XlsxColumnReader}; the workbook
+     * object model is never built, so memory grows with the number of values only
      */
     public Integer[] findNumbersFromExcel(String path) throws IOException {
+        return box(findIntNumbersFromExcel(path));
+    }
+
+    public Integer[] findUniqueNumbersFromExcel(String path) throws IOException {
+        return box(findUniqueIntNumbersFromExcel(path));
+    }
+
+    /**
+     * Primitive counterpart of {@link #findNumbersFromExcel(String)}.
+     * <p>
+     * Values are collected into an {@link IntArrayBuffer}, so no boxing happens between
+     * the sheet parser and the selection algorithm. Parsed columns are kept in the
+     * {@link ColumnCache}, so repeated calls for an unchanged file skip parsing, and
+     * concurrent calls for the same file share one parse.
+     * </p>
+     *
+     * @param path absolute path to the file to read
+     * @return values of the first column in sheet order; the array may be shared with
+     * the cache and must not be modified. Off-heap columns are copied to the heap, see
+     * {@link #acquireColumn(String)} to avoid the copy
+     * @throws IOException if any I/O error occurs or the column contains no numeric data
+     */
+    public int[] findIntNumbersFromExcel(String path) throws IOException {
+        return findIntNumbersFromExcel(path, ColumnSelection.FIRST_COLUMN);
+    }
+
+    /**
+     * Reads the first column without copying off-heap values to the heap.
+     * <p>
+     * The returned column holds a reference to its values, which stay readable until it is
+     * closed even if the cache evicts the column meanwhile.
+     * </p>
+     *
+     * @param path absolute path to the file to read
+     * @return values of the first column; the caller must close it and must not modify it
+     * @throws IOException if any I/O error occurs or the column contains no numeric data
+     */
+    public CachedColumn acquireColumn(String path) throws IOException {
+        return acquireColumn(path, null);
+    }
+
+    /**
+     * Variant of {@link #acquireColumn(String)} reporting parse progress.
+     *
+     * @param path absolute path to the file to read
+     * @param progress receives the number of parsed values, or {@code null}; cancelling it
+     * aborts the parse with a {@link java.util.concurrent.CancellationException}
+     * @return values of the first column; the caller must close it and must not modify it
+     * @throws IOException if any I/O error occurs or the column contains no numeric data
+     */
+    public CachedColumn acquireColumn(String path, ParseProgress progress) throws IOException {
+        validateInput(path);
+        ColumnKey key = ColumnKey.of(FileFingerprint.of(Path.of(path)));
+        CachedColumn column = loadColumn(key, emptyMessage("No numeric data found", key.selection()), false, progress);
+        if (progress != null) {
+            progress.complete(column.length());
+        }
+        return column;
+    }
+
+    /**
+     * Reads the values of several sheets and columns as one series.
+     * <p>
+     * Sheets are decoded concurrently, see {@link XlsxColumnReader#read(Path, ColumnSelection)}.
+     * The combined values are cached under the file fingerprint and the selection.
+     * </p>
+     *
+     * @param path absolute path to the file to read
+     * @param selection sheets and columns to combine
+     * @return combined values; the array may be shared with the cache and must not be modified
+     * @throws IOException if any I/O error occurs or the selection contains no numeric data
+     */
+    public int[] findIntNumbersFromExcel(String path, ColumnSelection selection) throws IOException {
         validateInput(path);
-        List<Integer> numbers = new ArrayList<>();
+        ColumnKey key = new ColumnKey(FileFingerprint.of(Path.of(path)), selection);
+        try (CachedColumn column = loadColumn(key, emptyMessage("No numeric data found", selection), false, null)) {
+            return column.toArray();
+        }
+    }
 
-        try (FileInputStream fis = new FileInputStream(path);
-             Workbook workbook = new XSSFWorkbook(fis)) {
+    /**
+     * Reads the distinct values of the first column.
+     *
+     * @param path absolute path to the file to read
+     * @return distinct values of the first column in ascending order
+     * @throws IOException if any I/O error occurs or the column contains no numeric data
+     */
+    public int[] findUniqueIntNumbersFromExcel(String path) throws IOException {
+        return findDistinctNumbersFromExcel(path).toArray();
+    }
 
-            Sheet sheet = workbook.getSheetAt(0);
-            Iterator<Row> rowIterator = sheet.iterator();
+    /**
+     * Reads the distinct values of the first column as a {@link DistinctBitmap}.
+     * <p>
+     * On a cold read the bitmap is filled while the sheet is parsed; for a cached column
+     * it is built from the cached values. Either way it is cached next to the values.
+     * </p>
+     *
+     * @param path absolute path to the file to read
+     * @return distinct values of the first column; the bitmap may be shared with the
+     * cache and must not be modified
+     * @throws IOException if any I/O error occurs or the column contains no numeric data
+     */
+    public DistinctBitmap findDistinctNumbersFromExcel(String path) throws IOException {
+        return findDistinctNumbersFromExcel(path, ColumnSelection.FIRST_COLUMN);
+    }
 
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
-                Cell cell = row.getCell(0);
+    /**
+     * Reads the distinct values of several sheets and columns combined.
+     *
+     * @param path absolute path to the file to read
+     * @param selection sheets and columns to combine
+     * @return distinct values of the selection; the bitmap may be shared with the cache
+     * and must not be modified
+     * @throws IOException if any I/O error occurs or the selection contains no numeric data
+     */
+    public DistinctBitmap findDistinctNumbersFromExcel(String path, ColumnSelection selection) throws IOException {
+        validateInput(path);
+        ColumnKey key = new ColumnKey(FileFingerprint.of(Path.of(path)), selection);
+        try (CachedColumn column = loadColumn(key, emptyMessage("No unique numeric data found", selection), true, null)) {
+            return column.distinct();
+        }
+    }
 
-                if (cell != null && cell.getCellType() == CellType.NUMERIC) {
-                    numbers.add((int) cell.getNumericCellValue());
-                }
-            }
+    /**
+     * Infers the type of a selection from its first {@value #TYPE_SAMPLE_SIZE} values, see
+     * {@link ColumnReader#inferType}. The result is remembered per file version, so only the
+     * first request for a file pays for the sample.
+     *
+     * @param path absolute path to the file
+     * @param selection sheets and columns
+     * @return {@link ColumnType#INT} if the sampled values are ints, otherwise the type keeping them
+     * @throws IOException if the file cannot be read
+     */
+    public ColumnType inferType(String path, ColumnSelection selection) throws IOException {
+        validateInput(path);
+        ColumnKey key = new ColumnKey(FileFingerprint.of(Path.of(path)), selection);
+        ColumnType type = inferredTypes.get(key);
+        if (type == null) {
+            type = ColumnReader.inferType(Path.of(key.fingerprint().canonicalPath()), selection, TYPE_SAMPLE_SIZE);
+            inferredTypes.put(key, type);
+        }
+        return type;
+    }
+
+    /**
+     * Reads a selection as longs or doubles, see {@link TypedColumnBuffer}. Typed columns are
+     * cached and shared between concurrent callers like int columns, under a key that also
+     * holds {@code type}.
+     *
+     * @param path absolute path to the file
+     * @param selection sheets and columns to combine
+     * @param type {@link ColumnType#LONG} or {@link ColumnType#DOUBLE}, or {@code null} to keep
+     * every value without truncation
+     * @return values in file order; the arrays may be shared with the cache and must not be modified
+     * @throws IOException if any I/O error occurs or the selection contains no numeric data
+     * @throws IllegalArgumentException for {@link ColumnType#INT}, read by {@link #findIntNumbersFromExcel}
+     */
+    public TypedColumn findTypedNumbersFromExcel(String path, ColumnSelection selection, ColumnType type) throws IOException {
+        validateInput(path);
+        if (type == ColumnType.INT) {
+            throw new IllegalArgumentException("Int columns are read by findIntNumbersFromExcel");
+        }
+        ColumnKey key = new ColumnKey(FileFingerprint.of(Path.of(path)), selection, type);
+        try (CachedColumn column = loadColumn(key, emptyMessage("No numeric data found", selection), false, null)) {
+            return column.typed();
         }
+    }
+
+    /**
+     * Tells whether the column of the file is cached, so reading it costs no parsing.
+     *
+     * @param path absolute path to the file
+     */
+    public boolean isCached(String path) throws IOException {
+        return isCached(path, ColumnSelection.FIRST_COLUMN);
+    }
 
-        if (numbers.isEmpty()) {
+    /**
+     * Tells whether the combined values of a selection are cached.
+     *
+     * @param path absolute path to the file
+     * @param selection sheets and columns
+     */
+    public boolean isCached(String path, ColumnSelection selection) throws IOException {
+        return isCached(path, selection, ColumnType.INT);
+    }
+
+    /**
+     * Tells whether a selection read as {@code type} is cached.
+     *
+     * @param type type the values are read as, see {@link #findTypedNumbersFromExcel}
+     */
+    public boolean isCached(String path, ColumnSelection selection, ColumnType type) throws IOException {
+        validateInput(path);
+        return columnCache.contains(new ColumnKey(FileFingerprint.of(Path.of(path)), selection, type));
+    }
+
+    /**
+     * Tells whether a parse of the selection is running, so another read would join it
+     * instead of parsing again.
+     *
+     * @param path absolute path to the file
+     * @param selection sheets and columns
+     */
+    public boolean isParsing(String path, ColumnSelection selection) throws IOException {
+        return isParsing(path, selection, ColumnType.INT);
+    }
+
+    /**
+     * Tells whether a parse of the selection as {@code type} is running.
+     */
+    public boolean isParsing(String path, ColumnSelection selection, ColumnType type) throws IOException {
+        validateInput(path);
+        return parsing.containsKey(new ColumnKey(FileFingerprint.of(Path.of(path)), selection, type));
+    }
+
+    /**
+     * Tells whether a column with the given number of rows would be kept in the cache.
+     *
+     * @param rowCountHint declared number of rows, see {@link #getRowCountHint(String)}
+     */
+    public boolean fitsCache(int rowCountHint) {
+        return columnCache.fits(rowCountHint);
+    }
+
+    /**
+     * Streams values of the first column to {@code sink} without storing them.
+     *
+     * @param path absolute path to the file to read
+     * @param sink receiver of the values in sheet order
+     * @return number of values passed to the sink
+     * @throws IOException if any I/O error occurs or the column contains no numeric data
+     */
+    public int streamNumbersFromExcel(String path, IntConsumer sink) throws IOException {
+        validateInput(path);
+        int[] count = new int[1];
+
+        PhaseClock clock = new PhaseClock();
+        ColumnReader.read(Path.of(path), ColumnSelection.FIRST_COLUMN, value -> {
+            count[0]++;
+            sink.accept(value);
+        }, clock);
+        clock.stop();
+
+        if (count[0] == 0) {
             throw new IOException("No numeric data found in the first column of the Excel file");
         }
 
-        return numbers.toArray(new Integer[0]);
+        return count[0];
     }
 
-    public Integer[] findUniqueNumbersFromExcel(String path) throws IOException {
+    /**
+     * Reads the row count declared in the first sheet's dimension metadata.
+     * This is an upper bound of the number of values, not an exact count.
+     *
+     * @param path absolute path to the file to read
+     * @return declared number of rows, or {@code -1} if unknown
+     * @throws IOException if any I/O error occurs during file reading
+     */
+    public int getRowCountHint(String path) throws IOException {
         validateInput(path);
-        Set<Integer> numbers = new HashSet<>();
-        try (FileInputStream fis = new FileInputStream(path);
-                Workbook workbook =  new XSSFWorkbook(fis)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Iterator<Row> rowIterator = sheet.iterator();
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
-                Cell cell = row.getCell(0);
-
-                if (cell != null && cell.getCellType() == CellType.NUMERIC) {
-                    numbers.add((int) cell.getNumericCellValue());
+        return ColumnReader.readRowCountHint(Path.of(path));
+    }
+
+    /**
+     * Loads a column from the cache, from a parse already running for the same key, or by
+     * parsing it. Concurrent callers for one key share a single parse (single flight); a
+     * caller that asks for distinct values on top of a shared parse builds them afterwards.
+     * If the parse a caller waited for was cancelled, or its off-heap column was already freed,
+     * the caller parses again itself.
+     *
+     * @return column holding a reference for the caller, who must close it
+     */
+    private CachedColumn loadColumn(ColumnKey key, String emptyMessage, boolean withDistinct,
+                                    ParseProgress progress) throws IOException {
+        while (true) {
+            CachedColumn cached = columnCache.get(key);
+            if (cached != null) {
+                return withDistinct(key, cached, withDistinct);
+            }
+
+            CompletableFuture<CachedColumn> own = new CompletableFuture<>();
+            CompletableFuture<CachedColumn> running = parsing.putIfAbsent(key, own);
+            if (running == null) {
+                try {
+                    CachedColumn column = parseColumn(key, emptyMessage, withDistinct, progress);
+                    columnCache.put(key, column);
+                    own.complete(column);
+                    return column;
+                } catch (IOException | RuntimeException | Error e) {
+                    own.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    parsing.remove(key, own);
+                }
+            }
+
+            try {
+                CachedColumn shared = join(running, progress);
+                if (!shared.retain()) {
+                    continue;
+                }
+                return withDistinct(key, shared, withDistinct);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CancellationException) {
+                    continue;
+                }
+                if (e.getCause() instanceof IOException cause) {
+                    throw cause;
                 }
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw (Error) e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a parse of the same file");
             }
         }
+    }
 
-        if (numbers.isEmpty()) {
-            throw new IOException("No unique numeric data found in the first column of the Excel file");
+    /**
+     * Waits for another caller's parse, giving up once {@code progress} is cancelled; the
+     * parse itself goes on for its own caller.
+     */
+    private static CachedColumn join(CompletableFuture<CachedColumn> running, ParseProgress progress)
+            throws ExecutionException, InterruptedException {
+        if (progress == null) {
+            return running.get();
+        }
+        while (true) {
+            if (progress.isCancelled()) {
+                throw new CancellationException("Parse cancelled");
+            }
+            try {
+                return running.get(JOIN_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // check the caller's cancellation again
+            }
+        }
+    }
+
+    private CachedColumn withDistinct(ColumnKey key, CachedColumn column, boolean withDistinct) {
+        if (withDistinct && column.distinct() == null) {
+            long start = System.nanoTime();
+            DistinctBitmap distinct = new DistinctBitmap();
+            column.forEach(distinct);
+            column = column.withDistinct(distinct);
+            metrics.record(Phase.DEDUPE, System.nanoTime() - start);
+            columnCache.put(key, column);
+        }
+        return column;
+    }
+
+    private CachedColumn parseColumn(ColumnKey key, String emptyMessage, boolean withDistinct,
+                                            ParseProgress progress) throws IOException {
+        Path path = Path.of(key.fingerprint().canonicalPath());
+        int[] values;
+        DistinctBitmap distinct = null;
+        PhaseClock clock = new PhaseClock();
+        if (!key.isInt()) {
+            return parseTyped(path, key, emptyMessage, clock);
+        }
+        OffHeapIntColumn.Writer offHeap = offHeapWriter(path);
+        if (offHeap != null) {
+            return parseOffHeap(path, key.selection(), offHeap, emptyMessage, withDistinct, progress, clock);
+        }
+        // Distinct values are collected while streaming a workbook; text and raw files are read
+        // faster as a whole, so their distinct values are built afterwards
+        boolean streamed = progress != null
+                || withDistinct && key.selection().isFirstColumn() && InputFormat.detect(path) == InputFormat.XLSX;
+        if (streamed) {
+            IntArrayBuffer numbers = new IntArrayBuffer();
+            distinct = withDistinct ? new DistinctBitmap() : null;
+            IntConsumer sink = withDistinct ? numbers.andThen(distinct) : numbers;
+            ColumnReader.read(path, key.selection(), progress == null ? sink : progress.wrap(sink), clock);
+            values = numbers.toArray();
+            clock.stop();
+        } else {
+            values = ColumnReader.read(path, key.selection(), clock);
+            clock.stop();
+            if (withDistinct) {
+                long start = System.nanoTime();
+                distinct = DistinctBitmap.of(values);
+                metrics.record(Phase.DEDUPE, System.nanoTime() - start);
+            }
+        }
+
+        if (values.length == 0) {
+            throw new IOException(emptyMessage);
+        }
+        return new CachedColumn(values, distinct);
+    }
+
+    private CachedColumn parseTyped(Path path, ColumnKey key, String emptyMessage, PhaseClock clock) throws IOException {
+        TypedColumnBuffer buffer = new TypedColumnBuffer(key.type());
+        ColumnReader.read(path, key.selection(), buffer, clock);
+        clock.stop();
+
+        if (buffer.size() == 0) {
+            throw new IOException(emptyMessage);
+        }
+        return new CachedColumn(buffer.toColumn());
+    }
+
+    /**
+     * @return writer for a column expected to take at least {@code offHeapMinBytes}, or
+     * {@code null} if the column is parsed onto the heap
+     */
+    private OffHeapIntColumn.Writer offHeapWriter(Path path) throws IOException {
+        if (offHeapMinBytes <= 0) {
+            return null;
         }
+        int rowCountHint = ColumnReader.readRowCountHint(path);
+        // text files declare no row count; their size bounds the column closely enough
+        long expectedBytes = rowCountHint >= 0 ? (long) rowCountHint * Integer.BYTES : Files.size(path);
+        // larger columns do not fit into one direct buffer and are kept on the heap
+        if (expectedBytes < offHeapMinBytes || rowCountHint > OffHeapIntColumn.MAX_LENGTH) {
+            return null;
+        }
+        return OffHeapIntColumn.writer(rowCountHint >= 0 ? rowCountHint : (int) (offHeapMinBytes / Integer.BYTES));
+    }
+
+    /**
+     * Streams a column into off-heap memory. A column that turns out smaller than
+     * {@code offHeapMinBytes}, e.g. because the declared rows were mostly empty, is moved to the heap.
+     */
+    private CachedColumn parseOffHeap(Path path, ColumnSelection selection, OffHeapIntColumn.Writer writer,
+                                      String emptyMessage, boolean withDistinct, ParseProgress progress,
+                                      PhaseClock clock) throws IOException {
+        DistinctBitmap distinct = withDistinct ? new DistinctBitmap() : null;
+        try {
+            IntConsumer sink = withDistinct ? writer.andThen(distinct) : writer;
+            ColumnReader.read(path, selection, progress == null ? sink : progress.wrap(sink), clock);
+            clock.stop();
+            if (writer.size() == 0) {
+                throw new IOException(emptyMessage);
+            }
+        } catch (IOException | RuntimeException | Error e) {
+            writer.discard();
+            throw e;
+        }
+
+        OffHeapIntColumn column = writer.finish();
+        if (column.sizeInBytes() >= offHeapMinBytes) {
+            return new CachedColumn(column, distinct);
+        }
+        int[] values = column.toArray();
+        column.release();
+        return new CachedColumn(values, distinct);
+    }
+
+    /**
+     * Splits the time of one read into the open and parse phases; used as the reader's
+     * {@code onOpened} callback.
+     */
+    private final class PhaseClock implements Runnable {
+        private final long start = System.nanoTime();
+        private long opened;
+
+        @Override
+        public void run() {
+            opened = System.nanoTime();
+        }
+
+        void stop() {
+            if (opened != 0) {
+                metrics.record(Phase.OPEN, opened - start);
+                metrics.record(Phase.PARSE, System.nanoTime() - opened);
+            }
+        }
+    }
+
+    private static String emptyMessage(String prefix, ColumnSelection selection) {
+        return prefix + (selection.isFirstColumn()
+                ? " in the first column of the Excel file"
+                : " in the selected sheets and columns of the Excel file");
+    }
 
-        return numbers.toArray(new Integer[0]);
+    private static Integer[] box(int[] values) {
+        Integer[] boxed = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
     }
 
     /**
-     * File path validator
+     * File path validator; the file format is checked when the file is read
      * @param path input file absolute path
      */
     private void validateInput(String path) {
         if (path == null || path.trim().isEmpty()) {
             throw new IllegalArgumentException("File path cannot be null or empty");
         }
-
-        if (!path.toLowerCase().endsWith(".xlsx")) {
-            throw new IllegalArgumentException("Only .xlsx files are supported");
-        }
     }
 }
@@ -0,0 +1,98 @@
+package ru.jordosi.nthminimalnumber.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics.Phase;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnReader;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.select.ExternalSelector;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Out-of-core selection of the first column for files whose parsed column would not fit
+ * into {@code nth-min.external.heap-budget}.
+ * <p>
+ * The file is streamed into an {@link ExternalSelector} that spills values to value-range
+ * buckets under {@code nth-min.external.dir} (the system temporary directory by default), so
+ * the heap holds bucket counts, write buffers and finally the one bucket containing the rank.
+ * The spill files are removed when the request completes.
+ * </p>
+ */
+@Service
+public class ExternalSelectService {
+    private final QuickSelectService quickSelectService;
+    private final NthMinMetrics metrics;
+    private final long heapBudget;
+    private final Path spillDir;
+
+    /**
+     * @param heapBudget heap a single out-of-core selection may use; columns estimated larger
+     * are selected out of core, 0 disables the mode
+     * @param spillDir directory for spill files, empty for the system temporary directory
+     */
+    public ExternalSelectService(QuickSelectService quickSelectService, NthMinMetrics metrics,
+                                 @Value("${nth-min.external.heap-budget:268435456}") long heapBudget,
+                                 @Value("${nth-min.external.dir:}") String spillDir) {
+        this.quickSelectService = quickSelectService;
+        this.metrics = metrics;
+        this.heapBudget = heapBudget;
+        this.spillDir = Path.of(spillDir == null || spillDir.isBlank() ? System.getProperty("java.io.tmpdir") : spillDir);
+    }
+
+    /**
+     * Tells whether a column should be selected out of core.
+     *
+     * @param estimatedBytes estimated heap cost of parsing the column in memory
+     */
+    public boolean isPreferred(long estimatedBytes) {
+        return heapBudget > 0 && estimatedBytes > heapBudget;
+    }
+
+    /**
+     * @return heap one out-of-core selection uses at most: its spill buffers, then the loaded bucket
+     */
+    public long heapBudget() {
+        return heapBudget;
+    }
+
+    /**
+     * Finds the N-th minimal value of the first column by spilling it to disk.
+     *
+     * @param path path to the file
+     * @param n 1-based rank
+     * @return the value with the number of values of the column
+     * @throws IOException if the file or the spill files cannot be read or written, or the
+     * column contains no numeric data
+     * @throws IllegalArgumentException if n exceeds the number of values
+     */
+    public Result findNthMinimalNumber(String path, long n) throws IOException {
+        try (ExternalSelector selector = new ExternalSelector(spillDir, heapBudget, quickSelectService.getStrategy())) {
+            long start = System.nanoTime();
+            try {
+                ColumnReader.read(Path.of(path), ColumnSelection.FIRST_COLUMN, selector, null);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            metrics.record(Phase.PARSE, System.nanoTime() - start);
+
+            if (selector.count() == 0) {
+                throw new IOException("No numeric data found in the first column of the Excel file");
+            }
+            start = System.nanoTime();
+            int value = selector.select(n);
+            metrics.record(Phase.SELECT, System.nanoTime() - start);
+            return new Result(value, selector.count());
+        }
+    }
+
+    /**
+     * @param value n-th minimal number of the column
+     * @param totalNumbers number of values in the column
+     */
+    public record Result(int value, long totalNumbers) {
+    }
+}
@@ -1,23 +1,103 @@
 package ru.jordosi.nthminimalnumber.service;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.jordosi.nthminimalnumber.service.cache.CachedColumn;
+import ru.jordosi.nthminimalnumber.service.select.AdaptiveSelect;
+import ru.jordosi.nthminimalnumber.service.select.DistinctBitmap;
+import ru.jordosi.nthminimalnumber.service.select.DoubleSelect;
+import ru.jordosi.nthminimalnumber.service.select.IntroSelect;
+import ru.jordosi.nthminimalnumber.service.select.LomutoQuickSelect;
+import ru.jordosi.nthminimalnumber.service.select.LongSelect;
+import ru.jordosi.nthminimalnumber.service.select.MultiSelect;
+import ru.jordosi.nthminimalnumber.service.select.ParallelSelect;
+import ru.jordosi.nthminimalnumber.service.select.RadixSelect;
+import ru.jordosi.nthminimalnumber.service.select.SelectionStrategy;
+import ru.jordosi.nthminimalnumber.service.select.ThreeWayQuickSelect;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Service implementing the QuickSelect algorithm for finding the N-th smallest element.
  * <p>
- * Uses the Hoare's selection algorithm with average time complexity O(n) and
- * worst-case O(n^2). The algorithm partially sorts the array in-place to find
- * the k-th smallest element without fully sorting the entire array.
+ * Selection partially reorders the array in place to find the k-th smallest element
+ * without fully sorting it. Only the boxed {@code Integer[]} methods still use Hoare's
+ * selection algorithm as is, with average time complexity O(n) and worst-case O(n^2).
+ * </p>
+ * <p>
+ * The primitive {@code int[]} path runs on a pluggable {@link SelectionStrategy}, chosen with
+ * the {@code nth-min.selection.strategy} property. The default {@link AdaptiveSelect} samples
+ * the input and picks a kernel for it; {@link IntroSelect} has a guaranteed O(n) worst case,
+ * {@link ThreeWayQuickSelect} suits duplicate-heavy columns and {@link LomutoQuickSelect} is
+ * the original algorithm, while {@link RadixSelect} answers in two histogram passes. Arrays
+ * of at least {@code nth-min.selection.parallel-threshold} elements are selected with
+ * {@link ParallelSelect} on a dedicated fork-join pool.
+ * </p>
+ * <p>
+ * Long and double columns have kernels of their own, {@link LongSelect} and {@link DoubleSelect}.
  * </p>
  *
  * @see <a href="https://en.wikipedia.org/wiki/Quickselect">QuickSelect Algorithm</a>
  */
 @Service
 public class QuickSelectService {
+    private static final List<SelectionStrategy> STRATEGIES = List.of(
+            new AdaptiveSelect(), new IntroSelect(), new ThreeWayQuickSelect(), new LomutoQuickSelect(),
+            new RadixSelect());
+
+    private final SelectionStrategy strategy;
+    private final ForkJoinPool pool;
+
+    public QuickSelectService() {
+        this(new AdaptiveSelect());
+    }
+
+    /**
+     * @param strategyName name of the sequential strategy
+     * @param parallelThreshold smallest array selected with {@link ParallelSelect}, 0 to stay sequential
+     * @param parallelism fork-join pool size for parallel selection, 0 for the number of processors
+     */
+    @Autowired
+    public QuickSelectService(@Value("${nth-min.selection.strategy:" + AdaptiveSelect.NAME + "}") String strategyName,
+                              @Value("${nth-min.selection.parallel-threshold:1000000}") int parallelThreshold,
+                              @Value("${nth-min.selection.parallelism:0}") int parallelism) {
+        SelectionStrategy sequential = strategyByName(strategyName);
+        if (parallelThreshold > 0) {
+            this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+            this.strategy = new ParallelSelect(sequential, pool, parallelThreshold);
+        } else {
+            this.pool = null;
+            this.strategy = sequential;
+        }
+    }
+
+    public QuickSelectService(SelectionStrategy strategy) {
+        this.strategy = strategy;
+        this.pool = null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public SelectionStrategy getStrategy() {
+        return strategy;
+    }
+
+    private static SelectionStrategy strategyByName(String name) {
+        return STRATEGIES.stream()
+                .filter(strategy -> strategy.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown selection strategy: " + name));
+    }
+
     public Integer findNthMinimalNumber(Integer[] arr, int k) {
         if (arr == (null) || arr.length == 0) {
             throw new IllegalArgumentException("Array cannot be null or empty");
@@ -27,21 +107,172 @@ public class QuickSelectService {
             throw new IllegalArgumentException("N must be in range from 1 to " + arr.length);
         }
 
+        int[] values = new int[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            values[i] = arr[i];
+        }
+        return quickSelect(values, 0, values.length - 1, k - 1);
+    }
+
+    /**
+     * Primitive overload of {@link #findNthMinimalNumber(Integer[], int)}.
+     * The input array is not modified.
+     *
+     * @param arr values to select from
+     * @param k 1-based rank of the value to find
+     * @return k-th smallest value
+     */
+    public int findNthMinimalNumber(int[] arr, int k) {
+        if (arr == null || arr.length == 0) {
+            throw new IllegalArgumentException("Array cannot be null or empty");
+        }
+
+        if (k < 1 || k > arr.length) {
+            throw new IllegalArgumentException("N must be in range from 1 to " + arr.length);
+        }
+
         return quickSelect(arr.clone(), 0, arr.length - 1, k - 1);
     }
 
-    public Integer findNthMinimalUniqueNumber(Integer[] arr, int k) {
-        if (arr == (null) || arr.length == 0) {
+    /**
+     * Long overload of {@link #findNthMinimalNumber(int[], int)}. The input array is not modified.
+     *
+     * @param arr values to select from
+     * @param k 1-based rank of the value to find
+     * @return k-th smallest value
+     */
+    public long findNthMinimalNumber(long[] arr, int k) {
+        if (arr == null || arr.length == 0) {
             throw new IllegalArgumentException("Array cannot be null or empty");
         }
 
-        Integer[] uniqueArr = getUniqueSortedArray(arr);
+        if (k < 1 || k > arr.length) {
+            throw new IllegalArgumentException("N must be in range from 1 to " + arr.length);
+        }
+
+        return new LongSelect().select(arr.clone(), 0, arr.length - 1, k - 1);
+    }
+
+    /**
+     * Double overload of {@link #findNthMinimalNumber(int[], int)}. The input array is not modified.
+     *
+     * @param arr values to select from
+     * @param k 1-based rank of the value to find
+     * @return k-th smallest value
+     */
+    public double findNthMinimalNumber(double[] arr, int k) {
+        if (arr == null || arr.length == 0) {
+            throw new IllegalArgumentException("Array cannot be null or empty");
+        }
 
         if (k < 1 || k > arr.length) {
             throw new IllegalArgumentException("N must be in range from 1 to " + arr.length);
         }
 
-        return uniqueArr[k-1];
+        return new DoubleSelect().select(arr.clone(), 0, arr.length - 1, k - 1);
+    }
+
+    /**
+     * Column overload of {@link #findNthMinimalNumber(int[], int)}. Heap columns are copied and
+     * selected with the configured strategy; off-heap columns are answered by
+     * {@link RadixSelect} reading them in place, so they are never copied to the heap.
+     *
+     * @param column values to select from; the caller keeps it open for the call
+     * @param k 1-based rank of the value to find
+     * @return k-th smallest value
+     */
+    public int findNthMinimalNumber(CachedColumn column, int k) {
+        if (!column.isOffHeap()) {
+            return findNthMinimalNumber(column.values(), k);
+        }
+        if (k < 1 || k > column.length()) {
+            throw new IllegalArgumentException("N must be in range from 1 to " + column.length());
+        }
+        return new RadixSelect().select(column.offHeap().values(), k - 1);
+    }
+
+    /**
+     * Primitive overload of {@link #findNthMinimalUniqueNumber(Integer[], int)}.
+     * The input array is not modified. The distinct values are collected in a
+     * {@link DistinctBitmap}, which neither sorts nor boxes.
+     *
+     * @param arr values to select from, may contain duplicates
+     * @param k 1-based rank among the distinct values
+     * @return k-th smallest distinct value
+     */
+    public int findNthMinimalUniqueNumber(int[] arr, int k) {
+        if (arr == null || arr.length == 0) {
+            throw new IllegalArgumentException("Array cannot be null or empty");
+        }
+
+        DistinctBitmap distinct = DistinctBitmap.of(arr);
+
+        if (k < 1 || k > distinct.cardinality()) {
+            throw new IllegalArgumentException("N must be in range from 1 to " + distinct.cardinality());
+        }
+
+        return distinct.select(k - 1);
+    }
+
+    /**
+     * Finds several order statistics of the same array with one multi-select pass,
+     * costing O(n log m) for m distinct ranks. The input array is not modified.
+     *
+     * @param arr values to select from
+     * @param ks 1-based ranks, in any order and possibly repeated
+     * @return k-th smallest values in the order of {@code ks}
+     * @see MultiSelect
+     */
+    public int[] findNthMinimalNumbers(int[] arr, int[] ks) {
+        if (arr == null || arr.length == 0) {
+            throw new IllegalArgumentException("Array cannot be null or empty");
+        }
+
+        for (int k : ks) {
+            if (k < 1 || k > arr.length) {
+                throw new IllegalArgumentException("N must be in range from 1 to " + arr.length);
+            }
+        }
+
+        int[] ranks = Arrays.stream(ks).map(k -> k - 1).sorted().distinct().toArray();
+        int[] selected = new MultiSelect().select(arr.clone(), ranks);
+
+        int[] results = new int[ks.length];
+        for (int i = 0; i < ks.length; i++) {
+            results[i] = selected[Arrays.binarySearch(ranks, ks[i] - 1)];
+        }
+        return results;
+    }
+
+    /**
+     * Converts a percentile to a 1-based rank with the nearest-rank method.
+     *
+     * @param percentile percentile in range (0, 100]
+     * @param count number of values
+     * @return rank in range from 1 to {@code count}
+     */
+    public static int percentileRank(double percentile, int count) {
+        if (!(percentile > 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be in range (0, 100]");
+        }
+        return (int) Math.max(1, Math.min(count, Math.ceil(percentile / 100.0 * count)));
+    }
+
+    public Integer findNthMinimalUniqueNumber(Integer[] arr, int k) {
+        if (arr == (null) || arr.length == 0) {
+            throw new IllegalArgumentException("Array cannot be null or empty");
+        }
+
+        DistinctBitmap distinct = new DistinctBitmap();
+        for (Integer value : arr) {
+            distinct.add(value);
+        }
+
+        if (k < 1 || k > distinct.cardinality()) {
+            throw new IllegalArgumentException("N must be in range from 1 to " + distinct.cardinality());
+        }
+
+        return distinct.select(k - 1);
     }
 
     public Integer quickSelect(Integer[] arr, int left, int right, int k) {
@@ -60,11 +291,13 @@ public class QuickSelectService {
         }
     }
 
-    private Integer[] getUniqueSortedArray(Integer[] arr) {
-        Set<Integer> uniqueSet = new HashSet<>(Arrays.asList(arr));
-        Integer[] uniqueArray = uniqueSet.toArray(new Integer[0]);
-        Arrays.sort(uniqueArray);
-        return uniqueArray;
+    /**
+     * Primitive variant of {@link #quickSelect(Integer[], int, int, int)} working on an
+     * {@code int[]} without boxing. Delegates to the configured {@link SelectionStrategy}
+     * and partially reorders {@code arr} in place.
+     */
+    public int quickSelect(int[] arr, int left, int right, int k) {
+        return strategy.select(arr, left, right, k);
     }
 
     private int partition(Integer[] arr, int left, int right) {
@@ -0,0 +1,188 @@
+package ru.jordosi.nthminimalnumber.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.jordosi.nthminimalnumber.service.reader.XlsxColumnReader;
+import ru.jordosi.nthminimalnumber.service.select.BoundedIntHeap;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Finds the N-th minimal number over a set of workbooks, such as daily partitions of one series.
+ * <p>
+ * Files are parsed in parallel, and each one keeps only its N smallest values in a
+ * {@link BoundedIntHeap}. The global N smallest values are a subset of the union of these
+ * candidates, so the answer is selected from at most {@code files × N} values and memory
+ * does not grow with the total number of rows. Only the first column of the first sheet of
+ * every file is read.
+ * </p>
+ */
+@Service
+public class WorkbookSetService {
+    private static final int INITIAL_HEAP_SIZE = 1024;
+    private static final long MAX_CANDIDATES = Integer.MAX_VALUE - 8;
+
+    private final QuickSelectService quickSelectService;
+    private final ExecutorService parsers;
+
+    /**
+     * @param quickSelectService selection over the merged candidates
+     * @param parallelism number of files parsed at once, 0 for the number of processors
+     */
+    public WorkbookSetService(QuickSelectService quickSelectService,
+                              @Value("${nth-min.files.parallelism:0}") int parallelism) {
+        this.quickSelectService = quickSelectService;
+        this.parsers = Executors.newFixedThreadPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(), runnable -> {
+                    Thread thread = new Thread(runnable, "workbook-set-parser");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        parsers.shutdownNow();
+    }
+
+    /**
+     * Lists the .xlsx files under {@code directory} whose relative path matches the glob.
+     *
+     * @param directory directory to search
+     * @param pattern glob such as {@code 2024-*.xlsx}, or {@code **.xlsx} to include subdirectories;
+     * {@code null} for {@code *.xlsx}
+     * @return matching files in path order
+     * @throws IOException if the directory cannot be read or no file matches
+     */
+    public List<Path> findWorkbooks(String directory, String pattern) throws IOException {
+        if (directory == null || directory.isBlank()) {
+            throw new IllegalArgumentException("Directory cannot be null or empty");
+        }
+        Path root = Path.of(directory);
+        if (!Files.isDirectory(root)) {
+            throw new NoSuchFileException(directory, null, "Not a directory");
+        }
+        String glob = pattern == null || pattern.isBlank() ? "*.xlsx" : pattern;
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+
+        try (Stream<Path> files = Files.walk(root)) {
+            List<Path> workbooks = files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().toLowerCase().endsWith(".xlsx"))
+                    .filter(file -> matcher.matches(root.relativize(file)))
+                    .sorted()
+                    .toList();
+            if (workbooks.isEmpty()) {
+                throw new IOException("No .xlsx files match " + glob + " in " + directory);
+            }
+            return workbooks;
+        }
+    }
+
+    /**
+     * Finds the n-th minimal number over all values of the given workbooks.
+     *
+     * @param workbooks files to read, see {@link #findWorkbooks(String, String)}
+     * @param n 1-based rank
+     * @return the value with the total number of values and files read
+     * @throws IOException if a file cannot be parsed or no file contains numeric data
+     * @throws IllegalArgumentException if n exceeds the total number of values
+     */
+    public Result findNthMinimalNumber(List<Path> workbooks, int n) throws IOException {
+        if (n < 1) {
+            throw new IllegalArgumentException("N must be greater than or equal to 1");
+        }
+
+        List<Future<Candidates>> futures = new ArrayList<>();
+        for (Path workbook : workbooks) {
+            futures.add(parsers.submit(() -> candidates(workbook, n)));
+        }
+
+        List<Candidates> perFile = new ArrayList<>();
+        try {
+            for (Future<Candidates> future : futures) {
+                perFile.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Failed to read workbooks: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading workbooks");
+        }
+
+        long total = 0;
+        long candidateCount = 0;
+        for (Candidates candidates : perFile) {
+            total += candidates.count();
+            candidateCount += candidates.values().length;
+        }
+        if (total == 0) {
+            throw new IOException("No numeric data found in the first column of the Excel files");
+        }
+        if (n > total) {
+            throw new IllegalArgumentException("N must be in range from 1 to " + total);
+        }
+
+        if (candidateCount > MAX_CANDIDATES) {
+            throw new IllegalArgumentException("N is too large for " + workbooks.size()
+                    + " files: " + candidateCount + " candidate values exceed the limit of " + MAX_CANDIDATES);
+        }
+        int[] merged = new int[(int) candidateCount];
+        int offset = 0;
+        for (Candidates candidates : perFile) {
+            System.arraycopy(candidates.values(), 0, merged, offset, candidates.values().length);
+            offset += candidates.values().length;
+        }
+        return new Result(quickSelectService.findNthMinimalNumber(merged, n), total, workbooks.size());
+    }
+
+    /**
+     * Reads one file keeping its {@code n} smallest values. The declared row count is only a
+     * hint (some writers declare {@code A1} whatever the content), so it sizes the initial
+     * heap, which still grows up to {@code n}.
+     */
+    private static Candidates candidates(Path workbook, int n) throws IOException {
+        int rowCountHint = XlsxColumnReader.readRowCountHint(workbook);
+        BoundedIntHeap heap = new BoundedIntHeap(n, rowCountHint > 0 ? rowCountHint : INITIAL_HEAP_SIZE, true);
+        long[] count = new long[1];
+        try {
+            XlsxColumnReader.read(workbook, 0, value -> {
+                count[0]++;
+                heap.offer(value);
+            });
+        } catch (IOException e) {
+            throw new IOException(workbook.getFileName() + ": " + e.getMessage(), e);
+        }
+        return new Candidates(heap.toArray(), count[0]);
+    }
+
+    private record Candidates(int[] values, long count) {
+    }
+
+    /**
+     * @param value n-th minimal number over all files
+     * @param totalNumbers number of values in all files
+     * @param files number of files read
+     */
+    public record Result(int value, long totalNumbers, int files) {
+    }
+}
@@ -0,0 +1,18 @@
+package ru.jordosi.nthminimalnumber.service.admission;
+
+/**
+ * Thrown when a parse could not get its share of the memory budget in time.
+ * Controllers answer it with 503 and a {@code Retry-After} header.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,218 @@
+package ru.jordosi.nthminimalnumber.service.admission;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnType;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control in front of {@link ExcelService} parses.
+ * <p>
+ * Every uncached parse first estimates its heap cost from the declared sheet dimension, or
+ * from the file size when the sheet declares none, and takes that many bytes from a global
+ * budget. Requests wait in FIFO order for up to {@code nth-min.admission.max-wait}; after
+ * that they are rejected with an {@link AdmissionRejectedException}. A single parse larger
+ * than the whole budget waits for all of it and then runs alone.
+ * </p>
+ * Parses estimated above {@code nth-min.admission.large-parse-bytes} run on a small
+ * dedicated pool, so a few big files cannot occupy every request thread; smaller parses run
+ * on the caller's thread and never queue behind them.
+ */
+@Service
+public class AdmissionService {
+    /**
+     * Per value: the growing int buffer (up to 1.5x), its trimmed copy and selection headroom.
+     */
+    static final long BYTES_PER_VALUE = 16;
+    /**
+     * SAX parser, zip inflater and package bookkeeping of one open workbook.
+     */
+    static final long PARSE_OVERHEAD_BYTES = 8L << 20;
+    /**
+     * Lower bound of compressed sheet bytes per numeric row, used when no dimension is declared.
+     */
+    static final long MIN_FILE_BYTES_PER_VALUE = 4;
+
+    private final ExcelService excelService;
+    private final long budgetKib;
+    private final Semaphore budget;
+    private final Duration maxWait;
+    private final long largeParseBytes;
+    private final ExecutorService largeParses;
+
+    /**
+     * @param budgetBytes memory budget shared by concurrent parses, 0 for half of the maximum heap
+     * @param maxWait how long a parse waits for budget before it is rejected
+     * @param largeParseBytes estimated cost from which a parse runs on the large-parse pool
+     * @param largeParseThreads size of the large-parse pool
+     */
+    @Autowired
+    public AdmissionService(ExcelService excelService,
+                            @Value("${nth-min.admission.memory-budget:0}") long budgetBytes,
+                            @Value("${nth-min.admission.max-wait:5s}") Duration maxWait,
+                            @Value("${nth-min.admission.large-parse-bytes:67108864}") long largeParseBytes,
+                            @Value("${nth-min.admission.large-parse-threads:2}") int largeParseThreads) {
+        this.excelService = excelService;
+        long bytes = budgetBytes > 0 ? budgetBytes : Runtime.getRuntime().maxMemory() / 2;
+        this.budgetKib = Math.max(1, Math.min(Integer.MAX_VALUE, bytes >> 10));
+        this.budget = new Semaphore((int) budgetKib, true);
+        this.maxWait = maxWait;
+        this.largeParseBytes = largeParseBytes;
+        AtomicInteger threads = new AtomicInteger();
+        this.largeParses = Executors.newFixedThreadPool(largeParseThreads, runnable -> {
+            Thread thread = new Thread(runnable, "large-parse-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        largeParses.shutdownNow();
+    }
+
+    /**
+     * Runs a parse of column A of the first sheet under admission control.
+     *
+     * @see #parse(String, ColumnSelection, ParseTask)
+     */
+    public <T> T parse(String path, ParseTask<T> task) throws IOException {
+        return parse(path, ColumnSelection.FIRST_COLUMN, task);
+    }
+
+    /**
+     * Runs {@code task} once its estimated cost fits into the memory budget.
+     * Cached columns, and columns whose parse is already running and will be shared,
+     * cost nothing and run immediately.
+     *
+     * @param path workbook the task parses
+     * @param selection sheets and columns the task reads
+     * @return result of the task
+     * @throws AdmissionRejectedException if the budget did not free up in time
+     * @throws IOException if the task fails or the file cannot be inspected
+     */
+    public <T> T parse(String path, ColumnSelection selection, ParseTask<T> task) throws IOException {
+        return parse(path, selection, ColumnType.INT, task);
+    }
+
+    /**
+     * Runs a parse of a selection read as {@code type}, see
+     * {@link ExcelService#findTypedNumbersFromExcel}, under admission control.
+     *
+     * @see #parse(String, ColumnSelection, ParseTask)
+     */
+    public <T> T parse(String path, ColumnSelection selection, ColumnType type, ParseTask<T> task) throws IOException {
+        if (excelService.isCached(path, selection, type) || excelService.isParsing(path, selection, type)) {
+            return task.call();
+        }
+
+        return admit(estimateBytes(path, selection), task);
+    }
+
+    /**
+     * Runs a task whose heap use is known up front, such as an out-of-core selection bounded
+     * by its own budget, once that many bytes fit into the memory budget. Waiting, rejection
+     * and the large-parse pool work as for {@link #parse(String, ColumnSelection, ParseTask)}.
+     *
+     * @param bytes heap the task uses at most
+     * @return result of the task
+     * @throws AdmissionRejectedException if the budget did not free up in time
+     * @throws IOException if the task fails
+     */
+    public <T> T reserve(long bytes, ParseTask<T> task) throws IOException {
+        return admit(bytes, task);
+    }
+
+    private <T> T admit(long cost, ParseTask<T> task) throws IOException {
+        int permits = (int) Math.min(budgetKib, Math.max(1, cost >> 10));
+        try {
+            if (!budget.tryAcquire(permits, maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new AdmissionRejectedException("Server is busy parsing other files, retry later",
+                        Math.max(1, maxWait.toSeconds()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for memory budget");
+        }
+
+        try {
+            return cost >= largeParseBytes ? runLarge(task) : task.call();
+        } finally {
+            budget.release(permits);
+        }
+    }
+
+    /**
+     * Estimates the heap needed to parse and select the selection of a workbook.
+     */
+    public long estimateBytes(String path, ColumnSelection selection) throws IOException {
+        long values = -1;
+        if (selection.sheets().isEmpty()) {
+            int rowCountHint = excelService.getRowCountHint(path);
+            if (rowCountHint >= 0) {
+                values = (long) rowCountHint * selection.columns().size();
+            }
+        }
+        if (values < 0) {
+            return estimateBytes(Files.size(Path.of(path)));
+        }
+        return PARSE_OVERHEAD_BYTES + values * BYTES_PER_VALUE;
+    }
+
+    /**
+     * Estimates the heap needed to parse and select a source that declares no row count,
+     * such as an upload, from its size in bytes.
+     */
+    public long estimateBytes(long sourceBytes) {
+        return PARSE_OVERHEAD_BYTES + sourceBytes / MIN_FILE_BYTES_PER_VALUE * BYTES_PER_VALUE;
+    }
+
+    /**
+     * @return bytes of the budget not held by running parses
+     */
+    public long availableBytes() {
+        return (long) budget.availablePermits() << 10;
+    }
+
+    public long budgetBytes() {
+        return budgetKib << 10;
+    }
+
+    private <T> T runLarge(ParseTask<T> task) throws IOException {
+        Future<T> future = largeParses.submit(task::call);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing");
+        }
+    }
+}
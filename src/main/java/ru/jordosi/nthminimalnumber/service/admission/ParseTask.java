@@ -0,0 +1,13 @@
+package ru.jordosi.nthminimalnumber.service.admission;
+
+import java.io.IOException;
+
+/**
+ * Parse admitted by {@link AdmissionService}.
+ *
+ * @param <T> parsed result
+ */
+@FunctionalInterface
+public interface ParseTask<T> {
+    T call() throws IOException;
+}
@@ -0,0 +1,133 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import ru.jordosi.nthminimalnumber.service.reader.TypedColumn;
+import ru.jordosi.nthminimalnumber.service.select.DistinctBitmap;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Parsed column kept by {@link ColumnCache}.
+ * <p>
+ * Values are shared between callers and must be treated as read-only. They are held either
+ * in a heap array or, for large columns, in an {@link OffHeapIntColumn}; long and double
+ * columns are kept as a {@link TypedColumn}. Exactly one of {@code values}, {@code offHeap}
+ * and {@code typed} is set. An off-heap column is freed when its last holder
+ * releases it, so every {@code CachedColumn} handed out by {@link ColumnCache#get} or
+ * {@code ExcelService} must be {@link #close() closed} once the caller is done with it.
+ * Closing a heap column does nothing.
+ * </p>
+ *
+ * @param values column values in sheet order, or {@code null} if they are stored off-heap
+ * @param offHeap column values in sheet order, or {@code null} if they are stored on the heap
+ * @param typed long or double column values, or {@code null} for an int column
+ * @param distinct distinct values of the column, or {@code null} if not computed yet
+ */
+public record CachedColumn(int[] values, OffHeapIntColumn offHeap, TypedColumn typed, DistinctBitmap distinct)
+        implements AutoCloseable {
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final long ARRAY_HEADER_BYTES = 16;
+
+    public CachedColumn {
+        int stores = (values != null ? 1 : 0) + (offHeap != null ? 1 : 0) + (typed != null ? 1 : 0);
+        if (stores != 1) {
+            throw new IllegalArgumentException("Column must be stored either on the heap, off-heap or typed");
+        }
+    }
+
+    public CachedColumn(int[] values, DistinctBitmap distinct) {
+        this(values, null, null, distinct);
+    }
+
+    public CachedColumn(OffHeapIntColumn offHeap, DistinctBitmap distinct) {
+        this(null, offHeap, null, distinct);
+    }
+
+    public CachedColumn(TypedColumn typed) {
+        this(null, null, typed, null);
+    }
+
+    public CachedColumn withDistinct(DistinctBitmap distinct) {
+        return new CachedColumn(values, offHeap, typed, distinct);
+    }
+
+    public boolean isOffHeap() {
+        return offHeap != null;
+    }
+
+    public int length() {
+        if (typed != null) {
+            return typed.length();
+        }
+        return offHeap == null ? values.length : offHeap.length();
+    }
+
+    /**
+     * @return values in sheet order: the shared heap array, or a heap copy of an off-heap column
+     * @throws IllegalStateException for a long or double column
+     */
+    public int[] toArray() {
+        requireInts();
+        return offHeap == null ? values : offHeap.toArray();
+    }
+
+    /**
+     * Passes every value to the sink in sheet order.
+     *
+     * @throws IllegalStateException for a long or double column
+     */
+    public void forEach(IntConsumer sink) {
+        requireInts();
+        if (offHeap != null) {
+            offHeap.forEach(sink);
+            return;
+        }
+        for (int value : values) {
+            sink.accept(value);
+        }
+    }
+
+    /**
+     * Adds a holder of the column.
+     *
+     * @return {@code false} if the off-heap values have already been freed
+     * @see OffHeapIntColumn#retain()
+     */
+    public boolean retain() {
+        return offHeap == null || offHeap.retain();
+    }
+
+    /**
+     * Drops a holder of the column; the last one frees off-heap values.
+     */
+    @Override
+    public void close() {
+        if (offHeap != null) {
+            offHeap.release();
+        }
+    }
+
+    /**
+     * @return approximate footprint of the entry in bytes, on and off the heap
+     */
+    public long sizeInBytes() {
+        long valueBytes;
+        if (typed != null) {
+            valueBytes = ARRAY_HEADER_BYTES + (long) typed.length() * Long.BYTES;
+        } else if (offHeap != null) {
+            valueBytes = offHeap.sizeInBytes();
+        } else {
+            valueBytes = ARRAY_HEADER_BYTES + (long) values.length * Integer.BYTES;
+        }
+        return ENTRY_OVERHEAD_BYTES + valueBytes + (distinct == null ? 0 : distinct.sizeInBytes());
+    }
+
+    private void requireInts() {
+        if (typed != null) {
+            throw new IllegalStateException("Column holds " + typed.type().tag() + " values");
+        }
+    }
+
+    static long estimateBytes(long values) {
+        return ENTRY_OVERHEAD_BYTES + ARRAY_HEADER_BYTES + values * Integer.BYTES;
+    }
+}
@@ -0,0 +1,105 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of parsed columns keyed by {@link ColumnKey}.
+ * <p>
+ * The cache is bounded by an approximate byte budget rather than an entry count and evicts
+ * the least recently used entries first. A changed file gets a new fingerprint, so stale
+ * entries are never returned and simply age out. A budget of 0 disables caching.
+ * </p>
+ */
+@Service
+public class ColumnCache {
+    private final long maxBytes;
+    private final LinkedHashMap<ColumnKey, CachedColumn> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long currentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ColumnCache(@Value("${nth-min.cache.max-bytes:268435456}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return cached column that the caller must {@link CachedColumn#close() close}, or
+     * {@code null} on a miss
+     */
+    public synchronized CachedColumn get(ColumnKey key) {
+        CachedColumn column = entries.get(key);
+        if (column == null || !column.retain()) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return column;
+    }
+
+    /**
+     * Tells whether a column is cached without affecting statistics or recency.
+     */
+    public synchronized boolean contains(ColumnKey key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Tells whether a column of the given number of values would fit into the budget.
+     */
+    public boolean fits(long values) {
+        return values > 0 && CachedColumn.estimateBytes(values) <= maxBytes;
+    }
+
+    /**
+     * Stores or replaces a column, evicting least recently used entries to stay within budget.
+     * Columns larger than the whole budget are not cached. The cache takes a reference of its
+     * own, the caller keeps its reference.
+     */
+    public synchronized void put(ColumnKey key, CachedColumn column) {
+        long size = column.sizeInBytes();
+        if (size > maxBytes || !column.retain()) {
+            return;
+        }
+        CachedColumn previous = entries.put(key, column);
+        if (previous != null) {
+            currentBytes -= previous.sizeInBytes();
+            previous.close();
+        }
+        currentBytes += size;
+
+        Iterator<Map.Entry<ColumnKey, CachedColumn>> eldest = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<ColumnKey, CachedColumn> entry = eldest.next();
+            if (entry.getKey().equals(key)) {
+                continue;
+            }
+            currentBytes -= entry.getValue().sizeInBytes();
+            entry.getValue().close();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.values().forEach(CachedColumn::close);
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), currentBytes, maxBytes, hits, misses, evictions);
+    }
+
+    /**
+     * Snapshot of cache statistics.
+     */
+    public record Stats(int entries, long bytes, long maxBytes, long hits, long misses, long evictions) {
+    }
+}
@@ -0,0 +1,37 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnType;
+
+/**
+ * Key of a {@link CachedColumn}: the file it was parsed from, the sheets and columns read and
+ * the type the values were read as.
+ *
+ * @param fingerprint identity of the file content
+ * @param selection sheets and columns combined into the cached values
+ * @param type type the values were read as; {@code null} for a long or double column read
+ * without truncation, see {@link ru.jordosi.nthminimalnumber.service.reader.TypedColumnBuffer}
+ */
+public record ColumnKey(FileFingerprint fingerprint, ColumnSelection selection, ColumnType type) {
+
+    /**
+     * Key of an int column.
+     */
+    public ColumnKey(FileFingerprint fingerprint, ColumnSelection selection) {
+        this(fingerprint, selection, ColumnType.INT);
+    }
+
+    /**
+     * @return whether the values are read as ints
+     */
+    public boolean isInt() {
+        return type == ColumnType.INT;
+    }
+
+    /**
+     * @return key of column A of the first sheet
+     */
+    public static ColumnKey of(FileFingerprint fingerprint) {
+        return new ColumnKey(fingerprint, ColumnSelection.FIRST_COLUMN);
+    }
+}
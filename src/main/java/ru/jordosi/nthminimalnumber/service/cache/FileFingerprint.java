@@ -0,0 +1,30 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Identity of a file's content as seen by the file system.
+ * <p>
+ * Two fingerprints are equal when they point to the same canonical path and the file has
+ * neither changed size nor modification time, which is enough to reuse data parsed from it.
+ * </p>
+ *
+ * @param canonicalPath real path with symbolic links resolved
+ * @param size file size in bytes
+ * @param lastModifiedMillis last modification time in milliseconds since the epoch
+ */
+public record FileFingerprint(String canonicalPath, long size, long lastModifiedMillis) {
+
+    /**
+     * @param path path to an existing file
+     * @throws IOException if the file does not exist or its attributes cannot be read
+     */
+    public static FileFingerprint of(Path path) throws IOException {
+        Path realPath = path.toRealPath();
+        BasicFileAttributes attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+        return new FileFingerprint(realPath.toString(), attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+}
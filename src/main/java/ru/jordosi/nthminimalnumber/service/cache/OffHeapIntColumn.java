@@ -0,0 +1,266 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Reference-counted column of ints stored outside the Java heap.
+ * <p>
+ * Values live in a direct {@link ByteBuffer}, so a large cached column is a few dozen bytes
+ * of heap that the garbage collector never has to scan or copy. Every holder (the cache,
+ * each request reading the column) owns a reference; {@link #retain()} adds one and
+ * {@link #release()} drops it. The memory is freed as soon as the last reference is dropped
+ * rather than whenever the buffer object happens to be collected. Reading a released column
+ * throws {@link IllegalStateException}.
+ * </p>
+ * <p>
+ * The Foreign Memory API would give the same explicit lifecycle through an arena, but it is
+ * a preview API on Java 21; the buffer's cleaner is invoked directly instead, falling back to
+ * garbage collection where that is not possible.
+ * </p>
+ */
+public final class OffHeapIntColumn {
+    /**
+     * Most values one column holds: a direct buffer is limited to {@link Integer#MAX_VALUE} bytes.
+     */
+    public static final int MAX_LENGTH = Integer.MAX_VALUE / Integer.BYTES;
+
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+    private static final AtomicLong ALLOCATED_BYTES = new AtomicLong();
+
+    private final ByteBuffer memory;
+    private final IntBuffer values;
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    private OffHeapIntColumn(ByteBuffer memory, int length) {
+        this.memory = memory;
+        this.values = memory.order(ByteOrder.nativeOrder()).asIntBuffer().limit(length).slice();
+    }
+
+    /**
+     * Copies values off the heap; the caller owns the only reference.
+     *
+     * @throws IllegalArgumentException if there are more than {@link #MAX_LENGTH} values
+     */
+    public static OffHeapIntColumn copyOf(int[] values) {
+        OffHeapIntColumn column = new OffHeapIntColumn(allocate(values.length), values.length);
+        column.values.put(0, values);
+        return column;
+    }
+
+    /**
+     * Creates a writer that appends values straight into off-heap memory.
+     *
+     * @param expectedLength expected number of values; the writer grows past it if needed, up
+     * to {@link #MAX_LENGTH} values
+     */
+    public static Writer writer(int expectedLength) {
+        return new Writer(expectedLength);
+    }
+
+    /**
+     * @return bytes currently allocated by all columns and writers
+     */
+    public static long allocatedBytes() {
+        return ALLOCATED_BYTES.get();
+    }
+
+    public int length() {
+        return values.limit();
+    }
+
+    public long sizeInBytes() {
+        return (long) values.limit() * Integer.BYTES;
+    }
+
+    public int get(int index) {
+        checkLive();
+        return values.get(index);
+    }
+
+    /**
+     * @return read-only view of the values; valid only while the caller holds a reference
+     */
+    public IntBuffer values() {
+        checkLive();
+        return values.asReadOnlyBuffer();
+    }
+
+    /**
+     * Passes every value to the sink in column order.
+     */
+    public void forEach(IntConsumer sink) {
+        IntBuffer view = values();
+        for (int i = 0, length = view.limit(); i < length; i++) {
+            sink.accept(view.get(i));
+        }
+    }
+
+    /**
+     * @return heap copy of the values
+     */
+    public int[] toArray() {
+        int[] copy = new int[length()];
+        values().get(0, copy);
+        return copy;
+    }
+
+    /**
+     * Adds a reference unless the column has already been freed.
+     *
+     * @return {@code false} if the column was freed and must not be used
+     */
+    public boolean retain() {
+        int count;
+        do {
+            count = references.get();
+            if (count == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /**
+     * Drops a reference; the last one frees the memory.
+     *
+     * @throws IllegalStateException if the column has already been freed
+     */
+    public void release() {
+        int count = references.decrementAndGet();
+        if (count < 0) {
+            references.incrementAndGet();
+            throw new IllegalStateException("Off-heap column has already been released");
+        }
+        if (count == 0) {
+            free(memory);
+        }
+    }
+
+    public boolean isReleased() {
+        return references.get() == 0;
+    }
+
+    private void checkLive() {
+        if (isReleased()) {
+            throw new IllegalStateException("Off-heap column has already been released");
+        }
+    }
+
+    private static ByteBuffer allocate(int length) {
+        if (length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Column of " + length + " values is too large for a single off-heap block");
+        }
+        ByteBuffer memory = ByteBuffer.allocateDirect(Math.max(1, length) * Integer.BYTES);
+        ALLOCATED_BYTES.addAndGet(memory.capacity());
+        return memory;
+    }
+
+    private static void free(ByteBuffer memory) {
+        ALLOCATED_BYTES.addAndGet(-memory.capacity());
+        if (INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invokeExact(memory);
+            } catch (Throwable e) {
+                // the memory is returned when the buffer is garbage collected
+            }
+        }
+    }
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Appends parsed values into off-heap memory, doubling it when full; the old block is
+     * freed right after it is copied. {@link #finish()} hands the memory over to a column,
+     * trimmed to the written values so the cache accounts for what is actually allocated.
+     */
+    public static final class Writer implements IntConsumer {
+        private ByteBuffer memory;
+        private IntBuffer values;
+        private int size;
+
+        private Writer(int expectedLength) {
+            memory = allocate(Math.min(MAX_LENGTH, Math.max(16, expectedLength)));
+            values = memory.order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+
+        @Override
+        public void accept(int value) {
+            if (memory == null) {
+                throw new IllegalStateException("Writer is already finished");
+            }
+            if (size == values.capacity()) {
+                grow();
+            }
+            values.put(size++, value);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return column of the written values; the caller owns its only reference
+         */
+        public OffHeapIntColumn finish() {
+            if (memory == null) {
+                throw new IllegalStateException("Writer is already finished");
+            }
+            if (size < values.capacity()) {
+                resize(size);
+            }
+            OffHeapIntColumn column = new OffHeapIntColumn(memory, size);
+            memory = null;
+            values = null;
+            return column;
+        }
+
+        /**
+         * Frees the memory of an unfinished writer, e.g. after a failed parse.
+         */
+        public void discard() {
+            if (memory != null) {
+                free(memory);
+                memory = null;
+                values = null;
+            }
+        }
+
+        private void grow() {
+            int capacity = (int) Math.min(MAX_LENGTH, 2L * values.capacity());
+            if (capacity == values.capacity()) {
+                throw new IllegalArgumentException("Column of more than " + MAX_LENGTH
+                        + " values is too large for a single off-heap block");
+            }
+            resize(capacity);
+        }
+
+        private void resize(int capacity) {
+            ByteBuffer resized = allocate(capacity);
+            IntBuffer resizedValues = resized.order(ByteOrder.nativeOrder()).asIntBuffer();
+            resizedValues.put(0, values, 0, size);
+            free(memory);
+            memory = resized;
+            values = resizedValues;
+        }
+    }
+}
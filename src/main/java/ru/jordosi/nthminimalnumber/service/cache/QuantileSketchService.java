@@ -0,0 +1,230 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics.Phase;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnReader;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.select.KllSketch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@link KllSketch quantile sketches} of the first column of files for approximate queries.
+ * <p>
+ * A file is streamed through a sketch once; the sketch is kept in memory and saved as a sidecar
+ * ({@code <name>.nmkll} in {@code nth-min.index.dir}, or next to the source) stamped with the
+ * source fingerprint, so later queries and merges over sets of files never read the source again.
+ * Sketches take a few kilobytes whatever the size of the file. Sidecar layout (little-endian):
+ * <pre>
+ * int    magic "NMKL"
+ * int    format version
+ * long   source size
+ * long   source last modified millis
+ * int    source path length in bytes
+ * byte[] source canonical path (UTF-8), padded to a multiple of 4
+ * ...    sketch, see {@link KllSketch#writeTo(ByteBuffer)}
+ * </pre>
+ * </p>
+ */
+@Service
+public class QuantileSketchService {
+    static final String SUFFIX = ".nmkll";
+    static final int MAGIC = 0x4C4B4D4E; // "NMKL" little-endian
+    static final int VERSION = 1;
+    private static final int FIXED_HEADER_BYTES = 28;
+
+    private static final Logger log = LoggerFactory.getLogger(QuantileSketchService.class);
+
+    private final NthMinMetrics metrics;
+    private final int k;
+    private final boolean persistent;
+    private final Path indexDir;
+    private final Map<String, Entry> sketches = new ConcurrentHashMap<>();
+
+    /**
+     * @param k accuracy parameter of new sketches
+     * @param persistent whether sketches are saved as sidecars
+     * @param indexDir directory of the sidecars; empty to save them next to the source files
+     */
+    public QuantileSketchService(NthMinMetrics metrics,
+                                 @Value("${nth-min.sketch.k:200}") int k,
+                                 @Value("${nth-min.index.enabled:true}") boolean persistent,
+                                 @Value("${nth-min.index.dir:${java.io.tmpdir}/nth-min-index}") String indexDir) {
+        this.metrics = metrics;
+        this.k = k;
+        this.persistent = persistent;
+        this.indexDir = indexDir == null || indexDir.isBlank() ? null : Path.of(indexDir);
+    }
+
+    /**
+     * Returns the sketch of the first column of a file, from memory, from its sidecar or by
+     * streaming the file once.
+     *
+     * @param file .xlsx, .csv, .tsv or raw int32 file
+     * @return sketch of the current content of the file; empty if the file has no numeric data.
+     * Callers must not update it
+     * @throws IOException if the file cannot be read
+     */
+    public KllSketch sketch(Path file) throws IOException {
+        FileFingerprint fingerprint = FileFingerprint.of(file);
+        KllSketch sketch = find(fingerprint);
+        if (sketch != null) {
+            return sketch;
+        }
+
+        sketch = build(file);
+        if (!fingerprint.equals(FileFingerprint.of(file))) {
+            log.debug("{} changed while building its sketch", file);
+            return sketch;
+        }
+        if (persistent) {
+            try {
+                save(sidecarPath(fingerprint), fingerprint, sketch);
+            } catch (IOException e) {
+                log.warn("Failed to save sketch of {}: {}", file, e.getMessage());
+            }
+        }
+        sketches.put(fingerprint.canonicalPath(), new Entry(fingerprint, sketch));
+        return sketch;
+    }
+
+    /**
+     * Tells whether {@link #sketch(Path)} would answer without reading the file.
+     *
+     * @param file .xlsx, .csv, .tsv or raw int32 file
+     */
+    public boolean isSketched(Path file) {
+        try {
+            return find(FileFingerprint.of(file)) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return sketch of the current content of the file from memory or from its sidecar, which
+     * is then kept in memory; {@code null} if there is none
+     */
+    private KllSketch find(FileFingerprint fingerprint) {
+        Entry entry = sketches.get(fingerprint.canonicalPath());
+        if (entry != null && entry.source().equals(fingerprint)) {
+            return entry.sketch();
+        }
+        KllSketch sketch = persistent ? load(fingerprint) : null;
+        if (sketch != null) {
+            sketches.put(fingerprint.canonicalPath(), new Entry(fingerprint, sketch));
+        }
+        return sketch;
+    }
+
+    /**
+     * Merges the sketches of several files; only files without a valid sketch are read.
+     *
+     * @param files files to summarize
+     * @return new sketch of all values of the files
+     * @throws IOException if a file cannot be read
+     */
+    public KllSketch sketch(List<Path> files) throws IOException {
+        KllSketch merged = new KllSketch(k);
+        for (Path file : files) {
+            try {
+                merged.merge(sketch(file));
+            } catch (IOException e) {
+                throw new IOException(file.getFileName() + ": " + e.getMessage(), e);
+            }
+        }
+        return merged;
+    }
+
+    private KllSketch build(Path file) throws IOException {
+        KllSketch sketch = new KllSketch(k);
+        long start = System.nanoTime();
+        ColumnReader.read(file, ColumnSelection.FIRST_COLUMN, sketch, null);
+        metrics.record(Phase.PARSE, System.nanoTime() - start);
+        return sketch;
+    }
+
+    private KllSketch load(FileFingerprint fingerprint) {
+        try {
+            Path sidecar = sidecarPath(fingerprint);
+            if (!Files.isRegularFile(sidecar)) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(sidecar)).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < FIXED_HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.debug("Unsupported sketch format: {}", sidecar);
+                return null;
+            }
+            long sourceSize = buffer.getLong();
+            long sourceModified = buffer.getLong();
+            int pathLength = buffer.getInt();
+            if (pathLength < 0 || pad(pathLength) > buffer.remaining()) {
+                log.debug("Corrupted sketch: {}", sidecar);
+                return null;
+            }
+            byte[] path = new byte[pathLength];
+            buffer.get(path);
+            buffer.position(FIXED_HEADER_BYTES + pad(pathLength));
+
+            FileFingerprint source = new FileFingerprint(new String(path, StandardCharsets.UTF_8), sourceSize, sourceModified);
+            if (!source.equals(fingerprint)) {
+                log.debug("Sketch {} is stale", sidecar);
+                return null;
+            }
+            KllSketch sketch = KllSketch.readFrom(buffer);
+            return sketch.k() == k ? sketch : null;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Sketch of {} is not usable: {}", fingerprint.canonicalPath(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes a sidecar atomically: data goes to a temporary file that replaces the target.
+     */
+    static void save(Path file, FileFingerprint source, KllSketch sketch) throws IOException {
+        byte[] path = source.canonicalPath().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_HEADER_BYTES + pad(path.length) + sketch.serializedSize())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(source.size())
+                .putLong(source.lastModifiedMillis())
+                .putInt(path.length)
+                .put(path)
+                .position(FIXED_HEADER_BYTES + pad(path.length));
+        sketch.writeTo(buffer);
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, buffer.array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    Path sidecarPath(FileFingerprint fingerprint) throws IOException {
+        return SidecarIndexService.sidecarPath(indexDir, fingerprint, SUFFIX);
+    }
+
+    private static int pad(int length) {
+        return (length + 3) & ~3;
+    }
+
+    private record Entry(FileFingerprint source, KllSketch sketch) {
+    }
+}
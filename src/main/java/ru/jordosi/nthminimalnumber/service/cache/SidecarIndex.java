@@ -0,0 +1,280 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped sorted copy of a parsed column stored in a binary sidecar file.
+ * <p>
+ * Layout (little-endian):
+ * <pre>
+ * int    magic "NMIX"
+ * int    format version
+ * long   source size
+ * long   source last modified millis
+ * int    number of values
+ * int    number of distinct values
+ * int    source path length in bytes
+ * byte[] source canonical path (UTF-8), padded to a multiple of 4
+ * int[]  values in ascending order
+ * int[]  distinct values in ascending order
+ * </pre>
+ * Order statistics are answered with a single indexed read from the mapping.
+ * </p>
+ * <p>
+ * Rank queries go through a directory holding every {@value #DIRECTORY_STRIDE}-th sorted value
+ * (one page of the mapping per entry), built on the first such query: a binary search over
+ * the directory on the heap narrows the search down to one page of the mapping, so counting
+ * values below X touches a single page and takes O(log n).
+ * </p>
+ */
+public final class SidecarIndex {
+    static final int MAGIC = 0x58494D4E; // "NMIX" little-endian
+    static final int VERSION = 1;
+    private static final int FIXED_HEADER_BYTES = 36;
+    private static final int DIRECTORY_SHIFT = 10;
+    static final int DIRECTORY_STRIDE = 1 << DIRECTORY_SHIFT;
+
+    private final FileFingerprint source;
+    private final IntBuffer sorted;
+    private final IntBuffer distinct;
+    private volatile int[] directory;
+
+    private SidecarIndex(FileFingerprint source, IntBuffer sorted, IntBuffer distinct) {
+        this.source = source;
+        this.sorted = sorted;
+        this.distinct = distinct;
+    }
+
+    /**
+     * Maps an existing sidecar file.
+     *
+     * @throws IOException if the file cannot be read or is not a valid sidecar
+     */
+    public static SidecarIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < FIXED_HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Invalid sidecar index size: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                throw new IOException("Unsupported sidecar index format: " + file);
+            }
+            long sourceSize = mapped.getLong();
+            long sourceModified = mapped.getLong();
+            int count = mapped.getInt();
+            int distinctCount = mapped.getInt();
+            int pathLength = mapped.getInt();
+            int dataOffset = FIXED_HEADER_BYTES + pad(pathLength);
+            if (count < 0 || distinctCount < 0 || pathLength < 0
+                    || dataOffset + ((long) count + distinctCount) * Integer.BYTES != fileSize) {
+                throw new IOException("Corrupted sidecar index: " + file);
+            }
+            byte[] path = new byte[pathLength];
+            mapped.get(path);
+
+            FileFingerprint source = new FileFingerprint(new String(path, StandardCharsets.UTF_8), sourceSize, sourceModified);
+            IntBuffer sorted = mapped.slice(dataOffset, count * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            IntBuffer distinct = mapped.slice(dataOffset + count * Integer.BYTES, distinctCount * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            return new SidecarIndex(source, sorted, distinct);
+        }
+    }
+
+    /**
+     * Tells whether a sidecar of the given number of sorted and distinct values together can
+     * be mapped: {@link #open} maps the whole file as one buffer of at most
+     * {@link Integer#MAX_VALUE} bytes, about 536 million values.
+     */
+    public static boolean fits(FileFingerprint source, long values) {
+        int pathLength = source.canonicalPath().getBytes(StandardCharsets.UTF_8).length;
+        return FIXED_HEADER_BYTES + pad(pathLength) + values * Integer.BYTES <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Creates an index on the heap that is not backed by a sidecar file.
+     *
+     * @param sortedValues column values in ascending order
+     * @param distinctValues distinct column values in ascending order
+     */
+    public static SidecarIndex of(FileFingerprint source, int[] sortedValues, int[] distinctValues) {
+        return new SidecarIndex(source, IntBuffer.wrap(sortedValues).asReadOnlyBuffer(),
+                IntBuffer.wrap(distinctValues).asReadOnlyBuffer());
+    }
+
+    /**
+     * Writes a sidecar file atomically: data goes to a temporary file that replaces the target.
+     *
+     * @param sortedValues column values in ascending order
+     * @param distinctValues distinct column values in ascending order
+     * @throws IOException if the file cannot be written or would be too large to map
+     */
+    public static void write(Path file, FileFingerprint source, int[] sortedValues, int[] distinctValues) throws IOException {
+        if (!fits(source, (long) sortedValues.length + distinctValues.length)) {
+            throw new IOException("Sidecar index of " + sortedValues.length + " values is too large to map");
+        }
+        byte[] path = source.canonicalPath().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_BYTES + pad(path.length)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(source.size())
+                .putLong(source.lastModifiedMillis())
+                .putInt(sortedValues.length)
+                .putInt(distinctValues.length)
+                .putInt(path.length)
+                .put(path);
+        header.clear();
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, header);
+                ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+                writeInts(channel, chunk, sortedValues);
+                writeInts(channel, chunk, distinctValues);
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public FileFingerprint source() {
+        return source;
+    }
+
+    public int count() {
+        return sorted.limit();
+    }
+
+    public int distinctCount() {
+        return distinct.limit();
+    }
+
+    /**
+     * @return bytes this index holds on the heap, {@code 0} if it maps a sidecar file
+     */
+    long heapBytes() {
+        return sorted.isDirect() ? 0 : (long) Integer.BYTES * (sorted.capacity() + distinct.capacity());
+    }
+
+    /**
+     * @param n 1-based rank, {@code 1 <= n <= count()}
+     */
+    public int nthMinimal(int n) {
+        return sorted.get(n - 1);
+    }
+
+    /**
+     * @param n 1-based rank among distinct values, {@code 1 <= n <= distinctCount()}
+     */
+    public int nthMinimalUnique(int n) {
+        return distinct.get(n - 1);
+    }
+
+    /**
+     * @return number of values less than {@code value}
+     */
+    public int countBelow(int value) {
+        int[] entries = directory();
+        int blocks = lowerBound(entries, value);
+        if (blocks == 0) {
+            return 0;
+        }
+        // sorted[(blocks - 1) * STRIDE] < value <= sorted[blocks * STRIDE]
+        int lo = ((blocks - 1) << DIRECTORY_SHIFT) + 1;
+        int hi = Math.min(blocks << DIRECTORY_SHIFT, count());
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted.get(mid) < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * @return number of values less than or equal to {@code value}
+     */
+    public int countAtMost(int value) {
+        return value == Integer.MAX_VALUE ? count() : countBelow(value + 1);
+    }
+
+    /**
+     * @param from 1-based rank of the first value, {@code 1 <= from}
+     * @param to 1-based rank of the last value, {@code from <= to <= count()}
+     * @return values of ranks {@code from..to} in ascending order
+     */
+    public int[] range(int from, int to) {
+        int[] values = new int[to - from + 1];
+        sorted.get(from - 1, values);
+        return values;
+    }
+
+    private int[] directory() {
+        int[] entries = directory;
+        if (entries == null) {
+            entries = new int[(count() + DIRECTORY_STRIDE - 1) >>> DIRECTORY_SHIFT];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = sorted.get(i << DIRECTORY_SHIFT);
+            }
+            directory = entries;
+        }
+        return entries;
+    }
+
+    /**
+     * @return number of entries less than {@code value}
+     */
+    private static int lowerBound(int[] entries, int value) {
+        int lo = 0;
+        int hi = entries.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (entries[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int pad(int length) {
+        return (length + 3) & ~3;
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer chunk, int[] values) throws IOException {
+        IntBuffer ints = chunk.clear().asIntBuffer();
+        for (int offset = 0; offset < values.length; ) {
+            int length = Math.min(ints.capacity(), values.length - offset);
+            ints.clear();
+            ints.put(values, offset, length);
+            chunk.clear().limit(length * Integer.BYTES);
+            writeFully(channel, chunk);
+            offset += length;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
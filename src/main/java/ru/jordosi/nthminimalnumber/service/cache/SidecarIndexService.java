@@ -0,0 +1,347 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionService;
+import ru.jordosi.nthminimalnumber.service.admission.ParseTask;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps persistent {@link SidecarIndex} files for parsed files.
+ * <p>
+ * A sidecar holds the sorted first column and its distinct values, so after a restart the
+ * N-th minimum is answered from a memory mapping without touching the source. Sidecars
+ * live in {@code nth-min.index.dir}, a directory under {@code java.io.tmpdir} by default, or
+ * next to the source file ({@code <name>.xlsx.nmidx}) when it is set empty. A sidecar whose stored fingerprint no longer matches the source is
+ * ignored and rebuilt in the background.
+ * </p>
+ * <p>
+ * Rank and range queries need the sorted column, so {@link #findOrBuild} builds the index
+ * while the request waits when there is none yet. Each file is built once: concurrent callers
+ * wait for the build already running, and the sorted and distinct copies are charged to
+ * {@link AdmissionService}. With sidecars disabled the index stays on the heap, within
+ * {@code nth-min.index.max-heap-bytes}.
+ * </p>
+ */
+@Service
+public class SidecarIndexService {
+    static final String SUFFIX = ".nmidx";
+    /**
+     * Most indexes kept open; the least recently used mapping is dropped first and unmapped
+     * once it is garbage collected.
+     */
+    static final int MAX_MAPPED = 256;
+    /**
+     * Per value while building: the sorted copy and the distinct values before and after trimming.
+     */
+    static final long BUILD_BYTES_PER_VALUE = 3L * Integer.BYTES;
+
+    private static final Logger log = LoggerFactory.getLogger(SidecarIndexService.class);
+
+    private final ExcelService excelService;
+    private final AdmissionService admissionService;
+    private final boolean enabled;
+    private final Path indexDir;
+    private final long maxHeapBytes;
+    private final Map<String, SidecarIndex> mapped = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SidecarIndex> eldest) {
+                    return size() > MAX_MAPPED;
+                }
+            });
+    private final Map<FileFingerprint, CompletableFuture<SidecarIndex>> building = new ConcurrentHashMap<>();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sidecar-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param admissionService memory budget that parses and builds are charged to
+     * @param maxHeapBytes most heap kept by indexes without a sidecar, 0 for an eighth of the
+     * maximum heap
+     */
+    public SidecarIndexService(ExcelService excelService, AdmissionService admissionService,
+                               @Value("${nth-min.index.enabled:true}") boolean enabled,
+                               @Value("${nth-min.index.dir:${java.io.tmpdir}/nth-min-index}") String indexDir,
+                               @Value("${nth-min.index.max-heap-bytes:0}") long maxHeapBytes) {
+        this.excelService = excelService;
+        this.admissionService = admissionService;
+        this.enabled = enabled;
+        this.indexDir = indexDir == null || indexDir.isBlank() ? null : Path.of(indexDir);
+        this.maxHeapBytes = maxHeapBytes > 0 ? maxHeapBytes : Runtime.getRuntime().maxMemory() / 8;
+    }
+
+    /**
+     * Returns an up-to-date index for the file.
+     *
+     * @param path path to the source file
+     * @return mapped or heap index, or {@code null} if there is none for the current content of
+     * the file; callers then fall back to parsing and may {@link #scheduleBuild(String)}
+     */
+    public SidecarIndex find(String path) {
+        if (path == null) {
+            return null;
+        }
+        try {
+            FileFingerprint fingerprint = FileFingerprint.of(Path.of(path));
+            SidecarIndex index = mapped.get(fingerprint.canonicalPath());
+            if (index != null && index.source().equals(fingerprint)) {
+                return index;
+            }
+            if (!enabled) {
+                return null;
+            }
+
+            Path sidecar = sidecarPath(fingerprint);
+            if (!Files.isRegularFile(sidecar)) {
+                return null;
+            }
+            index = SidecarIndex.open(sidecar);
+            if (!index.source().equals(fingerprint)) {
+                log.debug("Sidecar index {} is stale", sidecar);
+                mapped.remove(fingerprint.canonicalPath());
+                return null;
+            }
+            mapped.put(fingerprint.canonicalPath(), index);
+            return index;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Sidecar index for {} is not usable: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns an up-to-date index for the file, building it from the parsed first column if
+     * there is none. A caller that finds a build of the same file running waits for it.
+     *
+     * @param path path to the source file
+     * @param column parses the first column of the file; called only if the index is built,
+     * and closed once the sorted copy is taken
+     * @throws IOException if the file cannot be parsed or the sidecar cannot be written
+     */
+    public SidecarIndex findOrBuild(String path, ParseTask<CachedColumn> column) throws IOException {
+        SidecarIndex index = find(path);
+        if (index != null) {
+            return index;
+        }
+        FileFingerprint fingerprint = FileFingerprint.of(Path.of(path));
+        CompletableFuture<SidecarIndex> pending = new CompletableFuture<>();
+        CompletableFuture<SidecarIndex> running = building.putIfAbsent(fingerprint, pending);
+        if (running != null) {
+            return await(running);
+        }
+        return build(path, fingerprint, column, pending);
+    }
+
+    /**
+     * Builds or rebuilds the sidecar of the file on a background thread.
+     * Does nothing if a build for the same file is already pending.
+     *
+     * @param path path to the source file
+     */
+    public void scheduleBuild(String path) {
+        if (!enabled || path == null) {
+            return;
+        }
+        FileFingerprint fingerprint;
+        try {
+            fingerprint = FileFingerprint.of(Path.of(path));
+        } catch (IOException e) {
+            log.debug("Cannot build sidecar index for {}: {}", path, e.getMessage());
+            return;
+        }
+        CompletableFuture<SidecarIndex> pending = new CompletableFuture<>();
+        if (building.putIfAbsent(fingerprint, pending) != null) {
+            return;
+        }
+        builder.execute(() -> {
+            try {
+                build(path, fingerprint, parse(path), pending);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to build sidecar index for {}: {}", path, e.getMessage());
+            }
+        });
+    }
+
+    void build(String path) throws IOException {
+        findOrBuild(path, parse(path));
+    }
+
+    private ParseTask<CachedColumn> parse(String path) {
+        return () -> admissionService.parse(path, () -> excelService.acquireColumn(path));
+    }
+
+    /**
+     * Runs the build registered as {@code pending}, unless an index appeared since the caller
+     * last looked, and hands the result to callers waiting for it.
+     */
+    private SidecarIndex build(String path, FileFingerprint fingerprint, ParseTask<CachedColumn> values,
+                               CompletableFuture<SidecarIndex> pending) throws IOException {
+        try {
+            SidecarIndex index = find(path);
+            if (index == null) {
+                try (CachedColumn column = values.call()) {
+                    // every value may be distinct, and the sorted and distinct values are mapped as one file
+                    if (enabled && !SidecarIndex.fits(fingerprint, 2L * column.length())) {
+                        throw new IOException("Column of " + column.length() + " values is too large for a sidecar index");
+                    }
+                    index = admissionService.reserve(column.length() * BUILD_BYTES_PER_VALUE,
+                            () -> build(path, fingerprint, column));
+                }
+            }
+            pending.complete(index);
+            return index;
+        } catch (IOException | RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(fingerprint, pending);
+        }
+    }
+
+    /**
+     * Sorts the values and writes them as the sidecar of the file, unless sidecars are
+     * disabled or the file changed since {@code fingerprint} was taken. An off-heap column is
+     * copied to the heap once, as the array that is sorted.
+     *
+     * @return the mapped sidecar, or an index on the heap if none was written
+     */
+    private SidecarIndex build(String path, FileFingerprint fingerprint, CachedColumn column) throws IOException {
+        int[] sorted = column.isOffHeap() ? column.offHeap().toArray() : column.values().clone();
+        Arrays.sort(sorted);
+        int[] distinct = distinct(sorted);
+
+        if (!fingerprint.equals(FileFingerprint.of(Path.of(path)))) {
+            log.debug("{} changed while building its index", path);
+            return SidecarIndex.of(fingerprint, sorted, distinct);
+        }
+        if (!enabled) {
+            SidecarIndex index = SidecarIndex.of(fingerprint, sorted, distinct);
+            remember(fingerprint, index);
+            return index;
+        }
+        Path sidecar = sidecarPath(fingerprint);
+        SidecarIndex.write(sidecar, fingerprint, sorted, distinct);
+        SidecarIndex index = SidecarIndex.open(sidecar);
+        remember(fingerprint, index);
+        log.info("Built sidecar index {} ({} values)", sidecar, sorted.length);
+        return index;
+    }
+
+    /**
+     * Keeps the index for later queries, dropping the least recently used heap indexes while
+     * all of them together hold more than {@code maxHeapBytes}.
+     */
+    private void remember(FileFingerprint fingerprint, SidecarIndex index) {
+        synchronized (mapped) {
+            mapped.put(fingerprint.canonicalPath(), index);
+            long heapBytes = 0;
+            for (SidecarIndex kept : mapped.values()) {
+                heapBytes += kept.heapBytes();
+            }
+            for (Iterator<SidecarIndex> kept = mapped.values().iterator();
+                 heapBytes > maxHeapBytes && kept.hasNext(); ) {
+                SidecarIndex eldest = kept.next();
+                if (eldest.heapBytes() > 0 && eldest != index) {
+                    heapBytes -= eldest.heapBytes();
+                    kept.remove();
+                }
+            }
+        }
+    }
+
+    private static SidecarIndex await(CompletableFuture<SidecarIndex> running) throws IOException {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the index build");
+        }
+    }
+
+    private static int[] distinct(int[] sorted) {
+        int[] distinct = new int[sorted.length];
+        int unique = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                distinct[unique++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(distinct, unique);
+    }
+
+    int mappedCount() {
+        return mapped.size();
+    }
+
+    Path sidecarPath(FileFingerprint fingerprint) throws IOException {
+        return sidecarPath(indexDir, fingerprint, SUFFIX);
+    }
+
+    /**
+     * Location of a sidecar file of the given kind: in {@code indexDir} (created on demand)
+     * under a name made unique by the SHA-256 of the canonical source path, or next to the
+     * source file.
+     *
+     * @param indexDir configured index directory, {@code null} for next to the source
+     * @param suffix file name suffix of the sidecar kind
+     */
+    static Path sidecarPath(Path indexDir, FileFingerprint fingerprint, String suffix) throws IOException {
+        Path source = Path.of(fingerprint.canonicalPath());
+        if (indexDir == null) {
+            return source.resolveSibling(source.getFileName() + suffix);
+        }
+        Files.createDirectories(indexDir);
+        String name = source.getFileName() + "-" + sha256(fingerprint.canonicalPath());
+        return indexDir.resolve(name + suffix);
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        builder.shutdownNow();
+    }
+}
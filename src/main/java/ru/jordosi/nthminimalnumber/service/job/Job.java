@@ -0,0 +1,143 @@
+package ru.jordosi.nthminimalnumber.service.job;
+
+import ru.jordosi.nthminimalnumber.service.reader.ParseProgress;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+/**
+ * State of one asynchronous N-th minimum search.
+ * <p>
+ * Written by the worker thread and read by status requests, so every mutable field is
+ * volatile. Parse progress comes from the shared {@link ParseProgress}.
+ * </p>
+ */
+class Job {
+    private final String id;
+    private final String path;
+    private final int n;
+    private final Instant submittedAt;
+    private final ParseProgress progress = new ParseProgress();
+
+    private volatile JobPhase phase = JobPhase.QUEUED;
+    private volatile int rowCountHint = -1;
+    private volatile Instant parseStartedAt;
+    private volatile Instant finishedAt;
+    private volatile JobResult result;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    Job(String id, String path, int n, Instant submittedAt) {
+        this.id = id;
+        this.path = path;
+        this.n = n;
+        this.submittedAt = submittedAt;
+    }
+
+    String id() {
+        return id;
+    }
+
+    String path() {
+        return path;
+    }
+
+    int n() {
+        return n;
+    }
+
+    ParseProgress progress() {
+        return progress;
+    }
+
+    JobPhase phase() {
+        return phase;
+    }
+
+    /**
+     * @return the result of a job that is {@link JobPhase#DONE}, otherwise {@code null}
+     */
+    JobResult result() {
+        return phase == JobPhase.DONE ? result : null;
+    }
+
+    String error() {
+        return error;
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    void startParsing(int rowCountHint, Instant now) {
+        this.rowCountHint = rowCountHint;
+        this.parseStartedAt = now;
+        this.phase = JobPhase.PARSING;
+    }
+
+    void startSelecting() {
+        phase = JobPhase.SELECTING;
+    }
+
+    void succeed(JobResult result, Instant now) {
+        finish(JobPhase.DONE, now, result, null);
+    }
+
+    void fail(String error, Instant now) {
+        finish(JobPhase.FAILED, now, null, error);
+    }
+
+    /**
+     * Requests cancellation: a queued job never starts, a parsing job stops at the next
+     * progress check. Finished jobs are left as they are.
+     *
+     * @return {@code true} if the job was still running
+     */
+    boolean cancel(Instant now) {
+        if (phase.isFinished()) {
+            return false;
+        }
+        progress.cancel();
+        Future<?> running = future;
+        if (running != null && running.cancel(false)) {
+            finish(JobPhase.CANCELLED, now, null, null);
+        }
+        return true;
+    }
+
+    void cancelled(Instant now) {
+        finish(JobPhase.CANCELLED, now, null, null);
+    }
+
+    /**
+     * Moves the job to its final phase together with its result or error. The first call wins:
+     * a worker finishing after the job was cancelled leaves no result behind.
+     */
+    private synchronized void finish(JobPhase finalPhase, Instant now, JobResult result, String error) {
+        if (!phase.isFinished()) {
+            this.result = result;
+            this.error = error;
+            finishedAt = now;
+            phase = finalPhase;
+        }
+    }
+
+    /**
+     * @return snapshot of the job; the ETA extrapolates the parse rate to the declared row count
+     */
+    JobStatus status(Instant now) {
+        long rowsParsed = progress.values();
+        Long etaMillis = null;
+        Instant started = parseStartedAt;
+        if (phase == JobPhase.PARSING && started != null && rowsParsed > 0 && rowCountHint > rowsParsed) {
+            long elapsed = Duration.between(started, now).toMillis();
+            etaMillis = elapsed * (rowCountHint - rowsParsed) / rowsParsed;
+        }
+        return new JobStatus(id, phase, rowsParsed, rowCountHint, etaMillis, submittedAt, finishedAt, error);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.jordosi.nthminimalnumber.service.job;
+
+/**
+ * Lifecycle of a {@link Job}.
+ */
+public enum JobPhase {
+    QUEUED, PARSING, SELECTING, DONE, FAILED, CANCELLED;
+
+    public boolean isFinished() {
+        return this == DONE || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.jordosi.nthminimalnumber.service.job;
+
+/**
+ * Result of a finished job, shaped like the response of {@code /find-nth-min}.
+ *
+ * @param n requested rank
+ * @param result n-th minimal number
+ * @param totalNumbers number of values in the column
+ */
+public record JobResult(int n, int result, int totalNumbers) {
+}
@@ -0,0 +1,189 @@
+package ru.jordosi.nthminimalnumber.service.job;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.QuickSelectService;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionService;
+import ru.jordosi.nthminimalnumber.service.cache.CachedColumn;
+import ru.jordosi.nthminimalnumber.service.cache.SidecarIndex;
+import ru.jordosi.nthminimalnumber.service.cache.SidecarIndexService;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs N-th minimum searches as background jobs, so very large files are not parsed on a
+ * servlet thread while the client connection waits.
+ * <p>
+ * Jobs run on a fixed pool with a bounded queue; a full queue rejects new submissions.
+ * Finished jobs are kept for {@code nth-min.jobs.result-ttl} and dropped on the next
+ * access after that. Cancellation is cooperative: the parse stops at its next progress check.
+ * </p>
+ */
+@Service
+public class JobService {
+    private static final Logger log = LoggerFactory.getLogger(JobService.class);
+
+    private final ExcelService excelService;
+    private final QuickSelectService quickSelectService;
+    private final SidecarIndexService sidecarIndexService;
+    private final AdmissionService admissionService;
+    private final ThreadPoolExecutor executor;
+    private final Duration resultTtl;
+    private final Clock clock;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * @param parallelism number of jobs running at once
+     * @param queueCapacity number of jobs waiting for a worker before submissions are rejected
+     * @param resultTtl how long finished jobs are kept
+     */
+    @Autowired
+    public JobService(ExcelService excelService, QuickSelectService quickSelectService,
+                      SidecarIndexService sidecarIndexService, AdmissionService admissionService,
+                      @Value("${nth-min.jobs.parallelism:2}") int parallelism,
+                      @Value("${nth-min.jobs.queue-capacity:16}") int queueCapacity,
+                      @Value("${nth-min.jobs.result-ttl:10m}") Duration resultTtl) {
+        this(excelService, quickSelectService, sidecarIndexService, admissionService, parallelism, queueCapacity,
+                resultTtl, Clock.systemUTC());
+    }
+
+    JobService(ExcelService excelService, QuickSelectService quickSelectService,
+               SidecarIndexService sidecarIndexService, AdmissionService admissionService, int parallelism,
+               int queueCapacity, Duration resultTtl, Clock clock) {
+        this.excelService = excelService;
+        this.quickSelectService = quickSelectService;
+        this.sidecarIndexService = sidecarIndexService;
+        this.admissionService = admissionService;
+        this.resultTtl = resultTtl;
+        this.clock = clock;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "nth-min-job-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(job -> job.cancel(clock.instant()));
+        executor.shutdown();
+    }
+
+    /**
+     * Queues a search for the n-th minimal number of the first column of a workbook.
+     *
+     * @return status of the queued job
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public JobStatus submit(String path, int n) {
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("File path cannot be null or empty");
+        }
+        if (n < 1) {
+            throw new IllegalArgumentException("N must be greater than or equal to 1");
+        }
+        purgeExpired();
+
+        Job job = new Job(UUID.randomUUID().toString(), path, n, clock.instant());
+        jobs.put(job.id(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id());
+            throw new RejectedExecutionException("Job queue is full, retry later", e);
+        }
+        return job.status(clock.instant());
+    }
+
+    /**
+     * @return status of the job, or {@code null} if it is unknown or expired
+     */
+    public JobStatus status(String id) {
+        Job job = find(id);
+        return job == null ? null : job.status(clock.instant());
+    }
+
+    /**
+     * @return result of a successfully finished job, or {@code null} if the job is unknown,
+     * expired or has not succeeded; check {@link #status(String)} to tell these apart
+     */
+    public JobResult result(String id) {
+        Job job = find(id);
+        return job == null ? null : job.result();
+    }
+
+    /**
+     * Requests cancellation of a job.
+     *
+     * @return status after the request, or {@code null} if the job is unknown or expired
+     */
+    public JobStatus cancel(String id) {
+        Job job = find(id);
+        if (job == null) {
+            return null;
+        }
+        job.cancel(clock.instant());
+        return job.status(clock.instant());
+    }
+
+    private Job find(String id) {
+        purgeExpired();
+        return jobs.get(id);
+    }
+
+    private void run(Job job) {
+        try {
+            SidecarIndex index = sidecarIndexService.find(job.path());
+            if (index != null) {
+                job.startSelecting();
+                checkRank(job.n(), index.count());
+                job.succeed(new JobResult(job.n(), index.nthMinimal(job.n()), index.count()), clock.instant());
+                return;
+            }
+
+            job.startParsing(excelService.getRowCountHint(job.path()), clock.instant());
+            try (CachedColumn column = admissionService.parse(job.path(),
+                    () -> excelService.acquireColumn(job.path(), job.progress()))) {
+                job.startSelecting();
+                checkRank(job.n(), column.length());
+                int result = quickSelectService.findNthMinimalNumber(column, job.n());
+                job.succeed(new JobResult(job.n(), result, column.length()), clock.instant());
+            }
+            sidecarIndexService.scheduleBuild(job.path());
+        } catch (CancellationException e) {
+            job.cancelled(clock.instant());
+        } catch (Exception e) {
+            log.debug("Job {} failed", job.id(), e);
+            job.fail(e.getMessage(), clock.instant());
+        }
+    }
+
+    private static void checkRank(int n, int count) {
+        if (n > count) {
+            throw new IllegalArgumentException("N must be less than or equal to numbers amount");
+        }
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = clock.instant().minus(resultTtl);
+        jobs.values().removeIf(job -> job.finishedAt() != null && job.finishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,19 @@
+package ru.jordosi.nthminimalnumber.service.job;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of a job returned by the status endpoint.
+ *
+ * @param id job identifier
+ * @param phase current phase
+ * @param rowsParsed numeric values parsed so far
+ * @param rowsExpected row count declared by the sheet, or -1 if unknown or not read yet
+ * @param etaMillis estimated time left for parsing in milliseconds, or {@code null} if unknown
+ * @param submittedAt submission time
+ * @param finishedAt time the job finished, or {@code null} while it runs
+ * @param error failure message of a failed job
+ */
+public record JobStatus(String id, JobPhase phase, long rowsParsed, int rowsExpected, Long etaMillis,
+                        Instant submittedAt, Instant finishedAt, String error) {
+}
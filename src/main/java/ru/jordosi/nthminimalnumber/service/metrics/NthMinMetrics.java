@@ -0,0 +1,154 @@
+package ru.jordosi.nthminimalnumber.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.jordosi.nthminimalnumber.service.cache.OffHeapIntColumn;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the N-th minimum search, exported by Actuator (e.g. {@code /actuator/prometheus}).
+ * <ul>
+ *     <li>{@code nthmin.phase} – timer per {@link Phase}</li>
+ *     <li>{@code nthmin.rows}, {@code nthmin.bytes} – counters of values answered and of file bytes
+ *     read to answer them per endpoint; their rates are rows/sec and bytes/sec. Answers from the
+ *     cache, a sidecar index or a sketch add rows only</li>
+ *     <li>{@code nthmin.column.size} – distribution of the number of values per request and endpoint</li>
+ *     <li>{@code nthmin.errors} – failed requests per endpoint and exception type</li>
+ *     <li>{@code nthmin.offheap.bytes} – memory held by {@link OffHeapIntColumn off-heap columns}</li>
+ * </ul>
+ * <p>
+ * Meters are registered once and then looked up from maps, and every phase is recorded once per
+ * request rather than per value, so the selection and parsing loops are not touched.
+ * </p>
+ */
+@Component
+public class NthMinMetrics {
+    /**
+     * Stage of a request timed by {@code nthmin.phase}.
+     */
+    public enum Phase {
+        /** opening the package and locating the sheets */
+        OPEN,
+        /** decoding the sheet XML; includes collecting distinct values when they are filled while parsing */
+        PARSE,
+        /** building distinct values from already parsed ones */
+        DEDUPE,
+        /** selecting the requested order statistics */
+        SELECT;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Phase, Timer> phases = new EnumMap<>(Phase.class);
+    private final Map<String, EndpointMeters> endpoints = new ConcurrentHashMap<>();
+
+    public NthMinMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, Timer.builder("nthmin.phase")
+                    .description("Time spent in a phase of the N-th minimum search")
+                    .tag("phase", phase.tag())
+                    .register(registry));
+        }
+        Gauge.builder("nthmin.offheap.bytes", OffHeapIntColumn::allocatedBytes)
+                .description("Memory held by off-heap columns")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * @return metrics that are recorded nowhere, for services created outside of Spring
+     */
+    public static NthMinMetrics noop() {
+        return new NthMinMetrics(new CompositeMeterRegistry());
+    }
+
+    public Timer timer(Phase phase) {
+        return phases.get(phase);
+    }
+
+    public void record(Phase phase, long nanos) {
+        phases.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a successful request.
+     *
+     * @param endpoint endpoint tag
+     * @param bytes size of the source files read to answer
+     * @param rows number of values the answer was selected from
+     */
+    public void recordRequest(String endpoint, long bytes, long rows) {
+        EndpointMeters meters = endpoints.computeIfAbsent(endpoint, this::endpointMeters);
+        meters.rows().increment(rows);
+        meters.bytes().increment(bytes);
+        meters.columnSize().record(rows);
+    }
+
+    /**
+     * Records a successful request over one file.
+     *
+     * @param read whether the file was read to answer; a file answered from the cache, a
+     * sidecar index or a sketch adds no bytes
+     */
+    public void recordRequest(String endpoint, String path, boolean read, long rows) {
+        recordRequest(endpoint, read ? sizeOf(Path.of(path)) : 0, rows);
+    }
+
+    public void recordError(String endpoint, Throwable error) {
+        Counter.builder("nthmin.errors")
+                .description("Failed N-th minimum requests")
+                .tag("endpoint", endpoint)
+                .tag("type", error.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    public static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private EndpointMeters endpointMeters(String endpoint) {
+        return new EndpointMeters(
+                Counter.builder("nthmin.rows")
+                        .description("Values the answers were selected from")
+                        .baseUnit("rows")
+                        .tag("endpoint", endpoint)
+                        .register(registry),
+                Counter.builder("nthmin.bytes")
+                        .description("Size of the files read to answer")
+                        .baseUnit("bytes")
+                        .tag("endpoint", endpoint)
+                        .register(registry),
+                DistributionSummary.builder("nthmin.column.size")
+                        .description("Number of values per request")
+                        .baseUnit("rows")
+                        .tag("endpoint", endpoint)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(1.0)
+                        .maximumExpectedValue(1e9)
+                        .register(registry));
+    }
+
+    private record EndpointMeters(Counter rows, Counter bytes, DistributionSummary columnSize) {
+    }
+}
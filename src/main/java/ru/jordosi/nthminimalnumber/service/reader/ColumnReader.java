@@ -0,0 +1,217 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.IntConsumer;
+
+/**
+ * Reads a column from any supported {@link InputFormat}, delegating to
+ * {@link XlsxColumnReader} (or {@link XlsxStreamReader} for streams), {@link DelimitedColumnReader}
+ * or {@link Int32ColumnReader}.
+ * <p>
+ * In delimited text the columns of a {@link ColumnSelection} address fields ({@code A} is the
+ * first field); sheets can only be selected in workbooks, and raw int32 files have a single
+ * column.
+ * </p>
+ */
+public final class ColumnReader {
+    private ColumnReader() {
+    }
+
+    /**
+     * Reads the values of a selection as one series.
+     *
+     * @param path path to the file
+     * @param selection sheets and columns to read
+     * @param onOpened run once the file is open, right before its values are decoded; may be {@code null}
+     * @return values of the selection in file order
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the selection does not apply to the file format
+     */
+    public static int[] read(Path path, ColumnSelection selection, Runnable onOpened) throws IOException {
+        InputFormat format = InputFormat.detect(path);
+        if (format == InputFormat.XLSX) {
+            return XlsxColumnReader.read(path, selection, onOpened);
+        }
+        int[] columns = columns(format, selection);
+        opened(onOpened);
+        return format == InputFormat.INT32
+                ? Int32ColumnReader.read(path)
+                : DelimitedColumnReader.read(path, format.separator(), columns);
+    }
+
+    /**
+     * Streams the values of a selection to the sink without collecting them.
+     *
+     * @param path path to the file
+     * @param selection sheets and columns to read
+     * @param sink receiver of the values in file order
+     * @param onOpened run once the file is open, right before its values are decoded; may be {@code null}
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the selection does not apply to the file format
+     */
+    public static void read(Path path, ColumnSelection selection, IntConsumer sink, Runnable onOpened) throws IOException {
+        InputFormat format = InputFormat.detect(path);
+        if (format == InputFormat.XLSX) {
+            if (selection.isFirstColumn()) {
+                XlsxColumnReader.read(path, 0, sink, onOpened);
+            } else {
+                for (int value : XlsxColumnReader.read(path, selection, onOpened)) {
+                    sink.accept(value);
+                }
+            }
+            return;
+        }
+        int[] columns = columns(format, selection);
+        opened(onOpened);
+        if (format == InputFormat.INT32) {
+            Int32ColumnReader.read(path, sink);
+        } else {
+            DelimitedColumnReader.read(path, format.separator(), columns, sink);
+        }
+    }
+
+    /**
+     * Streams the values of a selection to the sink without narrowing them to ints. Raw
+     * int32 files hold ints only and pass them on as longs.
+     *
+     * @param path path to the file
+     * @param selection sheets and columns to read
+     * @param sink receiver of the values in file order
+     * @param onOpened run once the file is open, right before its values are decoded; may be {@code null}
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the selection does not apply to the file format
+     */
+    public static void read(Path path, ColumnSelection selection, NumberSink sink, Runnable onOpened) throws IOException {
+        InputFormat format = InputFormat.detect(path);
+        if (format == InputFormat.XLSX) {
+            XlsxColumnReader.read(path, selection, sink, onOpened);
+            return;
+        }
+        int[] columns = columns(format, selection);
+        opened(onOpened);
+        if (format == InputFormat.INT32) {
+            Int32ColumnReader.read(path, sink::acceptLong);
+        } else {
+            DelimitedColumnReader.read(path, format.separator(), columns, sink);
+        }
+    }
+
+    /**
+     * Infers the type of a selection from its first values: {@link ColumnType#INT} if they are
+     * integers in the int range, {@link ColumnType#LONG} if some integer is beyond it and
+     * {@link ColumnType#DOUBLE} if some value has a fraction. Only the values up to
+     * {@code sampleSize} are decoded; raw int32 files are {@code INT} without reading them.
+     *
+     * @param path path to the file
+     * @param selection sheets and columns to read
+     * @param sampleSize number of values to look at
+     * @return inferred type; {@code INT} for a selection without values
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the selection does not apply to the file format
+     */
+    public static ColumnType inferType(Path path, ColumnSelection selection, int sampleSize) throws IOException {
+        if (InputFormat.detect(path) == InputFormat.INT32) {
+            return ColumnType.INT;
+        }
+        TypeSample sample = new TypeSample(sampleSize);
+        try {
+            read(path, selection, sample, null);
+        } catch (TypeSample.Complete e) {
+            // the sample is full
+        }
+        return sample.type;
+    }
+
+    /**
+     * Streams the values of the first column of a stream, e.g. an upload, to the sink.
+     *
+     * @param in file content; not closed
+     * @param format format of the content, see {@link InputFormat#detect(String, InputStream)}
+     * @param sink receiver of the values in file order
+     * @param maxInflatedBytes largest inflated size of a workbook entry
+     * @throws IOException if the stream cannot be read or is not valid in the given format
+     */
+    public static void read(InputStream in, InputFormat format, IntConsumer sink, long maxInflatedBytes) throws IOException {
+        switch (format) {
+            case XLSX -> XlsxStreamReader.read(in, 0, sink, maxInflatedBytes);
+            case CSV, TSV -> DelimitedColumnReader.read(in, format.separator(), new int[]{0}, sink);
+            case INT32 -> Int32ColumnReader.read(in, sink);
+        }
+    }
+
+    /**
+     * Upper bound of the number of values in the first column, read from workbook metadata
+     * or the size of a raw int32 file.
+     *
+     * @param path path to the file
+     * @return row count hint, or {@code -1} if unknown (always for delimited text)
+     * @throws IOException if the file cannot be read
+     */
+    public static int readRowCountHint(Path path) throws IOException {
+        return switch (InputFormat.detect(path)) {
+            case XLSX -> XlsxColumnReader.readRowCountHint(path);
+            case INT32 -> (int) Math.min(Integer.MAX_VALUE, Int32ColumnReader.count(path));
+            case CSV, TSV -> -1;
+        };
+    }
+
+    private static int[] columns(InputFormat format, ColumnSelection selection) {
+        if (!selection.sheets().isEmpty()) {
+            throw new IllegalArgumentException("Sheets can only be selected in .xlsx files");
+        }
+        int[] columns = selection.columnIndexes();
+        if (format == InputFormat.INT32 && !selection.isFirstColumn()) {
+            throw new IllegalArgumentException("Raw int32 files have a single column");
+        }
+        return columns;
+    }
+
+    /**
+     * Sink tracking the widest type of the values seen; stops the read once enough values
+     * have been seen, or as soon as a fraction makes the type final.
+     */
+    private static final class TypeSample implements NumberSink {
+        private final int size;
+        private int seen;
+        private ColumnType type = ColumnType.INT;
+
+        TypeSample(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void acceptLong(long value) {
+            type = type.widen(ColumnType.of(value));
+            next();
+        }
+
+        @Override
+        public void acceptDouble(double value) {
+            type = ColumnType.DOUBLE;
+            throw new Complete();
+        }
+
+        private void next() {
+            if (++seen >= size) {
+                throw new Complete();
+            }
+        }
+
+        /**
+         * Thrown through the reader to end the read early.
+         */
+        private static final class Complete extends RuntimeException {
+            Complete() {
+                super(null, null, false, false);
+            }
+        }
+    }
+
+    private static void opened(Runnable onOpened) {
+        if (onOpened != null) {
+            onOpened.run();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sheets and columns whose numeric values are read as one combined series.
+ * <p>
+ * Sheets are matched by name, ignoring case; an empty list means the first sheet.
+ * Columns are letters such as {@code "A"} or {@code "AB"}; an empty list means column A.
+ * Both lists are normalized, so equal selections are equal records and can key a cache.
+ * </p>
+ *
+ * @param sheets names of the sheets to read, in workbook order of preference
+ * @param columns upper-case column letters, sorted and without duplicates
+ */
+public record ColumnSelection(List<String> sheets, List<String> columns) {
+    /**
+     * Column A of the first sheet, the layout of a plain single-column workbook.
+     */
+    public static final ColumnSelection FIRST_COLUMN = new ColumnSelection(List.of(), List.of("A"));
+
+    public ColumnSelection {
+        sheets = List.copyOf(sheets);
+        columns = List.copyOf(columns);
+    }
+
+    /**
+     * @param sheets sheet names, or {@code null} for the first sheet
+     * @param columns column letters, or {@code null} for column A
+     * @throws IllegalArgumentException if a sheet name is blank or a column is not a letter reference
+     */
+    public static ColumnSelection of(List<String> sheets, List<String> columns) {
+        List<String> sheetNames = sheets == null ? List.of() : sheets.stream().distinct().toList();
+        for (String sheet : sheetNames) {
+            if (sheet == null || sheet.isBlank()) {
+                throw new IllegalArgumentException("Sheet name cannot be empty");
+            }
+        }
+
+        List<String> columnLetters = columns == null || columns.isEmpty()
+                ? List.of("A")
+                : columns.stream()
+                        .map(column -> column == null ? "" : column.trim().toUpperCase(Locale.ROOT))
+                        .peek(ColumnSelection::checkColumn)
+                        .distinct()
+                        .sorted((a, b) -> Integer.compare(ColumnSheetHandler.columnIndex(a), ColumnSheetHandler.columnIndex(b)))
+                        .toList();
+        return new ColumnSelection(sheetNames, columnLetters);
+    }
+
+    /**
+     * @return {@code true} if only column A of the first sheet is selected
+     */
+    public boolean isFirstColumn() {
+        return equals(FIRST_COLUMN);
+    }
+
+    /**
+     * @return zero-based indexes of the selected columns in ascending order
+     */
+    public int[] columnIndexes() {
+        return columns.stream().mapToInt(ColumnSheetHandler::columnIndex).toArray();
+    }
+
+    private static void checkColumn(String column) {
+        if (!column.matches("[A-Z]{1,3}")) {
+            throw new IllegalArgumentException("Invalid column: " + column);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * SAX handler extracting numeric cells of one or more columns from a worksheet XML part.
+ * <p>
+ * Mirrors the cell filtering of the usermodel API: only plain numeric cells are passed on,
+ * while strings, booleans, errors, blanks and formula cells are skipped. Values passed to an
+ * {@link IntConsumer} are truncated to integers the same way as {@code (int) cell.getNumericCellValue()};
+ * a {@link NumberSink} receives them unchanged.
+ * </p>
+ * The handler keeps no per-row state, so memory does not depend on the size of the sheet XML.
+ */
+class ColumnSheetHandler extends DefaultHandler {
+    private final int[] columns;
+    private final IntConsumer sink;
+    private final NumberSink numbers;
+
+    private int currentColumn;
+    private boolean inTargetCell;
+    private boolean numericCell;
+    private boolean formulaCell;
+    private boolean inValue;
+    private char[] value = new char[32];
+    private int valueLength;
+
+    /**
+     * @param column zero-based index of the column to extract (0 for column A)
+     * @param sink receiver of the extracted values in sheet order
+     */
+    ColumnSheetHandler(int column, IntConsumer sink) {
+        this(new int[]{column}, sink);
+    }
+
+    /**
+     * @param columns zero-based indexes of the columns to extract, in ascending order
+     * @param sink receiver of the extracted values in sheet order, row by row
+     */
+    ColumnSheetHandler(int[] columns, IntConsumer sink) {
+        this.columns = columns;
+        this.sink = sink;
+        this.numbers = null;
+    }
+
+    /**
+     * @param columns zero-based indexes of the columns to extract, in ascending order
+     * @param numbers receiver of the extracted values without narrowing, row by row
+     */
+    ColumnSheetHandler(int[] columns, NumberSink numbers) {
+        this.columns = columns;
+        this.sink = null;
+        this.numbers = numbers;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        switch (localName) {
+            case "row" -> currentColumn = -1;
+            case "c" -> {
+                String ref = attributes.getValue("r");
+                currentColumn = ref != null ? columnIndex(ref) : currentColumn + 1;
+                inTargetCell = columns.length == 1
+                        ? currentColumn == columns[0]
+                        : Arrays.binarySearch(columns, currentColumn) >= 0;
+                if (inTargetCell) {
+                    String type = attributes.getValue("t");
+                    numericCell = type == null || "n".equals(type);
+                    formulaCell = false;
+                    valueLength = 0;
+                }
+            }
+            case "f" -> {
+                if (inTargetCell) {
+                    formulaCell = true;
+                }
+            }
+            case "v" -> inValue = inTargetCell;
+            default -> { }
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+            case "v" -> inValue = false;
+            case "c" -> {
+                if (inTargetCell && numericCell && !formulaCell && valueLength > 0) {
+                    if (sink != null) {
+                        sink.accept(parseInt(value, valueLength));
+                    } else {
+                        parseNumber(value, valueLength, numbers);
+                    }
+                }
+                inTargetCell = false;
+            }
+            default -> { }
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (!inValue) {
+            return;
+        }
+        if (valueLength + length > value.length) {
+            char[] grown = new char[Math.max(value.length * 2, valueLength + length)];
+            System.arraycopy(value, 0, grown, 0, valueLength);
+            value = grown;
+        }
+        System.arraycopy(ch, start, value, valueLength, length);
+        valueLength += length;
+    }
+
+    /**
+     * Converts a cell reference such as {@code "AB12"} to a zero-based column index.
+     */
+    static int columnIndex(String ref) {
+        int index = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            index = index * 26 + (c - 'A' + 1);
+        }
+        return index - 1;
+    }
+
+    /**
+     * Parses the raw {@code <v>} text of a numeric cell.
+     * <p>
+     * Plain integers are parsed without allocation; anything else (decimals, exponents)
+     * falls back to {@link Double#parseDouble} followed by the usual narrowing cast.
+     * </p>
+     */
+    static int parseInt(char[] chars, int length) {
+        int i = 0;
+        boolean negative = chars[0] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i < length && length - i <= 18) {
+            long result = 0;
+            for (; i < length; i++) {
+                int digit = chars[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                result = result * 10 + digit;
+            }
+            if (i == length) {
+                result = negative ? -result : result;
+                return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, result));
+            }
+        }
+        return (int) Double.parseDouble(new String(chars, 0, length));
+    }
+
+    /**
+     * Parses the raw {@code <v>} text of a numeric cell without narrowing. Integers and plain
+     * decimals of up to 18 digits are converted without allocation, see {@link Decimals};
+     * anything else (exponents, longer literals) falls back to {@link Double#parseDouble}.
+     */
+    static void parseNumber(char[] chars, int length, NumberSink numbers) {
+        boolean negative = chars[0] == '-';
+        int i = negative ? 1 : 0;
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < length; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == length && digits > 0 && digits <= 18) {
+            if (fractionDigits <= 0) {
+                numbers.acceptLong(negative ? -mantissa : mantissa);
+                return;
+            }
+            double value = Decimals.divide(mantissa, fractionDigits);
+            if (!Double.isNaN(value)) {
+                numbers.acceptDouble(negative ? -value : value);
+                return;
+            }
+        }
+        numbers.acceptDouble(Double.parseDouble(new String(chars, 0, length)));
+    }
+}
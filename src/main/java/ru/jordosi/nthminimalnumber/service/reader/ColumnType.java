@@ -0,0 +1,54 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import java.util.Locale;
+
+/**
+ * Primitive type a column is read and selected as.
+ * <p>
+ * {@link #INT} is the original behaviour: decimals are truncated and values beyond the int
+ * range are clamped. {@link #LONG} keeps integers up to 64 bits and truncates decimals;
+ * {@link #DOUBLE} keeps every value as written.
+ * </p>
+ */
+public enum ColumnType {
+    INT,
+    LONG,
+    DOUBLE;
+
+    /**
+     * Parses the type named in a request.
+     *
+     * @param name {@code int}, {@code long} or {@code double} in any case; {@code null} or
+     * {@code auto} to infer the type from the data
+     * @return the type, or {@code null} if it is to be inferred
+     * @throws IllegalArgumentException if the name is not a type
+     */
+    public static ColumnType of(String name) {
+        if (name == null || name.equalsIgnoreCase("auto")) {
+            return null;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown column type: " + name + "; expected int, long, double or auto");
+        }
+    }
+
+    /**
+     * @return the narrowest type holding a value; {@link #INT} for integers in the int range
+     */
+    static ColumnType of(long value) {
+        return value == (int) value ? INT : LONG;
+    }
+
+    /**
+     * @return the narrowest type holding every value of both types
+     */
+    ColumnType widen(ColumnType other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+/**
+ * Allocation-free conversion of short decimal literals to doubles.
+ * <p>
+ * When the digits of a literal form an integer below 2<sup>53</sup> and it has at most 22
+ * fraction digits, the mantissa and the power of ten are both exact doubles, so a single
+ * division rounds it exactly like {@link Double#parseDouble}. Longer literals are left to
+ * {@code Double.parseDouble}.
+ * </p>
+ */
+final class Decimals {
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private Decimals() {
+    }
+
+    /**
+     * @param mantissa digits of the literal without the decimal point, non-negative
+     * @param fractionDigits number of digits after the decimal point
+     * @return {@code mantissa / 10^fractionDigits}, or {@code NaN} if it cannot be computed exactly
+     */
+    static double divide(long mantissa, int fractionDigits) {
+        if (mantissa >= MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.NaN;
+        }
+        return mantissa / POWERS_OF_TEN[fractionDigits];
+    }
+}
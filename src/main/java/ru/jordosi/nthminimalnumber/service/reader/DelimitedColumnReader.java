@@ -0,0 +1,570 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Reader of integer columns from CSV and TSV files.
+ * <p>
+ * The file is memory-mapped and parsed byte by byte, so no {@code String} is created per line
+ * or per field. Numeric fields are converted like numeric cells of a workbook: decimals and
+ * exponents are truncated to an int and out-of-range values are clamped; fields that are not
+ * numbers (a header line, text, empty fields) are skipped. A field may be enclosed in double
+ * quotes, which may also hide separators; quoted line breaks are not supported.
+ * </p>
+ * <p>
+ * The {@link NumberSink} variants pass every value on without narrowing, as a long when it is
+ * an integer and as a double otherwise.
+ * </p>
+ * <p>
+ * Files of at least {@value #PARALLEL_MIN_BYTES} bytes are cut at line boundaries into one
+ * region per processor, and the regions are parsed concurrently.
+ * </p>
+ */
+public final class DelimitedColumnReader {
+    static final int PARALLEL_MIN_BYTES = 8 << 20;
+    /**
+     * Largest region mapped at once; a {@link MappedByteBuffer} is indexed by int.
+     */
+    static final long MAX_REGION_BYTES = 1L << 30;
+    private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+    private static final int STREAM_BLOCK_BYTES = 64 << 10;
+    /**
+     * Longest line of a stream; a stream cannot be re-read, so the whole line is buffered.
+     */
+    static final int MAX_LINE_BYTES = 1 << 20;
+
+    private DelimitedColumnReader() {
+    }
+
+    /**
+     * Streams numeric values of the selected fields to the sink, line by line and within a
+     * line in field order.
+     *
+     * @param path path to the text file
+     * @param separator field separator
+     * @param columns zero-based field indexes to read
+     * @param sink receiver of the values in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static void read(Path path, byte separator, int[] columns, IntConsumer sink) throws IOException {
+        boolean[] selected = selected(columns);
+        try (FileChannel channel = open(path)) {
+            List<long[]> regions = split(channel, (channel.size() + MAX_REGION_BYTES - 1) / MAX_REGION_BYTES);
+            for (long[] region : regions) {
+                parse(map(channel, region), separator, selected, sink);
+            }
+        }
+    }
+
+    /**
+     * Streams numeric values of the selected fields to the sink without narrowing them.
+     *
+     * @param path path to the text file
+     * @param separator field separator
+     * @param columns zero-based field indexes to read
+     * @param sink receiver of the values in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static void read(Path path, byte separator, int[] columns, NumberSink sink) throws IOException {
+        boolean[] selected = selected(columns);
+        try (FileChannel channel = open(path)) {
+            List<long[]> regions = split(channel, (channel.size() + MAX_REGION_BYTES - 1) / MAX_REGION_BYTES);
+            for (long[] region : regions) {
+                parse(map(channel, region), separator, selected, sink);
+            }
+        }
+    }
+
+    /**
+     * Streams numeric values of the selected fields of a stream, e.g. an upload, to the sink.
+     * The stream is read in blocks; only the current block and a partial line are kept.
+     *
+     * @param in text to parse; not closed
+     * @param separator field separator
+     * @param columns zero-based field indexes to read
+     * @param sink receiver of the values in stream order
+     * @throws IOException if the stream cannot be read or has a line longer than
+     * {@value #MAX_LINE_BYTES} bytes
+     */
+    public static void read(InputStream in, byte separator, int[] columns, IntConsumer sink) throws IOException {
+        boolean[] selected = selected(columns);
+        byte[] block = new byte[STREAM_BLOCK_BYTES];
+        int length = 0;
+        long consumed = 0;
+        int read;
+        while ((read = in.read(block, length, block.length - length)) != -1) {
+            length += read;
+            int lineEnd = length;
+            while (lineEnd > 0 && block[lineEnd - 1] != '\n') {
+                lineEnd--;
+            }
+            if (lineEnd == 0) {
+                if (length == block.length) {
+                    if (length >= MAX_LINE_BYTES) {
+                        throw new IOException("Line is too long at byte " + consumed);
+                    }
+                    block = Arrays.copyOf(block, Math.min(MAX_LINE_BYTES, block.length * 2));
+                }
+                continue;
+            }
+            parse(ByteBuffer.wrap(block, 0, lineEnd), separator, selected, sink);
+            System.arraycopy(block, lineEnd, block, 0, length - lineEnd);
+            length -= lineEnd;
+            consumed += lineEnd;
+        }
+        if (length > 0) {
+            parse(ByteBuffer.wrap(block, 0, length), separator, selected, sink);
+        }
+    }
+
+    /**
+     * Reads numeric values of the selected fields, parsing large files concurrently.
+     *
+     * @param path path to the text file
+     * @param separator field separator
+     * @param columns zero-based field indexes to read
+     * @return values in file order
+     * @throws IOException if the file cannot be read
+     */
+    public static int[] read(Path path, byte separator, int[] columns) throws IOException {
+        boolean[] selected = selected(columns);
+        try (FileChannel channel = open(path)) {
+            long size = channel.size();
+            long parts = size < PARALLEL_MIN_BYTES ? 1 : Runtime.getRuntime().availableProcessors();
+            List<long[]> regions = split(channel, Math.max(parts, (size + MAX_REGION_BYTES - 1) / MAX_REGION_BYTES));
+            if (regions.size() == 1) {
+                IntArrayBuffer buffer = new IntArrayBuffer();
+                parse(map(channel, regions.get(0)), separator, selected, buffer);
+                return buffer.toArray();
+            }
+
+            List<Future<IntArrayBuffer>> results = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long[] region : regions) {
+                    MappedByteBuffer bytes = map(channel, region);
+                    results.add(executor.submit(() -> {
+                        IntArrayBuffer buffer = new IntArrayBuffer();
+                        parse(bytes, separator, selected, buffer);
+                        return buffer;
+                    }));
+                }
+                List<IntArrayBuffer> buffers = new ArrayList<>();
+                for (Future<IntArrayBuffer> result : results) {
+                    buffers.add(result.get());
+                }
+                return concat(buffers);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IOException("Failed to parse " + path.getFileName() + ": " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while parsing " + path.getFileName());
+            }
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long[] region) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, region[0], region[1] - region[0]);
+    }
+
+    private static boolean[] selected(int[] columns) {
+        int max = 0;
+        for (int column : columns) {
+            max = Math.max(max, column);
+        }
+        boolean[] selected = new boolean[max + 1];
+        for (int column : columns) {
+            selected[column] = true;
+        }
+        return selected;
+    }
+
+    /**
+     * Cuts the file into about {@code parts} regions of similar size, each starting at the
+     * beginning of a line and none larger than {@link #MAX_REGION_BYTES}.
+     *
+     * @return {@code [start, end)} byte ranges in file order
+     */
+    static List<long[]> split(FileChannel channel, long parts) throws IOException {
+        long size = channel.size();
+        List<long[]> regions = new ArrayList<>();
+        long step = Math.max(1, Math.min(MAX_REGION_BYTES, (size + parts - 1) / Math.max(1, parts)));
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + step);
+            if (end < size) {
+                long lineEnd = nextLineStart(channel, end, probe);
+                if (lineEnd - start > MAX_REGION_BYTES) {
+                    throw new IOException("Line is too long at byte " + end);
+                }
+                end = lineEnd;
+            }
+            regions.add(new long[]{start, end});
+            start = end;
+        }
+        return regions;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer probe) throws IOException {
+        long size = channel.size();
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parses whole lines of {@code bytes} and passes numeric selected fields to the sink.
+     */
+    static void parse(ByteBuffer bytes, byte separator, boolean[] selected, IntConsumer sink) {
+        int limit = bytes.limit();
+        int pos = 0;
+        int field = 0;
+        while (pos < limit) {
+            int end = fieldEnd(bytes, pos, limit, separator);
+            if (field < selected.length && selected[field]) {
+                long value = parseNumber(bytes, pos, end);
+                if (value != NOT_A_NUMBER) {
+                    sink.accept((int) value);
+                }
+            }
+            if (end < limit && bytes.get(end) == separator) {
+                field++;
+            } else {
+                field = 0;
+            }
+            pos = end + 1;
+        }
+    }
+
+    /**
+     * Typed counterpart of {@link #parse(ByteBuffer, byte, boolean[], IntConsumer)}.
+     */
+    static void parse(ByteBuffer bytes, byte separator, boolean[] selected, NumberSink sink) {
+        int limit = bytes.limit();
+        int pos = 0;
+        int field = 0;
+        while (pos < limit) {
+            int end = fieldEnd(bytes, pos, limit, separator);
+            if (field < selected.length && selected[field]) {
+                parseNumber(bytes, pos, end, sink);
+            }
+            if (end < limit && bytes.get(end) == separator) {
+                field++;
+            } else {
+                field = 0;
+            }
+            pos = end + 1;
+        }
+    }
+
+    /**
+     * @return index of the separator or line feed ending the field starting at {@code pos},
+     * or {@code limit}
+     */
+    private static int fieldEnd(ByteBuffer bytes, int pos, int limit, byte separator) {
+        boolean quoted = false;
+        for (int i = pos; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' || (b == separator && !quoted)) {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Parses {@code [+-]digits[.digits][(e|E)[+-]digits]}, optionally surrounded by blanks and
+     * double quotes, truncating it to an int.
+     *
+     * @return the value, or {@link #NOT_A_NUMBER} if the field is not a number
+     */
+    static long parseNumber(ByteBuffer bytes, int from, int to) {
+        long field = trim(bytes, from, to);
+        from = trimmedStart(field);
+        to = trimmedEnd(field);
+        if (from == to) {
+            return NOT_A_NUMBER;
+        }
+
+        int i = from;
+        boolean negative = false;
+        byte first = bytes.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        // Up to 18 significant digits are kept exactly; the integer part saturates beyond int range
+        long mantissa = 0;
+        int mantissaDigits = 0;
+        int scale = 0;
+        long integer = 0;
+        int digits = 0;
+        for (; i < to; i++) {
+            int digit = bytes.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            integer = Math.min(integer * 10 + digit, 1L << 32);
+            if (mantissaDigits < 18) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) {
+                    mantissaDigits++;
+                }
+            } else {
+                scale++;
+            }
+            digits++;
+        }
+        if (i < to && bytes.get(i) == '.') {
+            for (i++; i < to; i++) {
+                int digit = bytes.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                if (mantissaDigits < 18) {
+                    mantissa = mantissa * 10 + digit;
+                    scale--;
+                    if (mantissa != 0) {
+                        mantissaDigits++;
+                    }
+                }
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return NOT_A_NUMBER;
+        }
+
+        if (i < to && (bytes.get(i) == 'e' || bytes.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+                negativeExponent = bytes.get(i) == '-';
+                i++;
+            }
+            int exponent = 0;
+            int exponentDigits = 0;
+            for (; i < to; i++) {
+                int digit = bytes.get(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                exponent = Math.min(exponent * 10 + digit, 1000);
+                exponentDigits++;
+            }
+            if (exponentDigits == 0 || i != to) {
+                return NOT_A_NUMBER;
+            }
+            double value = mantissa * Math.pow(10, scale + (negativeExponent ? -exponent : exponent));
+            return (int) (negative ? -value : value);
+        }
+        if (i != to) {
+            return NOT_A_NUMBER;
+        }
+
+        long value = negative ? -integer : integer;
+        return Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    /**
+     * Parses a field like {@link #parseNumber(ByteBuffer, int, int)} and passes the value to the
+     * sink without narrowing: integers as longs, decimals and exponents as doubles. Literals of
+     * up to 18 digits are converted without allocation.
+     *
+     * @return {@code false} if the field is not a number
+     */
+    static boolean parseNumber(ByteBuffer bytes, int from, int to, NumberSink sink) {
+        long field = trim(bytes, from, to);
+        from = trimmedStart(field);
+        to = trimmedEnd(field);
+        if (from == to) {
+            return false;
+        }
+
+        int i = from;
+        boolean negative = false;
+        byte first = bytes.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int mantissaDigits = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean exact = true;
+        for (; i < to; i++) {
+            byte b = bytes.get(i);
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            digits++;
+            if (mantissaDigits < 18) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) {
+                    mantissaDigits++;
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                exact = false;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+
+        boolean exponent = i < to && (bytes.get(i) == 'e' || bytes.get(i) == 'E');
+        if (exponent) {
+            i++;
+            if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < to && bytes.get(i) >= '0' && bytes.get(i) <= '9') {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+        if (i != to) {
+            return false;
+        }
+
+        if (exact && !exponent) {
+            if (fractionDigits <= 0) {
+                sink.acceptLong(negative ? -mantissa : mantissa);
+                return true;
+            }
+            double value = Decimals.divide(mantissa, fractionDigits);
+            if (!Double.isNaN(value)) {
+                sink.acceptDouble(negative ? -value : value);
+                return true;
+            }
+        }
+        String literal = ascii(bytes, from, to);
+        if (fractionDigits < 0 && !exponent) {
+            try {
+                sink.acceptLong(Long.parseLong(literal.startsWith("+") ? literal.substring(1) : literal));
+                return true;
+            } catch (NumberFormatException e) {
+                // beyond the long range
+            }
+        }
+        sink.acceptDouble(Double.parseDouble(literal));
+        return true;
+    }
+
+    /**
+     * Strips blanks and enclosing double quotes from a field.
+     *
+     * @return bounds of the content packed by {@link #bounds(int, int)}
+     */
+    private static long trim(ByteBuffer bytes, int from, int to) {
+        while (from < to && isBlank(bytes.get(from))) {
+            from++;
+        }
+        while (to > from && isBlank(bytes.get(to - 1))) {
+            to--;
+        }
+        if (to - from >= 2 && bytes.get(from) == '"' && bytes.get(to - 1) == '"') {
+            from++;
+            to--;
+            while (from < to && bytes.get(from) == ' ') {
+                from++;
+            }
+            while (to > from && bytes.get(to - 1) == ' ') {
+                to--;
+            }
+        }
+        return bounds(from, to);
+    }
+
+    private static long bounds(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private static int trimmedStart(long field) {
+        return (int) (field >>> 32);
+    }
+
+    private static int trimmedEnd(long field) {
+        return (int) field;
+    }
+
+    private static String ascii(ByteBuffer bytes, int from, int to) {
+        byte[] literal = new byte[to - from];
+        bytes.get(from, literal);
+        return new String(literal, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\r' || b == '\t';
+    }
+
+    private static int[] concat(List<IntArrayBuffer> buffers) {
+        long total = 0;
+        for (IntArrayBuffer buffer : buffers) {
+            total += buffer.size();
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("File is too large for an int array");
+        }
+        int[] values = new int[(int) total];
+        int offset = 0;
+        for (IntArrayBuffer buffer : buffers) {
+            offset = buffer.copyTo(values, offset);
+        }
+        return values;
+    }
+}
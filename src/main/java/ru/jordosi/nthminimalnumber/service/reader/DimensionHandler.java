@@ -0,0 +1,66 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * SAX handler reading the {@code <dimension>} element of a worksheet.
+ * <p>
+ * The element precedes {@code <sheetData>}, so parsing is aborted as soon as either of them
+ * is reached and the cost does not depend on the size of the sheet.
+ * </p>
+ */
+class DimensionHandler extends DefaultHandler {
+    static final int UNKNOWN = -1;
+
+    private int rowCount = UNKNOWN;
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        if ("dimension".equals(localName)) {
+            rowCount = rowCount(attributes.getValue("ref"));
+            throw new StopParsingException();
+        }
+        if ("sheetData".equals(localName)) {
+            throw new StopParsingException();
+        }
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Converts a range reference such as {@code "A1:C500"} to the number of rows it spans.
+     */
+    static int rowCount(String ref) {
+        if (ref == null || ref.isEmpty()) {
+            return UNKNOWN;
+        }
+        int colon = ref.indexOf(':');
+        int first = rowNumber(colon < 0 ? ref : ref.substring(0, colon));
+        int last = colon < 0 ? first : rowNumber(ref.substring(colon + 1));
+        return first > 0 && last >= first ? last - first + 1 : UNKNOWN;
+    }
+
+    private static int rowNumber(String cellRef) {
+        int row = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char c = cellRef.charAt(i);
+            if (c >= '0' && c <= '9') {
+                row = row * 10 + (c - '0');
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Thrown to stop the parser once the dimension is known.
+     */
+    static class StopParsingException extends SAXException {
+        StopParsingException() {
+            super("Dimension found");
+        }
+    }
+}
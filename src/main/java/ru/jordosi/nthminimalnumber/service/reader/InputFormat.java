@@ -0,0 +1,112 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Format of an input file, see {@link #detect(Path)}.
+ */
+public enum InputFormat {
+    /** Excel 2007+ workbook */
+    XLSX,
+    /** comma-separated text */
+    CSV,
+    /** tab-separated text */
+    TSV,
+    /** raw little-endian 32-bit integers without header */
+    INT32;
+
+    private static final int SNIFF_BYTES = 4096;
+
+    /**
+     * @return field separator of a delimited text format
+     * @throws IllegalStateException for formats that are not delimited text
+     */
+    public byte separator() {
+        return switch (this) {
+            case CSV -> ',';
+            case TSV -> '\t';
+            default -> throw new IllegalStateException(this + " is not a delimited text format");
+        };
+    }
+
+    /**
+     * Picks the format by file extension: {@code .xlsx}; {@code .csv}; {@code .tsv} or
+     * {@code .tab}; {@code .i32}, {@code .int32} or {@code .bin}. Other files are recognised by
+     * their first bytes: a ZIP signature means a workbook, printable text means CSV, or TSV
+     * when tabs outnumber commas. Raw int32 data has no signature and needs its extension.
+     *
+     * @param path file to inspect
+     * @return detected format
+     * @throws IOException if the file has an unknown extension and cannot be read
+     * @throws IllegalArgumentException if the format cannot be recognised
+     */
+    public static InputFormat detect(Path path) throws IOException {
+        String name = path.getFileName() == null ? "" : path.getFileName().toString();
+        InputFormat format = byExtension(name);
+        if (format != null) {
+            return format;
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            return sniff(in.readNBytes(SNIFF_BYTES), name);
+        }
+    }
+
+    /**
+     * Same as {@link #detect(Path)} for a stream, e.g. an upload.
+     *
+     * @param fileName original file name, may be {@code null}
+     * @param in stream positioned at the start of the file; must support {@link InputStream#mark(int)},
+     * it is reset to the start after sniffing
+     * @return detected format
+     * @throws IOException if the stream cannot be read
+     * @throws IllegalArgumentException if the format cannot be recognised
+     */
+    public static InputFormat detect(String fileName, InputStream in) throws IOException {
+        InputFormat format = byExtension(fileName == null ? "" : fileName);
+        if (format != null) {
+            return format;
+        }
+        in.mark(SNIFF_BYTES);
+        byte[] head = in.readNBytes(SNIFF_BYTES);
+        in.reset();
+        return sniff(head, fileName);
+    }
+
+    private static InputFormat byExtension(String name) {
+        String lowerCase = name.toLowerCase();
+        return switch (lowerCase.substring(lowerCase.lastIndexOf('.') + 1)) {
+            case "xlsx" -> XLSX;
+            case "csv" -> CSV;
+            case "tsv", "tab" -> TSV;
+            case "i32", "int32", "bin" -> INT32;
+            default -> null;
+        };
+    }
+
+    private static InputFormat sniff(byte[] head, String name) {
+        if (head.length >= 4 && head[0] == 'P' && head[1] == 'K' && head[2] == 3 && head[3] == 4) {
+            return XLSX;
+        }
+
+        int tabs = 0;
+        int commas = 0;
+        for (byte b : head) {
+            if (b == '\t') {
+                tabs++;
+            } else if (b == ',') {
+                commas++;
+            } else if (b >= 0 && b < ' ' && b != '\n' && b != '\r') {
+                throw new IllegalArgumentException("Unrecognized file format: " + name
+                        + "; supported are .xlsx, .csv, .tsv and raw little-endian .i32 files");
+            }
+        }
+        return tabs > commas ? TSV : CSV;
+    }
+}
@@ -0,0 +1,129 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+
+/**
+ * Reader of raw files of little-endian 32-bit integers without header.
+ * <p>
+ * The file is memory-mapped and viewed as an {@link IntBuffer}, so values are copied out of the
+ * page cache in bulk without any decoding step.
+ * </p>
+ */
+public final class Int32ColumnReader {
+    /**
+     * Largest region mapped at once, a multiple of {@link Integer#BYTES}.
+     */
+    static final long MAX_REGION_BYTES = 1L << 30;
+    private static final int STREAM_BLOCK_BYTES = 64 << 10;
+
+    private Int32ColumnReader() {
+    }
+
+    /**
+     * @param path path to the raw file
+     * @return all values of the file
+     * @throws IOException if the file cannot be read or its size is not a multiple of 4
+     */
+    public static int[] read(Path path) throws IOException {
+        try (FileChannel channel = open(path)) {
+            long count = count(channel.size(), path);
+            if (count > Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("File is too large for an int array");
+            }
+            int[] values = new int[(int) count];
+            int offset = 0;
+            for (long position = 0; position < channel.size(); position += MAX_REGION_BYTES) {
+                IntBuffer ints = map(channel, position);
+                int length = ints.remaining();
+                ints.get(values, offset, length);
+                offset += length;
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Streams all values of the file to the sink.
+     *
+     * @param path path to the raw file
+     * @param sink receiver of the values in file order
+     * @throws IOException if the file cannot be read or its size is not a multiple of 4
+     */
+    public static void read(Path path, IntConsumer sink) throws IOException {
+        try (FileChannel channel = open(path)) {
+            count(channel.size(), path);
+            for (long position = 0; position < channel.size(); position += MAX_REGION_BYTES) {
+                IntBuffer ints = map(channel, position);
+                for (int i = 0, length = ints.remaining(); i < length; i++) {
+                    sink.accept(ints.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams all values of a raw stream, e.g. an upload, to the sink.
+     *
+     * @param in little-endian values; not closed
+     * @param sink receiver of the values in stream order
+     * @throws IOException if the stream cannot be read or ends inside a value
+     */
+    public static void read(InputStream in, IntConsumer sink) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(STREAM_BLOCK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        int read;
+        while ((read = in.read(block.array(), block.position(), block.remaining())) != -1) {
+            block.position(block.position() + read);
+            block.flip();
+            while (block.remaining() >= Integer.BYTES) {
+                sink.accept(block.getInt());
+            }
+            block.compact();
+        }
+        if (block.position() != 0) {
+            throw new IOException("Size of raw int32 data is not a multiple of 4 bytes");
+        }
+    }
+
+    /**
+     * @param path path to the raw file
+     * @return number of values in the file
+     * @throws IOException if the file cannot be read or its size is not a multiple of 4
+     */
+    public static long count(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+        return count(Files.size(path), path);
+    }
+
+    private static long count(long size, Path path) throws IOException {
+        if (size % Integer.BYTES != 0) {
+            throw new IOException("Size of raw int32 file " + path.getFileName() + " is not a multiple of 4 bytes");
+        }
+        return size / Integer.BYTES;
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    private static IntBuffer map(FileChannel channel, long position) throws IOException {
+        long length = Math.min(MAX_REGION_BYTES, channel.size() - position);
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asIntBuffer();
+    }
+}
@@ -0,0 +1,77 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Growable buffer of primitive ints.
+ * <p>
+ * Used instead of {@code ArrayList<Integer>} when collecting column values, so every value
+ * costs 4 bytes instead of a boxed object plus a reference.
+ * </p>
+ */
+public class IntArrayBuffer implements IntConsumer {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private int[] values;
+    private int size;
+
+    public IntArrayBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntArrayBuffer(int initialCapacity) {
+        this.values = new int[Math.max(initialCapacity, 16)];
+    }
+
+    @Override
+    public void accept(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, newCapacity());
+        }
+        values[size++] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    /**
+     * @return a trimmed copy of the collected values
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Copies the collected values into {@code target} starting at {@code offset}.
+     *
+     * @return offset just past the copied values
+     */
+    public int copyTo(int[] target, int offset) {
+        System.arraycopy(values, 0, target, offset, size);
+        return offset + size;
+    }
+
+    private int newCapacity() {
+        int grown = values.length + (values.length >> 1);
+        if (grown < 0 || grown > Integer.MAX_VALUE - 8) {
+            if (values.length == Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("Column is too large for an int buffer");
+            }
+            return Integer.MAX_VALUE - 8;
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+/**
+ * Receiver of numeric values decoded without narrowing to an int.
+ * <p>
+ * Readers report every value the way it was written: integers that fit into a long through
+ * {@link #acceptLong(long)}, anything with a fraction, an exponent or too many digits through
+ * {@link #acceptDouble(double)}. The receiver decides how to store them, see {@link TypedColumnBuffer}.
+ * </p>
+ */
+public interface NumberSink {
+    /**
+     * Receives an integer value.
+     */
+    void acceptLong(long value);
+
+    /**
+     * Receives a value that is not an integer within the long range.
+     */
+    void acceptDouble(double value);
+}
@@ -0,0 +1,63 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.IntConsumer;
+
+/**
+ * Progress of a running parse, observable from other threads, with cooperative cancellation.
+ * <p>
+ * {@link #wrap(IntConsumer)} counts values on their way to the sink. The count is
+ * published and the cancellation flag checked every {@value #CHECK_INTERVAL} values, so the
+ * parsing thread pays for one volatile access per interval only. After {@link #cancel()} the
+ * next check throws a {@link CancellationException}, which unwinds the SAX parser and lets
+ * the reader release the package.
+ * </p>
+ */
+public class ParseProgress {
+    private static final int CHECK_INTERVAL = 4096;
+
+    private volatile long values;
+    private volatile boolean cancelled;
+
+    /**
+     * @return sink counting the values passed to {@code sink} and aborting the parse once cancelled
+     */
+    public IntConsumer wrap(IntConsumer sink) {
+        return new IntConsumer() {
+            private long count;
+
+            @Override
+            public void accept(int value) {
+                if (++count % CHECK_INTERVAL == 0) {
+                    values = count;
+                    if (cancelled) {
+                        throw new CancellationException("Parse cancelled");
+                    }
+                }
+                sink.accept(value);
+            }
+        };
+    }
+
+    /**
+     * @return values parsed so far, published every {@value #CHECK_INTERVAL} values
+     */
+    public long values() {
+        return values;
+    }
+
+    /**
+     * Publishes the final count once the parse has finished.
+     */
+    public void complete(long total) {
+        values = total;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+/**
+ * Column read as {@link ColumnType#LONG} or {@link ColumnType#DOUBLE}; exactly the array of
+ * its type is set.
+ *
+ * @param type type of the values
+ * @param longs values in file order if the type is {@code LONG}, otherwise {@code null}
+ * @param doubles values in file order if the type is {@code DOUBLE}, otherwise {@code null}
+ */
+public record TypedColumn(ColumnType type, long[] longs, double[] doubles) {
+    public TypedColumn {
+        boolean valid = switch (type) {
+            case LONG -> longs != null && doubles == null;
+            case DOUBLE -> doubles != null && longs == null;
+            case INT -> false;
+        };
+        if (!valid) {
+            throw new IllegalArgumentException("Column of type " + type + " must hold exactly one array of its type");
+        }
+    }
+
+    public static TypedColumn ofLongs(long[] values) {
+        return new TypedColumn(ColumnType.LONG, values, null);
+    }
+
+    public static TypedColumn ofDoubles(double[] values) {
+        return new TypedColumn(ColumnType.DOUBLE, null, values);
+    }
+
+    public int length() {
+        return longs != null ? longs.length : doubles.length;
+    }
+}
@@ -0,0 +1,105 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import java.util.Arrays;
+
+/**
+ * Growable buffer collecting a column as {@link ColumnType#LONG} or {@link ColumnType#DOUBLE}.
+ * <p>
+ * A buffer of a given type converts every value to it: decimals are truncated towards zero
+ * (and saturate at the long range) in a long column, integers are widened in a double column.
+ * A buffer without a type starts as a long column and turns into a double column on the first
+ * value that is not an integer, so no value is truncated. Values are kept in primitive arrays.
+ * </p>
+ */
+public class TypedColumnBuffer implements NumberSink {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final boolean fixedType;
+    private long[] longs;
+    private double[] doubles;
+    private int size;
+
+    /**
+     * @param type {@link ColumnType#LONG} or {@link ColumnType#DOUBLE}, or {@code null} to
+     * keep every value without truncation
+     * @throws IllegalArgumentException for {@link ColumnType#INT}, which is collected by
+     * {@link IntArrayBuffer}
+     */
+    public TypedColumnBuffer(ColumnType type) {
+        if (type == ColumnType.INT) {
+            throw new IllegalArgumentException("Int columns are collected by IntArrayBuffer");
+        }
+        this.fixedType = type != null;
+        if (type == ColumnType.DOUBLE) {
+            doubles = new double[DEFAULT_CAPACITY];
+        } else {
+            longs = new long[DEFAULT_CAPACITY];
+        }
+    }
+
+    @Override
+    public void acceptLong(long value) {
+        if (longs != null) {
+            if (size == longs.length) {
+                longs = Arrays.copyOf(longs, newCapacity(longs.length));
+            }
+            longs[size++] = value;
+        } else {
+            addDouble(value);
+        }
+    }
+
+    @Override
+    public void acceptDouble(double value) {
+        if (longs == null) {
+            addDouble(value);
+        } else if (fixedType) {
+            acceptLong((long) value);
+        } else {
+            doubles = new double[longs.length];
+            for (int i = 0; i < size; i++) {
+                doubles[i] = longs[i];
+            }
+            longs = null;
+            addDouble(value);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return type of the collected values
+     */
+    public ColumnType type() {
+        return longs != null ? ColumnType.LONG : ColumnType.DOUBLE;
+    }
+
+    /**
+     * @return column of trimmed copies of the collected values
+     */
+    public TypedColumn toColumn() {
+        return longs != null
+                ? TypedColumn.ofLongs(Arrays.copyOf(longs, size))
+                : TypedColumn.ofDoubles(Arrays.copyOf(doubles, size));
+    }
+
+    private void addDouble(double value) {
+        if (size == doubles.length) {
+            doubles = Arrays.copyOf(doubles, newCapacity(doubles.length));
+        }
+        doubles[size++] = value;
+    }
+
+    private static int newCapacity(int length) {
+        int grown = length + (length >> 1);
+        if (grown < 0 || grown > Integer.MAX_VALUE - 8) {
+            if (length == Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("Column is too large for a typed buffer");
+            }
+            return Integer.MAX_VALUE - 8;
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,298 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.InvalidOperationException;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Streaming reader for a single column of an .xlsx worksheet.
+ * <p>
+ * Opens the package read-only and pushes the sheet XML through a SAX parser, so neither
+ * the workbook object model nor the shared strings table is ever built. Memory usage
+ * depends only on what the {@link IntConsumer} keeps.
+ * </p>
+ */
+public final class XlsxColumnReader {
+    private XlsxColumnReader() {
+    }
+
+    /**
+     * Streams numeric values of one column of the first sheet to the given sink.
+     *
+     * @param path path to the .xlsx file
+     * @param column zero-based column index (0 for column A)
+     * @param sink receiver of the values in sheet order
+     * @throws IOException if the file cannot be opened or is not a valid .xlsx package
+     */
+    public static void read(Path path, int column, IntConsumer sink) throws IOException {
+        read(path, column, sink, null);
+    }
+
+    /**
+     * Variant of {@link #read(Path, int, IntConsumer)} that tells when the package is open.
+     *
+     * @param onOpened run once the package is open and the sheet is located, right before
+     * its XML is parsed; may be {@code null}
+     */
+    public static void read(Path path, int column, IntConsumer sink, Runnable onOpened) throws IOException {
+        parseFirstSheet(path, new ColumnSheetHandler(column, sink), onOpened);
+    }
+
+    /**
+     * Reads the numeric values of several sheets and columns as one combined series.
+     * <p>
+     * Each selected sheet is decoded on its own virtual thread into a separate buffer, so
+     * wall-clock time follows the largest sheet rather than the sum of all of them. Within
+     * a sheet, values of the selected columns are read row by row in a single pass; the
+     * sheets are then concatenated in workbook order.
+     * </p>
+     *
+     * @param path path to the .xlsx file
+     * @param selection sheets and columns to read
+     * @return combined values of the selection
+     * @throws IOException if the file cannot be opened or is not a valid .xlsx package
+     * @throws IllegalArgumentException if a selected sheet does not exist
+     */
+    public static int[] read(Path path, ColumnSelection selection) throws IOException {
+        return read(path, selection, null);
+    }
+
+    /**
+     * Variant of {@link #read(Path, ColumnSelection)} that tells when the package is open.
+     *
+     * @param onOpened run once the package is open and the sheets are located, right before
+     * their XML is parsed; may be {@code null}
+     */
+    public static int[] read(Path path, ColumnSelection selection, Runnable onOpened) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+
+        OPCPackage pkg = null;
+        List<InputStream> streams = new ArrayList<>();
+        try {
+            pkg = OPCPackage.open(path.toFile(), PackageAccess.READ);
+            openSheets(pkg, selection, streams);
+            if (onOpened != null) {
+                onOpened.run();
+            }
+
+            // Parsers are created up front: SAXParserFactory is not guaranteed to be thread-safe
+            int[] columns = selection.columnIndexes();
+            List<Callable<IntArrayBuffer>> tasks = new ArrayList<>();
+            for (InputStream sheet : streams) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                tasks.add(() -> {
+                    IntArrayBuffer buffer = new IntArrayBuffer();
+                    parser.setContentHandler(new ColumnSheetHandler(columns, buffer));
+                    parser.parse(new InputSource(sheet));
+                    return buffer;
+                });
+            }
+            return concat(parseAll(tasks));
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
+        } catch (NotOfficeXmlFileException | InvalidOperationException | POIXMLException e) {
+            throw new IOException("Not a valid .xlsx file: " + e.getMessage(), e);
+        } finally {
+            for (InputStream stream : streams) {
+                stream.close();
+            }
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    /**
+     * Streams the numeric values of several sheets and columns to the sink without narrowing
+     * them; sheets are read one after another in workbook order.
+     *
+     * @param path path to the .xlsx file
+     * @param selection sheets and columns to read
+     * @param sink receiver of the values
+     * @param onOpened run once the package is open and the sheets are located; may be {@code null}
+     * @throws IOException if the file cannot be opened or is not a valid .xlsx package
+     * @throws IllegalArgumentException if a selected sheet does not exist
+     */
+    public static void read(Path path, ColumnSelection selection, NumberSink sink, Runnable onOpened) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+
+        OPCPackage pkg = null;
+        List<InputStream> streams = new ArrayList<>();
+        try {
+            pkg = OPCPackage.open(path.toFile(), PackageAccess.READ);
+            openSheets(pkg, selection, streams);
+            if (onOpened != null) {
+                onOpened.run();
+            }
+            ColumnSheetHandler handler = new ColumnSheetHandler(selection.columnIndexes(), sink);
+            for (InputStream sheet : streams) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(handler);
+                parser.parse(new InputSource(sheet));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
+        } catch (NotOfficeXmlFileException | InvalidOperationException | POIXMLException e) {
+            throw new IOException("Not a valid .xlsx file: " + e.getMessage(), e);
+        } finally {
+            for (InputStream stream : streams) {
+                stream.close();
+            }
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    /**
+     * Reads the row count declared by the {@code <dimension>} element of the first sheet.
+     * <p>
+     * The declared range covers every row with content, including rows without numeric
+     * values in the requested column, so it is an upper bound of the number of values.
+     * Only the beginning of the sheet XML is parsed.
+     * </p>
+     *
+     * @param path path to the .xlsx file
+     * @return declared number of rows, or {@code -1} if the sheet does not declare a dimension
+     * @throws IOException if the file cannot be opened or is not a valid .xlsx package
+     */
+    public static int readRowCountHint(Path path) throws IOException {
+        DimensionHandler handler = new DimensionHandler();
+        parseFirstSheet(path, handler, null);
+        return handler.getRowCount();
+    }
+
+    /**
+     * Opens the XML parts of the selected sheets, or of the first sheet if none is selected,
+     * in workbook order.
+     *
+     * @param streams receives the opened parts, which the caller closes
+     * @throws IllegalArgumentException if a selected sheet does not exist
+     */
+    private static void openSheets(OPCPackage pkg, ColumnSelection selection, List<InputStream> streams)
+            throws IOException, OpenXML4JException {
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+        List<String> missing = new ArrayList<>(selection.sheets());
+        while (sheets.hasNext() && (selection.sheets().isEmpty() ? streams.isEmpty() : !missing.isEmpty())) {
+            InputStream sheet = sheets.next();
+            if (selection.sheets().isEmpty() || missing.removeIf(sheets.getSheetName()::equalsIgnoreCase)) {
+                streams.add(sheet);
+            } else {
+                sheet.close();
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Sheet not found: " + String.join(", ", missing));
+        }
+    }
+
+    private static List<IntArrayBuffer> parseAll(List<Callable<IntArrayBuffer>> tasks) throws IOException, SAXException {
+        List<IntArrayBuffer> buffers = new ArrayList<>();
+        try {
+            if (tasks.size() == 1) {
+                buffers.add(tasks.get(0).call());
+                return buffers;
+            }
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (Future<IntArrayBuffer> future : executor.invokeAll(tasks)) {
+                    buffers.add(future.get());
+                }
+            }
+            return buffers;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof SAXException cause) {
+                throw cause;
+            }
+            throw new IOException("Failed to parse Excel file: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing Excel file");
+        } catch (IOException | SAXException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
+        }
+    }
+
+    private static int[] concat(List<IntArrayBuffer> buffers) {
+        long total = 0;
+        for (IntArrayBuffer buffer : buffers) {
+            total += buffer.size();
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("Selection is too large for an int array");
+        }
+        int[] values = new int[(int) total];
+        int offset = 0;
+        for (IntArrayBuffer buffer : buffers) {
+            offset = buffer.copyTo(values, offset);
+        }
+        return values;
+    }
+
+    private static void parseFirstSheet(Path path, ContentHandler handler, Runnable onOpened) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
+
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(path.toFile(), PackageAccess.READ);
+            Iterator<InputStream> sheets = new XSSFReader(pkg).getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                if (onOpened != null) {
+                    onOpened.run();
+                }
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(handler);
+                parser.parse(new InputSource(sheet));
+            } catch (DimensionHandler.StopParsingException e) {
+                // the handler has everything it needs
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
+        } catch (NotOfficeXmlFileException | InvalidOperationException | POIXMLException e) {
+            throw new IOException("Not a valid .xlsx file: " + e.getMessage(), e);
+        } finally {
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+}
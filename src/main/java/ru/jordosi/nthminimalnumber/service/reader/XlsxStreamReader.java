@@ -0,0 +1,184 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.apache.poi.util.XMLHelper;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Streaming reader for the first column of the first sheet of an .xlsx package that arrives
+ * as a stream, e.g. an upload.
+ * <p>
+ * Unlike {@link XlsxColumnReader}, which needs random access to the package, the ZIP entries
+ * are visited in stream order and the first sheet is pushed through SAX while it is inflated,
+ * so nothing but the current entry's inflater window is buffered. The first sheet is found
+ * from {@code xl/workbook.xml} and its relationships, which spreadsheet applications write
+ * before the worksheets; if a worksheet comes first, {@code xl/worksheets/sheet1.xml} is
+ * assumed to be the first sheet.
+ * </p>
+ */
+public final class XlsxStreamReader {
+    private static final String WORKBOOK = "xl/workbook.xml";
+    private static final String WORKBOOK_RELATIONSHIPS = "xl/_rels/workbook.xml.rels";
+    private static final String DEFAULT_FIRST_SHEET = "xl/worksheets/sheet1.xml";
+
+    private XlsxStreamReader() {
+    }
+
+    /**
+     * Streams numeric values of one column of the first sheet to the given sink.
+     *
+     * @param in package bytes; not closed
+     * @param column zero-based column index (0 for column A)
+     * @param sink receiver of the values in sheet order
+     * @param maxInflatedBytes largest inflated size of a single entry, a guard against ZIP bombs
+     * @throws EntryTooLargeException if an entry inflates to more than {@code maxInflatedBytes}
+     * @throws IOException if the stream is not a valid .xlsx package
+     */
+    public static void read(InputStream in, int column, IntConsumer sink, long maxInflatedBytes) throws IOException {
+        ZipInputStream zip = new ZipInputStream(new FilterInputStream(in) {
+            @Override
+            public void close() {
+                // the caller owns the stream
+            }
+        });
+        try {
+            String firstSheetId = null;
+            Map<String, String> targets = null;
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName().startsWith("/") ? entry.getName().substring(1) : entry.getName();
+                if (name.equals(WORKBOOK)) {
+                    WorkbookHandler handler = new WorkbookHandler();
+                    parse(limited(zip, maxInflatedBytes, name), handler);
+                    firstSheetId = handler.firstSheetId;
+                } else if (name.equals(WORKBOOK_RELATIONSHIPS)) {
+                    RelationshipsHandler handler = new RelationshipsHandler();
+                    parse(limited(zip, maxInflatedBytes, name), handler);
+                    targets = handler.targets;
+                } else if (name.startsWith("xl/worksheets/") && name.endsWith(".xml")
+                        && name.equals(firstSheet(firstSheetId, targets))) {
+                    parse(limited(zip, maxInflatedBytes, name), new ColumnSheetHandler(column, sink));
+                    return;
+                }
+            }
+            throw new IOException("Not a valid .xlsx file: no worksheet found");
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to parse Excel file: " + e.getMessage(), e);
+        } finally {
+            zip.close();
+        }
+    }
+
+    private static String firstSheet(String firstSheetId, Map<String, String> targets) {
+        if (firstSheetId == null || targets == null || !targets.containsKey(firstSheetId)) {
+            return DEFAULT_FIRST_SHEET;
+        }
+        String target = targets.get(firstSheetId);
+        return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+    }
+
+    private static void parse(InputStream entry, ContentHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(handler);
+        parser.parse(new InputSource(entry));
+    }
+
+    private static InputStream limited(InputStream entry, long maxBytes, String name) {
+        return new FilterInputStream(entry) {
+            private long remaining = maxBytes;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    count(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    count(read);
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+                // closing would end the whole ZIP stream, the next entry is opened instead
+            }
+
+            private void count(int bytes) throws IOException {
+                remaining -= bytes;
+                if (remaining < 0) {
+                    throw new EntryTooLargeException("Entry " + name + " inflates to more than " + maxBytes + " bytes");
+                }
+            }
+        };
+    }
+
+    /**
+     * Finds the relationship id of the first {@code <sheet>} of the workbook.
+     */
+    private static final class WorkbookHandler extends DefaultHandler {
+        private String firstSheetId;
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (firstSheetId == null && "sheet".equals(localName(localName, qName))) {
+                for (int i = 0; i < attributes.getLength(); i++) {
+                    if ("id".equals(localName(attributes.getLocalName(i), attributes.getQName(i)))) {
+                        firstSheetId = attributes.getValue(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects relationship ids and targets of the workbook.
+     */
+    private static final class RelationshipsHandler extends DefaultHandler {
+        private final Map<String, String> targets = new HashMap<>();
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("Relationship".equals(localName(localName, qName))) {
+                targets.put(attributes.getValue("Id"), attributes.getValue("Target"));
+            }
+        }
+    }
+
+    /**
+     * Thrown when a package entry inflates beyond the allowed size.
+     */
+    public static class EntryTooLargeException extends IOException {
+        public EntryTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    private static String localName(String localName, String qName) {
+        if (localName != null && !localName.isEmpty()) {
+            return localName;
+        }
+        return qName.substring(qName.indexOf(':') + 1);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+/**
+ * Selection that picks a kernel from a {@link DataProfile} sample of the input.
+ * <ul>
+ *     <li>sample in order and the range verified sorted (or reverse sorted): the value is read off directly;</li>
+ *     <li>few distinct values within a span of at most {@value CountingSelect#MAX_SPAN}: histogram selection;</li>
+ *     <li>few distinct values over a wide span: {@link ThreeWayQuickSelect};</li>
+ *     <li>anything else: {@link RadixSelect} from {@value #RADIX_RANGE} elements, {@link IntroSelect} below.</li>
+ * </ul>
+ * Ranges of {@value #SMALL_RANGE} elements or fewer go straight to {@link IntroSelect}.
+ */
+public class AdaptiveSelect implements SelectionStrategy {
+    public static final String NAME = "adaptive";
+
+    private static final int SMALL_RANGE = 1024;
+    /**
+     * Below this size the two 256 KB histograms of {@link RadixSelect} cost more than partitioning.
+     */
+    private static final int RADIX_RANGE = 1 << 18;
+
+    private final IntroSelect introSelect = new IntroSelect();
+    private final ThreeWayQuickSelect threeWaySelect = new ThreeWayQuickSelect();
+    private final RadixSelect radixSelect = new RadixSelect();
+
+    @Override
+    public int select(int[] values, int from, int to, int k) {
+        if (to - from + 1 <= SMALL_RANGE) {
+            return introSelect.select(values, from, to, k);
+        }
+
+        DataProfile profile = DataProfile.sample(values, from, to);
+        if (profile.ascending() && isSorted(values, from, to, true)) {
+            return values[k];
+        }
+        if (profile.descending() && isSorted(values, from, to, false)) {
+            return values[to - (k - from)];
+        }
+        if (profile.fewDistinct()) {
+            int min = values[from];
+            int max = values[from];
+            for (int i = from + 1; i <= to; i++) {
+                int value = values[i];
+                if (value < min) {
+                    min = value;
+                } else if (value > max) {
+                    max = value;
+                }
+            }
+            if (CountingSelect.isApplicable(min, max, to - from + 1)) {
+                return CountingSelect.select(values, from, to, k, min, max);
+            }
+            return threeWaySelect.select(values, from, to, k);
+        }
+        if (to - from + 1 >= RADIX_RANGE) {
+            return radixSelect.select(values, from, to, k);
+        }
+        return introSelect.select(values, from, to, k);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    private static boolean isSorted(int[] values, int from, int to, boolean ascending) {
+        for (int i = from + 1; i <= to; i++) {
+            if (ascending ? values[i - 1] > values[i] : values[i - 1] < values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,130 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Bounded binary heap of primitive ints keeping either the smallest or the largest
+ * values offered to it.
+ * <p>
+ * When keeping the smallest values the heap is a max-heap, so its root is the largest kept
+ * value and the next candidate only has to beat the root. Keeping the largest values uses
+ * a min-heap symmetrically. Each offer costs O(log capacity) at most.
+ * </p>
+ * <p>
+ * The backing array may start smaller than the capacity and grows on demand, so a heap can
+ * be sized by a row count hint without ever keeping fewer values than its capacity.
+ * </p>
+ */
+public class BoundedIntHeap {
+    private final int capacity;
+    private final boolean keepSmallest;
+    private int[] heap;
+    private int size;
+
+    /**
+     * @param capacity number of values to keep
+     * @param keepSmallest {@code true} to keep the smallest values, {@code false} for the largest
+     */
+    public BoundedIntHeap(int capacity, boolean keepSmallest) {
+        this(capacity, capacity, keepSmallest);
+    }
+
+    /**
+     * @param capacity number of values to keep
+     * @param expectedSize number of values expected to be offered; the backing array starts
+     * at this size (at most the capacity) and grows up to the capacity
+     * @param keepSmallest {@code true} to keep the smallest values, {@code false} for the largest
+     */
+    public BoundedIntHeap(int capacity, int expectedSize, boolean keepSmallest) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Heap capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.heap = new int[Math.max(1, Math.min(capacity, expectedSize))];
+        this.keepSmallest = keepSmallest;
+    }
+
+    public void offer(int value) {
+        if (size < capacity) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min(capacity, 2L * heap.length));
+            }
+            heap[size] = value;
+            siftUp(size++);
+        } else if (keepSmallest ? value < heap[0] : value > heap[0]) {
+            heap[0] = value;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @return the largest kept value when keeping the smallest ones, otherwise the smallest kept value
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        return heap[0];
+    }
+
+    public int poll() {
+        int root = peek();
+        heap[0] = heap[--size];
+        siftDown(0);
+        return root;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return copy of the kept values in heap order, not sorted
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(heap, size);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean keepsSmallest() {
+        return keepSmallest;
+    }
+
+    private boolean above(int a, int b) {
+        return keepSmallest ? a > b : a < b;
+    }
+
+    private void siftUp(int index) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!above(value, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private void siftDown(int index) {
+        int value = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && above(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!above(heap[child], value)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+/**
+ * Histogram selection for ranges whose values span a small interval.
+ * <p>
+ * Counts occurrences of every value between the known minimum and maximum and walks the
+ * cumulative counts up to rank {@code k}. Runs in O(n + (max - min)) and does not move data.
+ * </p>
+ */
+final class CountingSelect {
+    /**
+     * Largest value span handled by a histogram; 65536 counters take 256 KB.
+     */
+    static final int MAX_SPAN = 1 << 16;
+
+    private CountingSelect() {
+    }
+
+    static boolean isApplicable(int min, int max, int size) {
+        long span = (long) max - min + 1;
+        return span <= MAX_SPAN && span <= size;
+    }
+
+    /**
+     * @param min smallest value of the range
+     * @param max largest value of the range, {@code max - min < MAX_SPAN}
+     */
+    static int select(int[] values, int from, int to, int k, int min, int max) {
+        int[] counts = new int[max - min + 1];
+        for (int i = from; i <= to; i++) {
+            counts[values[i] - min]++;
+        }
+        int remaining = k - from;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            remaining -= counts[bucket];
+            if (remaining < 0) {
+                return bucket + min;
+            }
+        }
+        throw new IllegalStateException("Rank " + k + " is outside of the range");
+    }
+}
@@ -0,0 +1,49 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import java.util.Arrays;
+
+/**
+ * Cheap estimate of the shape of a range, taken from an evenly strided sample.
+ *
+ * @param sampleSize number of sampled elements
+ * @param sampleDistinct distinct values among the sampled elements
+ * @param ascending whether the sampled elements are in non-decreasing order
+ * @param descending whether the sampled elements are in non-increasing order
+ */
+record DataProfile(int sampleSize, int sampleDistinct, boolean ascending, boolean descending) {
+    static final int SAMPLE_SIZE = 256;
+
+    /**
+     * Samples at most {@value #SAMPLE_SIZE} elements; costs O(SAMPLE_SIZE log SAMPLE_SIZE)
+     * independently of the size of the range.
+     */
+    static DataProfile sample(int[] values, int from, int to) {
+        int size = to - from + 1;
+        int sampleSize = Math.min(size, SAMPLE_SIZE);
+        int[] sample = new int[sampleSize];
+        boolean ascending = true;
+        boolean descending = true;
+        for (int i = 0; i < sampleSize; i++) {
+            sample[i] = values[from + (int) ((long) i * (size - 1) / Math.max(sampleSize - 1, 1))];
+            if (i > 0) {
+                ascending &= sample[i - 1] <= sample[i];
+                descending &= sample[i - 1] >= sample[i];
+            }
+        }
+        Arrays.sort(sample);
+        int distinct = sampleSize == 0 ? 0 : 1;
+        for (int i = 1; i < sampleSize; i++) {
+            if (sample[i] != sample[i - 1]) {
+                distinct++;
+            }
+        }
+        return new DataProfile(sampleSize, distinct, ascending, descending);
+    }
+
+    /**
+     * A sample with at most one distinct value per 16 elements suggests heavy duplication.
+     */
+    boolean fewDistinct() {
+        return sampleDistinct * 16 <= sampleSize;
+    }
+}
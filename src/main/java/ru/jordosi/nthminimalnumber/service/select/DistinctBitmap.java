@@ -0,0 +1,326 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed bitmap of distinct {@code int} values, laid out like a Roaring bitmap.
+ * <p>
+ * Values are split by their top 16 bits into containers kept sorted by key. A container
+ * holds the low 16 bits either as a sorted {@code char[]} (up to {@value #ARRAY_LIMIT}
+ * values) or as a 65536-bit bitmap, so a dense ID column costs about one bit per possible
+ * value and a sparse one two bytes per value. Duplicates cost nothing.
+ * </p>
+ * Rank and select walk a prefix sum of container cardinalities, so the N-th smallest
+ * distinct value is found without boxing or sorting. Filling is single-threaded; once
+ * filled, the bitmap may be read concurrently.
+ */
+public final class DistinctBitmap implements IntConsumer {
+    private static final int ARRAY_LIMIT = 4096;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    private int lastIndex = -1;
+    private volatile int[] cumulative;
+
+    /**
+     * @return bitmap of the distinct values of {@code values}
+     */
+    public static DistinctBitmap of(int[] values) {
+        DistinctBitmap bitmap = new DistinctBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    @Override
+    public void accept(int value) {
+        add(value);
+    }
+
+    public void add(int value) {
+        char key = highBits(value);
+        int index = lastIndex >= 0 && keys[lastIndex] == key ? lastIndex : Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key);
+        }
+        Container container = containers[index];
+        int cardinality = container.cardinality();
+        Container updated = container.add((char) value);
+        if (updated != container) {
+            containers[index] = updated;
+        }
+        lastIndex = index;
+        // prefix sums only go stale when a value is new, and are not built while filling;
+        // a volatile store per value would order every iteration of the fill loop
+        if (updated.cardinality() != cardinality && cumulative != null) {
+            cumulative = null;
+        }
+    }
+
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, size, highBits(value));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * @return number of distinct values
+     */
+    public int cardinality() {
+        return cumulative()[size];
+    }
+
+    /**
+     * @param rank 0-based rank among the distinct values
+     * @return distinct value of the given rank
+     * @throws IllegalArgumentException if there are {@code rank} or fewer distinct values
+     */
+    public int select(int rank) {
+        int[] prefix = cumulative();
+        if (rank < 0 || rank >= prefix[size]) {
+            throw new IllegalArgumentException("N must be in range from 1 to " + prefix[size]);
+        }
+        int lo = 0;
+        int hi = size - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (prefix[mid] <= rank) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return toValue(keys[lo], containers[lo].select(rank - prefix[lo]));
+    }
+
+    /**
+     * @return number of distinct values less than or equal to {@code value}
+     */
+    public int rank(int value) {
+        int[] prefix = cumulative();
+        int index = Arrays.binarySearch(keys, 0, size, highBits(value));
+        if (index < 0) {
+            return prefix[-index - 1];
+        }
+        return prefix[index] + containers[index].rank((char) value);
+    }
+
+    /**
+     * @return distinct values in ascending order
+     */
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            offset = containers[i].copyTo(values, offset, keys[i]);
+        }
+        return values;
+    }
+
+    /**
+     * @return approximate heap footprint in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 64 + 16 + (long) keys.length * Character.BYTES + 16 + (long) containers.length * 8;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private int[] cumulative() {
+        int[] prefix = cumulative;
+        if (prefix == null) {
+            prefix = new int[size + 1];
+            for (int i = 0; i < size; i++) {
+                prefix[i + 1] = prefix[i] + containers[i].cardinality();
+            }
+            cumulative = prefix;
+        }
+        return prefix;
+    }
+
+    private void insertContainer(int index, char key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = new ArrayContainer();
+        size++;
+    }
+
+    /**
+     * Top 16 bits with the sign bit flipped, so unsigned key order is signed value order.
+     */
+    private static char highBits(int value) {
+        return (char) ((value ^ Integer.MIN_VALUE) >>> 16);
+    }
+
+    private static int toValue(char key, int low) {
+        return ((key << 16) | low) ^ Integer.MIN_VALUE;
+    }
+
+    private abstract static class Container {
+        /**
+         * @return this container, or its replacement if the representation changed
+         */
+        abstract Container add(char low);
+
+        abstract boolean contains(char low);
+
+        abstract int cardinality();
+
+        abstract int select(int rank);
+
+        /**
+         * @return number of values less than or equal to {@code low}
+         */
+        abstract int rank(char low);
+
+        abstract int copyTo(int[] target, int offset, char key);
+
+        abstract long sizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+        private int cardinality;
+
+        @Override
+        Container add(char low) {
+            int index = cardinality > 0 && values[cardinality - 1] < low
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return new BitmapContainer(this).add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int select(int rank) {
+            return values[rank];
+        }
+
+        @Override
+        int rank(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            return index >= 0 ? index + 1 : -index - 1;
+        }
+
+        @Override
+        int copyTo(int[] target, int offset, char key) {
+            for (int i = 0; i < cardinality; i++) {
+                target[offset++] = toValue(key, values[i]);
+            }
+            return offset;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 32 + (long) values.length * Character.BYTES;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[1024];
+        private int cardinality;
+
+        BitmapContainer(ArrayContainer array) {
+            for (int i = 0; i < array.cardinality; i++) {
+                char low = array.values[i];
+                words[low >>> 6] |= 1L << low;
+            }
+            cardinality = array.cardinality;
+        }
+
+        @Override
+        Container add(char low) {
+            long before = words[low >>> 6];
+            long after = before | 1L << low;
+            if (after != before) {
+                words[low >>> 6] = after;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & 1L << low) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int select(int rank) {
+            for (int word = 0; ; word++) {
+                int bits = Long.bitCount(words[word]);
+                if (rank < bits) {
+                    long remaining = words[word];
+                    for (int i = 0; i < rank; i++) {
+                        remaining &= remaining - 1;
+                    }
+                    return (word << 6) | Long.numberOfTrailingZeros(remaining);
+                }
+                rank -= bits;
+            }
+        }
+
+        @Override
+        int rank(char low) {
+            int rank = 0;
+            int lastWord = low >>> 6;
+            for (int word = 0; word < lastWord; word++) {
+                rank += Long.bitCount(words[word]);
+            }
+            return rank + Long.bitCount(words[lastWord] & (-1L >>> (63 - (low & 63))));
+        }
+
+        @Override
+        int copyTo(int[] target, int offset, char key) {
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    target[offset++] = toValue(key, (word << 6) | Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            return offset;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 32 + 16 + (long) words.length * Long.BYTES;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Out-of-core N-th minimum selection for columns larger than the heap.
+ * <p>
+ * Values pushed while the source is parsed are spilled to 256 bucket files on local disk by
+ * the top 8 bits of their value (sign flipped, as in {@link RadixSelect}), through one small
+ * write buffer per bucket; only the per-bucket counts stay on the heap. {@link #select(long)}
+ * then walks the counts to the bucket holding the rank and selects within that bucket alone.
+ * A bucket still too large for the heap budget, as with skewed data, is partitioned again by
+ * the next 8 bits; after four levels all values of a bucket are equal and the answer is known
+ * without loading anything.
+ * </p>
+ * <p>
+ * The heap use is bounded by the budget: write buffers take an eighth of it (at most 64 KB per
+ * bucket), a loaded bucket the rest. Every value is written to disk once, plus once per extra
+ * level for the values of an oversized bucket. Files live in a private temporary directory that
+ * {@link #close()} removes.
+ * </p>
+ */
+public class ExternalSelector implements IntConsumer, Closeable {
+    static final int BITS = 8;
+    static final int BUCKETS = 1 << BITS;
+    private static final int MIN_BUFFER_BYTES = 4 << 10;
+    private static final int MAX_BUFFER_BYTES = 64 << 10;
+
+    private final Path directory;
+    private final SelectionStrategy strategy;
+    private final int bufferBytes;
+    private final long maxLoadedValues;
+    private final Partition root;
+    private int partitions;
+
+    /**
+     * @param tempDir directory in which the private spill directory is created
+     * @param heapBudgetBytes heap the selector may use for buffers and the loaded bucket
+     * @param strategy selection within the loaded bucket
+     * @throws IOException if the spill directory cannot be created
+     */
+    public ExternalSelector(Path tempDir, long heapBudgetBytes, SelectionStrategy strategy) throws IOException {
+        Files.createDirectories(tempDir);
+        this.directory = Files.createTempDirectory(tempDir, "nth-min-spill");
+        this.strategy = strategy;
+        this.bufferBytes = (int) Math.max(MIN_BUFFER_BYTES, Math.min(MAX_BUFFER_BYTES, heapBudgetBytes / 8 / BUCKETS))
+                & -Integer.BYTES;
+        this.maxLoadedValues = Math.min(Integer.MAX_VALUE - 8,
+                Math.max(BUCKETS, (heapBudgetBytes - (long) bufferBytes * BUCKETS) / Integer.BYTES));
+        this.root = new Partition(0, Integer.SIZE - BITS);
+    }
+
+    /**
+     * Spills a value to its bucket.
+     *
+     * @throws UncheckedIOException if the spill file cannot be written
+     */
+    @Override
+    public void accept(int value) {
+        try {
+            root.add(value ^ Integer.MIN_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return number of values spilled so far
+     */
+    public long count() {
+        return root.total;
+    }
+
+    /**
+     * Finds the N-th minimal value of all spilled values; may be called repeatedly once
+     * every value has been pushed.
+     *
+     * @param n 1-based rank, {@code 1 <= n <= count()}
+     * @throws IllegalArgumentException if n is out of range
+     * @throws IOException if the spill files cannot be read
+     */
+    public int select(long n) throws IOException {
+        if (n < 1 || n > root.total) {
+            throw new IllegalArgumentException("N must be in range from 1 to " + root.total);
+        }
+        root.finish();
+
+        Partition partition = root;
+        long rank = n - 1;
+        while (true) {
+            int bucket = 0;
+            while (rank >= partition.counts[bucket]) {
+                rank -= partition.counts[bucket++];
+            }
+            long size = partition.counts[bucket];
+            int key = partition.prefix | (bucket << partition.shift);
+            if (partition.shift == 0) {
+                return key ^ Integer.MIN_VALUE;
+            }
+            if (size <= maxLoadedValues) {
+                int[] values = load(partition.file(bucket), (int) size);
+                return strategy.select(values, 0, values.length - 1, (int) rank);
+            }
+            partition = partition.split(bucket, key);
+        }
+    }
+
+    /**
+     * Deletes every spill file and the spill directory.
+     */
+    @Override
+    public void close() throws IOException {
+        root.closeChannels();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private int[] load(Path file, int size) throws IOException {
+        int[] values = new int[size];
+        int offset = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer block = ByteBuffer.allocate(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+            while (offset < size && channel.read(block) >= 0) {
+                block.flip();
+                int length = Math.min(block.remaining() / Integer.BYTES, size - offset);
+                block.asIntBuffer().get(values, offset, length);
+                offset += length;
+                block.position(length * Integer.BYTES).compact();
+            }
+        }
+        if (offset != size) {
+            throw new IOException("Spill file " + file.getFileName() + " holds " + offset + " values, expected " + size);
+        }
+        return values;
+    }
+
+    /**
+     * One level of buckets: values sharing the bits above {@code shift + BITS} are split by
+     * the next {@link #BITS} bits into their own files.
+     */
+    private final class Partition {
+        private final int prefix;
+        private final int shift;
+        private final String name;
+        private final long[] counts = new long[BUCKETS];
+        private final FileChannel[] channels = new FileChannel[BUCKETS];
+        private final ByteBuffer[] buffers = new ByteBuffer[BUCKETS];
+        private long total;
+        private boolean finished;
+
+        Partition(int prefix, int shift) {
+            this.prefix = prefix;
+            this.shift = shift;
+            this.name = "p" + partitions++;
+        }
+
+        void add(int key) throws IOException {
+            if (finished) {
+                throw new IllegalStateException("Values cannot be added after selection");
+            }
+            int bucket = (key >>> shift) & (BUCKETS - 1);
+            ByteBuffer buffer = buffers[bucket];
+            if (buffer == null) {
+                buffer = ByteBuffer.allocate(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+                buffers[bucket] = buffer;
+            }
+            buffer.putInt(key ^ Integer.MIN_VALUE);
+            if (!buffer.hasRemaining()) {
+                flush(bucket);
+            }
+            counts[bucket]++;
+            total++;
+        }
+
+        /**
+         * Streams one bucket of this partition into a new partition by the next bits.
+         */
+        Partition split(int bucket, int key) throws IOException {
+            Partition child = new Partition(key, shift - BITS);
+            try (FileChannel channel = FileChannel.open(file(bucket), StandardOpenOption.READ)) {
+                ByteBuffer block = ByteBuffer.allocate(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+                while (channel.read(block) > 0 || block.position() >= Integer.BYTES) {
+                    block.flip();
+                    while (block.remaining() >= Integer.BYTES) {
+                        child.add(block.getInt() ^ Integer.MIN_VALUE);
+                    }
+                    block.compact();
+                }
+            } finally {
+                child.finish();
+            }
+            return child;
+        }
+
+        Path file(int bucket) {
+            return directory.resolve(name + "-" + bucket);
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            try {
+                for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                    if (buffers[bucket] != null) {
+                        flush(bucket);
+                        buffers[bucket] = null;
+                    }
+                }
+            } finally {
+                closeChannels();
+            }
+        }
+
+        void closeChannels() throws IOException {
+            IOException failure = null;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                if (channels[bucket] != null) {
+                    try {
+                        channels[bucket].close();
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                    channels[bucket] = null;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void flush(int bucket) throws IOException {
+            FileChannel channel = channels[bucket];
+            if (channel == null) {
+                channel = FileChannel.open(file(bucket), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                channels[bucket] = channel;
+            }
+            ByteBuffer buffer = buffers[bucket].flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Streaming N-th minimum selection over a bounded heap.
+ * <p>
+ * Values are pushed one by one while the source is parsed, so the column is never stored.
+ * For small {@code n} the selector keeps the {@code n} smallest values. When {@code n} is
+ * close to the expected number of values it keeps the {@code rows - n + 1} largest values
+ * instead and reads the answer from the other end. Memory is O(min(n, rows - n)).
+ * </p>
+ */
+public class HeapNthSelector implements IntConsumer {
+    private final int n;
+    private final BoundedIntHeap heap;
+    private int count;
+
+    /**
+     * @param n 1-based rank of the value to find
+     * @param rowCountHint expected upper bound of the number of values, or a non-positive value if unknown
+     */
+    public HeapNthSelector(int n, int rowCountHint) {
+        if (n < 1) {
+            throw new IllegalArgumentException("N must be greater than or equal to 1");
+        }
+        this.n = n;
+        int fromTop = rowCountHint - n + 1;
+        this.heap = fromTop >= 1 && fromTop < n
+                ? new BoundedIntHeap(fromTop, false)
+                : new BoundedIntHeap(n, true);
+    }
+
+    /**
+     * Tells whether streaming through a heap is preferable to collecting the whole column.
+     *
+     * @param n 1-based rank of the value to find
+     * @param rowCountHint declared number of rows, non-positive if unknown
+     * @param maxHeapSize largest heap the caller is willing to use
+     */
+    public static boolean isPreferred(int n, int rowCountHint, int maxHeapSize) {
+        if (rowCountHint <= 0 || n < 1 || n > rowCountHint) {
+            return false;
+        }
+        return Math.min(n, rowCountHint - n + 1) <= maxHeapSize;
+    }
+
+    @Override
+    public void accept(int value) {
+        count++;
+        heap.offer(value);
+    }
+
+    /**
+     * @return number of values seen so far
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Tells whether the kept values determine the N-th minimum. This is false when fewer
+     * than {@code n} values were seen, or when the row count hint was too small for a
+     * heap of the largest values.
+     */
+    public boolean hasResult() {
+        if (count < n) {
+            return false;
+        }
+        return heap.keepsSmallest() || count - n + 1 <= heap.size();
+    }
+
+    /**
+     * Returns the N-th minimum and consumes the heap; can be called only once.
+     *
+     * @throws IllegalStateException if {@link #hasResult()} is false
+     */
+    public int result() {
+        if (!hasResult()) {
+            throw new IllegalStateException("Not enough values kept to determine the N-th minimum");
+        }
+        if (heap.keepsSmallest()) {
+            return heap.peek();
+        }
+        int rankFromTop = count - n + 1;
+        while (heap.size() > rankFromTop) {
+            heap.poll();
+        }
+        return heap.peek();
+    }
+}
@@ -0,0 +1,68 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+/**
+ * Primitive array helpers shared by the selection kernels.
+ */
+final class IntArrays {
+    private IntArrays() {
+    }
+
+    static void swap(int[] a, int i, int j) {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    static int medianOf3(int[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[j] > a[k] ? j : (a[i] > a[k] ? k : i);
+    }
+
+    static void insertionSort(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            int value = a[i];
+            int j = i - 1;
+            while (j >= lo && a[j] > value) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    /**
+     * Dutch national flag partitioning around a value present in the range.
+     * <p>
+     * Afterwards {@code a[lo..lt-1] < pivot}, {@code a[lt..gt] == pivot} and {@code a[gt+1..hi] > pivot}.
+     * </p>
+     *
+     * @return bounds of the band equal to the pivot packed as {@code (lt << 32) | gt};
+     * use {@link #bandStart(long)} and {@link #bandEnd(long)} to unpack
+     */
+    static long partitionThreeWay(int[] a, int lo, int hi, int pivot) {
+        int lt = lo;
+        int i = lo;
+        int gt = hi;
+        while (i <= gt) {
+            int value = a[i];
+            if (value < pivot) {
+                swap(a, lt++, i++);
+            } else if (value > pivot) {
+                swap(a, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        return ((long) lt << 32) | (gt & 0xFFFFFFFFL);
+    }
+
+    static int bandStart(long band) {
+        return (int) (band >>> 32);
+    }
+
+    static int bandEnd(long band) {
+        return (int) band;
+    }
+}
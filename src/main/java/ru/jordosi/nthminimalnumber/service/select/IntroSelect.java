@@ -0,0 +1,133 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import static ru.jordosi.nthminimalnumber.service.select.IntArrays.*;
+
+/**
+ * Iterative introspective selection with a guaranteed O(n) worst case.
+ * <p>
+ * Rounds use a median-of-3 pivot (Tukey's ninther for ranges of {@value #NINTHER_THRESHOLD}
+ * elements and more) with Hoare partitioning, which keeps sorted, reverse-sorted and
+ * duplicate-heavy input linear in practice. Every two rounds the remaining range must at
+ * least halve; once it does not, the remaining rounds switch to median-of-medians pivots
+ * with three-way partitioning, which bounds the total work by O(n).
+ * </p>
+ * The selection loop itself does not recurse. The only recursion is the median-of-medians
+ * pivot search on the group medians, whose depth is bounded by log<sub>5</sub>(n).
+ */
+public class IntroSelect implements SelectionStrategy {
+    public static final String NAME = "intro";
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int NINTHER_THRESHOLD = 128;
+
+    private final boolean medianOfMediansOnly;
+
+    public IntroSelect() {
+        this(false);
+    }
+
+    /**
+     * @param medianOfMediansOnly skip the sampling rounds and always use median-of-medians pivots
+     */
+    IntroSelect(boolean medianOfMediansOnly) {
+        this.medianOfMediansOnly = medianOfMediansOnly;
+    }
+
+    @Override
+    public int select(int[] values, int from, int to, int k) {
+        int lo = from;
+        int hi = to;
+        boolean guaranteed = medianOfMediansOnly;
+        int checkpointSize = hi - lo + 1;
+        int rounds = 0;
+
+        while (hi - lo + 1 > INSERTION_SORT_THRESHOLD) {
+            if (guaranteed) {
+                int pivot = medianOfMedians(values, lo, hi);
+                long band = partitionThreeWay(values, lo, hi, pivot);
+                int lt = bandStart(band);
+                int gt = bandEnd(band);
+                if (k < lt) {
+                    hi = lt - 1;
+                } else if (k > gt) {
+                    lo = gt + 1;
+                } else {
+                    return pivot;
+                }
+            } else {
+                swap(values, lo, pivotIndex(values, lo, hi));
+                int split = partitionHoare(values, lo, hi);
+                if (k <= split) {
+                    hi = split;
+                } else {
+                    lo = split + 1;
+                }
+                if (++rounds == 2) {
+                    int size = hi - lo + 1;
+                    guaranteed = size > checkpointSize / 2;
+                    checkpointSize = size;
+                    rounds = 0;
+                }
+            }
+        }
+
+        insertionSort(values, lo, hi);
+        return values[k];
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    private static int pivotIndex(int[] a, int lo, int hi) {
+        int size = hi - lo + 1;
+        int mid = lo + (size >>> 1);
+        if (size < NINTHER_THRESHOLD) {
+            return medianOf3(a, lo, mid, hi);
+        }
+        int step = size >>> 3;
+        return medianOf3(a,
+                medianOf3(a, lo, lo + step, lo + 2 * step),
+                medianOf3(a, mid - step, mid, mid + step),
+                medianOf3(a, hi - 2 * step, hi - step, hi));
+    }
+
+    /**
+     * Hoare partitioning around {@code a[lo]}.
+     *
+     * @return index {@code j}, {@code lo <= j < hi}, such that {@code a[lo..j] <= pivot <= a[j+1..hi]}
+     */
+    private static int partitionHoare(int[] a, int lo, int hi) {
+        int pivot = a[lo];
+        int i = lo - 1;
+        int j = hi + 1;
+        while (true) {
+            do {
+                i++;
+            } while (a[i] < pivot);
+            do {
+                j--;
+            } while (a[j] > pivot);
+            if (i >= j) {
+                return j;
+            }
+            swap(a, i, j);
+        }
+    }
+
+    /**
+     * Moves the median of every group of five to the front of the range and selects
+     * the median of those medians.
+     */
+    private int medianOfMedians(int[] a, int lo, int hi) {
+        int medians = lo;
+        for (int group = lo; group <= hi; group += 5) {
+            int groupEnd = Math.min(group + 4, hi);
+            insertionSort(a, group, groupEnd);
+            swap(a, medians++, group + ((groupEnd - group) >>> 1));
+        }
+        int last = medians - 1;
+        return select(a, lo, last, lo + ((last - lo) >>> 1));
+    }
+}
@@ -0,0 +1,335 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Mergeable quantile sketch of int values after Karnin, Lang and Liberty,
+ * "Optimal Quantile Approximation in Streams" (KLL).
+ * <p>
+ * Values are kept in levels; an item on level {@code h} stands for {@code 2^h} values of the
+ * stream. When the sketch is full, the lowest level over its capacity is sorted and every
+ * second item (starting at a random offset) is promoted to the next level, the rest is dropped.
+ * Capacities shrink geometrically towards the lower levels, so a sketch of parameter {@code k}
+ * retains O(k) items for any number of values and answers ranks within
+ * {@link #normalizedRankError()} of the stream length. Two sketches of the same {@code k} merge
+ * into a sketch of the concatenated streams with the same guarantee, which is what makes
+ * per-file sketches reusable for sets of files.
+ * </p>
+ * <p>
+ * The minimum and maximum are tracked exactly. Until the first compaction every value is
+ * retained and answers are exact. Instances are not thread-safe for updates; a sketch that is no
+ * longer updated may be queried concurrently.
+ * </p>
+ */
+public class KllSketch implements IntConsumer {
+    public static final int DEFAULT_K = 200;
+    static final int MIN_K = 8;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int SERIAL_HEADER_BYTES = 24;
+
+    private final int k;
+    private final SplittableRandom random;
+    private int[][] levels = {new int[MIN_K]};
+    private int[] sizes = new int[1];
+    private int[] capacities;
+    private int totalCapacity;
+    private int retained;
+    private long count;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private volatile SortedView view;
+
+    /**
+     * @param k accuracy parameter, at least 8; the rank error shrinks roughly as {@code 1/k}
+     */
+    public KllSketch(int k) {
+        this(k, new SplittableRandom());
+    }
+
+    KllSketch(int k, SplittableRandom random) {
+        if (k < MIN_K || k > 1 << 16) {
+            throw new IllegalArgumentException("Sketch size k must be in range from " + MIN_K + " to " + (1 << 16));
+        }
+        this.k = k;
+        this.random = random;
+        updateCapacities();
+    }
+
+    @Override
+    public void accept(int value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        append(0, value);
+        view = null;
+        compress();
+    }
+
+    /**
+     * Adds all values summarized by another sketch; {@code other} is not modified.
+     *
+     * @throws IllegalArgumentException if the sketches were built with different {@code k}
+     */
+    public void merge(KllSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches with k=" + k + " and k=" + other.k);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        for (int level = 0; level < other.sizes.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        view = null;
+        compress();
+    }
+
+    public int k() {
+        return k;
+    }
+
+    /**
+     * @return number of values summarized by the sketch
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return number of items held by the sketch
+     */
+    public int retained() {
+        return retained;
+    }
+
+    /**
+     * Tells whether every value is still retained, so answers carry no error.
+     */
+    public boolean isExact() {
+        return retained == count;
+    }
+
+    /**
+     * Estimates the N-th minimal value. The true rank of the returned value differs from
+     * {@code n} by at most {@link #rankError()} with 99% confidence.
+     *
+     * @param n 1-based rank, {@code 1 <= n <= count()}
+     * @throws IllegalArgumentException if n is out of range
+     */
+    public int nthMinimal(long n) {
+        if (n < 1 || n > count) {
+            throw new IllegalArgumentException("N must be in range from 1 to " + count);
+        }
+        if (n == 1) {
+            return min;
+        }
+        if (n == count) {
+            return max;
+        }
+        SortedView sorted = sortedView();
+        int index = Arrays.binarySearch(sorted.cumulativeWeights(), n);
+        return sorted.values()[index >= 0 ? index : -index - 1];
+    }
+
+    /**
+     * Error of ranks relative to {@link #count()}: 0 while the sketch is exact, otherwise the
+     * empirical single-rank bound of KLL sketches, {@code 1.654 / k^0.9723}, that holds with 99%
+     * confidence (about 1% for {@code k = 200}).
+     */
+    public double normalizedRankError() {
+        return isExact() ? 0 : 1.654 / Math.pow(k, 0.9723);
+    }
+
+    /**
+     * @return bound of the rank error in number of values, see {@link #normalizedRankError()}
+     */
+    public long rankError() {
+        return (long) Math.ceil(normalizedRankError() * count);
+    }
+
+    /**
+     * @return number of bytes written by {@link #writeTo(ByteBuffer)}
+     */
+    public int serializedSize() {
+        return SERIAL_HEADER_BYTES + (sizes.length + retained) * Integer.BYTES;
+    }
+
+    /**
+     * Writes the sketch in little-endian order:
+     * <pre>
+     * int   k
+     * long  number of values
+     * int   minimum
+     * int   maximum
+     * int   number of levels
+     * int[] number of items per level
+     * int[] items, level by level
+     * </pre>
+     *
+     * @param buffer buffer with at least {@link #serializedSize()} bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        ByteBuffer out = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(k).putLong(count).putInt(min).putInt(max).putInt(sizes.length);
+        for (int size : sizes) {
+            out.putInt(size);
+        }
+        for (int level = 0; level < sizes.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                out.putInt(levels[level][i]);
+            }
+        }
+    }
+
+    /**
+     * Reads a sketch written by {@link #writeTo(ByteBuffer)}.
+     *
+     * @throws IllegalArgumentException if the bytes are not a consistent sketch
+     */
+    public static KllSketch readFrom(ByteBuffer buffer) {
+        ByteBuffer in = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            KllSketch sketch = new KllSketch(in.getInt());
+            long count = in.getLong();
+            int min = in.getInt();
+            int max = in.getInt();
+            int levelCount = in.getInt();
+            if (levelCount < 1 || levelCount > Long.SIZE) {
+                throw new IllegalArgumentException("Corrupted sketch: " + levelCount + " levels");
+            }
+            sketch.levels = new int[levelCount][];
+            sketch.sizes = new int[levelCount];
+            sketch.updateCapacities();
+            long weight = 0;
+            for (int level = 0; level < levelCount; level++) {
+                int size = in.getInt();
+                if (size < 0 || size > in.remaining() / Integer.BYTES) {
+                    throw new IllegalArgumentException("Corrupted sketch: level " + level + " has " + size + " items");
+                }
+                sketch.sizes[level] = size;
+                sketch.retained += size;
+                weight += (long) size << level;
+            }
+            for (int level = 0; level < levelCount; level++) {
+                sketch.levels[level] = new int[Math.max(MIN_K, sketch.sizes[level])];
+                in.asIntBuffer().get(sketch.levels[level], 0, sketch.sizes[level]);
+                in.position(in.position() + sketch.sizes[level] * Integer.BYTES);
+            }
+            if (weight != count) {
+                throw new IllegalArgumentException("Corrupted sketch: items weigh " + weight + " for " + count + " values");
+            }
+            sketch.count = count;
+            sketch.min = min;
+            sketch.max = max;
+            return sketch;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Corrupted sketch: unexpected end of data", e);
+        }
+    }
+
+    private void append(int level, int value) {
+        if (level == sizes.length) {
+            addLevel();
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+        retained++;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new int[MIN_K];
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        updateCapacities();
+    }
+
+    /**
+     * Compacts levels until the retained items fit the total capacity. Some level is always
+     * at or over its own capacity when the total is exceeded.
+     */
+    private void compress() {
+        while (retained > totalCapacity) {
+            int level = 0;
+            while (sizes[level] < capacities[level]) {
+                level++;
+            }
+            compact(level);
+        }
+    }
+
+    private void compact(int level) {
+        if (level + 1 == sizes.length) {
+            addLevel();
+        }
+        int[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        // an odd item out stays on its level, the others are halved
+        int from = size % 2;
+        int offset = random.nextBoolean() ? 1 : 0;
+        for (int i = from + offset; i < size; i += 2) {
+            append(level + 1, items[i]);
+        }
+        sizes[level] = from;
+        retained -= size - from;
+    }
+
+    /**
+     * Level capacities depend on the number of levels: the top level holds {@code k} items and
+     * each level below holds 2/3 of the one above, but never fewer than 8.
+     */
+    private void updateCapacities() {
+        capacities = new int[sizes.length];
+        totalCapacity = 0;
+        for (int level = 0; level < sizes.length; level++) {
+            int depth = sizes.length - 1 - level;
+            capacities[level] = Math.max(MIN_K, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+            totalCapacity += capacities[level];
+        }
+    }
+
+    private SortedView sortedView() {
+        SortedView sorted = view;
+        if (sorted != null) {
+            return sorted;
+        }
+        long[] keys = new long[retained];
+        int index = 0;
+        for (int level = 0; level < sizes.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                // value in the high half so that sorting keys sorts values; the level rides along
+                keys[index++] = ((long) levels[level][i] << 8) | level;
+            }
+        }
+        Arrays.sort(keys);
+        int[] values = new int[retained];
+        long[] cumulativeWeights = new long[retained];
+        long weight = 0;
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = (int) (keys[i] >> 8);
+            weight += 1L << (keys[i] & 0xFF);
+            cumulativeWeights[i] = weight;
+        }
+        sorted = new SortedView(values, cumulativeWeights);
+        view = sorted;
+        return sorted;
+    }
+
+    /**
+     * Retained items in ascending order with the number of values each prefix stands for.
+     */
+    private record SortedView(int[] values, long[] cumulativeWeights) {
+    }
+}
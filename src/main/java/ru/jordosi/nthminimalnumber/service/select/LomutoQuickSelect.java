@@ -0,0 +1,54 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+/**
+ * Classic QuickSelect with Lomuto partitioning and the last element as pivot.
+ * <p>
+ * This is the original algorithm of the service, kept for comparison. Average time is O(n),
+ * but sorted, reverse-sorted and duplicate-heavy input degrade it to O(n^2).
+ * </p>
+ */
+public class LomutoQuickSelect implements SelectionStrategy {
+    public static final String NAME = "lomuto";
+
+    @Override
+    public int select(int[] values, int from, int to, int k) {
+        int left = from;
+        int right = to;
+        while (left < right) {
+            int pivotIndex = partition(values, left, right);
+
+            if (k == pivotIndex) {
+                return values[k];
+            } else if (k < pivotIndex) {
+                right = pivotIndex - 1;
+            } else {
+                left = pivotIndex + 1;
+            }
+        }
+        return values[left];
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    private int partition(int[] arr, int left, int right) {
+        int pivot = arr[right];
+        int i = left;
+        for (int j = left; j < right; j++) {
+            if (arr[j] <= pivot) {
+                swap(arr, i, j);
+                i++;
+            }
+        }
+        swap(arr, i, right);
+        return i;
+    }
+
+    private static void swap(int[] arr, int i, int j) {
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+}
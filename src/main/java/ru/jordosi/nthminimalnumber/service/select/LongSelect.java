@@ -0,0 +1,118 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import java.util.Arrays;
+
+/**
+ * Introspective selection specialized for {@code long[]}.
+ * <p>
+ * The same rounds as {@link IntroSelect} work directly on the primitive array: median-of-3
+ * pivots (Tukey's ninther for ranges of {@value #NINTHER_THRESHOLD} elements and more) with
+ * Hoare partitioning, and a check every two rounds that the range at least halved. Once it
+ * does not, the remaining range is sorted, which bounds the worst case by O(n log n). The
+ * kernel is written out per element type rather than shared through a comparator, so values
+ * are compared as primitives and never boxed. See {@link DoubleSelect} for doubles.
+ * </p>
+ */
+public class LongSelect {
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int NINTHER_THRESHOLD = 128;
+
+    /**
+     * Finds the element that would be at index {@code k} if {@code values[from..to]} were sorted.
+     *
+     * @param values array to select from, partially reordered by the call
+     * @param from first index of the range (inclusive)
+     * @param to last index of the range (inclusive)
+     * @param k absolute 0-based index, {@code from <= k <= to}
+     * @return the k-th smallest value of the range
+     */
+    public long select(long[] values, int from, int to, int k) {
+        int lo = from;
+        int hi = to;
+        int checkpointSize = hi - lo + 1;
+        int rounds = 0;
+
+        while (hi - lo + 1 > INSERTION_SORT_THRESHOLD) {
+            swap(values, lo, pivotIndex(values, lo, hi));
+            int split = partitionHoare(values, lo, hi);
+            if (k <= split) {
+                hi = split;
+            } else {
+                lo = split + 1;
+            }
+            if (++rounds == 2) {
+                int size = hi - lo + 1;
+                if (size > checkpointSize / 2) {
+                    Arrays.sort(values, lo, hi + 1);
+                    return values[k];
+                }
+                checkpointSize = size;
+                rounds = 0;
+            }
+        }
+
+        insertionSort(values, lo, hi);
+        return values[k];
+    }
+
+    private static int pivotIndex(long[] a, int lo, int hi) {
+        int size = hi - lo + 1;
+        int mid = lo + (size >>> 1);
+        if (size < NINTHER_THRESHOLD) {
+            return medianOf3(a, lo, mid, hi);
+        }
+        int step = size >>> 3;
+        return medianOf3(a,
+                medianOf3(a, lo, lo + step, lo + 2 * step),
+                medianOf3(a, mid - step, mid, mid + step),
+                medianOf3(a, hi - 2 * step, hi - step, hi));
+    }
+
+    private static int medianOf3(long[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[j] > a[k] ? j : (a[i] > a[k] ? k : i);
+    }
+
+    /**
+     * Hoare partitioning around {@code a[lo]}.
+     *
+     * @return index {@code j}, {@code lo <= j < hi}, such that {@code a[lo..j] <= pivot <= a[j+1..hi]}
+     */
+    private static int partitionHoare(long[] a, int lo, int hi) {
+        long pivot = a[lo];
+        int i = lo - 1;
+        int j = hi + 1;
+        while (true) {
+            do {
+                i++;
+            } while (a[i] < pivot);
+            do {
+                j--;
+            } while (a[j] > pivot);
+            if (i >= j) {
+                return j;
+            }
+            swap(a, i, j);
+        }
+    }
+
+    private static void insertionSort(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            long value = a[i];
+            int j = i - 1;
+            while (j >= lo && a[j] > value) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+/**
+ * Selects several order statistics of one array in a single recursive pass.
+ * <p>
+ * The middle requested rank is selected first, which leaves the array partitioned around
+ * it; the lower ranks are then searched only left of it and the higher ranks only right
+ * of it. With m ranks the recursion is log<sub>2</sub>(m) levels deep and every level
+ * touches each element at most once, so the total cost is O(n log m) instead of O(n m)
+ * for independent selections.
+ * </p>
+ * Relies on {@link IntroSelect} leaving the range partitioned around the selected index.
+ */
+public class MultiSelect {
+    private final IntroSelect introSelect = new IntroSelect();
+
+    /**
+     * @param values array to select from, reordered in place
+     * @param ranks distinct 0-based ranks in ascending order
+     * @return values at the given ranks, in the order of {@code ranks}
+     */
+    public int[] select(int[] values, int[] ranks) {
+        int[] results = new int[ranks.length];
+        if (ranks.length > 0) {
+            select(values, 0, values.length - 1, ranks, 0, ranks.length - 1, results);
+        }
+        return results;
+    }
+
+    private void select(int[] values, int from, int to, int[] ranks, int firstRank, int lastRank, int[] results) {
+        int middle = (firstRank + lastRank) >>> 1;
+        int k = ranks[middle];
+        results[middle] = introSelect.select(values, from, to, k);
+
+        if (firstRank < middle) {
+            select(values, from, k - 1, ranks, firstRank, middle - 1, results);
+        }
+        if (middle < lastRank) {
+            select(values, k + 1, to, ranks, middle + 1, lastRank, results);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Fork-join selection for large ranges with sample-based pivoting.
+ * <p>
+ * A sorted sample gives two pivots that bracket rank {@code k} with high probability.
+ * Chunks of the range are then counted in parallel (values below, between and above the
+ * pivots), the values between the pivots are compacted in parallel into a small buffer,
+ * and the delegate selects inside that buffer. The band is usually a few percent of the
+ * input, so the sequential part is short. If the sample happens to miss {@code k}, or the
+ * band is not much smaller than the range (heavy duplicates), the whole range goes to the
+ * delegate.
+ * </p>
+ * Ranges below the threshold go straight to the delegate, which therefore defines the
+ * result: the k-th smallest value is unique, so both paths return the same answer.
+ */
+public class ParallelSelect implements SelectionStrategy {
+    public static final String NAME = "parallel";
+
+    private static final int SAMPLE_SIZE = 1 << 14;
+    private static final int MIN_CHUNK = 1 << 16;
+
+    private final SelectionStrategy delegate;
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * @param delegate sequential strategy for small ranges and for the final band
+     * @param pool pool running the counting and compaction chunks
+     * @param threshold smallest range size selected in parallel
+     */
+    public ParallelSelect(SelectionStrategy delegate, ForkJoinPool pool, int threshold) {
+        this.delegate = delegate;
+        this.pool = pool;
+        this.threshold = Math.max(threshold, MIN_CHUNK);
+    }
+
+    @Override
+    public int select(int[] values, int from, int to, int k) {
+        int size = to - from + 1;
+        if (size < threshold || pool.getParallelism() < 2) {
+            return delegate.select(values, from, to, k);
+        }
+
+        long pivots = pickPivots(values, from, to, k);
+        int low = (int) (pivots >>> 32);
+        int high = (int) pivots;
+
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * 4, size / MIN_CHUNK));
+        int chunkSize = (size + chunks - 1) / chunks;
+        int[] below = new int[chunks];
+        int[] inside = new int[chunks];
+        forEachChunk(chunks, chunk -> {
+            int start = from + chunk * chunkSize;
+            int end = Math.min(to + 1, start + chunkSize);
+            int countBelow = 0;
+            int countInside = 0;
+            for (int i = start; i < end; i++) {
+                int value = values[i];
+                if (value < low) {
+                    countBelow++;
+                } else if (value <= high) {
+                    countInside++;
+                }
+            }
+            below[chunk] = countBelow;
+            inside[chunk] = countInside;
+        });
+
+        long totalBelow = 0;
+        int[] offsets = new int[chunks];
+        int bandSize = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            totalBelow += below[chunk];
+            offsets[chunk] = bandSize;
+            bandSize += inside[chunk];
+        }
+        long rank = (long) k - from - totalBelow;
+        if (rank < 0 || rank >= bandSize || bandSize > size / 2) {
+            return delegate.select(values, from, to, k);
+        }
+
+        int[] band = new int[bandSize];
+        forEachChunk(chunks, chunk -> {
+            int start = from + chunk * chunkSize;
+            int end = Math.min(to + 1, start + chunkSize);
+            int position = offsets[chunk];
+            for (int i = start; i < end; i++) {
+                int value = values[i];
+                if (value >= low && value <= high) {
+                    band[position++] = value;
+                }
+            }
+        });
+        return delegate.select(band, 0, bandSize - 1, (int) rank);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * Picks values just below and just above the expected position of rank {@code k}
+     * in an evenly strided sorted sample.
+     *
+     * @return pivots packed as {@code (low << 32) | high}
+     */
+    private static long pickPivots(int[] values, int from, int to, int k) {
+        int size = to - from + 1;
+        int[] sample = new int[SAMPLE_SIZE];
+        long stride = size / SAMPLE_SIZE;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample[i] = values[from + (int) (i * stride + (i * 7919L) % stride)];
+        }
+        Arrays.sort(sample);
+
+        int expected = (int) ((long) (k - from) * SAMPLE_SIZE / size);
+        int margin = (int) Math.sqrt(SAMPLE_SIZE) * 2;
+        int low = sample[Math.max(0, expected - margin)];
+        int high = sample[Math.min(SAMPLE_SIZE - 1, expected + margin)];
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
+    }
+
+    private void forEachChunk(int chunks, IntConsumer body) {
+        pool.invoke(new ChunkTask(0, chunks, body));
+    }
+
+    private static class ChunkTask extends RecursiveAction {
+        private final int first;
+        private final int end;
+        private final IntConsumer body;
+
+        ChunkTask(int first, int end, IntConsumer body) {
+            this.first = first;
+            this.end = end;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - first == 1) {
+                body.accept(first);
+                return;
+            }
+            int middle = (first + end) >>> 1;
+            invokeAll(new ChunkTask(first, middle, body), new ChunkTask(middle, end, body));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Radix selection over the 32-bit value domain.
+ * <p>
+ * The first pass builds a histogram of the top 16 bits and locates the bucket holding rank
+ * {@code k}; the second pass histograms the low 16 bits of that bucket only. Two linear
+ * passes with no data movement, independent of the input order. Values are ordered by
+ * flipping the sign bit, so negative numbers sort before positive ones.
+ * </p>
+ * <p>
+ * Since the values are only read, {@link #select(IntBuffer, int)} runs on read-only buffers
+ * such as off-heap columns without copying them; arrays are selected through the same
+ * routine over a wrapping buffer.
+ * </p>
+ */
+public class RadixSelect implements SelectionStrategy {
+    public static final String NAME = "radix";
+
+    private static final int BUCKETS = 1 << 16;
+
+    @Override
+    public int select(int[] values, int from, int to, int k) {
+        return select(IntBuffer.wrap(values, from, to - from + 1).slice(), k - from);
+    }
+
+    /**
+     * Finds the k-th smallest value of a buffer; the buffer is not modified.
+     *
+     * @param values values from index 0 to the limit
+     * @param k 0-based rank
+     */
+    public int select(IntBuffer values, int k) {
+        int length = values.limit();
+        int[] histogram = new int[BUCKETS];
+        for (int i = 0; i < length; i++) {
+            histogram[(values.get(i) ^ Integer.MIN_VALUE) >>> 16]++;
+        }
+        int remaining = k;
+        int high = 0;
+        while (remaining >= histogram[high]) {
+            remaining -= histogram[high++];
+        }
+
+        Arrays.fill(histogram, 0);
+        for (int i = 0; i < length; i++) {
+            int key = values.get(i) ^ Integer.MIN_VALUE;
+            if (key >>> 16 == high) {
+                histogram[key & 0xFFFF]++;
+            }
+        }
+        int low = 0;
+        while (remaining >= histogram[low]) {
+            remaining -= histogram[low++];
+        }
+        return ((high << 16) | low) ^ Integer.MIN_VALUE;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
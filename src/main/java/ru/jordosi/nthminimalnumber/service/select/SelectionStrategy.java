@@ -0,0 +1,27 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+/**
+ * Selection algorithm finding the k-th smallest element of an {@code int[]} range.
+ * <p>
+ * Implementations may reorder the range in place; callers that need the original
+ * order must pass a copy. Implementations must be stateless and thread-safe.
+ * </p>
+ */
+public interface SelectionStrategy {
+
+    /**
+     * Finds the element that would be at index {@code k} if {@code values[from..to]} were sorted.
+     *
+     * @param values array to select from, partially reordered by the call
+     * @param from first index of the range (inclusive)
+     * @param to last index of the range (inclusive)
+     * @param k absolute 0-based index, {@code from <= k <= to}
+     * @return the k-th smallest value of the range
+     */
+    int select(int[] values, int from, int to, int k);
+
+    /**
+     * @return short name used to pick the strategy in configuration
+     */
+    String name();
+}
@@ -0,0 +1,44 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import static ru.jordosi.nthminimalnumber.service.select.IntArrays.*;
+
+/**
+ * QuickSelect with Dutch national flag (three-way) partitioning.
+ * <p>
+ * Every round removes the whole band of elements equal to the pivot and stops as soon as
+ * {@code k} falls inside it, so columns with few distinct values (flags, status codes,
+ * rounded amounts) finish in a number of rounds proportional to the distinct count rather
+ * than the length of the column.
+ * </p>
+ */
+public class ThreeWayQuickSelect implements SelectionStrategy {
+    public static final String NAME = "three-way";
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    @Override
+    public int select(int[] values, int from, int to, int k) {
+        int lo = from;
+        int hi = to;
+        while (hi - lo + 1 > INSERTION_SORT_THRESHOLD) {
+            int pivot = values[medianOf3(values, lo, lo + ((hi - lo) >>> 1), hi)];
+            long band = partitionThreeWay(values, lo, hi, pivot);
+            int lt = bandStart(band);
+            int gt = bandEnd(band);
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                return pivot;
+            }
+        }
+        insertionSort(values, lo, hi);
+        return values[k];
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
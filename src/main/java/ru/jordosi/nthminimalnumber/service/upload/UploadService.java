@@ -0,0 +1,130 @@
+package ru.jordosi.nthminimalnumber.service.upload;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionRejectedException;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionService;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics.Phase;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnReader;
+import ru.jordosi.nthminimalnumber.service.reader.InputFormat;
+import ru.jordosi.nthminimalnumber.service.reader.IntArrayBuffer;
+import ru.jordosi.nthminimalnumber.service.reader.XlsxStreamReader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the numbers of a file sent as {@code multipart/form-data}.
+ * <p>
+ * The request body is walked with the streaming API of Commons FileUpload, and the first file
+ * part goes straight from the socket into {@link ColumnReader}: there is no temporary file and
+ * the upload is never held in memory, only the parsed values are. Spring's own multipart
+ * resolver is switched off ({@code spring.servlet.multipart.enabled=false}) because it spools
+ * parts to disk before the controller runs.
+ * </p>
+ * Like a parse of a stored file, an upload is charged to {@link AdmissionService}: its cost is
+ * estimated from the declared body length, or from the largest accepted body if none is declared.
+ */
+@Service
+public class UploadService {
+    /**
+     * Largest header block of a single part; a file part only carries its name and content type.
+     */
+    static final int MAX_PART_HEADER_BYTES = 8 << 10;
+
+    private final long maxBytes;
+    private final long maxInflatedBytes;
+    private final AdmissionService admissionService;
+    private final NthMinMetrics metrics;
+
+    /**
+     * @param maxBytes largest accepted request body
+     * @param maxInflatedBytes largest inflated size of a single workbook entry
+     * @param admissionService memory budget the parse is charged to
+     * @param metrics receives the parse time of uploads
+     */
+    public UploadService(@Value("${nth-min.upload.max-bytes:268435456}") long maxBytes,
+                         @Value("${nth-min.upload.max-inflated-bytes:4294967296}") long maxInflatedBytes,
+                         AdmissionService admissionService, NthMinMetrics metrics) {
+        this.maxBytes = maxBytes;
+        this.maxInflatedBytes = maxInflatedBytes;
+        this.admissionService = admissionService;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Reads the first column of the first file part of the request.
+     *
+     * @param request {@code multipart/form-data} request whose body has not been read yet
+     * @return values in file order
+     * @throws UploadTooLargeException if the upload exceeds the configured limits
+     * @throws AdmissionRejectedException if the memory budget did not free up in time
+     * @throws IOException if the upload cannot be read or contains no numeric data
+     * @throws IllegalArgumentException if the request is not multipart, has no file part or
+     * the file format is not recognised
+     */
+    public int[] readNumbers(HttpServletRequest request) throws IOException {
+        if (!JakartaServletFileUpload.isMultipartContent(request)) {
+            throw new IllegalArgumentException("Request must be multipart/form-data");
+        }
+
+        long bodyBytes = request.getContentLengthLong() >= 0 ? Math.min(request.getContentLengthLong(), maxBytes) : maxBytes;
+        return admissionService.reserve(admissionService.estimateBytes(bodyBytes), () -> readFirstFile(request));
+    }
+
+    private int[] readFirstFile(HttpServletRequest request) throws IOException {
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        upload.setMaxSize(maxBytes);
+        upload.setMaxFileSize(maxBytes);
+        upload.setMaxPartHeaderSize(MAX_PART_HEADER_BYTES);
+        try {
+            FileItemInputIterator items = upload.getItemIterator(request);
+            while (items.hasNext()) {
+                FileItemInput item = items.next();
+                if (item.isFormField()) {
+                    continue;
+                }
+                try (InputStream in = new BufferedInputStream(item.getInputStream())) {
+                    return read(item.getName(), in);
+                }
+            }
+        } catch (IOException e) {
+            throw tooLarge(e);
+        }
+        throw new IllegalArgumentException("Request contains no file part");
+    }
+
+    private int[] read(String fileName, InputStream in) throws IOException {
+        long start = System.nanoTime();
+        InputFormat format = InputFormat.detect(fileName, in);
+        IntArrayBuffer numbers = new IntArrayBuffer();
+        ColumnReader.read(in, format, numbers, maxInflatedBytes);
+        metrics.record(Phase.PARSE, System.nanoTime() - start);
+
+        if (numbers.isEmpty()) {
+            throw new IOException("No numeric data found in the first column of the uploaded file");
+        }
+        return numbers.toArray();
+    }
+
+    private IOException tooLarge(IOException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FileUploadSizeException) {
+                return new UploadTooLargeException("Upload exceeds " + maxBytes + " bytes", e);
+            }
+            if (cause instanceof XlsxStreamReader.EntryTooLargeException) {
+                return new UploadTooLargeException(cause.getMessage(), e);
+            }
+        }
+        return e;
+    }
+}
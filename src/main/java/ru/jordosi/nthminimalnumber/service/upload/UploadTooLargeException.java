@@ -0,0 +1,15 @@
+package ru.jordosi.nthminimalnumber.service.upload;
+
+import java.io.IOException;
+
+/**
+ * Thrown when an upload exceeds {@code nth-min.upload.max-bytes} or one of its workbook
+ * entries inflates beyond {@code nth-min.upload.max-inflated-bytes}.
+ * Controllers answer it with 413.
+ */
+public class UploadTooLargeException extends IOException {
+
+    public UploadTooLargeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
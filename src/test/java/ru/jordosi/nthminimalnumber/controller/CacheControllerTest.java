@@ -0,0 +1,44 @@
+package ru.jordosi.nthminimalnumber.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.jordosi.nthminimalnumber.service.cache.ColumnCache;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CacheController.class)
+class CacheControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ColumnCache columnCache;
+
+    @Test
+    void testGetStats() throws Exception {
+        when(columnCache.stats()).thenReturn(new ColumnCache.Stats(2, 4096, 8192, 10, 3, 1));
+
+        mockMvc.perform(get("/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries").value(2))
+                .andExpect(jsonPath("$.hits").value(10))
+                .andExpect(jsonPath("$.misses").value(3))
+                .andExpect(jsonPath("$.evictions").value(1));
+    }
+
+    @Test
+    void testClear() throws Exception {
+        mockMvc.perform(delete("/cache"))
+                .andExpect(status().isNoContent());
+
+        verify(columnCache).clear();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.jordosi.nthminimalnumber.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.jordosi.nthminimalnumber.service.job.JobPhase;
+import ru.jordosi.nthminimalnumber.service.job.JobResult;
+import ru.jordosi.nthminimalnumber.service.job.JobService;
+import ru.jordosi.nthminimalnumber.service.job.JobStatus;
+
+import java.time.Instant;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(JobController.class)
+class JobControllerTest {
+
+    private static final Instant SUBMITTED = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JobService jobService;
+
+    private static JobStatus jobStatus(JobPhase phase, String error) {
+        return new JobStatus("job-1", phase, 4096, 10000, 1500L, SUBMITTED, null, error);
+    }
+
+    @Test
+    void testSubmit() throws Exception {
+        when(jobService.submit("/test/file.xlsx", 3)).thenReturn(jobStatus(JobPhase.QUEUED, null));
+
+        mockMvc.perform(post("/jobs/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.xlsx\", \"n\": 3}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/jobs/job-1"))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.phase").value("QUEUED"));
+    }
+
+    @Test
+    void testSubmit_QueueFull() throws Exception {
+        when(jobService.submit(anyString(), anyInt())).thenThrow(new RejectedExecutionException("Job queue is full, retry later"));
+
+        mockMvc.perform(post("/jobs/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.xlsx\", \"n\": 3}"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void testStatus() throws Exception {
+        when(jobService.status("job-1")).thenReturn(jobStatus(JobPhase.PARSING, null));
+
+        mockMvc.perform(get("/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phase").value("PARSING"))
+                .andExpect(jsonPath("$.rowsParsed").value(4096))
+                .andExpect(jsonPath("$.etaMillis").value(1500));
+        mockMvc.perform(get("/jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testResult() throws Exception {
+        when(jobService.status("job-1")).thenReturn(jobStatus(JobPhase.DONE, null));
+        when(jobService.result("job-1")).thenReturn(new JobResult(3, 30, 5));
+        when(jobService.status("job-2")).thenReturn(jobStatus(JobPhase.PARSING, null));
+        when(jobService.status("job-3")).thenReturn(jobStatus(JobPhase.FAILED, "Not a valid .xlsx file"));
+
+        mockMvc.perform(get("/jobs/job-1/result"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.n").value(3))
+                .andExpect(jsonPath("$.result").value(30))
+                .andExpect(jsonPath("$.totalNumbers").value(5));
+        mockMvc.perform(get("/jobs/job-2/result"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get("/jobs/job-3/result"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Job failed: Not a valid .xlsx file"));
+    }
+
+    @Test
+    void testCancel() throws Exception {
+        when(jobService.cancel("job-1")).thenReturn(jobStatus(JobPhase.CANCELLED, null));
+
+        mockMvc.perform(delete("/jobs/job-1"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.phase").value("CANCELLED"));
+    }
+}
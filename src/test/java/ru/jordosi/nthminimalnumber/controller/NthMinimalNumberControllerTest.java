@@ -1,24 +1,73 @@
 package ru.jordosi.nthminimalnumber.controller;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.ExternalSelectService;
 import ru.jordosi.nthminimalnumber.service.QuickSelectService;
+import ru.jordosi.nthminimalnumber.service.WorkbookSetService;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionRejectedException;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionService;
+import ru.jordosi.nthminimalnumber.service.admission.ParseTask;
+import ru.jordosi.nthminimalnumber.service.cache.CachedColumn;
+import ru.jordosi.nthminimalnumber.service.cache.FileFingerprint;
+import ru.jordosi.nthminimalnumber.service.cache.QuantileSketchService;
+import ru.jordosi.nthminimalnumber.service.cache.SidecarIndex;
+import ru.jordosi.nthminimalnumber.service.cache.SidecarIndexService;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnType;
+import ru.jordosi.nthminimalnumber.service.reader.TypedColumn;
+import ru.jordosi.nthminimalnumber.service.select.DistinctBitmap;
+import ru.jordosi.nthminimalnumber.service.select.KllSketch;
+import ru.jordosi.nthminimalnumber.service.upload.UploadService;
+import ru.jordosi.nthminimalnumber.service.upload.UploadTooLargeException;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.IntConsumer;
 
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(NthMinimalNumberController.class)
+@Import(NthMinimalNumberControllerTest.MetricsConfig.class)
 class NthMinimalNumberControllerTest {
+    private static final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        NthMinMetrics nthMinMetrics() {
+            return new NthMinMetrics(registry);
+        }
+    }
 
     @Autowired
     private MockMvc mockMvc;
@@ -29,12 +78,39 @@ class NthMinimalNumberControllerTest {
     @MockBean
     private QuickSelectService quickSelectService;
 
+    @MockBean
+    private SidecarIndexService sidecarIndexService;
+
+    @MockBean
+    private WorkbookSetService workbookSetService;
+
+    @MockBean
+    private AdmissionService admissionService;
+
+    @MockBean
+    private UploadService uploadService;
+
+    @MockBean
+    private QuantileSketchService quantileSketchService;
+
+    @MockBean
+    private ExternalSelectService externalSelectService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(admissionService.parse(any(), any())).thenAnswer(invocation -> ((ParseTask<?>) invocation.getArgument(1)).call());
+        when(admissionService.parse(any(), any(), any())).thenAnswer(invocation -> ((ParseTask<?>) invocation.getArgument(2)).call());
+        when(admissionService.parse(any(), any(), any(), any())).thenAnswer(invocation -> ((ParseTask<?>) invocation.getArgument(3)).call());
+        when(admissionService.reserve(anyLong(), any())).thenAnswer(invocation -> ((ParseTask<?>) invocation.getArgument(1)).call());
+        when(excelService.inferType(any(), any())).thenReturn(ColumnType.INT);
+    }
+
     @Test
     void testFindNthMinimum_Success() throws Exception {
         // Given
-        Integer[] mockNumbers = {10, 20, 30, 40, 50};
-        when(excelService.findNumbersFromExcel(anyString())).thenReturn(mockNumbers);
-        when(quickSelectService.findNthMinimalNumber(mockNumbers, 3)).thenReturn(30);
+        CachedColumn column = new CachedColumn(new int[]{10, 20, 30, 40, 50}, null);
+        when(excelService.acquireColumn(anyString())).thenReturn(column);
+        when(quickSelectService.findNthMinimalNumber(column, 3)).thenReturn(30);
 
         String requestBody = """
             {
@@ -52,14 +128,14 @@ class NthMinimalNumberControllerTest {
                 .andExpect(jsonPath("$.result").value(30))
                 .andExpect(jsonPath("$.totalNumbers").value(5));
 
-        verify(excelService).findNumbersFromExcel("/test/file.xlsx");
-        verify(quickSelectService).findNthMinimalNumber(mockNumbers, 3);
+        verify(excelService).acquireColumn("/test/file.xlsx");
+        verify(quickSelectService).findNthMinimalNumber(column, 3);
     }
 
     @Test
     void testFindNthMinimum_FileNotFound() throws Exception {
         // Given
-        when(excelService.findNumbersFromExcel(anyString()))
+        when(excelService.acquireColumn(anyString()))
                 .thenThrow(new IOException("File not found"));
 
         String requestBody = """
@@ -80,7 +156,7 @@ class NthMinimalNumberControllerTest {
     @Test
     void testFindNthMinimum_EmptyFile() throws Exception {
         // Given
-        when(excelService.findNumbersFromExcel(anyString()))
+        when(excelService.acquireColumn(anyString()))
                 .thenThrow(new IOException("No numeric data found"));
 
         String requestBody = """
@@ -101,9 +177,9 @@ class NthMinimalNumberControllerTest {
     @Test
     void testFindNthMinimum_InvalidN() throws Exception {
         // Given
-        Integer[] mockNumbers = {10, 20, 30};
-        when(excelService.findNumbersFromExcel(anyString())).thenReturn(mockNumbers);
-        when(quickSelectService.findNthMinimalNumber(mockNumbers, 5))
+        CachedColumn column = new CachedColumn(new int[]{10, 20, 30}, null);
+        when(excelService.acquireColumn(anyString())).thenReturn(column);
+        when(quickSelectService.findNthMinimalNumber(column, 5))
                 .thenThrow(new IllegalArgumentException("N must be in range from 1 to 3"));
 
         String requestBody = """
@@ -123,7 +199,7 @@ class NthMinimalNumberControllerTest {
 
     @Test
     void testFindNthMinimum_EmptyPath() throws Exception {
-        when(excelService.findNumbersFromExcel("")).thenThrow(new IllegalArgumentException("File path cannot be null or empty"));
+        when(excelService.acquireColumn("")).thenThrow(new IllegalArgumentException("File path cannot be null or empty"));
         String requestBody = """
             {
                 "path": "",
@@ -139,7 +215,7 @@ class NthMinimalNumberControllerTest {
 
     @Test
     void testFindNthMinimum_NullPath() throws Exception {
-        when(excelService.findNumbersFromExcel(null)).thenThrow(new IllegalArgumentException("File path cannot be null or empty"));
+        when(excelService.acquireColumn(null)).thenThrow(new IllegalArgumentException("File path cannot be null or empty"));
 
         String requestBody = """
             {
@@ -171,7 +247,7 @@ class NthMinimalNumberControllerTest {
     @Test
     void testFindNthMinimum_InternalServerError() throws Exception {
         // Given
-        when(excelService.findNumbersFromExcel(anyString()))
+        when(excelService.acquireColumn(anyString()))
                 .thenThrow(new RuntimeException("Unexpected error"));
 
         String requestBody = """
@@ -187,4 +263,573 @@ class NthMinimalNumberControllerTest {
                         .content(requestBody))
                 .andExpect(status().is5xxServerError());
     }
+
+    @Test
+    void testFindNthMinimum_SheetAndColumnSelection() throws Exception {
+        int[] mockNumbers = {5, 1, 4};
+        ColumnSelection selection = ColumnSelection.of(List.of("Jan", "Feb"), List.of("B"));
+        when(excelService.findIntNumbersFromExcel("/test/file.xlsx", selection)).thenReturn(mockNumbers);
+        when(quickSelectService.findNthMinimalNumber(mockNumbers, 2)).thenReturn(4);
+
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": 2,
+                "sheets": ["Jan", "Feb"],
+                "columns": ["b"]
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(4))
+                .andExpect(jsonPath("$.totalNumbers").value(3));
+
+        verifyNoInteractions(sidecarIndexService);
+    }
+
+    @Test
+    void testFindNthMinimalUnique_Success() throws Exception {
+        when(excelService.findDistinctNumbersFromExcel(anyString())).thenReturn(DistinctBitmap.of(new int[]{3, 1, 2, 3}));
+
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": 2
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min/unique")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(2))
+                .andExpect(jsonPath("$.totalNumbers").value(3));
+    }
+
+    @Test
+    void testFindNthMinimum_StreamingHeapPath() throws Exception {
+        when(excelService.getRowCountHint(anyString())).thenReturn(6);
+        when(excelService.streamNumbersFromExcel(anyString(), any())).thenAnswer(invocation -> {
+            IntConsumer sink = invocation.getArgument(1);
+            for (int value : new int[]{50, 10, 40, 20, 30}) {
+                sink.accept(value);
+            }
+            return 5;
+        });
+
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": 2
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(20))
+                .andExpect(jsonPath("$.totalNumbers").value(5));
+
+        verify(excelService, never()).acquireColumn(anyString());
+        verify(sidecarIndexService, never()).scheduleBuild(anyString());
+        verifyNoInteractions(quickSelectService);
+    }
+
+    @Test
+    void testFindNthMinimum_AnsweredFromSidecarIndex() throws Exception {
+        SidecarIndex index = org.mockito.Mockito.mock(SidecarIndex.class);
+        when(index.count()).thenReturn(100);
+        when(index.nthMinimal(7)).thenReturn(-12);
+        when(sidecarIndexService.find("/test/file.xlsx")).thenReturn(index);
+
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": 7
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(-12))
+                .andExpect(jsonPath("$.totalNumbers").value(100));
+
+        // a sidecar is only built for int columns, so neither the column nor a type sample is read
+        verifyNoInteractions(excelService);
+        verifyNoInteractions(quickSelectService);
+    }
+
+    @Test
+    void testFindNthMinimalNumbers_Batch() throws Exception {
+        int[] mockNumbers = {10, 20, 30, 40, 50, 60, 70, 80, 90, 100};
+        when(excelService.findIntNumbersFromExcel(anyString())).thenReturn(mockNumbers);
+        when(quickSelectService.findNthMinimalNumbers(mockNumbers, new int[]{1, 3, 9}))
+                .thenReturn(new int[]{10, 30, 90});
+
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": [1, 3],
+                "percentiles": [90]
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalNumbers").value(10))
+                .andExpect(jsonPath("$.results[0].n").value(1))
+                .andExpect(jsonPath("$.results[0].result").value(10))
+                .andExpect(jsonPath("$.results[1].result").value(30))
+                .andExpect(jsonPath("$.results[2].percentile").value(90.0))
+                .andExpect(jsonPath("$.results[2].n").value(9))
+                .andExpect(jsonPath("$.results[2].result").value(90));
+    }
+
+    @Test
+    void testFindNthMinimalNumbers_BatchWithoutRanks() throws Exception {
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx"
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testFindNthMinimumInFiles_Success() throws Exception {
+        List<Path> workbooks = List.of(Path.of("/data/a.xlsx"), Path.of("/data/b.xlsx"));
+        when(workbookSetService.findWorkbooks("/data", "*.xlsx")).thenReturn(workbooks);
+        when(workbookSetService.findNthMinimalNumber(workbooks, 3)).thenReturn(new WorkbookSetService.Result(7, 120, 2));
+
+        String requestBody = """
+            {
+                "directory": "/data",
+                "pattern": "*.xlsx",
+                "n": 3
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min/files")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(7))
+                .andExpect(jsonPath("$.totalNumbers").value(120))
+                .andExpect(jsonPath("$.files").value(2));
+    }
+
+    @Test
+    void testFindNthMinimumInFiles_NoMatchingFiles() throws Exception {
+        when(workbookSetService.findWorkbooks(anyString(), any())).thenThrow(new IOException("No .xlsx files match"));
+
+        String requestBody = """
+            {
+                "directory": "/data",
+                "n": 1
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min/files")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Input error: No .xlsx files match"));
+    }
+
+    @Test
+    void testFindNthMinimum_BudgetExhausted() throws Exception {
+        doThrow(new AdmissionRejectedException("Server is busy", 5)).when(admissionService).parse(anyString(), any());
+
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": 1
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    void testFindNthMinimum_RecordsRowsAndSelectTime() throws Exception {
+        CachedColumn column = new CachedColumn(new int[]{10, 20, 30, 40}, null);
+        when(excelService.acquireColumn(anyString())).thenReturn(column);
+        when(quickSelectService.findNthMinimalNumber(column, 2)).thenReturn(20);
+        double rows = counter("nthmin.rows", "endpoint", "find-nth-min");
+        long selects = registry.get("nthmin.phase").tag("phase", "select").timer().count();
+
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": 2
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk());
+
+        assertEquals(rows + 4, counter("nthmin.rows", "endpoint", "find-nth-min"));
+        assertEquals(selects + 1, registry.get("nthmin.phase").tag("phase", "select").timer().count());
+    }
+
+    @Test
+    void testFindNthMinimum_CountsBytesOnlyWhenFileIsRead(@TempDir Path tempDir) throws Exception {
+        Path file = Files.write(tempDir.resolve("bytes.xlsx"), new byte[100]);
+        CachedColumn column = new CachedColumn(new int[]{10, 20, 30, 40}, null);
+        when(excelService.acquireColumn(file.toString())).thenReturn(column);
+        when(quickSelectService.findNthMinimalNumber(column, 2)).thenReturn(20);
+        double bytes = counter("nthmin.bytes", "endpoint", "find-nth-min");
+        double rows = counter("nthmin.rows", "endpoint", "find-nth-min");
+        String requestBody = "{\"path\": \"" + file.toString().replace("\\", "\\\\") + "\", \"n\": 2}";
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk());
+        when(excelService.isCached(file.toString())).thenReturn(true);
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk());
+
+        assertEquals(bytes + 100, counter("nthmin.bytes", "endpoint", "find-nth-min"));
+        assertEquals(rows + 8, counter("nthmin.rows", "endpoint", "find-nth-min"));
+    }
+
+    @Test
+    void testFindNthMinimum_CountsErrorsByType() throws Exception {
+        when(excelService.acquireColumn(anyString())).thenThrow(new IOException("Broken file"));
+        double errors = counter("nthmin.errors", "endpoint", "find-nth-min", "type", "IOException");
+
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": 1
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(errors + 1, counter("nthmin.errors", "endpoint", "find-nth-min", "type", "IOException"));
+    }
+
+    @Test
+    void testFindNthMinimumInUpload_Success() throws Exception {
+        int[] mockNumbers = {10, 20, 30};
+        when(uploadService.readNumbers(any())).thenReturn(mockNumbers);
+        when(quickSelectService.findNthMinimalNumber(mockNumbers, 2)).thenReturn(20);
+
+        mockMvc.perform(multipart("/find-nth-min/upload")
+                        .file(new MockMultipartFile("file", "numbers.csv", "text/csv", "10\n30\n20\n".getBytes()))
+                        .param("n", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.n").value(2))
+                .andExpect(jsonPath("$.result").value(20))
+                .andExpect(jsonPath("$.totalNumbers").value(3));
+
+        verifyNoInteractions(excelService, admissionService);
+    }
+
+    @Test
+    void testFindNthMinimumInUpload_NTooLarge() throws Exception {
+        when(uploadService.readNumbers(any())).thenReturn(new int[]{1, 2});
+
+        mockMvc.perform(multipart("/find-nth-min/upload")
+                        .file(new MockMultipartFile("file", "numbers.csv", "text/csv", "1\n2\n".getBytes()))
+                        .param("n", "3"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("N must be less than or equal to numbers amount"));
+    }
+
+    @Test
+    void testFindNthMinimumInUpload_TooLarge() throws Exception {
+        when(uploadService.readNumbers(any()))
+                .thenThrow(new UploadTooLargeException("Upload exceeds 16 bytes", null));
+
+        mockMvc.perform(multipart("/find-nth-min/upload")
+                        .file(new MockMultipartFile("file", "numbers.csv", "text/csv", "1\n2\n3\n4\n5\n6\n7\n8\n9\n".getBytes()))
+                        .param("n", "1"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(content().string("Input error: Upload exceeds 16 bytes"));
+    }
+
+    @Test
+    void testFindNthMinimum_OutOfCoreWhenOverHeapBudget() throws Exception {
+        when(excelService.getRowCountHint(anyString())).thenReturn(-1);
+        when(admissionService.estimateBytes(anyString(), any())).thenReturn(8L << 30);
+        when(externalSelectService.isPreferred(8L << 30)).thenReturn(true);
+        when(externalSelectService.heapBudget()).thenReturn(256L << 20);
+        when(externalSelectService.findNthMinimalNumber("/test/huge.csv", 7))
+                .thenReturn(new ExternalSelectService.Result(-5, 3_000_000_000L));
+
+        String requestBody = """
+            {
+                "path": "/test/huge.csv",
+                "n": 7
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(-5))
+                .andExpect(jsonPath("$.totalNumbers").value(3_000_000_000L));
+
+        verify(admissionService).reserve(eq(256L << 20), any());
+        verify(excelService, never()).acquireColumn(anyString());
+        verify(sidecarIndexService, never()).scheduleBuild(anyString());
+    }
+
+    @Test
+    void testFindNthMinimum_Approximate() throws Exception {
+        KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K);
+        for (int i = 100_000; i > 0; i--) {
+            sketch.accept(i);
+        }
+        when(quantileSketchService.sketch(Path.of("/test/file.xlsx"))).thenReturn(sketch);
+
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": 50000,
+                "approximate": true
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.n").value(50000))
+                .andExpect(jsonPath("$.result").value(sketch.nthMinimal(50000)))
+                .andExpect(jsonPath("$.totalNumbers").value(100000))
+                .andExpect(jsonPath("$.approximate").value(true))
+                .andExpect(jsonPath("$.rankError").value(sketch.rankError()))
+                .andExpect(jsonPath("$.normalizedRankError").value(sketch.normalizedRankError()));
+
+        verifyNoInteractions(excelService, admissionService, sidecarIndexService);
+    }
+
+    @Test
+    void testFindNthMinimumInFiles_Approximate() throws Exception {
+        List<Path> workbooks = List.of(Path.of("/data/a.xlsx"), Path.of("/data/b.xlsx"));
+        KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K);
+        sketch.accept(4);
+        sketch.accept(8);
+        when(workbookSetService.findWorkbooks("/data", null)).thenReturn(workbooks);
+        when(quantileSketchService.sketch(workbooks)).thenReturn(sketch);
+
+        String requestBody = """
+            {
+                "directory": "/data",
+                "n": 2,
+                "approximate": true
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min/files")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(8))
+                .andExpect(jsonPath("$.totalNumbers").value(2))
+                .andExpect(jsonPath("$.files").value(2))
+                .andExpect(jsonPath("$.rankError").value(0));
+        mockMvc.perform(get("/find-nth-min/files")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"directory\": \"/data\", \"n\": 3, \"approximate\": true}"))
+                .andExpect(status().isBadRequest());
+
+        verify(workbookSetService, never()).findNthMinimalNumber(any(), anyInt());
+    }
+
+    @Test
+    void testFindNthMinimalUnique_ApproximateIsRejected() throws Exception {
+        String requestBody = """
+            {
+                "path": "/test/file.xlsx",
+                "n": 1,
+                "approximate": true
+            }
+            """;
+
+        mockMvc.perform(get("/find-nth-min/unique")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Approximate search is not supported for unique numbers"));
+    }
+
+    @Test
+    void testFindNthMinimum_InferredDoubleColumn() throws Exception {
+        double[] values = {2.5, -0.75, 1e12};
+        when(excelService.inferType("/test/file.csv", ColumnSelection.FIRST_COLUMN)).thenReturn(ColumnType.DOUBLE);
+        when(excelService.findTypedNumbersFromExcel("/test/file.csv", ColumnSelection.FIRST_COLUMN, null))
+                .thenReturn(TypedColumn.ofDoubles(values));
+        when(quickSelectService.findNthMinimalNumber(values, 2)).thenReturn(2.5);
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.csv\", \"n\": 2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(2.5))
+                .andExpect(jsonPath("$.totalNumbers").value(3))
+                .andExpect(jsonPath("$.type").value("double"));
+
+        verify(excelService, never()).acquireColumn(anyString());
+    }
+
+    @Test
+    void testFindNthMinimum_RequestedLongColumn() throws Exception {
+        long[] values = {5_000_000_000L, 7L};
+        when(excelService.findTypedNumbersFromExcel("/test/file.csv", ColumnSelection.FIRST_COLUMN, ColumnType.LONG))
+                .thenReturn(TypedColumn.ofLongs(values));
+        when(quickSelectService.findNthMinimalNumber(values, 2)).thenReturn(5_000_000_000L);
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.csv\", \"n\": 2, \"type\": \"long\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(5_000_000_000L))
+                .andExpect(jsonPath("$.type").value("long"));
+
+        verify(excelService, never()).inferType(any(), any());
+    }
+
+    @Test
+    void testFindNthMinimum_UnknownTypeAndUniqueLong() throws Exception {
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.csv\", \"n\": 1, \"type\": \"decimal\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/find-nth-min/unique")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.csv\", \"n\": 1, \"type\": \"long\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unique search reads int columns only"));
+    }
+
+    @Test
+    void testFindNthMinimum_DecimalColumnReadAsIntsIsNotIndexed() throws Exception {
+        CachedColumn column = new CachedColumn(new int[]{2, 0, 7}, null);
+        when(excelService.inferType("/test/file.csv", ColumnSelection.FIRST_COLUMN)).thenReturn(ColumnType.DOUBLE);
+        when(excelService.acquireColumn("/test/file.csv")).thenReturn(column);
+        when(quickSelectService.findNthMinimalNumber(column, 1)).thenReturn(0);
+
+        mockMvc.perform(get("/find-nth-min")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.csv\", \"n\": 1, \"type\": \"int\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(0));
+
+        verify(sidecarIndexService, never()).scheduleBuild(anyString());
+    }
+
+    @Test
+    void testFindUniqueAndBatch_RejectInferredDecimalColumns() throws Exception {
+        when(excelService.inferType("/test/file.csv", ColumnSelection.FIRST_COLUMN)).thenReturn(ColumnType.DOUBLE);
+
+        mockMvc.perform(get("/find-nth-min/unique")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.csv\", \"n\": 1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Unique search reads int columns only"));
+        mockMvc.perform(get("/find-nth-min/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.csv\", \"n\": [1]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Batch search reads int columns only"));
+
+        verify(excelService, never()).findDistinctNumbersFromExcel(anyString());
+        verify(excelService, never()).findIntNumbersFromExcel(anyString());
+    }
+
+    @Test
+    void testFindRank_FromOrderStatisticIndex() throws Exception {
+        SidecarIndex index = SidecarIndex.of(new FileFingerprint("/test/file.xlsx", 1, 2),
+                new int[]{-3, 5, 5, 5, 8}, new int[]{-3, 5, 8});
+        when(excelService.inferType("/test/file.xlsx", ColumnSelection.FIRST_COLUMN)).thenReturn(ColumnType.INT);
+        when(sidecarIndexService.findOrBuild(eq("/test/file.xlsx"), any())).thenReturn(index);
+
+        mockMvc.perform(get("/find-nth-min/rank")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.xlsx\", \"value\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").value(2))
+                .andExpect(jsonPath("$.countBelow").value(1))
+                .andExpect(jsonPath("$.countEqual").value(3))
+                .andExpect(jsonPath("$.totalNumbers").value(5));
+
+        mockMvc.perform(get("/find-nth-min/rank")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.xlsx\", \"value\": 6}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rank").doesNotExist())
+                .andExpect(jsonPath("$.countBelow").value(4))
+                .andExpect(jsonPath("$.countEqual").value(0));
+
+        mockMvc.perform(get("/find-nth-min/range")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.xlsx\", \"from\": 2, \"to\": 4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.values", contains(5, 5, 5)))
+                .andExpect(jsonPath("$.totalNumbers").value(5));
+
+        mockMvc.perform(get("/find-nth-min/range")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.xlsx\", \"from\": 4, \"to\": 6}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("N must be less than or equal to numbers amount"));
+        verifyNoInteractions(quickSelectService);
+    }
+
+    @Test
+    void testFindRankRange_RejectsInvalidRanksAndDecimalColumns() throws Exception {
+        mockMvc.perform(get("/find-nth-min/range")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.xlsx\", \"from\": 3, \"to\": 2}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/find-nth-min/range")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.xlsx\", \"from\": 1, \"to\": 1000000}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Range must contain at most 100000 numbers"));
+
+        when(excelService.inferType("/test/file.csv", ColumnSelection.FIRST_COLUMN)).thenReturn(ColumnType.DOUBLE);
+        mockMvc.perform(get("/find-nth-min/rank")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"path\": \"/test/file.csv\", \"value\": 1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Rank queries read int columns only"));
+
+        verify(sidecarIndexService, never()).findOrBuild(any(), any());
+    }
+
+    private static double counter(String name, String... tags) {
+        var counter = registry.find(name).tags(tags).counter();
+        return counter == null ? 0 : counter.count();
+    }
 }
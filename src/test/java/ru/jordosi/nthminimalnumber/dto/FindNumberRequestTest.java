@@ -2,6 +2,8 @@ package ru.jordosi.nthminimalnumber.dto;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class FindNumberRequestTest {
@@ -25,6 +27,15 @@ class FindNumberRequestTest {
         assertEquals(expectedN, request.getN());
     }
 
+    @Test
+    void testSelectionConstructor() {
+        FindNumberRequest request = new FindNumberRequest("/test/file.xlsx", 2, List.of("Jan", "Feb"), List.of("A", "C"));
+
+        assertEquals(List.of("Jan", "Feb"), request.getSheets());
+        assertEquals(List.of("A", "C"), request.getColumns());
+        assertNull(new FindNumberRequest("/test/file.xlsx", 2).getSheets());
+    }
+
     @Test
     void testSettersAndGetters() {
         FindNumberRequest request = new FindNumberRequest();
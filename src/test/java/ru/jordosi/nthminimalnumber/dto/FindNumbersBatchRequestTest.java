@@ -0,0 +1,41 @@
+package ru.jordosi.nthminimalnumber.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FindNumbersBatchRequestTest {
+
+    @Test
+    void testDefaultConstructor() {
+        FindNumbersBatchRequest request = new FindNumbersBatchRequest();
+
+        assertNull(request.getPath());
+        assertNull(request.getN());
+        assertNull(request.getPercentiles());
+    }
+
+    @Test
+    void testParameterizedConstructor() {
+        FindNumbersBatchRequest request = new FindNumbersBatchRequest("/test/file.xlsx", List.of(1, 5), List.of(50.0));
+
+        assertEquals("/test/file.xlsx", request.getPath());
+        assertEquals(List.of(1, 5), request.getN());
+        assertEquals(List.of(50.0), request.getPercentiles());
+    }
+
+    @Test
+    void testSettersAndGetters() {
+        FindNumbersBatchRequest request = new FindNumbersBatchRequest();
+
+        request.setPath("/test/path.xlsx");
+        request.setN(List.of(3));
+        request.setPercentiles(List.of(99.9));
+
+        assertEquals("/test/path.xlsx", request.getPath());
+        assertEquals(List.of(3), request.getN());
+        assertEquals(List.of(99.9), request.getPercentiles());
+    }
+}
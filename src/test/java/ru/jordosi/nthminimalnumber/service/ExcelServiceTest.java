@@ -1,5 +1,6 @@
 package ru.jordosi.nthminimalnumber.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
@@ -7,11 +8,27 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import ru.jordosi.nthminimalnumber.service.cache.CachedColumn;
+import ru.jordosi.nthminimalnumber.service.cache.ColumnCache;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnType;
+import ru.jordosi.nthminimalnumber.service.reader.ParseProgress;
+import ru.jordosi.nthminimalnumber.service.reader.TypedColumn;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -112,6 +129,289 @@ public class ExcelServiceTest {
         assertArrayEquals(new Integer[]{10, 20, 30}, result); // 10.5 -> 10, 20.9 -> 20
     }
 
+    @Test
+    void testFindIntNumbersFromExcel_ValidFile() throws IOException {
+        File testFile = createTestExcelFile("ints.xlsx", new Integer[]{30, 10, 20});
+
+        int[] result = excelService.findIntNumbersFromExcel(testFile.getAbsolutePath());
+
+        assertArrayEquals(new int[]{30, 10, 20}, result);
+    }
+
+    @Test
+    void testFindUniqueIntNumbersFromExcel_SortedDistinct() throws IOException {
+        File testFile = createTestExcelFile("unique.xlsx", new Integer[]{5, 3, 5, -1, 3});
+
+        int[] result = excelService.findUniqueIntNumbersFromExcel(testFile.getAbsolutePath());
+
+        assertArrayEquals(new int[]{-1, 3, 5}, result);
+    }
+
+    @Test
+    void testFindTypedNumbersFromExcel_InfersDoubles() throws IOException {
+        File testFile = createTestExcelFileWithDecimals();
+
+        assertEquals(ColumnType.DOUBLE, excelService.inferType(testFile.getAbsolutePath(), ColumnSelection.FIRST_COLUMN));
+        TypedColumn column = excelService.findTypedNumbersFromExcel(
+                testFile.getAbsolutePath(), ColumnSelection.FIRST_COLUMN, null);
+
+        assertArrayEquals(new double[]{10.5, 20.9, 30.1}, column.doubles());
+        assertArrayEquals(new long[]{10, 20, 30}, excelService.findTypedNumbersFromExcel(
+                testFile.getAbsolutePath(), ColumnSelection.FIRST_COLUMN, ColumnType.LONG).longs());
+    }
+
+    @Test
+    void testInferType_RememberedPerFileVersion() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("typed.csv"), "1\n2\n");
+        assertEquals(ColumnType.INT, excelService.inferType(file.toString(), ColumnSelection.FIRST_COLUMN));
+
+        Files.writeString(file, "1\n2\n30000000000\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertEquals(ColumnType.LONG, excelService.inferType(file.toString(), ColumnSelection.FIRST_COLUMN));
+    }
+
+    @Test
+    void testFindIntNumbersFromExcel_WarmCallUsesCache() throws IOException {
+        ColumnCache cache = new ColumnCache(1 << 20);
+        ExcelService cachingService = new ExcelService(cache);
+        File testFile = createTestExcelFile("cached.xlsx", new Integer[]{3, 1, 2});
+
+        int[] cold = cachingService.findIntNumbersFromExcel(testFile.getAbsolutePath());
+        int[] warm = cachingService.findIntNumbersFromExcel(testFile.getAbsolutePath());
+        int[] unique = cachingService.findUniqueIntNumbersFromExcel(testFile.getAbsolutePath());
+
+        assertSame(cold, warm);
+        assertArrayEquals(new int[]{1, 2, 3}, unique);
+        assertArrayEquals(new int[]{3, 1, 2}, warm);
+        assertTrue(cachingService.isCached(testFile.getAbsolutePath()));
+        assertEquals(2, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void testFindTypedNumbersFromExcel_WarmCallUsesCache() throws IOException {
+        ColumnCache cache = new ColumnCache(1 << 20);
+        ExcelService cachingService = new ExcelService(cache);
+        String path = createTestExcelFileWithDecimals().getAbsolutePath();
+
+        TypedColumn cold = cachingService.findTypedNumbersFromExcel(path, ColumnSelection.FIRST_COLUMN, null);
+        TypedColumn warm = cachingService.findTypedNumbersFromExcel(path, ColumnSelection.FIRST_COLUMN, null);
+        TypedColumn longs = cachingService.findTypedNumbersFromExcel(path, ColumnSelection.FIRST_COLUMN, ColumnType.LONG);
+
+        assertSame(cold, warm);
+        assertNotSame(cold, longs);
+        assertTrue(cachingService.isCached(path, ColumnSelection.FIRST_COLUMN, null));
+        assertFalse(cachingService.isCached(path));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    void testFindIntNumbersFromExcel_ChangedFileIsReparsed() throws IOException {
+        ColumnCache cache = new ColumnCache(1 << 20);
+        ExcelService cachingService = new ExcelService(cache);
+        File testFile = createTestExcelFile("changing.xlsx", new Integer[]{1, 2});
+        cachingService.findIntNumbersFromExcel(testFile.getAbsolutePath());
+
+        createTestExcelFile("changing.xlsx", new Integer[]{7, 8, 9});
+        assertTrue(testFile.setLastModified(testFile.lastModified() + 5_000));
+
+        assertArrayEquals(new int[]{7, 8, 9}, cachingService.findIntNumbersFromExcel(testFile.getAbsolutePath()));
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    void testFindIntNumbersFromExcel_SelectionCachedSeparately() throws IOException {
+        ColumnCache cache = new ColumnCache(1 << 20);
+        ExcelService cachingService = new ExcelService(cache);
+        File file = tempDir.resolve("sheets.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("Jan").createRow(0).createCell(0).setCellValue(3);
+            Row row = workbook.createSheet("Feb").createRow(0);
+            row.createCell(0).setCellValue(1);
+            row.createCell(1).setCellValue(3);
+            try (FileOutputStream fos = new FileOutputStream(file)) {
+                workbook.write(fos);
+            }
+        }
+        ColumnSelection selection = ColumnSelection.of(List.of("Jan", "Feb"), List.of("A", "B"));
+
+        int[] first = cachingService.findIntNumbersFromExcel(file.getAbsolutePath());
+        int[] combined = cachingService.findIntNumbersFromExcel(file.getAbsolutePath(), selection);
+        int[] distinct = cachingService.findDistinctNumbersFromExcel(file.getAbsolutePath(), selection).toArray();
+
+        assertArrayEquals(new int[]{3}, first);
+        assertArrayEquals(new int[]{3, 1, 3}, combined);
+        assertArrayEquals(new int[]{1, 3}, distinct);
+        assertEquals(2, cache.stats().entries());
+    }
+
+    @Test
+    void testAcquireColumn_ProgressAndCancellation() throws IOException {
+        Integer[] numbers = new Integer[10_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = i;
+        }
+        File testFile = createTestExcelFile("progress.xlsx", numbers);
+
+        ParseProgress progress = new ParseProgress();
+        try (CachedColumn column = excelService.acquireColumn(testFile.getAbsolutePath(), progress)) {
+            assertEquals(10_000, column.length());
+        }
+        assertEquals(10_000, progress.values());
+
+        ParseProgress cancelled = new ParseProgress();
+        cancelled.cancel();
+        assertThrows(CancellationException.class,
+                () -> excelService.acquireColumn(testFile.getAbsolutePath(), cancelled));
+    }
+
+    @Test
+    void testFindIntNumbersFromExcel_ConcurrentCallsShareOneParse() throws Exception {
+        ExcelService uncachedService = new ExcelService(new ColumnCache(0));
+        String path = createTestExcelFile("shared.xlsx", new Integer[]{4, 2, 9}).getAbsolutePath();
+        CountDownLatch release = new CountDownLatch(1);
+        ParseProgress blockingProgress = new ParseProgress() {
+            @Override
+            public IntConsumer wrap(IntConsumer sink) {
+                return value -> {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    sink.accept(value);
+                };
+            }
+        };
+
+        CompletableFuture<int[]> leader = CompletableFuture.supplyAsync(() -> read(() -> {
+            try (CachedColumn column = uncachedService.acquireColumn(path, blockingProgress)) {
+                return column.values();
+            }
+        }));
+        while (!uncachedService.isParsing(path, ColumnSelection.FIRST_COLUMN)) {
+            Thread.sleep(5);
+        }
+        CompletableFuture<int[]> follower = CompletableFuture.supplyAsync(() -> read(() -> uncachedService.findIntNumbersFromExcel(path)));
+        Thread.sleep(300);
+
+        assertFalse(follower.isDone());
+        release.countDown();
+
+        assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new int[]{4, 2, 9}, follower.get());
+        assertFalse(uncachedService.isParsing(path, ColumnSelection.FIRST_COLUMN));
+    }
+
+    @Test
+    void testAcquireColumn_CancelledWhileJoiningAnotherParse() throws Exception {
+        ExcelService uncachedService = new ExcelService(new ColumnCache(0));
+        String path = createTestExcelFile("joined.xlsx", new Integer[]{7, 5}).getAbsolutePath();
+        CountDownLatch release = new CountDownLatch(1);
+        ParseProgress blockingProgress = new ParseProgress() {
+            @Override
+            public IntConsumer wrap(IntConsumer sink) {
+                return value -> {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    sink.accept(value);
+                };
+            }
+        };
+
+        CompletableFuture<int[]> leader = CompletableFuture.supplyAsync(() -> read(() -> {
+            try (CachedColumn column = uncachedService.acquireColumn(path, blockingProgress)) {
+                return column.values();
+            }
+        }));
+        while (!uncachedService.isParsing(path, ColumnSelection.FIRST_COLUMN)) {
+            Thread.sleep(5);
+        }
+        ParseProgress joining = new ParseProgress();
+        CompletableFuture<CachedColumn> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                return uncachedService.acquireColumn(path, joining);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        joining.cancel();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> follower.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(CancellationException.class, e.getCause());
+        assertFalse(leader.isDone());
+
+        release.countDown();
+        assertArrayEquals(new int[]{7, 5}, leader.get(5, TimeUnit.SECONDS));
+    }
+
+    private interface Read {
+        int[] call() throws IOException;
+    }
+
+    @Test
+    void testFindDistinctNumbersFromExcel_RecordsPhases() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExcelService service = new ExcelService(new ColumnCache(1 << 20), new NthMinMetrics(registry));
+        File testFile = createTestExcelFile("phases.xlsx", new Integer[]{3, 1, 3, 2});
+
+        service.findIntNumbersFromExcel(testFile.getAbsolutePath());
+        service.findDistinctNumbersFromExcel(testFile.getAbsolutePath());
+
+        assertEquals(1, registry.get("nthmin.phase").tag("phase", "open").timer().count());
+        assertEquals(1, registry.get("nthmin.phase").tag("phase", "parse").timer().count());
+        assertEquals(1, registry.get("nthmin.phase").tag("phase", "dedupe").timer().count());
+    }
+
+    @Test
+    void testFindNumbers_DelimitedAndRawFiles() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("numbers.csv"), "value\n5\n3\n5\n1\n");
+        Path raw = Files.write(tempDir.resolve("numbers.i32"), new byte[]{2, 0, 0, 0, -1, -1, -1, -1});
+
+        assertArrayEquals(new int[]{5, 3, 5, 1}, excelService.findIntNumbersFromExcel(csv.toString()));
+        assertArrayEquals(new int[]{1, 3, 5}, excelService.findUniqueIntNumbersFromExcel(csv.toString()));
+        assertArrayEquals(new int[]{2, -1}, excelService.findIntNumbersFromExcel(raw.toString()));
+        assertEquals(2, excelService.getRowCountHint(raw.toString()));
+    }
+
+    @Test
+    void testAcquireColumn_LargeColumnStaysOffHeapUntilReleased() throws IOException {
+        ColumnCache cache = new ColumnCache(1 << 20);
+        ExcelService service = new ExcelService(cache, NthMinMetrics.noop(), 16);
+        Path raw = Files.write(tempDir.resolve("large.i32"), new byte[]{
+                5, 0, 0, 0, -1, -1, -1, -1, 3, 0, 0, 0, 5, 0, 0, 0, 1, 0, 0, 0});
+        Path small = Files.write(tempDir.resolve("small.i32"), new byte[]{7, 0, 0, 0});
+
+        CachedColumn column = service.acquireColumn(raw.toString());
+        assertTrue(column.isOffHeap());
+        assertArrayEquals(new int[]{5, -1, 3, 5, 1}, column.toArray());
+        assertArrayEquals(new int[]{-1, 1, 3, 5}, service.findUniqueIntNumbersFromExcel(raw.toString()));
+
+        cache.clear();
+        assertFalse(column.offHeap().isReleased());
+        assertEquals(3, new QuickSelectService().findNthMinimalNumber(column, 3));
+        column.close();
+        assertTrue(column.offHeap().isReleased());
+
+        try (CachedColumn onHeap = service.acquireColumn(small.toString())) {
+            assertFalse(onHeap.isOffHeap());
+        }
+    }
+
+    private static int[] read(Read read) {
+        try {
+            return read.call();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private File createTestExcelFile(String filename, Integer[] numbers) throws IOException {
         File file = tempDir.resolve(filename).toFile();
 
@@ -0,0 +1,61 @@
+package ru.jordosi.nthminimalnumber.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSelectServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFindNthMinimalNumber_SpillsAndSelects() throws IOException {
+        int[] values = new Random(9).ints(50_000, -1_000_000, 1_000_000).toArray();
+        Path file = Files.writeString(tempDir.resolve("large.csv"),
+                Arrays.stream(values).mapToObj(Integer::toString).collect(Collectors.joining("\n", "value\n", "\n")));
+        Path spill = tempDir.resolve("spill");
+        ExternalSelectService service = new ExternalSelectService(new QuickSelectService(), NthMinMetrics.noop(),
+                64 << 10, spill.toString());
+        Arrays.sort(values);
+
+        ExternalSelectService.Result result = service.findNthMinimalNumber(file.toString(), 12_345);
+
+        assertEquals(values[12_344], result.value());
+        assertEquals(values.length, result.totalNumbers());
+        try (Stream<Path> files = Files.list(spill)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testFindNthMinimalNumber_InvalidInput() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("small.csv"), "1\n2\n");
+        Path empty = Files.writeString(tempDir.resolve("empty.csv"), "header\n");
+        ExternalSelectService service = new ExternalSelectService(new QuickSelectService(), NthMinMetrics.noop(),
+                1 << 20, tempDir.toString());
+
+        assertThrows(IllegalArgumentException.class, () -> service.findNthMinimalNumber(file.toString(), 3));
+        assertThrows(IOException.class, () -> service.findNthMinimalNumber(empty.toString(), 1));
+    }
+
+    @Test
+    void testIsPreferred() {
+        ExternalSelectService enabled = new ExternalSelectService(new QuickSelectService(), NthMinMetrics.noop(), 1000, "");
+        ExternalSelectService disabled = new ExternalSelectService(new QuickSelectService(), NthMinMetrics.noop(), 0, "");
+
+        assertTrue(enabled.isPreferred(1001));
+        assertFalse(enabled.isPreferred(1000));
+        assertFalse(disabled.isPreferred(Long.MAX_VALUE));
+    }
+}
@@ -69,7 +69,7 @@ class QuickSelectServiceTest {
     @DisplayName("Should throw exception for null array")
     void testFindNthMinimum_NullArray() {
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
-                () -> quickSelectService.findNthMinimalNumber(null, 1));
+                () -> quickSelectService.findNthMinimalNumber((Integer[]) null, 1));
 
         assertTrue(exception.getMessage().contains("cannot be null"));
     }
@@ -140,4 +140,86 @@ class QuickSelectServiceTest {
 
         assertEquals(0, result);
     }
+
+    @Test
+    @DisplayName("Primitive overload should match boxed result and keep input intact")
+    void testFindNthMinimum_PrimitiveArray() {
+        int[] array = {7, -2, 9, 4, 4, 0, 13};
+        int[] copy = array.clone();
+
+        int result = quickSelectService.findNthMinimalNumber(array, 4);
+
+        assertEquals(4, result);
+        assertArrayEquals(copy, array);
+    }
+
+    @Test
+    @DisplayName("Primitive unique overload should validate N against distinct count")
+    void testFindNthMinimalUnique_PrimitiveArray() {
+        int[] array = {5, 1, 5, 3, 1, 3};
+
+        assertEquals(3, quickSelectService.findNthMinimalUniqueNumber(array, 2));
+        assertEquals(5, quickSelectService.findNthMinimalUniqueNumber(array, 3));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> quickSelectService.findNthMinimalUniqueNumber(array, 4));
+        assertTrue(exception.getMessage().contains("in range from 1 to 3"));
+    }
+
+    @Test
+    @DisplayName("Boxed unique overload should validate N against distinct count")
+    void testFindNthMinimalUnique_BoxedArrayChecksDistinctCount() {
+        Integer[] array = {5, 1, 5, 3, 1, 3};
+
+        assertEquals(1, quickSelectService.findNthMinimalUniqueNumber(array, 1));
+        assertEquals(5, quickSelectService.findNthMinimalUniqueNumber(array, 3));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> quickSelectService.findNthMinimalUniqueNumber(array, 4));
+        assertTrue(exception.getMessage().contains("in range from 1 to 3"));
+    }
+
+    @Test
+    @DisplayName("Large primitive unique input should be answered without sorting")
+    void testFindNthMinimalUnique_LargePrimitiveArray() {
+        int[] array = new int[50_000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (i * 7919) % 1000 - 500;
+        }
+
+        assertEquals(-500, quickSelectService.findNthMinimalUniqueNumber(array, 1));
+        assertEquals(499, quickSelectService.findNthMinimalUniqueNumber(array, 1000));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> quickSelectService.findNthMinimalUniqueNumber(array, 1001));
+        assertTrue(exception.getMessage().contains("in range from 1 to 1000"));
+    }
+
+    @Test
+    @DisplayName("Should answer several ranks in request order, including repeats")
+    void testFindNthMinimalNumbers_Batch() {
+        int[] array = {50, 10, 40, 20, 30};
+
+        int[] results = quickSelectService.findNthMinimalNumbers(array, new int[]{5, 1, 3, 1});
+
+        assertArrayEquals(new int[]{50, 10, 30, 10}, results);
+        assertArrayEquals(new int[]{50, 10, 40, 20, 30}, array);
+    }
+
+    @Test
+    @DisplayName("Should reject batch ranks outside of the array")
+    void testFindNthMinimalNumbers_InvalidRank() {
+        assertThrows(IllegalArgumentException.class,
+                () -> quickSelectService.findNthMinimalNumbers(new int[]{1, 2}, new int[]{1, 3}));
+    }
+
+    @Test
+    @DisplayName("Should convert percentiles with the nearest-rank method")
+    void testPercentileRank() {
+        assertEquals(50, QuickSelectService.percentileRank(50, 100));
+        assertEquals(1, QuickSelectService.percentileRank(0.1, 100));
+        assertEquals(100, QuickSelectService.percentileRank(100, 100));
+        assertEquals(3, QuickSelectService.percentileRank(50, 5));
+        assertThrows(IllegalArgumentException.class, () -> QuickSelectService.percentileRank(0, 100));
+    }
 }
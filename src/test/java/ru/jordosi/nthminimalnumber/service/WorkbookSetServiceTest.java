@@ -0,0 +1,139 @@
+package ru.jordosi.nthminimalnumber.service;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkbookSetServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private WorkbookSetService workbookSetService;
+
+    @BeforeEach
+    void setUp() {
+        workbookSetService = new WorkbookSetService(new QuickSelectService(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        workbookSetService.shutdown();
+    }
+
+    @Test
+    void testFindNthMinimalNumber_MatchesSortedUnionOfFiles() throws IOException {
+        Random random = new Random(9);
+        int[] all = new int[0];
+        for (int day = 1; day <= 5; day++) {
+            int[] values = random.ints(200, -1000, 1000).toArray();
+            createTestExcelFile("2024-01-0" + day + ".xlsx", values);
+            all = IntStream.concat(Arrays.stream(all), Arrays.stream(values)).toArray();
+        }
+        Arrays.sort(all);
+
+        List<Path> workbooks = workbookSetService.findWorkbooks(tempDir.toString(), "2024-*.xlsx");
+
+        assertEquals(5, workbooks.size());
+        for (int n : new int[]{1, 17, 200, 999, 1000}) {
+            WorkbookSetService.Result result = workbookSetService.findNthMinimalNumber(workbooks, n);
+            assertEquals(all[n - 1], result.value());
+            assertEquals(1000, result.totalNumbers());
+            assertEquals(5, result.files());
+        }
+    }
+
+    @Test
+    void testFindWorkbooks_GlobAndSubdirectories() throws IOException {
+        createTestExcelFile("a.xlsx", new int[]{1});
+        Files.createDirectories(tempDir.resolve("nested"));
+        createTestExcelFile("nested/b.xlsx", new int[]{2});
+        Files.writeString(tempDir.resolve("notes.txt"), "skip me");
+
+        assertEquals(List.of(tempDir.resolve("a.xlsx")), workbookSetService.findWorkbooks(tempDir.toString(), null));
+        assertEquals(2, workbookSetService.findWorkbooks(tempDir.toString(), "**.xlsx").size());
+        assertThrows(IOException.class, () -> workbookSetService.findWorkbooks(tempDir.toString(), "*.csv"));
+    }
+
+    @Test
+    void testFindNthMinimalNumber_NExceedsTotal() throws IOException {
+        createTestExcelFile("a.xlsx", new int[]{3, 1});
+        createTestExcelFile("b.xlsx", new int[]{2});
+        List<Path> workbooks = workbookSetService.findWorkbooks(tempDir.toString(), null);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> workbookSetService.findNthMinimalNumber(workbooks, 4));
+        assertTrue(exception.getMessage().contains("in range from 1 to 3"));
+        assertEquals(3, workbookSetService.findNthMinimalNumber(workbooks, 3).value());
+    }
+
+    @Test
+    void testFindNthMinimalNumber_UnderstatedDimensionKeepsNCandidates() throws IOException {
+        createTestExcelFile("a.xlsx", new int[]{50, 10, 40, 20, 30});
+        createTestExcelFile("b.xlsx", new int[]{5, 45, 15, 35, 25});
+        understateDimension("a.xlsx");
+        understateDimension("b.xlsx");
+        List<Path> workbooks = workbookSetService.findWorkbooks(tempDir.toString(), null);
+
+        WorkbookSetService.Result result = workbookSetService.findNthMinimalNumber(workbooks, 3);
+
+        assertEquals(15, result.value());
+        assertEquals(10, result.totalNumbers());
+        assertEquals(50, workbookSetService.findNthMinimalNumber(workbooks, 10).value());
+    }
+
+    /**
+     * Rewrites the sheet dimension to {@code A1}, as some writers emit it regardless of the content.
+     */
+    private void understateDimension(String filename) throws IOException {
+        Path file = tempDir.resolve(filename);
+        Path rewritten = tempDir.resolve(filename + ".tmp");
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(file));
+             ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(rewritten))) {
+            for (ZipEntry entry; (entry = in.getNextEntry()) != null; ) {
+                byte[] content = in.readAllBytes();
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    String xml = new String(content, StandardCharsets.UTF_8);
+                    content = xml.replaceFirst("<dimension ref=\"[^\"]*\"", "<dimension ref=\"A1\"")
+                            .getBytes(StandardCharsets.UTF_8);
+                }
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                out.write(content);
+                out.closeEntry();
+            }
+        }
+        Files.move(rewritten, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void createTestExcelFile(String filename, int[] numbers) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Sheet");
+            for (int i = 0; i < numbers.length; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(numbers[i]);
+            }
+            try (FileOutputStream fos = new FileOutputStream(tempDir.resolve(filename).toFile())) {
+                workbook.write(fos);
+            }
+        }
+    }
+}
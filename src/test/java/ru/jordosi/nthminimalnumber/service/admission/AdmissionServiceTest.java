@@ -0,0 +1,150 @@
+package ru.jordosi.nthminimalnumber.service.admission;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnSelection;
+import ru.jordosi.nthminimalnumber.service.reader.ColumnType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionServiceTest {
+
+    private static final long MB = 1 << 20;
+
+    private final ExcelService excelService = mock(ExcelService.class);
+    private AdmissionService admissionService;
+
+    @AfterEach
+    void tearDown() {
+        admissionService.shutdown();
+    }
+
+    @Test
+    void testEstimateBytes_FromDeclaredDimension() throws IOException {
+        admissionService = new AdmissionService(excelService, 64 * MB, Duration.ofMillis(100), 32 * MB, 1);
+        when(excelService.getRowCountHint("/data/file.xlsx")).thenReturn(1_000_000);
+
+        long cost = admissionService.estimateBytes("/data/file.xlsx", ColumnSelection.FIRST_COLUMN);
+
+        assertEquals(AdmissionService.PARSE_OVERHEAD_BYTES + 1_000_000 * AdmissionService.BYTES_PER_VALUE, cost);
+    }
+
+    @Test
+    void testParse_RejectedWhileBudgetIsHeld() throws Exception {
+        admissionService = new AdmissionService(excelService, 64 * MB, Duration.ofMillis(100), 1024 * MB, 1);
+        when(excelService.getRowCountHint(anyString())).thenReturn(3_000_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> big = CompletableFuture.supplyAsync(() -> {
+            try {
+                return admissionService.parse("/data/big.xlsx", () -> {
+                    started.countDown();
+                    await(release);
+                    return 1;
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> admissionService.parse("/data/other.xlsx", () -> 2));
+        assertEquals(1, exception.getRetryAfterSeconds());
+
+        release.countDown();
+        assertEquals(1, big.get(5, TimeUnit.SECONDS));
+        assertEquals(2, admissionService.parse("/data/other.xlsx", () -> 2));
+        assertEquals(admissionService.budgetBytes(), admissionService.availableBytes());
+    }
+
+    @Test
+    void testParse_CachedColumnSkipsBudget() throws IOException {
+        admissionService = new AdmissionService(excelService, MB, Duration.ZERO, 32 * MB, 1);
+        when(excelService.isCached(anyString(), any(), eq(ColumnType.INT))).thenReturn(true);
+
+        assertEquals(3, admissionService.parse("/data/cached.xlsx", () -> 3));
+    }
+
+    @Test
+    void testParse_CachedTypedColumnSkipsBudget() throws Exception {
+        admissionService = new AdmissionService(excelService, MB, Duration.ZERO, 32 * MB, 1);
+        when(excelService.isCached(anyString(), any(), eq(ColumnType.DOUBLE))).thenReturn(true);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                admissionService.reserve(MB, () -> {
+                    holding.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        holder.start();
+        holding.await();
+        try {
+            assertEquals(3, admissionService.parse("/data/cached.xlsx", ColumnSelection.FIRST_COLUMN,
+                    ColumnType.DOUBLE, () -> 3));
+            assertThrows(AdmissionRejectedException.class, () -> admissionService.parse("/data/cached.xlsx",
+                    ColumnSelection.FIRST_COLUMN, ColumnType.LONG, () -> 3));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    void testParse_LargeParseRunsOnDedicatedPool() throws IOException {
+        admissionService = new AdmissionService(excelService, 256 * MB, Duration.ofSeconds(1), 16 * MB, 1);
+        when(excelService.getRowCountHint(anyString())).thenReturn(2_000_000);
+
+        String thread = admissionService.parse("/data/large.xlsx", () -> Thread.currentThread().getName());
+        when(excelService.getRowCountHint(anyString())).thenReturn(10);
+        String smallThread = admissionService.parse("/data/small.xlsx", () -> Thread.currentThread().getName());
+
+        assertTrue(thread.startsWith("large-parse-"));
+        assertEquals(Thread.currentThread().getName(), smallThread);
+    }
+
+    @Test
+    void testReserve_HoldsBudgetWhileRunning() throws IOException {
+        admissionService = new AdmissionService(excelService, 64 * MB, Duration.ofMillis(100), 1024 * MB, 1);
+        when(excelService.getRowCountHint(anyString())).thenReturn(1_000_000);
+
+        long held = admissionService.reserve(48 * MB, () -> {
+            assertThrows(AdmissionRejectedException.class, () -> admissionService.parse("/data/file.xlsx", () -> 1));
+            return admissionService.budgetBytes() - admissionService.availableBytes();
+        });
+
+        assertEquals(48 * MB, held);
+        assertEquals(admissionService.budgetBytes(), admissionService.availableBytes());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
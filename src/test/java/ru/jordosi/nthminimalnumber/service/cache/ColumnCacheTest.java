@@ -0,0 +1,111 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.jordosi.nthminimalnumber.service.select.DistinctBitmap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnCacheTest {
+
+    private static ColumnKey key(String name) {
+        return ColumnKey.of(new FileFingerprint("/data/" + name, 100, 1));
+    }
+
+    private static CachedColumn column(int size) {
+        return new CachedColumn(new int[size], null);
+    }
+
+    @Test
+    void testGet_CountsHitsAndMisses() {
+        ColumnCache cache = new ColumnCache(1 << 20);
+        cache.put(key("a.xlsx"), column(10));
+
+        assertNotNull(cache.get(key("a.xlsx")));
+        assertNull(cache.get(key("b.xlsx")));
+
+        ColumnCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entries());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedWithinBudget() {
+        long entryBytes = column(1000).sizeInBytes();
+        ColumnCache cache = new ColumnCache(entryBytes * 2);
+
+        cache.put(key("a.xlsx"), column(1000));
+        cache.put(key("b.xlsx"), column(1000));
+        cache.get(key("a.xlsx"));
+        cache.put(key("c.xlsx"), column(1000));
+
+        assertTrue(cache.contains(key("a.xlsx")));
+        assertFalse(cache.contains(key("b.xlsx")));
+        assertTrue(cache.contains(key("c.xlsx")));
+        assertEquals(1, cache.stats().evictions());
+        assertTrue(cache.stats().bytes() <= entryBytes * 2);
+    }
+
+    @Test
+    void testPut_ReplacingEntryUpdatesSize() {
+        ColumnCache cache = new ColumnCache(1 << 20);
+        CachedColumn small = column(10);
+        CachedColumn withUnique = small.withDistinct(DistinctBitmap.of(new int[]{1, 2, 3}));
+
+        cache.put(key("a.xlsx"), small);
+        cache.put(key("a.xlsx"), withUnique);
+
+        assertEquals(withUnique.sizeInBytes(), cache.stats().bytes());
+    }
+
+    @Test
+    void testPut_SkipsColumnsLargerThanBudget() {
+        ColumnCache cache = new ColumnCache(1024);
+
+        cache.put(key("a.xlsx"), column(1000));
+
+        assertFalse(cache.contains(key("a.xlsx")));
+        assertFalse(cache.fits(1000));
+        assertTrue(cache.fits(10));
+    }
+
+    @Test
+    void testEviction_FreesOffHeapColumnOnceReadersRelease() {
+        OffHeapIntColumn values = OffHeapIntColumn.copyOf(new int[1000]);
+        CachedColumn offHeap = new CachedColumn(values, null);
+        ColumnCache cache = new ColumnCache(offHeap.sizeInBytes());
+
+        cache.put(key("a.xlsx"), offHeap);
+        offHeap.close();
+        CachedColumn reading = cache.get(key("a.xlsx"));
+        cache.put(key("b.xlsx"), column(10));
+
+        assertFalse(cache.contains(key("a.xlsx")));
+        assertFalse(values.isReleased());
+        assertEquals(0, reading.toArray()[999]);
+
+        reading.close();
+        assertTrue(values.isReleased());
+    }
+
+    @Test
+    void testClear_ReleasesOffHeapColumns() {
+        OffHeapIntColumn values = OffHeapIntColumn.copyOf(new int[]{1, 2, 3});
+        ColumnCache cache = new ColumnCache(1 << 20);
+
+        try (CachedColumn column = new CachedColumn(values, null)) {
+            cache.put(key("a.xlsx"), column);
+        }
+        assertFalse(values.isReleased());
+
+        cache.clear();
+        assertTrue(values.isReleased());
+        assertNull(cache.get(key("a.xlsx")));
+    }
+
+    @Test
+    void testFingerprintDiffersWhenFileChanges() {
+        assertNotEquals(new FileFingerprint("/data/a.xlsx", 100, 1), new FileFingerprint("/data/a.xlsx", 100, 2));
+        assertNotEquals(new FileFingerprint("/data/a.xlsx", 100, 1), new FileFingerprint("/data/a.xlsx", 101, 1));
+    }
+}
@@ -0,0 +1,93 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapIntColumnTest {
+
+    @Test
+    void testCopyOf_ReadsValuesBack() {
+        OffHeapIntColumn column = OffHeapIntColumn.copyOf(new int[]{5, -3, Integer.MAX_VALUE, Integer.MIN_VALUE});
+
+        assertEquals(4, column.length());
+        assertEquals(16, column.sizeInBytes());
+        assertEquals(-3, column.get(1));
+        assertArrayEquals(new int[]{5, -3, Integer.MAX_VALUE, Integer.MIN_VALUE}, column.toArray());
+        column.release();
+    }
+
+    @Test
+    void testValues_IsReadOnlyView() {
+        OffHeapIntColumn column = OffHeapIntColumn.copyOf(new int[]{1, 2, 3});
+        IntBuffer view = column.values();
+
+        assertEquals(3, view.limit());
+        assertThrows(ReadOnlyBufferException.class, () -> view.put(0, 9));
+        column.release();
+    }
+
+    @Test
+    void testWriter_GrowsPastExpectedLength() {
+        OffHeapIntColumn.Writer writer = OffHeapIntColumn.writer(4);
+        IntStream.range(0, 1000).forEach(writer);
+
+        OffHeapIntColumn column = writer.finish();
+        int[] sum = new int[1];
+        column.forEach(value -> sum[0] += value);
+
+        assertEquals(1000, column.length());
+        assertEquals(999, column.get(999));
+        assertEquals(999 * 1000 / 2, sum[0]);
+        assertThrows(IllegalStateException.class, () -> writer.accept(1));
+        column.release();
+    }
+
+    @Test
+    void testWriter_FinishTrimsToWrittenValues() {
+        long before = OffHeapIntColumn.allocatedBytes();
+        OffHeapIntColumn.Writer writer = OffHeapIntColumn.writer(1024);
+        IntStream.range(0, 3).forEach(writer);
+
+        OffHeapIntColumn column = writer.finish();
+
+        assertEquals(3 * Integer.BYTES, column.sizeInBytes());
+        assertEquals(before + column.sizeInBytes(), OffHeapIntColumn.allocatedBytes());
+        assertEquals(2, column.get(2));
+        column.release();
+        assertEquals(before, OffHeapIntColumn.allocatedBytes());
+    }
+
+    @Test
+    void testRelease_FreesAfterLastReference() {
+        long before = OffHeapIntColumn.allocatedBytes();
+        OffHeapIntColumn column = OffHeapIntColumn.copyOf(new int[256]);
+        assertTrue(column.retain());
+
+        column.release();
+        assertFalse(column.isReleased());
+        assertEquals(0, column.get(255));
+
+        column.release();
+        assertTrue(column.isReleased());
+        assertFalse(column.retain());
+        assertThrows(IllegalStateException.class, () -> column.get(0));
+        assertThrows(IllegalStateException.class, column::release);
+        assertEquals(before, OffHeapIntColumn.allocatedBytes());
+    }
+
+    @Test
+    void testDiscard_FreesUnfinishedWriter() {
+        long before = OffHeapIntColumn.allocatedBytes();
+        OffHeapIntColumn.Writer writer = OffHeapIntColumn.writer(1024);
+        writer.accept(1);
+
+        writer.discard();
+
+        assertEquals(before, OffHeapIntColumn.allocatedBytes());
+    }
+}
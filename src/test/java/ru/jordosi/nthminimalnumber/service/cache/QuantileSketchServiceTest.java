@@ -0,0 +1,89 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+import ru.jordosi.nthminimalnumber.service.select.KllSketch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSketch_SavedAndReusedWithoutSource() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "5\n3\n5\n1\n");
+        FileTime modified = Files.getLastModifiedTime(file);
+
+        KllSketch sketch = new QuantileSketchService(NthMinMetrics.noop(), 200, true, "").sketch(file);
+        assertEquals(4, sketch.count());
+        assertEquals(5, sketch.nthMinimal(3));
+        assertTrue(Files.exists(tempDir.resolve("data.csv" + QuantileSketchService.SUFFIX)));
+
+        // same size and time but other content: only the sidecar can answer with the old values
+        Files.writeString(file, "9\n9\n9\n9\n");
+        Files.setLastModifiedTime(file, modified);
+        KllSketch reloaded = new QuantileSketchService(NthMinMetrics.noop(), 200, true, "").sketch(file);
+
+        assertEquals(4, reloaded.count());
+        assertEquals(1, reloaded.nthMinimal(1));
+    }
+
+    @Test
+    void testSketch_StaleSidecarIsRebuilt() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("stale.csv"), "1\n2\n");
+        QuantileSketchService service = new QuantileSketchService(NthMinMetrics.noop(), 200, true,
+                tempDir.resolve("index").toString());
+        assertEquals(2, service.sketch(file).count());
+
+        Files.writeString(file, "1\n2\n3\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5_000));
+
+        assertEquals(3, service.sketch(file).count());
+        assertEquals(3, new QuantileSketchService(NthMinMetrics.noop(), 200, true,
+                tempDir.resolve("index").toString()).sketch(file).count());
+    }
+
+    @Test
+    void testIsSketched_FromMemoryOrSidecar() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("sketched.csv"), "1\n2\n");
+        QuantileSketchService service = new QuantileSketchService(NthMinMetrics.noop(), 200, true, "");
+        QuantileSketchService inMemory = new QuantileSketchService(NthMinMetrics.noop(), 200, false, "");
+
+        assertFalse(service.isSketched(file));
+        service.sketch(file);
+        inMemory.sketch(file);
+
+        assertTrue(service.isSketched(file));
+        assertTrue(new QuantileSketchService(NthMinMetrics.noop(), 200, true, "").isSketched(file));
+        assertTrue(inMemory.isSketched(file));
+        assertFalse(new QuantileSketchService(NthMinMetrics.noop(), 200, false, "").isSketched(file));
+        assertFalse(service.isSketched(tempDir.resolve("missing.csv")));
+    }
+
+    @Test
+    void testSketch_MergesFiles() throws IOException {
+        Path first = Files.writeString(tempDir.resolve("a.csv"), "10\n30\n");
+        Path second = Files.writeString(tempDir.resolve("b.csv"), "20\n");
+        Path empty = Files.writeString(tempDir.resolve("c.csv"), "header\n");
+        QuantileSketchService service = new QuantileSketchService(NthMinMetrics.noop(), 200, false, "");
+
+        KllSketch merged = service.sketch(List.of(first, second, empty));
+
+        assertEquals(3, merged.count());
+        assertEquals(20, merged.nthMinimal(2));
+        assertFalse(Files.exists(tempDir.resolve("a.csv" + QuantileSketchService.SUFFIX)));
+        IOException exception = assertThrows(IOException.class,
+                () -> service.sketch(List.of(first, tempDir.resolve("missing.csv"))));
+        assertInstanceOf(NoSuchFileException.class, exception.getCause());
+    }
+}
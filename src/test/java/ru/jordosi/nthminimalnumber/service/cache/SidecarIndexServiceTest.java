@@ -0,0 +1,247 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionService;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class SidecarIndexServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testBuildAndFind_NextToSource() throws IOException {
+        Path workbook = createWorkbook("data.xlsx", 5, 3, 5, 1);
+        SidecarIndexService service = service(true, "");
+
+        assertNull(service.find(workbook.toString()));
+        service.build(workbook.toString());
+        SidecarIndex index = service.find(workbook.toString());
+
+        assertTrue(Files.exists(tempDir.resolve("data.xlsx" + SidecarIndexService.SUFFIX)));
+        assertNotNull(index);
+        assertEquals(4, index.count());
+        assertEquals(3, index.distinctCount());
+        assertEquals(5, index.nthMinimal(3));
+        assertEquals(5, index.nthMinimalUnique(3));
+    }
+
+    @Test
+    void testFind_StaleSidecarIsIgnored() throws IOException {
+        Path workbook = createWorkbook("stale.xlsx", 1, 2);
+        SidecarIndexService service = service(true, tempDir.resolve("index").toString());
+        service.build(workbook.toString());
+        assertNotNull(service.find(workbook.toString()));
+
+        createWorkbook("stale.xlsx", 1, 2, 3);
+        Files.setLastModifiedTime(workbook, java.nio.file.attribute.FileTime.fromMillis(
+                Files.getLastModifiedTime(workbook).toMillis() + 5_000));
+
+        assertNull(service.find(workbook.toString()));
+        service.build(workbook.toString());
+        assertEquals(3, service.find(workbook.toString()).count());
+    }
+
+    @Test
+    void testSidecarPath_NamedByPathDigest() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("named.csv"), "1\n");
+        FileFingerprint fingerprint = FileFingerprint.of(csv);
+        Path indexDir = tempDir.resolve("index");
+
+        Path sidecar = SidecarIndexService.sidecarPath(indexDir, fingerprint, SidecarIndexService.SUFFIX);
+
+        assertEquals(indexDir, sidecar.getParent());
+        assertTrue(sidecar.getFileName().toString().matches("named\\.csv-[0-9a-f]{64}\\.nmidx"));
+        assertTrue(Files.isDirectory(indexDir));
+        assertEquals(tempDir.resolve("named.csv" + SidecarIndexService.SUFFIX),
+                SidecarIndexService.sidecarPath(null, fingerprint, SidecarIndexService.SUFFIX));
+    }
+
+    @Test
+    void testFind_DisabledOrInvalidPath() throws IOException {
+        Path workbook = createWorkbook("disabled.xlsx", 1);
+        SidecarIndexService disabled = service(false, "");
+        SidecarIndexService enabled = service(true, "");
+
+        assertNull(disabled.find(workbook.toString()));
+        assertNull(enabled.find(null));
+        assertNull(enabled.find(tempDir.resolve("missing.xlsx").toString()));
+    }
+
+    @Test
+    void testFindOrBuild_ParsesOnlyWithoutSidecar() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("data.csv"), "4\n-1\n4\n2\n");
+        SidecarIndexService service = service(true, "");
+        int[] parses = new int[1];
+
+        SidecarIndex built = service.findOrBuild(csv.toString(), () -> {
+            parses[0]++;
+            return new CachedColumn(new int[]{4, -1, 4, 2}, null);
+        });
+        SidecarIndex found = service.findOrBuild(csv.toString(), () -> {
+            throw new AssertionError("parsed again");
+        });
+
+        assertEquals(1, parses[0]);
+        assertSame(built, found);
+        assertTrue(Files.exists(tempDir.resolve("data.csv" + SidecarIndexService.SUFFIX)));
+        assertEquals(2, found.countBelow(4));
+        assertArrayEquals(new int[]{-1, 2}, found.range(1, 2));
+    }
+
+    @Test
+    void testFindOrBuild_DisabledKeepsIndexOnHeap() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("heap.csv"), "3\n1\n");
+        SidecarIndexService disabled = service(false, "");
+
+        SidecarIndex index = disabled.findOrBuild(csv.toString(), () -> new CachedColumn(new int[]{3, 1}, null));
+        SidecarIndex again = disabled.findOrBuild(csv.toString(), () -> {
+            throw new AssertionError("sorted again");
+        });
+
+        assertArrayEquals(new int[]{1, 3}, index.range(1, 2));
+        assertSame(index, again);
+        assertFalse(Files.exists(tempDir.resolve("heap.csv" + SidecarIndexService.SUFFIX)));
+    }
+
+    @Test
+    void testFindOrBuild_DropsHeapIndexesOverBudget() throws IOException {
+        // two values sorted plus two distinct: 16 bytes per index
+        SidecarIndexService disabled = new SidecarIndexService(new ExcelService(), admission(), false, "", 16);
+        Path first = Files.writeString(tempDir.resolve("first.csv"), "2\n1\n");
+        Path second = Files.writeString(tempDir.resolve("second.csv"), "4\n3\n");
+
+        disabled.findOrBuild(first.toString(), () -> new CachedColumn(new int[]{2, 1}, null));
+        disabled.findOrBuild(second.toString(), () -> new CachedColumn(new int[]{4, 3}, null));
+
+        assertNull(disabled.find(first.toString()));
+        assertNotNull(disabled.find(second.toString()));
+    }
+
+    @Test
+    void testFindOrBuild_ConcurrentCallersBuildOnce() throws Exception {
+        Path csv = Files.writeString(tempDir.resolve("shared.csv"), "3\n1\n2\n");
+        SidecarIndexService service = service(false, "");
+        AtomicInteger parses = new AtomicInteger();
+        CountDownLatch parsing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<SidecarIndex> leader = executor.submit(() -> service.findOrBuild(csv.toString(), () -> {
+                parses.incrementAndGet();
+                parsing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new CachedColumn(new int[]{3, 1, 2}, null);
+            }));
+            parsing.await();
+            // lets the caller below find the build running before it completes
+            Thread joining = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                release.countDown();
+            });
+            joining.start();
+
+            SidecarIndex joined = service.findOrBuild(csv.toString(), () -> {
+                parses.incrementAndGet();
+                return new CachedColumn(new int[]{3, 1, 2}, null);
+            });
+
+            assertSame(leader.get(), joined);
+            assertEquals(1, parses.get());
+            joining.join();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFindOrBuild_ChargesSortToAdmission() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("charged.csv"), "5\n6\n7\n8\n");
+        AdmissionService admissionService = spy(admission());
+        SidecarIndexService service = new SidecarIndexService(new ExcelService(), admissionService, true, "", 0);
+
+        service.findOrBuild(csv.toString(), () -> new CachedColumn(new int[]{5, 6, 7, 8}, null));
+
+        verify(admissionService).reserve(eq(4 * SidecarIndexService.BUILD_BYTES_PER_VALUE), any());
+    }
+
+    @Test
+    void testFindOrBuild_SortsOffHeapColumnWithoutTouchingIt() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("offheap.csv"), "9\n-4\n9\n");
+        OffHeapIntColumn values = OffHeapIntColumn.copyOf(new int[]{9, -4, 9});
+        values.retain();
+
+        SidecarIndex index = service(true, "").findOrBuild(csv.toString(), () -> new CachedColumn(values, null));
+
+        assertArrayEquals(new int[]{-4, 9, 9}, index.range(1, 3));
+        assertArrayEquals(new int[]{9, -4, 9}, values.toArray());
+        // the build closed the reference it was handed
+        values.release();
+        assertTrue(values.isReleased());
+    }
+
+    @Test
+    void testFind_KeepsAtMostMaxMappedIndexes() throws IOException {
+        SidecarIndexService service = service(true, "");
+        for (int i = 0; i <= SidecarIndexService.MAX_MAPPED; i++) {
+            Path csv = Files.writeString(tempDir.resolve("part-" + i + ".csv"), i + "\n");
+            int value = i;
+            service.findOrBuild(csv.toString(), () -> new CachedColumn(new int[]{value}, null));
+        }
+
+        assertEquals(SidecarIndexService.MAX_MAPPED, service.mappedCount());
+        // a dropped mapping is reopened from its sidecar file
+        assertEquals(0, service.find(tempDir.resolve("part-0.csv").toString()).nthMinimal(1));
+    }
+
+    private static SidecarIndexService service(boolean enabled, String indexDir) {
+        return new SidecarIndexService(new ExcelService(), admission(), enabled, indexDir, 0);
+    }
+
+    private static AdmissionService admission() {
+        return new AdmissionService(new ExcelService(), 64L << 20, Duration.ofSeconds(5), Long.MAX_VALUE, 1);
+    }
+
+    private Path createWorkbook(String name, int... values) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Sheet");
+            for (int i = 0; i < values.length; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(values[i]);
+            }
+            try (FileOutputStream fos = new FileOutputStream(file.toFile())) {
+                workbook.write(fos);
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,105 @@
+package ru.jordosi.nthminimalnumber.service.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SidecarIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndOpen_RoundTrip() throws IOException {
+        Path file = tempDir.resolve("data.xlsx.nmidx");
+        FileFingerprint source = new FileFingerprint("/data/числа.xlsx", 1234, 5678);
+        int[] sorted = new int[100_000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i / 2 - 1000;
+        }
+        int[] distinct = new int[50_000];
+        for (int i = 0; i < distinct.length; i++) {
+            distinct[i] = i - 1000;
+        }
+
+        SidecarIndex.write(file, source, sorted, distinct);
+        SidecarIndex index = SidecarIndex.open(file);
+
+        assertEquals(source, index.source());
+        assertEquals(100_000, index.count());
+        assertEquals(50_000, index.distinctCount());
+        assertEquals(-1000, index.nthMinimal(1));
+        assertEquals(sorted[77_777], index.nthMinimal(77_778));
+        assertEquals(48_999, index.nthMinimalUnique(50_000));
+    }
+
+    @Test
+    void testFits_UpToOneMappableBuffer() {
+        FileFingerprint source = new FileFingerprint("/data/file.csv", 1, 2);
+        // 36 header bytes and 16 path bytes leave room for this many ints below 2 GB
+        long most = (Integer.MAX_VALUE - 52) / Integer.BYTES;
+
+        assertTrue(SidecarIndex.fits(source, 0));
+        assertTrue(SidecarIndex.fits(source, most));
+        assertFalse(SidecarIndex.fits(source, most + 1));
+    }
+
+    @Test
+    void testCountBelow_MatchesLinearScanAcrossDirectoryBlocks() throws IOException {
+        Random random = new Random(3);
+        int[] sorted = new int[5 * SidecarIndex.DIRECTORY_STRIDE + 17];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = random.nextInt(2000) - 1000;
+        }
+        sorted[0] = Integer.MIN_VALUE;
+        sorted[1] = Integer.MAX_VALUE;
+        Arrays.sort(sorted);
+        Path file = tempDir.resolve("ranks.nmidx");
+        SidecarIndex.write(file, new FileFingerprint("/data/ranks.csv", 1, 2), sorted, new int[0]);
+        SidecarIndex index = SidecarIndex.open(file);
+
+        for (int value : new int[]{Integer.MIN_VALUE, -1001, -1000, -3, 0, 999, 1000, Integer.MAX_VALUE}) {
+            int value0 = value;
+            assertEquals(Arrays.stream(sorted).filter(v -> v < value0).count(), index.countBelow(value), "below " + value);
+            assertEquals(Arrays.stream(sorted).filter(v -> v <= value0).count(), index.countAtMost(value), "at most " + value);
+        }
+    }
+
+    @Test
+    void testRange_ReturnsRanksInOrder() {
+        SidecarIndex index = SidecarIndex.of(new FileFingerprint("/data/heap.csv", 1, 2),
+                new int[]{-5, 1, 1, 4, 9}, new int[]{-5, 1, 4, 9});
+
+        assertArrayEquals(new int[]{1, 1, 4}, index.range(2, 4));
+        assertArrayEquals(new int[]{9}, index.range(5, 5));
+        assertEquals(1, index.countBelow(1));
+        assertEquals(3, index.countAtMost(1));
+        assertEquals(0, index.countBelow(-5));
+        assertEquals(5, index.countBelow(10));
+    }
+
+    @Test
+    void testOpen_RejectsForeignFile() throws IOException {
+        Path file = tempDir.resolve("foreign.nmidx");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> SidecarIndex.open(file));
+    }
+
+    @Test
+    void testOpen_RejectsTruncatedFile() throws IOException {
+        Path file = tempDir.resolve("truncated.nmidx");
+        SidecarIndex.write(file, new FileFingerprint("/a.xlsx", 1, 1), new int[]{1, 2, 3}, new int[]{1, 2, 3});
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertThrows(IOException.class, () -> SidecarIndex.open(file));
+    }
+}
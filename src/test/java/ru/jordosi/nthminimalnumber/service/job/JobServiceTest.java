@@ -0,0 +1,203 @@
+package ru.jordosi.nthminimalnumber.service.job;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.QuickSelectService;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionService;
+import ru.jordosi.nthminimalnumber.service.admission.ParseTask;
+import ru.jordosi.nthminimalnumber.service.cache.CachedColumn;
+import ru.jordosi.nthminimalnumber.service.cache.OffHeapIntColumn;
+import ru.jordosi.nthminimalnumber.service.cache.SidecarIndexService;
+import ru.jordosi.nthminimalnumber.service.reader.ParseProgress;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobServiceTest {
+
+    private final ExcelService excelService = mock(ExcelService.class);
+    private final SidecarIndexService sidecarIndexService = mock(SidecarIndexService.class);
+    private final AdmissionService admissionService = mock(AdmissionService.class);
+    private final MutableClock clock = new MutableClock();
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(admissionService.parse(anyString(), any())).thenAnswer(invocation -> ((ParseTask<?>) invocation.getArgument(1)).call());
+        jobService = new JobService(excelService, new QuickSelectService(), sidecarIndexService, admissionService,
+                1, 1, Duration.ofMinutes(10), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void testSubmit_RunsToResult() throws Exception {
+        when(excelService.getRowCountHint(anyString())).thenReturn(4);
+        when(excelService.acquireColumn(anyString(), any(ParseProgress.class)))
+                .thenReturn(new CachedColumn(new int[]{40, 10, 30, 20}, null));
+
+        JobStatus submitted = jobService.submit("/data/file.xlsx", 2);
+        JobStatus finished = awaitFinished(submitted.id());
+
+        assertEquals(JobPhase.DONE, finished.phase());
+        assertEquals(new JobResult(2, 20, 4), jobService.result(submitted.id()));
+    }
+
+    @Test
+    void testSubmit_SelectsOffHeapColumnInPlace() throws Exception {
+        OffHeapIntColumn values = OffHeapIntColumn.copyOf(new int[]{40, 10, 30, 20});
+        when(excelService.getRowCountHint(anyString())).thenReturn(4);
+        when(excelService.acquireColumn(anyString(), any(ParseProgress.class)))
+                .thenReturn(new CachedColumn(values, null));
+
+        JobStatus submitted = jobService.submit("/data/file.i32", 3);
+        awaitFinished(submitted.id());
+
+        assertEquals(new JobResult(3, 30, 4), jobService.result(submitted.id()));
+        assertTrue(values.isReleased());
+    }
+
+    @Test
+    void testSubmit_FailureIsReported() throws Exception {
+        when(excelService.getRowCountHint(anyString())).thenThrow(new IOException("Not a valid .xlsx file"));
+
+        JobStatus submitted = jobService.submit("/data/broken.xlsx", 1);
+        JobStatus finished = awaitFinished(submitted.id());
+
+        assertEquals(JobPhase.FAILED, finished.phase());
+        assertEquals("Not a valid .xlsx file", finished.error());
+        assertNull(jobService.result(submitted.id()));
+    }
+
+    @Test
+    void testCancel_StopsRunningParse() throws Exception {
+        CountDownLatch parsing = new CountDownLatch(1);
+        when(excelService.getRowCountHint(anyString())).thenReturn(1_000_000);
+        when(excelService.acquireColumn(anyString(), any(ParseProgress.class))).thenAnswer(invocation -> {
+            ParseProgress progress = invocation.getArgument(1);
+            parsing.countDown();
+            while (!progress.isCancelled()) {
+                Thread.sleep(5);
+            }
+            throw new CancellationException("Parse cancelled");
+        });
+
+        JobStatus submitted = jobService.submit("/data/huge.xlsx", 1);
+        assertTrue(parsing.await(5, TimeUnit.SECONDS));
+        assertEquals(JobPhase.PARSING, jobService.status(submitted.id()).phase());
+
+        jobService.cancel(submitted.id());
+
+        assertEquals(JobPhase.CANCELLED, awaitFinished(submitted.id()).phase());
+    }
+
+    @Test
+    void testSubmit_RejectedWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(excelService.getRowCountHint(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return -1;
+        });
+        when(excelService.acquireColumn(anyString(), any(ParseProgress.class))).thenReturn(new CachedColumn(new int[]{1}, null));
+
+        jobService.submit("/data/a.xlsx", 1);
+        jobService.submit("/data/b.xlsx", 1);
+
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit("/data/c.xlsx", 1));
+        release.countDown();
+    }
+
+    @Test
+    void testFinishedJobsExpireAfterTtl() throws Exception {
+        when(excelService.getRowCountHint(anyString())).thenReturn(1);
+        when(excelService.acquireColumn(anyString(), any(ParseProgress.class))).thenReturn(new CachedColumn(new int[]{7}, null));
+
+        String id = jobService.submit("/data/file.xlsx", 1).id();
+        awaitFinished(id);
+
+        clock.advance(Duration.ofMinutes(11));
+
+        assertNull(jobService.status(id));
+    }
+
+    @Test
+    void testStatus_EstimatesRemainingParseTime() {
+        Job job = new Job("id", "/data/file.xlsx", 1, clock.instant());
+        job.startParsing(40_960, clock.instant());
+        job.progress().complete(10_240);
+
+        clock.advance(Duration.ofSeconds(2));
+
+        assertEquals(6_000, job.status(clock.instant()).etaMillis());
+    }
+
+    @Test
+    void testCancel_RunningWorkerLeavesNoResult() {
+        Job job = new Job("id", "/data/file.xlsx", 1, clock.instant());
+        Future<?> running = mock(Future.class);
+        when(running.cancel(false)).thenReturn(true);
+        job.setFuture(running);
+        job.startSelecting();
+
+        assertTrue(job.cancel(clock.instant()));
+        job.succeed(new JobResult(1, 7, 1), clock.instant());
+
+        assertEquals(JobPhase.CANCELLED, job.phase());
+        assertNull(job.result());
+    }
+
+    private JobStatus awaitFinished(String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            JobStatus status = jobService.status(id);
+            if (status.phase().isFinished()) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        fail("Job did not finish");
+        return null;
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.jordosi.nthminimalnumber.service.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics.Phase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NthMinMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private NthMinMetrics metrics;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new NthMinMetrics(registry);
+    }
+
+    @Test
+    void testRecord_PhaseTimers() {
+        metrics.record(Phase.PARSE, 2_000_000);
+        int result = metrics.timer(Phase.SELECT).record(() -> 42);
+
+        assertEquals(42, result);
+        assertEquals(2, registry.get("nthmin.phase").tag("phase", "parse").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, registry.get("nthmin.phase").tag("phase", "select").timer().count());
+        assertEquals(0, registry.get("nthmin.phase").tag("phase", "open").timer().count());
+    }
+
+    @Test
+    void testRecordRequest_RowsBytesReadAndColumnSize() throws IOException {
+        Path file = Files.write(tempDir.resolve("data.xlsx"), new byte[100]);
+
+        metrics.recordRequest("find-nth-min", file.toString(), true, 10);
+        metrics.recordRequest("find-nth-min", file.toString(), true, 30);
+        metrics.recordRequest("find-nth-min", file.toString(), false, 20);
+        metrics.recordRequest("find-nth-min/batch", 7, 5);
+
+        assertEquals(60, registry.get("nthmin.rows").tag("endpoint", "find-nth-min").counter().count());
+        assertEquals(200, registry.get("nthmin.bytes").tag("endpoint", "find-nth-min").counter().count());
+        assertEquals(3, registry.get("nthmin.column.size").tag("endpoint", "find-nth-min").summary().count());
+        assertEquals(30, registry.get("nthmin.column.size").tag("endpoint", "find-nth-min").summary().max());
+        assertEquals(7, registry.get("nthmin.bytes").tag("endpoint", "find-nth-min/batch").counter().count());
+    }
+
+    @Test
+    void testRecordRequest_MissingFileCountsNoBytes() {
+        metrics.recordRequest("find-nth-min", tempDir.resolve("missing.xlsx").toString(), true, 3);
+
+        assertEquals(0, registry.get("nthmin.bytes").tag("endpoint", "find-nth-min").counter().count());
+        assertEquals(3, registry.get("nthmin.rows").tag("endpoint", "find-nth-min").counter().count());
+    }
+
+    @Test
+    void testRecordError_CountsByEndpointAndType() {
+        metrics.recordError("find-nth-min", new IOException("broken"));
+        metrics.recordError("find-nth-min", new IOException("broken again"));
+        metrics.recordError("find-nth-min/unique", new IllegalArgumentException("bad N"));
+
+        assertEquals(2, registry.get("nthmin.errors").tags("endpoint", "find-nth-min", "type", "IOException")
+                .counter().count());
+        assertEquals(1, registry.get("nthmin.errors").tags("endpoint", "find-nth-min/unique",
+                "type", "IllegalArgumentException").counter().count());
+    }
+}
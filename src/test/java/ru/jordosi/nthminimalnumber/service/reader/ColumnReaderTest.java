@@ -0,0 +1,82 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRead_DelimitedColumnsAddressFields() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("data.csv"), "1,10,100\n2,20,200\n");
+
+        assertArrayEquals(new int[]{1, 2}, ColumnReader.read(file, ColumnSelection.FIRST_COLUMN, null));
+        assertArrayEquals(new int[]{10, 100, 20, 200},
+                ColumnReader.read(file, ColumnSelection.of(null, List.of("C", "B")), null));
+    }
+
+    @Test
+    void testRead_StreamsAndReportsOpen() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("data.tsv"), "5\tx\n6\ty\n");
+        List<Integer> values = new ArrayList<>();
+        boolean[] opened = new boolean[1];
+
+        ColumnReader.read(file, ColumnSelection.FIRST_COLUMN, values::add, () -> opened[0] = true);
+
+        assertEquals(List.of(5, 6), values);
+        assertTrue(opened[0]);
+    }
+
+    @Test
+    void testRead_SelectionMustFitFormat() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("data.csv"), "1\n");
+        Path raw = Files.write(tempDir.resolve("data.i32"), new byte[]{1, 0, 0, 0});
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnReader.read(csv, ColumnSelection.of(List.of("Sheet1"), null), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnReader.read(raw, ColumnSelection.of(null, List.of("B")), null));
+        assertArrayEquals(new int[]{1}, ColumnReader.read(raw, ColumnSelection.FIRST_COLUMN, null));
+    }
+
+    @Test
+    void testInferType_FromSample() throws IOException {
+        Path ints = Files.writeString(tempDir.resolve("ints.csv"), "1\n-2\n3\n");
+        Path longs = Files.writeString(tempDir.resolve("longs.csv"), "1\n5000000000\n");
+        Path doubles = Files.writeString(tempDir.resolve("doubles.csv"), "1\n5000000000\n2.5\n");
+        Path raw = Files.write(tempDir.resolve("data.i32"), new byte[8]);
+
+        assertEquals(ColumnType.INT, ColumnReader.inferType(ints, ColumnSelection.FIRST_COLUMN, 100));
+        assertEquals(ColumnType.LONG, ColumnReader.inferType(longs, ColumnSelection.FIRST_COLUMN, 100));
+        assertEquals(ColumnType.DOUBLE, ColumnReader.inferType(doubles, ColumnSelection.FIRST_COLUMN, 100));
+        assertEquals(ColumnType.LONG, ColumnReader.inferType(doubles, ColumnSelection.FIRST_COLUMN, 2));
+        assertEquals(ColumnType.INT, ColumnReader.inferType(raw, ColumnSelection.FIRST_COLUMN, 100));
+    }
+
+    @Test
+    void testColumnType_Of() {
+        assertNull(ColumnType.of(null));
+        assertNull(ColumnType.of("Auto"));
+        assertEquals(ColumnType.DOUBLE, ColumnType.of(" double "));
+        assertThrows(IllegalArgumentException.class, () -> ColumnType.of("decimal"));
+    }
+
+    @Test
+    void testReadRowCountHint() throws IOException {
+        Path csv = Files.writeString(tempDir.resolve("data.csv"), "1\n2\n");
+        Path raw = Files.write(tempDir.resolve("data.i32"), new byte[12]);
+
+        assertEquals(-1, ColumnReader.readRowCountHint(csv));
+        assertEquals(3, ColumnReader.readRowCountHint(raw));
+    }
+}
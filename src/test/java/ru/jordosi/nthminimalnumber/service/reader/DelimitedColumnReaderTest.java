@@ -0,0 +1,190 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DelimitedColumnReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRead_SkipsHeaderAndNonNumericFields() throws IOException {
+        Path file = write("data.csv", "value,label\n10,a\n-3,b\n,c\nn/a,d\n 7 ,e");
+
+        assertArrayEquals(new int[]{10, -3, 7}, DelimitedColumnReader.read(file, (byte) ',', new int[]{0}));
+    }
+
+    @Test
+    void testRead_SelectedFieldsInRowOrder() throws IOException {
+        Path file = write("data.tsv", "1\t2\t3\r\n4\t5\t6\r\n");
+
+        assertArrayEquals(new int[]{1, 3, 4, 6}, DelimitedColumnReader.read(file, (byte) '\t', new int[]{2, 0}));
+    }
+
+    @Test
+    void testRead_QuotedFieldsMayHideSeparators() throws IOException {
+        Path file = write("data.csv", "\"a,b\",\"12\"\n\"c\",\" 34 \"\n");
+
+        assertArrayEquals(new int[]{12, 34}, DelimitedColumnReader.read(file, (byte) ',', new int[]{1}));
+    }
+
+    @Test
+    void testParseNumber_TruncatesLikeWorkbookCells() {
+        assertEquals(3, parse("3.99"));
+        assertEquals(-2, parse("-2.7"));
+        assertEquals(1500, parse("1.5e3"));
+        assertEquals(0, parse("25E-2"));
+        assertEquals(42, parse("+42"));
+        assertEquals(Integer.MAX_VALUE, parse("99999999999999999999"));
+        assertEquals(Integer.MIN_VALUE, parse("-3000000000"));
+        assertEquals(Integer.MAX_VALUE, parse("1e100"));
+        assertEquals(Long.MIN_VALUE, parse("12abc"));
+        assertEquals(Long.MIN_VALUE, parse("-"));
+        assertEquals(Long.MIN_VALUE, parse("1e"));
+        assertEquals(Long.MIN_VALUE, parse("."));
+    }
+
+    @Test
+    void testRead_LargeFileIsSplitAtLineBoundaries() throws IOException {
+        Random random = new Random(3);
+        int[] expected = new int[1_500_000];
+        StringBuilder text = new StringBuilder("value,comment\n");
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = random.nextInt();
+            text.append(expected[i]).append(",row ").append(i).append('\n');
+        }
+        Path file = write("large.csv", text.toString());
+        assertTrue(Files.size(file) >= DelimitedColumnReader.PARALLEL_MIN_BYTES);
+
+        assertArrayEquals(expected, DelimitedColumnReader.read(file, (byte) ',', new int[]{0}));
+
+        List<Integer> streamed = new ArrayList<>();
+        DelimitedColumnReader.read(file, (byte) ',', new int[]{0}, streamed::add);
+        assertEquals(expected.length, streamed.size());
+        assertEquals(expected[expected.length - 1], streamed.get(expected.length - 1));
+    }
+
+    @Test
+    void testSplit_RegionsStartAtLines() throws IOException {
+        Path file = write("lines.csv", "1\n22\n333\n4444\n55555\n");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> regions = DelimitedColumnReader.split(channel, 3);
+
+            assertEquals(0, regions.get(0)[0]);
+            assertEquals(Files.size(file), regions.get(regions.size() - 1)[1]);
+            for (int i = 1; i < regions.size(); i++) {
+                assertEquals(regions.get(i - 1)[1], regions.get(i)[0]);
+                assertEquals('\n', Files.readAllBytes(file)[(int) regions.get(i)[0] - 1]);
+            }
+        }
+    }
+
+    @Test
+    void testRead_StreamCarriesLinesAcrossBlocks() throws IOException {
+        StringBuilder text = new StringBuilder("value\n");
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(3);
+        // longer than one 64 KB block, so lines are cut at block boundaries
+        for (int i = 0; i < 30_000; i++) {
+            int value = random.nextInt();
+            expected.add(value);
+            text.append(value).append(",x\n");
+        }
+        text.append("\"").append("y".repeat(200_000)).append("\"\n42");
+        expected.add(42);
+        List<Integer> values = new ArrayList<>();
+
+        DelimitedColumnReader.read(new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.US_ASCII)),
+                (byte) ',', new int[]{0}, values::add);
+
+        assertEquals(expected, values);
+    }
+
+    @Test
+    void testRead_StreamRejectsOverlongLine() {
+        byte[] text = ("1\n2," + "x".repeat(DelimitedColumnReader.MAX_LINE_BYTES) + "\n3\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        List<Integer> values = new ArrayList<>();
+
+        IOException e = assertThrows(IOException.class, () ->
+                DelimitedColumnReader.read(new ByteArrayInputStream(text), (byte) ',', new int[]{0}, values::add));
+
+        assertTrue(e.getMessage().contains("Line is too long"));
+        assertEquals(List.of(1), values);
+    }
+
+    @Test
+    void testRead_TypedKeepsEveryDigit() throws IOException {
+        Path file = write("data.csv", "v\n9007199254740993\n-9223372036854775808\n1\nx\n");
+        TypedColumnBuffer buffer = new TypedColumnBuffer(null);
+
+        DelimitedColumnReader.read(file, (byte) ',', new int[]{0}, buffer);
+
+        assertEquals(ColumnType.LONG, buffer.type());
+        assertArrayEquals(new long[]{9007199254740993L, Long.MIN_VALUE, 1}, buffer.toColumn().longs());
+    }
+
+    @Test
+    void testParseNumber_TypedReportsValuesAsWritten() {
+        assertEquals(List.of(42L), parseTyped("+42"));
+        assertEquals(List.of(-9223372036854775807L), parseTyped(" -9223372036854775807 "));
+        assertEquals(List.of(0.1), parseTyped("0.1"));
+        assertEquals(List.of(-2.75), parseTyped("-2.750"));
+        assertEquals(List.of(1500.0), parseTyped("1.5e3"));
+        assertEquals(List.of(1e19), parseTyped("10000000000000000000"));
+        assertEquals(List.of(0.30000000000000004), parseTyped("0.30000000000000004"));
+        assertEquals(List.of(), parseTyped("12abc"));
+        assertEquals(List.of(), parseTyped("."));
+        assertEquals(List.of(), parseTyped("1e"));
+    }
+
+    @Test
+    void testRead_MissingFile() {
+        assertThrows(NoSuchFileException.class,
+                () -> DelimitedColumnReader.read(tempDir.resolve("missing.csv"), (byte) ',', new int[]{0}));
+    }
+
+    private static long parse(String text) {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        return DelimitedColumnReader.parseNumber(bytes, 0, bytes.limit());
+    }
+
+    private static List<Number> parseTyped(String text) {
+        ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+        List<Number> values = new ArrayList<>();
+        boolean parsed = DelimitedColumnReader.parseNumber(bytes, 0, bytes.limit(), new NumberSink() {
+            @Override
+            public void acceptLong(long value) {
+                values.add(value);
+            }
+
+            @Override
+            public void acceptDouble(double value) {
+                values.add(value);
+            }
+        });
+        assertEquals(parsed, !values.isEmpty());
+        return values;
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content, StandardCharsets.US_ASCII);
+    }
+}
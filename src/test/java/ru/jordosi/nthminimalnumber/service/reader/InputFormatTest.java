@@ -0,0 +1,68 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDetect_ByExtension() throws IOException {
+        assertEquals(InputFormat.XLSX, InputFormat.detect(Path.of("/data/Report.XLSX")));
+        assertEquals(InputFormat.CSV, InputFormat.detect(Path.of("/data/export.csv")));
+        assertEquals(InputFormat.TSV, InputFormat.detect(Path.of("/data/export.tsv")));
+        assertEquals(InputFormat.TSV, InputFormat.detect(Path.of("/data/export.tab")));
+        assertEquals(InputFormat.INT32, InputFormat.detect(Path.of("/data/values.i32")));
+        assertEquals(InputFormat.INT32, InputFormat.detect(Path.of("/data/values.bin")));
+    }
+
+    @Test
+    void testDetect_ByContent() throws IOException {
+        Path zip = Files.write(tempDir.resolve("upload"), new byte[]{'P', 'K', 3, 4, 0, 0});
+        Path csv = Files.writeString(tempDir.resolve("export.txt"), "a,b\n1,2\n");
+        Path tsv = Files.writeString(tempDir.resolve("export.dat"), "a\tb\n1\t2\n");
+
+        assertEquals(InputFormat.XLSX, InputFormat.detect(zip));
+        assertEquals(InputFormat.CSV, InputFormat.detect(csv));
+        assertEquals(InputFormat.TSV, InputFormat.detect(tsv));
+    }
+
+    @Test
+    void testDetect_UnrecognizedBinary() throws IOException {
+        Path binary = Files.write(tempDir.resolve("values.raw"), new byte[]{1, 0, 0, 0, 2, 0, 0, 0});
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> InputFormat.detect(binary));
+        assertTrue(exception.getMessage().contains("Unrecognized file format"));
+        assertThrows(NoSuchFileException.class, () -> InputFormat.detect(tempDir.resolve("missing")));
+    }
+
+    @Test
+    void testDetect_StreamIsNotConsumed() throws IOException {
+        InputStream upload = new BufferedInputStream(new ByteArrayInputStream("1\t2\n3\t4\n".getBytes()));
+
+        assertEquals(InputFormat.TSV, InputFormat.detect(null, upload));
+        assertEquals('1', upload.read());
+        assertEquals(InputFormat.CSV, InputFormat.detect("upload.csv", new ByteArrayInputStream(new byte[]{1, 2})));
+        assertThrows(IllegalArgumentException.class,
+                () -> InputFormat.detect("upload", new ByteArrayInputStream(new byte[]{1, 0, 0, 0})));
+    }
+
+    @Test
+    void testSeparator() {
+        assertEquals(',', InputFormat.CSV.separator());
+        assertEquals('\t', InputFormat.TSV.separator());
+        assertThrows(IllegalStateException.class, InputFormat.XLSX::separator);
+    }
+}
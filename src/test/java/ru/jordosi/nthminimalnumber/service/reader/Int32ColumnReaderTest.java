@@ -0,0 +1,67 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Int32ColumnReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRead_LittleEndianValues() throws IOException {
+        Path file = write("data.i32", 1, -2, Integer.MAX_VALUE, Integer.MIN_VALUE, 0x01020304);
+
+        assertArrayEquals(new int[]{1, -2, Integer.MAX_VALUE, Integer.MIN_VALUE, 0x01020304}, Int32ColumnReader.read(file));
+        assertEquals(5, Int32ColumnReader.count(file));
+    }
+
+    @Test
+    void testRead_Streaming() throws IOException {
+        Path file = write("data.i32", 7, 8, 9);
+        List<Integer> values = new ArrayList<>();
+
+        Int32ColumnReader.read(file, values::add);
+
+        assertEquals(List.of(7, 8, 9), values);
+    }
+
+    @Test
+    void testRead_RejectsTruncatedFile() throws IOException {
+        Path file = Files.write(tempDir.resolve("broken.i32"), new byte[]{1, 0, 0, 0, 2, 0});
+
+        IOException exception = assertThrows(IOException.class, () -> Int32ColumnReader.read(file));
+        assertTrue(exception.getMessage().contains("multiple of 4"));
+    }
+
+    @Test
+    void testRead_Stream() throws IOException {
+        List<Integer> values = new ArrayList<>();
+        byte[] bytes = Files.readAllBytes(write("data.i32", 7, -8, 9));
+
+        Int32ColumnReader.read(new ByteArrayInputStream(bytes), values::add);
+
+        assertEquals(List.of(7, -8, 9), values);
+        assertThrows(IOException.class,
+                () -> Int32ColumnReader.read(new ByteArrayInputStream(new byte[]{1, 0, 0, 0, 2}), value -> { }));
+    }
+
+    private Path write(String name, int... values) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(values.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int value : values) {
+            bytes.putInt(value);
+        }
+        return Files.write(tempDir.resolve(name), bytes.array());
+    }
+}
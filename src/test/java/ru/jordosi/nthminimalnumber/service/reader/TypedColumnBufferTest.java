@@ -0,0 +1,54 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypedColumnBufferTest {
+
+    @Test
+    void testAuto_PromotesToDoubleOnFirstFraction() {
+        TypedColumnBuffer buffer = new TypedColumnBuffer(null);
+        for (int i = 0; i < 2000; i++) {
+            buffer.acceptLong(i);
+        }
+        assertEquals(ColumnType.LONG, buffer.type());
+
+        buffer.acceptDouble(0.5);
+        buffer.acceptLong(Long.MAX_VALUE);
+
+        TypedColumn column = buffer.toColumn();
+        assertEquals(ColumnType.DOUBLE, column.type());
+        assertEquals(2002, column.length());
+        assertEquals(1999.0, column.doubles()[1999]);
+        assertEquals(0.5, column.doubles()[2000]);
+        assertEquals((double) Long.MAX_VALUE, column.doubles()[2001]);
+    }
+
+    @Test
+    void testLong_TruncatesDecimals() {
+        TypedColumnBuffer buffer = new TypedColumnBuffer(ColumnType.LONG);
+        buffer.acceptLong(5_000_000_000L);
+        buffer.acceptDouble(-2.7);
+        buffer.acceptDouble(1e30);
+
+        assertArrayEquals(new long[]{5_000_000_000L, -2, Long.MAX_VALUE}, buffer.toColumn().longs());
+    }
+
+    @Test
+    void testDouble_WidensIntegers() {
+        TypedColumnBuffer buffer = new TypedColumnBuffer(ColumnType.DOUBLE);
+        buffer.acceptLong(3);
+        buffer.acceptDouble(1.25);
+
+        TypedColumn column = buffer.toColumn();
+        assertEquals(ColumnType.DOUBLE, column.type());
+        assertArrayEquals(new double[]{3.0, 1.25}, column.doubles());
+    }
+
+    @Test
+    void testInt_IsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TypedColumnBuffer(ColumnType.INT));
+        assertThrows(IllegalArgumentException.class, () -> new TypedColumn(ColumnType.LONG, null, new double[0]));
+    }
+}
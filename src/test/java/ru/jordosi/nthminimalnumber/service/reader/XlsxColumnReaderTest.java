@@ -0,0 +1,193 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XlsxColumnReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRead_OnlyRequestedColumnOfFirstSheet() throws IOException {
+        Path file = tempDir.resolve("columns.xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("First");
+            for (int i = 0; i < 3; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i + 1);
+                row.createCell(1).setCellValue(100 + i);
+            }
+            workbook.createSheet("Second").createRow(0).createCell(0).setCellValue(999);
+            write(workbook, file);
+        }
+
+        assertEquals(List.of(1, 2, 3), read(file, 0));
+        assertEquals(List.of(100, 101, 102), read(file, 1));
+    }
+
+    @Test
+    void testRead_SkipsFormulaAndNonNumericCells() throws IOException {
+        Path file = tempDir.resolve("formula.xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Sheet");
+            sheet.createRow(0).createCell(0).setCellValue(7);
+            sheet.createRow(1).createCell(0).setCellFormula("A1*2");
+            sheet.createRow(2).createCell(0).setCellValue("text");
+            sheet.createRow(4).createCell(0).setCellValue(-3.7);
+            write(workbook, file);
+        }
+
+        assertEquals(List.of(7, -3), read(file, 0));
+    }
+
+    @Test
+    void testRead_LargeAndFractionalValues() throws IOException {
+        Path file = tempDir.resolve("large.xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Sheet");
+            sheet.createRow(0).createCell(0).setCellValue(Integer.MAX_VALUE);
+            sheet.createRow(1).createCell(0).setCellValue(Integer.MIN_VALUE);
+            sheet.createRow(2).createCell(0).setCellValue(1e12);
+            sheet.createRow(3).createCell(0).setCellValue(1.5e3);
+            write(workbook, file);
+        }
+
+        assertEquals(List.of(Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, 1500), read(file, 0));
+    }
+
+    @Test
+    void testRead_TypedKeepsLongsAndDecimals() throws IOException {
+        Path file = tempDir.resolve("typed.xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Sheet");
+            sheet.createRow(0).createCell(0).setCellValue(1e12);
+            sheet.createRow(1).createCell(0).setCellValue(-7);
+            sheet.createRow(2).createCell(0).setCellValue(0.125);
+            sheet.createRow(3).createCell(0).setCellValue(-2.5e-3);
+            write(workbook, file);
+        }
+        TypedColumnBuffer buffer = new TypedColumnBuffer(null);
+
+        XlsxColumnReader.read(file, ColumnSelection.FIRST_COLUMN, buffer, null);
+
+        assertArrayEquals(new double[]{1e12, -7, 0.125, -2.5e-3}, buffer.toColumn().doubles());
+    }
+
+    @Test
+    void testRead_SelectedSheetsAndColumnsCombined() throws IOException {
+        Path file = tempDir.resolve("monthly.xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            for (String month : List.of("January", "February", "March")) {
+                Sheet sheet = workbook.createSheet(month);
+                for (int i = 0; i < 3; i++) {
+                    Row row = sheet.createRow(i);
+                    row.createCell(0).setCellValue(month.length() * 10 + i);
+                    row.createCell(1).setCellValue(-1);
+                    row.createCell(2).setCellValue(month.length() * 100 + i);
+                }
+            }
+            write(workbook, file);
+        }
+
+        int[] values = XlsxColumnReader.read(file, ColumnSelection.of(List.of("march", "January"), List.of("c", "A")));
+
+        assertArrayEquals(new int[]{70, 700, 71, 701, 72, 702, 50, 500, 51, 501, 52, 502}, values);
+    }
+
+    @Test
+    void testRead_SelectionDefaultsToFirstColumnOfFirstSheet() throws IOException {
+        Path file = tempDir.resolve("default.xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("First").createRow(0).createCell(0).setCellValue(1);
+            workbook.createSheet("Second").createRow(0).createCell(0).setCellValue(2);
+            write(workbook, file);
+        }
+
+        ColumnSelection selection = ColumnSelection.of(null, null);
+
+        assertTrue(selection.isFirstColumn());
+        assertArrayEquals(new int[]{1}, XlsxColumnReader.read(file, selection));
+    }
+
+    @Test
+    void testRead_MissingSheetAndInvalidColumn() throws IOException {
+        Path file = tempDir.resolve("missing-sheet.xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("Only").createRow(0).createCell(0).setCellValue(1);
+            write(workbook, file);
+        }
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> XlsxColumnReader.read(file, ColumnSelection.of(List.of("Only", "Absent"), null)));
+        assertTrue(exception.getMessage().contains("Absent"));
+        assertThrows(IllegalArgumentException.class, () -> ColumnSelection.of(null, List.of("A1")));
+    }
+
+    @Test
+    void testReadRowCountHint() throws IOException {
+        Path file = tempDir.resolve("dimension.xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Sheet");
+            for (int i = 2; i < 42; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i);
+            }
+            write(workbook, file);
+        }
+
+        assertEquals(40, XlsxColumnReader.readRowCountHint(file));
+    }
+
+    @Test
+    void testRowCountFromReference() {
+        assertEquals(500, DimensionHandler.rowCount("A1:C500"));
+        assertEquals(1, DimensionHandler.rowCount("A1"));
+        assertEquals(-1, DimensionHandler.rowCount(null));
+    }
+
+    @Test
+    void testRead_MissingFile() {
+        assertThrows(NoSuchFileException.class, () -> read(tempDir.resolve("missing.xlsx"), 0));
+    }
+
+    @Test
+    void testRead_NotAnXlsxPackage() throws IOException {
+        Path file = tempDir.resolve("broken.xlsx");
+        Files.writeString(file, "not a zip archive");
+
+        assertThrows(IOException.class, () -> read(file, 0));
+    }
+
+    @Test
+    void testColumnIndex() {
+        assertEquals(0, ColumnSheetHandler.columnIndex("A1"));
+        assertEquals(25, ColumnSheetHandler.columnIndex("Z10"));
+        assertEquals(27, ColumnSheetHandler.columnIndex("AB3"));
+    }
+
+    private List<Integer> read(Path file, int column) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        XlsxColumnReader.read(file, column, values::add);
+        return values;
+    }
+
+    private void write(Workbook workbook, Path file) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(file.toFile())) {
+            workbook.write(fos);
+        }
+    }
+}
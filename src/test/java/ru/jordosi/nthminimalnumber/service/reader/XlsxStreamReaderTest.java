@@ -0,0 +1,75 @@
+package ru.jordosi.nthminimalnumber.service.reader;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XlsxStreamReaderTest {
+
+    @Test
+    void testRead_FirstColumnOfFirstSheet() throws IOException {
+        byte[] bytes;
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("First");
+            for (int i = 0; i < 3; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i + 1);
+                row.createCell(1).setCellValue(100 + i);
+            }
+            sheet.createRow(3).createCell(0).setCellValue("text");
+            workbook.createSheet("Second").createRow(0).createCell(0).setCellValue(999);
+            bytes = toBytes(workbook);
+        }
+        List<Integer> values = new ArrayList<>();
+
+        XlsxStreamReader.read(new ByteArrayInputStream(bytes), 0, values::add, Long.MAX_VALUE);
+
+        assertEquals(List.of(1, 2, 3), values);
+    }
+
+    @Test
+    void testRead_RejectsEntryInflatingPastLimit() throws IOException {
+        byte[] bytes;
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Sheet");
+            for (int i = 0; i < 1000; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i);
+            }
+            bytes = toBytes(workbook);
+        }
+
+        assertThrows(XlsxStreamReader.EntryTooLargeException.class,
+                () -> XlsxStreamReader.read(new ByteArrayInputStream(bytes), 0, value -> { }, 4096));
+    }
+
+    @Test
+    void testRead_PackageWithoutWorksheet() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("readme.txt"));
+            zip.write("not a workbook".getBytes());
+        }
+
+        IOException exception = assertThrows(IOException.class,
+                () -> XlsxStreamReader.read(new ByteArrayInputStream(out.toByteArray()), 0, value -> { }, Long.MAX_VALUE));
+        assertTrue(exception.getMessage().contains("no worksheet found"));
+    }
+
+    private static byte[] toBytes(Workbook workbook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        workbook.write(out);
+        return out.toByteArray();
+    }
+}
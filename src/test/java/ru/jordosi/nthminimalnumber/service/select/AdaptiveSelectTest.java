@@ -0,0 +1,79 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveSelectTest {
+
+    private final AdaptiveSelect adaptiveSelect = new AdaptiveSelect();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"random", "sorted", "reverse", "organPipe", "fewDistinct", "allEqual"})
+    @DisplayName("Should match sorting whichever kernel is chosen")
+    void testSelect_MatchesSort(String shape) {
+        int[] data = IntroSelectTest.generate(shape, 20_000);
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k += 97) {
+            assertEquals(sorted[k], adaptiveSelect.select(data.clone(), 0, data.length - 1, k));
+        }
+        assertEquals(sorted[data.length - 1], adaptiveSelect.select(data.clone(), 0, data.length - 1, data.length - 1));
+    }
+
+    @Test
+    @DisplayName("Few distinct values over a wide span should still be selected correctly")
+    void testSelect_FewDistinctWideSpan() {
+        Random random = new Random(3);
+        int[] values = {Integer.MIN_VALUE, -1, 0, Integer.MAX_VALUE};
+        int[] data = new int[5000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = values[random.nextInt(values.length)];
+        }
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k += 50) {
+            assertEquals(sorted[k], adaptiveSelect.select(data.clone(), 0, data.length - 1, k));
+        }
+    }
+
+    @Test
+    @DisplayName("Sorted input should be answered without reordering")
+    void testSelect_SortedInputUntouched() {
+        int[] data = IntroSelectTest.generate("sorted", 5000);
+        int[] copy = data.clone();
+
+        assertEquals(1234, adaptiveSelect.select(data, 0, data.length - 1, 1234));
+        assertArrayEquals(copy, data);
+    }
+
+    @Test
+    @DisplayName("Profile should detect order and duplication")
+    void testDataProfile() {
+        DataProfile sorted = DataProfile.sample(IntroSelectTest.generate("sorted", 5000), 0, 4999);
+        DataProfile flags = DataProfile.sample(IntroSelectTest.generate("fewDistinct", 5000), 0, 4999);
+
+        assertTrue(sorted.ascending());
+        assertFalse(sorted.descending());
+        assertFalse(sorted.fewDistinct());
+        assertTrue(flags.fewDistinct());
+    }
+
+    @Test
+    @DisplayName("Counting select should honour sub-range bounds")
+    void testCountingSelect_SubRange() {
+        int[] data = {9, 3, 1, 2, 3, 9};
+
+        assertTrue(CountingSelect.isApplicable(1, 3, 4));
+        assertEquals(3, CountingSelect.select(data, 1, 4, 3, 1, 3));
+        assertEquals(1, CountingSelect.select(data, 1, 4, 1, 1, 3));
+    }
+}
@@ -0,0 +1,90 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistinctBitmapTest {
+
+    @Test
+    @DisplayName("Should select and rank distinct values in signed order")
+    void testSelectAndRank_SignedValues() {
+        DistinctBitmap bitmap = DistinctBitmap.of(new int[]{5, -3, 5, Integer.MIN_VALUE, 70000, -3, Integer.MAX_VALUE});
+
+        assertEquals(5, bitmap.cardinality());
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, -3, 5, 70000, Integer.MAX_VALUE}, bitmap.toArray());
+        assertEquals(-3, bitmap.select(1));
+        assertEquals(70000, bitmap.select(3));
+        assertEquals(1, bitmap.rank(Integer.MIN_VALUE));
+        assertEquals(2, bitmap.rank(0));
+        assertEquals(3, bitmap.rank(5));
+        assertEquals(5, bitmap.rank(Integer.MAX_VALUE));
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(4));
+    }
+
+    @Test
+    @DisplayName("Values added after a query should be counted, duplicates should not")
+    void testAddAfterQuery_UpdatesRanks() {
+        DistinctBitmap bitmap = DistinctBitmap.of(new int[]{10, 20});
+        assertEquals(2, bitmap.cardinality());
+
+        bitmap.add(20);
+        assertEquals(2, bitmap.cardinality());
+        bitmap.add(15);
+        bitmap.add(1 << 20);
+
+        assertEquals(4, bitmap.cardinality());
+        assertEquals(15, bitmap.select(1));
+        assertEquals(1 << 20, bitmap.select(3));
+    }
+
+    @Test
+    @DisplayName("Dense containers should switch to bitmaps and stay correct")
+    void testDenseColumn_UsesLessMemoryThanArray() {
+        int[] ids = new int[200_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1_000_000 + (i * 7919) % ids.length;
+        }
+
+        DistinctBitmap bitmap = DistinctBitmap.of(ids);
+
+        assertEquals(ids.length, bitmap.cardinality());
+        assertEquals(1_000_000, bitmap.select(0));
+        assertEquals(1_000_000 + 123_456, bitmap.select(123_456));
+        assertEquals(123_457, bitmap.rank(1_000_000 + 123_456));
+        assertTrue(bitmap.sizeInBytes() < (long) ids.length * Integer.BYTES / 10);
+    }
+
+    @Test
+    @DisplayName("Should match sorted distinct values of random input")
+    void testRandomInput_MatchesSortedDistinct() {
+        Random random = new Random(5);
+        int[] data = new int[20_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextInt(10) < 3 ? random.nextInt() : random.nextInt(6000) - 3000;
+        }
+        int[] distinct = Arrays.stream(data).sorted().distinct().toArray();
+
+        DistinctBitmap bitmap = DistinctBitmap.of(data);
+
+        assertArrayEquals(distinct, bitmap.toArray());
+        for (int k = 0; k < distinct.length; k += 13) {
+            assertEquals(distinct[k], bitmap.select(k));
+            assertEquals(k + 1, bitmap.rank(distinct[k]));
+        }
+    }
+
+    @Test
+    @DisplayName("Should report the distinct count when the rank is too large")
+    void testSelect_RankTooLarge() {
+        DistinctBitmap bitmap = DistinctBitmap.of(new int[]{2, 2, 1});
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> bitmap.select(2));
+        assertTrue(exception.getMessage().contains("in range from 1 to 2"));
+    }
+}
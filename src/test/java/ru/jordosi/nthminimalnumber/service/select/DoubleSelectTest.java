@@ -0,0 +1,50 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleSelectTest {
+
+    private final DoubleSelect doubleSelect = new DoubleSelect();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"random", "sorted", "reverse", "organPipe", "fewDistinct", "allEqual"})
+    @DisplayName("Should match sorting for every rank")
+    void testSelect_MatchesSort(String shape) {
+        double[] data = generate(shape, 2000);
+        double[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k += 7) {
+            double[] work = data.clone();
+            assertEquals(sorted[k], doubleSelect.select(work, 0, work.length - 1, k));
+        }
+    }
+
+    @Test
+    @DisplayName("Should order infinities and rank both zeros as equal")
+    void testSelect_SpecialValues() {
+        double[] data = {0.0, Double.MAX_VALUE, -0.0, Double.NEGATIVE_INFINITY, 1.5, -1.5, Double.POSITIVE_INFINITY};
+        double[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k++) {
+            assertEquals(sorted[k], doubleSelect.select(data.clone(), 0, data.length - 1, k), 0.0);
+        }
+    }
+
+    private static double[] generate(String shape, int size) {
+        int[] ints = IntroSelectTest.generate(shape, size);
+        double[] data = new double[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = ints[i] / 1024.0;
+        }
+        return data;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSelectorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSelect_MatchesSortedOrder() throws IOException {
+        int[] values = new Random(7).ints(200_000).toArray();
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        try (ExternalSelector selector = new ExternalSelector(tempDir, 1 << 20, new IntroSelect())) {
+            Arrays.stream(values).forEach(selector);
+
+            assertEquals(values.length, selector.count());
+            for (int n : new int[]{1, 2, 1000, 100_000, 199_999, 200_000}) {
+                assertEquals(sorted[n - 1], selector.select(n));
+            }
+        }
+    }
+
+    @Test
+    void testSelect_SkewedBucketIsPartitionedAgain() throws IOException {
+        // every value falls into one top-level bucket, which is larger than the budget allows to load
+        Random random = new Random(3);
+        int[] values = new int[300_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3 == 0 ? 42 : 1_000 + random.nextInt(50_000);
+        }
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        try (ExternalSelector selector = new ExternalSelector(tempDir, 64 << 10, new IntroSelect())) {
+            Arrays.stream(values).forEach(selector);
+
+            assertEquals(sorted[0], selector.select(1));
+            assertEquals(42, selector.select(100_000));
+            assertEquals(sorted[100_000], selector.select(100_001));
+            assertEquals(sorted[250_000], selector.select(250_001));
+            assertEquals(sorted[values.length - 1], selector.select(values.length));
+        }
+    }
+
+    @Test
+    void testSelect_NegativeAndExtremeValues() throws IOException {
+        int[] values = {Integer.MAX_VALUE, -1, Integer.MIN_VALUE, 0, -1, 7};
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        try (ExternalSelector selector = new ExternalSelector(tempDir, 0, new IntroSelect())) {
+            Arrays.stream(values).forEach(selector);
+
+            for (int n = 1; n <= values.length; n++) {
+                assertEquals(sorted[n - 1], selector.select(n));
+            }
+            assertThrows(IllegalArgumentException.class, () -> selector.select(values.length + 1));
+            assertThrows(IllegalStateException.class, () -> selector.accept(1));
+        }
+    }
+
+    @Test
+    void testClose_RemovesSpillFiles() throws IOException {
+        try (ExternalSelector selector = new ExternalSelector(tempDir, 1 << 20, new IntroSelect())) {
+            new Random(1).ints(10_000).forEach(selector);
+            selector.select(5_000);
+        }
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapNthSelectorTest {
+
+    @Test
+    @DisplayName("Should find every rank using the smaller side of the column")
+    void testResult_AllRanks() {
+        int[] data = IntroSelectTest.generate("random", 300);
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int n = 1; n <= data.length; n++) {
+            HeapNthSelector selector = new HeapNthSelector(n, data.length);
+            Arrays.stream(data).forEach(selector);
+
+            assertTrue(selector.hasResult());
+            assertEquals(data.length, selector.count());
+            assertEquals(sorted[n - 1], selector.result());
+        }
+    }
+
+    @Test
+    @DisplayName("Should tolerate a row count hint larger than the number of values")
+    void testResult_HintAboveCount() {
+        int[] data = {5, 3, 9, 1, 7};
+
+        HeapNthSelector selector = new HeapNthSelector(4, 6);
+        Arrays.stream(data).forEach(selector);
+
+        assertEquals(7, selector.result());
+    }
+
+    @Test
+    @DisplayName("Should report no result when the hint was too small for the top heap")
+    void testResult_HintBelowCount() {
+        int[] data = {5, 3, 9, 1, 7, 2, 8};
+
+        HeapNthSelector selector = new HeapNthSelector(3, 3);
+        Arrays.stream(data).forEach(selector);
+
+        assertFalse(selector.hasResult());
+        assertThrows(IllegalStateException.class, selector::result);
+    }
+
+    @Test
+    @DisplayName("Should report no result when N exceeds the number of values")
+    void testResult_NotEnoughValues() {
+        HeapNthSelector selector = new HeapNthSelector(3, 10);
+        selector.accept(1);
+        selector.accept(2);
+
+        assertFalse(selector.hasResult());
+    }
+
+    @Test
+    @DisplayName("Heap mode is preferred only with a known row count and small heap")
+    void testIsPreferred() {
+        assertTrue(HeapNthSelector.isPreferred(10, 1_000_000, 100));
+        assertTrue(HeapNthSelector.isPreferred(999_990, 1_000_000, 100));
+        assertFalse(HeapNthSelector.isPreferred(500_000, 1_000_000, 100));
+        assertFalse(HeapNthSelector.isPreferred(10, -1, 100));
+        assertFalse(HeapNthSelector.isPreferred(11, 10, 100));
+    }
+
+    @Test
+    @DisplayName("Bounded heap should keep the largest values when asked to")
+    void testBoundedIntHeap_KeepLargest() {
+        BoundedIntHeap heap = new BoundedIntHeap(3, false);
+        for (int value : new int[]{4, 8, 1, 9, 2, 7}) {
+            heap.offer(value);
+        }
+
+        assertEquals(7, heap.poll());
+        assertEquals(8, heap.poll());
+        assertEquals(9, heap.poll());
+        assertEquals(0, heap.size());
+    }
+
+    @Test
+    @DisplayName("Bounded heap should grow past its expected size up to the capacity")
+    void testBoundedIntHeap_GrowsToCapacity() {
+        BoundedIntHeap heap = new BoundedIntHeap(5, 1, true);
+        for (int value : new int[]{9, 3, 7, 1, 8, 2, 6}) {
+            heap.offer(value);
+        }
+
+        assertEquals(5, heap.size());
+        assertEquals(5, heap.capacity());
+        assertEquals(7, heap.peek());
+    }
+}
@@ -0,0 +1,92 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntroSelectTest {
+
+    private final IntroSelect introSelect = new IntroSelect();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"random", "sorted", "reverse", "organPipe", "fewDistinct", "allEqual"})
+    @DisplayName("Should match sorting for every rank on common input shapes")
+    void testSelect_MatchesSort(String shape) {
+        int[] data = generate(shape, 500);
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k++) {
+            assertEquals(sorted[k], introSelect.select(data.clone(), 0, data.length - 1, k));
+        }
+    }
+
+    @Test
+    @DisplayName("Median-of-medians fallback should select correctly on its own")
+    void testSelect_MedianOfMediansOnly() {
+        IntroSelect guaranteed = new IntroSelect(true);
+        int[] data = generate("random", 1000);
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k += 7) {
+            assertEquals(sorted[k], guaranteed.select(data.clone(), 0, data.length - 1, k));
+        }
+    }
+
+    @Test
+    @DisplayName("Should select inside a sub-range only")
+    void testSelect_SubRange() {
+        int[] data = {100, 5, 4, 3, 2, 1, -100};
+
+        assertEquals(3, introSelect.select(data, 1, 5, 3));
+        assertEquals(100, data[0]);
+        assertEquals(-100, data[6]);
+    }
+
+    @Test
+    @DisplayName("Should handle large sorted input without deep recursion")
+    void testSelect_LargeSortedInput() {
+        int size = 2_000_000;
+        int[] data = new int[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = i;
+        }
+
+        assertEquals(size / 2, introSelect.select(data, 0, size - 1, size / 2));
+    }
+
+    @Test
+    @DisplayName("Lomuto strategy should agree with IntroSelect")
+    void testSelect_LomutoAgrees() {
+        LomutoQuickSelect lomuto = new LomutoQuickSelect();
+        int[] data = generate("random", 300);
+
+        for (int k = 0; k < data.length; k += 11) {
+            assertEquals(introSelect.select(data.clone(), 0, data.length - 1, k),
+                    lomuto.select(data.clone(), 0, data.length - 1, k));
+        }
+    }
+
+    static int[] generate(String shape, int size) {
+        Random random = new Random(7);
+        int[] data = new int[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = switch (shape) {
+                case "sorted" -> i;
+                case "reverse" -> size - i;
+                case "organPipe" -> i < size / 2 ? i : size - i;
+                case "fewDistinct" -> random.nextInt(3);
+                case "allEqual" -> 42;
+                default -> random.nextInt();
+            };
+        }
+        return data;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KllSketchTest {
+
+    @Test
+    void testNthMinimal_ExactWhileSmall() {
+        KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K);
+        int[] values = {5, -3, 9, 0, 5, 12};
+        for (int value : values) {
+            sketch.accept(value);
+        }
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        assertTrue(sketch.isExact());
+        assertEquals(0, sketch.rankError());
+        for (int n = 1; n <= values.length; n++) {
+            assertEquals(sorted[n - 1], sketch.nthMinimal(n));
+        }
+    }
+
+    @Test
+    void testNthMinimal_WithinRankError() {
+        int size = 1_000_000;
+        int[] values = new Random(11).ints(size).toArray();
+        KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K, new SplittableRandom(11));
+        for (int value : values) {
+            sketch.accept(value);
+        }
+        Arrays.sort(values);
+
+        assertFalse(sketch.isExact());
+        assertEquals(size, sketch.count());
+        assertTrue(sketch.retained() < 1000, "retained " + sketch.retained());
+        assertEquals(values[0], sketch.nthMinimal(1));
+        assertEquals(values[size - 1], sketch.nthMinimal(size));
+        for (int n = 1; n <= size; n += size / 20) {
+            assertRankWithin(values, sketch.nthMinimal(n), n, sketch.rankError());
+        }
+    }
+
+    @Test
+    void testMerge_EqualsSketchOfConcatenation() {
+        int[] values = new Random(5).ints(400_000, 0, 1000).toArray();
+        KllSketch first = new KllSketch(100, new SplittableRandom(1));
+        KllSketch second = new KllSketch(100, new SplittableRandom(2));
+        for (int i = 0; i < values.length; i++) {
+            (i < values.length / 4 ? first : second).accept(values[i]);
+        }
+        long secondCount = second.count();
+
+        first.merge(second);
+        Arrays.sort(values);
+
+        assertEquals(values.length, first.count());
+        assertEquals(secondCount, second.count());
+        for (int n = 1; n <= values.length; n += values.length / 10) {
+            assertRankWithin(values, first.nthMinimal(n), n, first.rankError());
+        }
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new KllSketch(200)));
+    }
+
+    @Test
+    void testSerialization_RoundTrip() {
+        KllSketch sketch = new KllSketch(50, new SplittableRandom(3));
+        new Random(3).ints(100_000).forEach(sketch);
+        ByteBuffer buffer = ByteBuffer.allocate(sketch.serializedSize());
+
+        sketch.writeTo(buffer);
+        KllSketch copy = KllSketch.readFrom(buffer.flip());
+
+        assertEquals(sketch.k(), copy.k());
+        assertEquals(sketch.count(), copy.count());
+        assertEquals(sketch.retained(), copy.retained());
+        for (int n = 1; n <= sketch.count(); n += 9_999) {
+            assertEquals(sketch.nthMinimal(n), copy.nthMinimal(n));
+        }
+        buffer.putLong(4, 7);
+        assertThrows(IllegalArgumentException.class, () -> KllSketch.readFrom(buffer.rewind()));
+        assertThrows(IllegalArgumentException.class, () -> KllSketch.readFrom(ByteBuffer.allocate(10)));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K);
+        sketch.accept(1);
+
+        assertThrows(IllegalArgumentException.class, () -> new KllSketch(4));
+        assertThrows(IllegalArgumentException.class, () -> sketch.nthMinimal(0));
+        assertThrows(IllegalArgumentException.class, () -> sketch.nthMinimal(2));
+    }
+
+    /**
+     * Checks that some occurrence of {@code value} in the sorted data lies within {@code error} of rank {@code n}.
+     */
+    private static void assertRankWithin(int[] sorted, int value, int n, long error) {
+        int first = lowerBound(sorted, value) + 1;
+        int last = lowerBound(sorted, value + 1L);
+        assertTrue(first <= last, "value " + value + " is not in the data");
+        assertTrue(first - error <= n && n <= last + error,
+                "rank of " + value + " is " + first + ".." + last + ", expected " + n + " +- " + error);
+    }
+
+    private static int lowerBound(int[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongSelectTest {
+
+    private final LongSelect longSelect = new LongSelect();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"random", "sorted", "reverse", "organPipe", "fewDistinct", "allEqual"})
+    @DisplayName("Should match sorting for every rank")
+    void testSelect_MatchesSort(String shape) {
+        long[] data = generate(shape, 2000);
+        long[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k += 7) {
+            long[] work = data.clone();
+            assertEquals(sorted[k], longSelect.select(work, 0, work.length - 1, k));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 17, 300})
+    @DisplayName("Should order values beyond the int range and the extremes")
+    void testSelect_WideValues(int size) {
+        long[] data = new long[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = switch (i % 4) {
+                case 0 -> Long.MAX_VALUE - i;
+                case 1 -> Long.MIN_VALUE + i;
+                case 2 -> (long) i << 40;
+                default -> -((long) i << 33);
+            };
+        }
+        long[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < size; k++) {
+            assertEquals(sorted[k], longSelect.select(data.clone(), 0, size - 1, k));
+        }
+    }
+
+    private static long[] generate(String shape, int size) {
+        int[] ints = IntroSelectTest.generate(shape, size);
+        long[] data = new long[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (long) ints[i] * 4_000_000_000L;
+        }
+        return data;
+    }
+}
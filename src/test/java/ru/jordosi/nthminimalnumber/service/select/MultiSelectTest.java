@@ -0,0 +1,42 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class MultiSelectTest {
+
+    private final MultiSelect multiSelect = new MultiSelect();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"random", "sorted", "reverse", "fewDistinct", "allEqual"})
+    @DisplayName("Should return every requested rank in one pass")
+    void testSelect_MatchesSort(String shape) {
+        int[] data = IntroSelectTest.generate(shape, 10_000);
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+        int[] ranks = {0, 1, 5, 999, 1000, 5000, 9000, 9998, 9999};
+
+        int[] results = multiSelect.select(data.clone(), ranks);
+
+        assertArrayEquals(Arrays.stream(ranks).map(rank -> sorted[rank]).toArray(), results);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 64, 500})
+    @DisplayName("Should handle any number of ranks, including every rank")
+    void testSelect_AllRanks(int size) {
+        int[] data = IntroSelectTest.generate("random", size);
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        int[] results = multiSelect.select(data.clone(), IntStream.range(0, size).toArray());
+
+        assertArrayEquals(sorted, results);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelSelectTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"random", "sorted", "reverse", "organPipe", "fewDistinct", "allEqual"})
+    @DisplayName("Should match the sequential engine on large input")
+    void testSelect_MatchesSequential(String shape) {
+        int[] data = IntroSelectTest.generate(shape, 1_000_000);
+        IntroSelect sequential = new IntroSelect();
+        ParallelSelect parallel = new ParallelSelect(sequential, pool, 100_000);
+
+        for (int k : new int[]{0, 1, 12_345, 499_999, 500_000, 987_654, 999_999}) {
+            assertEquals(sequential.select(data.clone(), 0, data.length - 1, k),
+                    parallel.select(data.clone(), 0, data.length - 1, k));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 70_000, 300_001})
+    @DisplayName("Should handle ranges around the threshold and sub-ranges")
+    void testSelect_SubRange(int size) {
+        int[] data = IntroSelectTest.generate("random", size + 20);
+        IntroSelect sequential = new IntroSelect();
+        ParallelSelect parallel = new ParallelSelect(sequential, pool, 65_536);
+        int k = 10 + size / 3;
+
+        assertEquals(sequential.select(data.clone(), 10, size + 9, k),
+                parallel.select(data.clone(), 10, size + 9, k));
+    }
+}
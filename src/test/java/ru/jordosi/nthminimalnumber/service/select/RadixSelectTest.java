@@ -0,0 +1,65 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixSelectTest {
+
+    private final RadixSelect radixSelect = new RadixSelect();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"random", "sorted", "reverse", "organPipe", "fewDistinct", "allEqual"})
+    @DisplayName("Should match sorting for every rank without moving data")
+    void testSelect_MatchesSort(String shape) {
+        int[] data = IntroSelectTest.generate(shape, 2000);
+        int[] copy = data.clone();
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k += 7) {
+            assertEquals(sorted[k], radixSelect.select(data, 0, data.length - 1, k));
+        }
+        assertArrayEquals(copy, data);
+    }
+
+    @Test
+    @DisplayName("Should order negative values and the extremes correctly")
+    void testSelect_SignedExtremes() {
+        int[] data = {0, Integer.MAX_VALUE, -1, Integer.MIN_VALUE, 65536, -65536, 1};
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k++) {
+            assertEquals(sorted[k], radixSelect.select(data, 0, data.length - 1, k));
+        }
+    }
+
+    @Test
+    @DisplayName("Should select from a read-only buffer like the array overload")
+    void testSelect_ReadOnlyBuffer() {
+        int[] data = IntroSelectTest.generate("random", 2000);
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+        IntBuffer buffer = IntBuffer.wrap(data).asReadOnlyBuffer();
+
+        for (int k = 0; k < data.length; k += 7) {
+            assertEquals(sorted[k], radixSelect.select(buffer, k));
+        }
+    }
+
+    @Test
+    @DisplayName("Should honour sub-range bounds")
+    void testSelect_SubRange() {
+        int[] data = {-100, 5, 3, 4, 100};
+
+        assertEquals(3, radixSelect.select(data, 1, 3, 1));
+        assertEquals(5, radixSelect.select(data, 1, 3, 3));
+    }
+}
@@ -0,0 +1,27 @@
+package ru.jordosi.nthminimalnumber.service.select;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ThreeWayQuickSelectTest {
+
+    private final ThreeWayQuickSelect threeWaySelect = new ThreeWayQuickSelect();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"random", "sorted", "reverse", "fewDistinct", "allEqual"})
+    @DisplayName("Should match sorting for every rank")
+    void testSelect_MatchesSort(String shape) {
+        int[] data = IntroSelectTest.generate(shape, 400);
+        int[] sorted = data.clone();
+        Arrays.sort(sorted);
+
+        for (int k = 0; k < data.length; k++) {
+            assertEquals(sorted[k], threeWaySelect.select(data.clone(), 0, data.length - 1, k));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ru.jordosi.nthminimalnumber.service.upload;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.jordosi.nthminimalnumber.service.ExcelService;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionRejectedException;
+import ru.jordosi.nthminimalnumber.service.admission.AdmissionService;
+import ru.jordosi.nthminimalnumber.service.metrics.NthMinMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class UploadServiceTest {
+    private static final String BOUNDARY = "----upload-boundary";
+
+    private final AdmissionService admissionService = admission(1L << 30);
+    private final UploadService service = new UploadService(1 << 20, 1 << 24, admissionService, NthMinMetrics.noop());
+
+    @Test
+    void testReadNumbers_Csv() throws IOException {
+        MockHttpServletRequest request = multipart(
+                field("note", "ignored"),
+                file("numbers.csv", "value\n5\n-1\n3\n".getBytes(StandardCharsets.US_ASCII)));
+
+        assertArrayEquals(new int[]{5, -1, 3}, service.readNumbers(request));
+    }
+
+    @Test
+    void testReadNumbers_XlsxWithoutExtension() throws IOException {
+        ByteArrayOutputStream workbookBytes = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Sheet");
+            for (int i = 0; i < 4; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(40 - i * 10);
+            }
+            workbook.write(workbookBytes);
+        }
+
+        MockHttpServletRequest request = multipart(file("upload", workbookBytes.toByteArray()));
+
+        assertArrayEquals(new int[]{40, 30, 20, 10}, service.readNumbers(request));
+    }
+
+    @Test
+    void testReadNumbers_TooLarge() {
+        UploadService small = new UploadService(64, 1 << 24, admissionService, NthMinMetrics.noop());
+        MockHttpServletRequest request = multipart(file("numbers.csv", "1\n".repeat(100).getBytes(StandardCharsets.US_ASCII)));
+
+        assertThrows(UploadTooLargeException.class, () -> small.readNumbers(request));
+    }
+
+    @Test
+    void testReadNumbers_RejectsOversizedPartHeaders() {
+        byte[] part = ("Content-Disposition: form-data; name=\"file\"; filename=\"numbers.csv\"\r\n"
+                + "X-Padding: " + "p".repeat(UploadService.MAX_PART_HEADER_BYTES) + "\r\n\r\n1\n")
+                .getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(UploadTooLargeException.class, () -> service.readNumbers(multipart(part)));
+    }
+
+    @Test
+    void testReadNumbers_ChargedToAdmissionBudget() throws Exception {
+        AdmissionService busy = admission(1 << 20);
+        UploadService limited = new UploadService(1 << 20, 1 << 24, busy, NthMinMetrics.noop());
+        MockHttpServletRequest request = multipart(file("numbers.csv", "1\n2\n".getBytes(StandardCharsets.US_ASCII)));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> busy.reserve(1024, () -> {
+                holding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            holding.await();
+
+            assertThrows(AdmissionRejectedException.class, () -> limited.readNumbers(request));
+
+            release.countDown();
+            holder.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertArrayEquals(new int[]{1, 2}, limited.readNumbers(request));
+    }
+
+    @Test
+    void testReadNumbers_WithoutNumbers() {
+        MockHttpServletRequest request = multipart(file("numbers.csv", "a\nb\n".getBytes(StandardCharsets.US_ASCII)));
+
+        IOException exception = assertThrows(IOException.class, () -> service.readNumbers(request));
+        assertTrue(exception.getMessage().contains("No numeric data"));
+    }
+
+    @Test
+    void testReadNumbers_RejectsRequestsWithoutFile() {
+        MockHttpServletRequest onlyFields = multipart(field("n", "1"));
+        MockHttpServletRequest plain = new MockHttpServletRequest("POST", "/find-nth-min/upload");
+        plain.setContentType("text/csv");
+        plain.setContent("1\n2\n".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(IllegalArgumentException.class, () -> service.readNumbers(onlyFields));
+        assertThrows(IllegalArgumentException.class, () -> service.readNumbers(plain));
+    }
+
+    private static AdmissionService admission(long budgetBytes) {
+        return new AdmissionService(mock(ExcelService.class), budgetBytes, Duration.ZERO, Long.MAX_VALUE, 1);
+    }
+
+    private static MockHttpServletRequest multipart(byte[]... parts) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            body.writeBytes(("--" + BOUNDARY + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            body.writeBytes(part);
+            body.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        body.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/find-nth-min/upload");
+        request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+        request.setContent(body.toByteArray());
+        return request;
+    }
+
+    private static byte[] field(String name, String value) {
+        return ("Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value)
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] file(String fileName, byte[] content) {
+        ByteArrayOutputStream part = new ByteArrayOutputStream();
+        part.writeBytes(("Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        part.writeBytes(content);
+        return part.toByteArray();
+    }
+}